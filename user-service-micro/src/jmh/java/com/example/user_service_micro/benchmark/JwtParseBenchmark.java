@@ -0,0 +1,54 @@
+package com.example.user_service_micro.benchmark;
+
+import com.example.user_service_micro.config.jwt.JwtClaims;
+import com.example.user_service_micro.config.jwt.JwtUtil;
+import com.example.user_service_micro.model.user.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.security.Key;
+
+// --------------------------------------------------------------------
+// Token resolution cost in UserService.getUserFromToken
+//  • doubleParse → old path: validateToken() + getEmailFromToken(),
+//                  each building its own parser and verifying the HMAC
+//  • singleParse → JwtUtil.parseToken(): shared parser, one verification
+// Run: gradle jmh   (ns/op + gc.alloc.rate.norm per op)
+// --------------------------------------------------------------------
+@State(Scope.Benchmark)
+public class JwtParseBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-that-is-long-enough-for-hs256";
+
+    private JwtUtil jwtUtil;
+    private Key key;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000);
+        key = Keys.hmacShaKeyFor(SECRET.getBytes());
+
+        User user = new User();
+        user.setId(42L);
+        user.setName("Bench User");
+        user.setEmail("bench@example.com");
+        user.setRole("USER");
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String doubleParse() {
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public JwtClaims singleParse() {
+        return jwtUtil.parseToken(token);
+    }
+}
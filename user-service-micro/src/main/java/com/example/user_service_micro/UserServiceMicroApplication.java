@@ -2,8 +2,10 @@ package com.example.user_service_micro;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // drains the revocation outbox
 public class UserServiceMicroApplication {
 
 	public static void main(String[] args) {
@@ -1,22 +1,159 @@
 package com.example.user_service_micro.config.client;
 
+import com.example.user_service_micro.dto.revocation.RevocationEvent;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
+import java.util.List;
+
+// --------------------------------------------------------------------
+// wallet-service client. Calls go through a bounded connection pool with
+// connect / pool-wait / response timeouts, so a slow wallet-service costs
+// each caller at most ~connect + pool-wait + response timeout, and through
+// the "wallet-service" circuit breaker, which fails fast once wallet-service
+// keeps failing. Metrics:
+//   httpcomponents.httpclient.pool.*  {httpclient=wallet-service}
+//   resilience4j.circuitbreaker.*     {name=wallet-service}
+// Revocations are not load-balanced: every wallet-service instance keeps
+// its own in-memory blacklist, so they go to each of wallet.service.instances
+// (default: wallet.service.url), each behind its own breaker
+// {name=wallet-service:<instance url>} → one dead instance never holds up
+// the others, nor wallet creation.
+// --------------------------------------------------------------------
 @Component
 public class WalletClient {
 
-    private final RestClient restClient = RestClient.create();
+    private static final Logger log = LoggerFactory.getLogger(WalletClient.class);
+
+    private final String walletServiceUrl;
+    private final List<String> revocationTargets;
+    private final String serviceToken;
+    private final CloseableHttpClient httpClient;
+    private final RestClient restClient;
+    private final CircuitBreaker circuitBreaker;
+    private final CircuitBreakerRegistry breakers;
+
+    public WalletClient(
+            @Value("${wallet.service.url:http://localhost:8086}") String walletServiceUrl,
+            @Value("${wallet.service.instances:${wallet.service.url:http://localhost:8086}}") String[] walletInstances,
+            @Value("${internal.service-token}") String serviceToken,
+            @Value("${wallet.client.max-connections:50}") int maxConnections,
+            @Value("${wallet.client.connect-timeout:500ms}") Duration connectTimeout,
+            @Value("${wallet.client.pool-wait:1s}") Duration poolWait,
+            @Value("${wallet.client.response-timeout:2s}") Duration responseTimeout,
+            @Value("${wallet.client.breaker.failure-rate:50}") float breakerFailureRate,
+            @Value("${wallet.client.breaker.window:20}") int breakerWindow,
+            @Value("${wallet.client.breaker.open-for:10s}") Duration breakerOpenFor,
+            MeterRegistry meterRegistry
+    ) {
+        this.walletServiceUrl = walletServiceUrl;
+        this.revocationTargets = List.of(walletInstances);
+        this.serviceToken = serviceToken;
+
+        // one route per instance; only revocation pushes fan out, so the per-route limit stays the pool size
+        PoolingHttpClientConnectionManager pool = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(responseTimeout))
+                        .setTimeToLive(TimeValue.ofMinutes(5)) // recycle so new wallet-service instances get traffic
+                        .build())
+                .build();
+
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolWait))
+                        .setResponseTimeout(Timeout.of(responseTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(20)) // below typical server keep-alive → no stale reuse
+                .build();
+
+        this.restClient = RestClient.builder()
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(pool, "wallet-service").bindTo(meterRegistry);
+
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(breakerWindow)
+                .minimumNumberOfCalls(Math.max(1, breakerWindow / 2))
+                .failureRateThreshold(breakerFailureRate)
+                .waitDurationInOpenState(breakerOpenFor)
+                .ignoreExceptions(HttpClientErrorException.class) // a 4xx means wallet-service is up and answering
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(meterRegistry);
+        this.breakers = breakers;
+        this.circuitBreaker = breakers.circuitBreaker("wallet-service");
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("wallet-service circuit breaker {}", event.getStateTransition()));
+        for (String instanceUrl : revocationTargets) {
+            breakers.circuitBreaker("wallet-service:" + instanceUrl).getEventPublisher().onStateTransition(event ->
+                    log.warn("wallet-service {} revocation circuit breaker {}", instanceUrl, event.getStateTransition()));
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
 
     public void createWallet(Long userId) {
         try {
-            restClient.post()
-                    .uri("http://localhost:8086/api/wallet/create?userId=" + userId)
+            circuitBreaker.executeRunnable(() -> restClient.post()
+                    .uri(walletServiceUrl + "/api/wallet/create?userId=" + userId)
                     .retrieve()
-                    .toBodilessEntity();
+                    .toBodilessEntity());
         } catch (Exception e) {
             System.err.println("⚠ Wallet-service unreachable. Wallet will be created later.");
         }
     }
-}
 
+    public CircuitBreaker.State revocationCircuitState(String instanceUrl) {
+        return breakers.circuitBreaker("wallet-service:" + instanceUrl).getState();
+    }
+
+    public List<String> revocationTargets() {
+        return revocationTargets;
+    }
+
+    // Throws on failure (incl. CallNotPermittedException while open) → RevocationOutbox keeps the events and retries
+    public void pushRevocations(String instanceUrl, List<RevocationEvent> events) {
+        breakers.circuitBreaker("wallet-service:" + instanceUrl).executeRunnable(() -> restClient.post()
+                .uri(instanceUrl + "/api/internal/revocations")
+                .header("X-Internal-Service-Key", serviceToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .toBodilessEntity());
+    }
+}
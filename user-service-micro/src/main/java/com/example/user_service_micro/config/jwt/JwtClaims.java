@@ -0,0 +1,8 @@
+package com.example.user_service_micro.config.jwt;
+
+import java.time.Instant;
+
+// Typed view over the claims of a verified token, produced by JwtUtil.parseToken().
+// id / role are null for tokens issued before they were added as claims.
+public record JwtClaims(String email, Long userId, String role, Instant expiresAt) {
+}
@@ -36,9 +36,13 @@ JwtFilter runs before every secured request, this class runs once per HTTP reque
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPrincipalCache principalCache;
+
     /*
     JwtUtil helps validate and extract data from the JW token. (JSON Web Token).
     UserRepository fetches the user from DB (to set authorities/roles).
+    UserPrincipalCache keeps the DB lookup off the hot path, only misses hit the repository.
      */
 
     @Override
@@ -85,10 +89,12 @@ JwtFilter runs before every secured request, this class runs once per HTTP reque
 
         String token = authHeader.substring(7);
 
-        // Validate token and set authentication in context (your existing code)
-        User user = userRepository.findByEmail(jwtUtil.getEmailFromToken(token)).orElse(null);
+        // Validate token (single parse) and set authentication in context
+        JwtClaims claims = jwtUtil.parseToken(token);
+        UserPrincipalCache.Principal user = claims == null ? null
+                : principalCache.get(claims.email(), this::loadPrincipal);
         if (user != null) {
-            List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(user.getRole()));
+            List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(user.role()));
             UsernamePasswordAuthenticationToken auth =
                     new UsernamePasswordAuthenticationToken(user, null, authorities);
             SecurityContextHolder.getContext().setAuthentication(auth);
@@ -97,6 +103,12 @@ JwtFilter runs before every secured request, this class runs once per HTTP reque
         filterChain.doFilter(request, response);
     }
 
+    // Cache miss → one DB read, result shared by every request until evicted / expired
+    private UserPrincipalCache.Principal loadPrincipal(String email) {
+        User user = userRepository.findByEmail(email).orElse(null);
+        return user == null ? null : new UserPrincipalCache.Principal(user.getId(), user.getEmail(), user.getRole());
+    }
+
 }
 
 /*
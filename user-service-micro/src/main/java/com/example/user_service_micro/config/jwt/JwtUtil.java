@@ -1,6 +1,7 @@
     package com.example.user_service_micro.config.jwt; // (or user_service_micro.config)
 
     import com.example.user_service_micro.exception.token.TokenExpiredException;
+    import com.example.user_service_micro.model.user.User;
     import io.jsonwebtoken.*;
     import io.jsonwebtoken.Claims;
     import io.jsonwebtoken.Jwts;
@@ -24,6 +25,7 @@
         Key is an interface, it comes from java.security.Key, represents a cryptographic key.
          */
         private final long expiration;
+        private final JwtParser parser; // immutable + thread-safe → built once, shared by every request
 
         public JwtUtil(
                 @Value("${jwt.secret}") String secret, // @Value tells Spring to inject a value from the application.yml file.
@@ -31,6 +33,7 @@
         ) {
             this.key = Keys.hmacShaKeyFor(secret.getBytes());
             this.expiration = expiration;
+            this.parser = Jwts.parserBuilder().setSigningKey(key).build();
         }
 
         /*
@@ -52,18 +55,41 @@ so you can reuse it in both generateToken() and validateToken() methods.
          */
 
         // jwts is a utility class from JJWT library. builder creates a JWT builder instance.
-        public String generateToken(String email) {
+        // id / name / role are carried as claims so wallet-service can build the principal without calling /api/users/me.
+        public String generateToken(User user) {
             return Jwts.builder() //Jwts is a class that originates from JJWT library, it's used to set-Up the interface to build JWT token
-                    .setSubject(email)
+                    .setSubject(user.getEmail())
+                    .claim("id", user.getId())
+                    .claim("name", user.getName())
+                    .claim("role", user.getRole())
                     .setIssuedAt(new Date())
                     .setExpiration(new Date(System.currentTimeMillis() + expiration))
                     .signWith(key, SignatureAlgorithm.HS256)
                     .compact(); // builds full JWT and returns it as a string.
         }
 
+        // ✅ Single parse: signature + expiry are verified once and the typed claims are returned.
+        // Returns null for tampered / malformed tokens, throws TokenExpiredException for expired ones.
+        public JwtClaims parseToken(String token) {
+            try {
+                Claims claims = parser.parseClaimsJws(token).getBody();
+                Date exp = claims.getExpiration();
+                return new JwtClaims(
+                        claims.getSubject(),
+                        claims.get("id", Long.class),
+                        claims.get("role", String.class),
+                        exp != null ? exp.toInstant() : null
+                );
+            } catch (ExpiredJwtException e) {
+                throw new TokenExpiredException("JWT token has expired");
+            } catch (JwtException | IllegalArgumentException e) {
+                return null;
+            }
+        }
+
         public boolean validateToken(String token) {
             try {
-                Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+                parser.parseClaimsJws(token);
                 return true;
             } catch (ExpiredJwtException e) {
                 // ✅ Token is expired → throw custom exception
@@ -84,12 +110,7 @@ so you can reuse it in both generateToken() and validateToken() methods.
          */
 
         public String getEmailFromToken(String token) {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
+            return parser.parseClaimsJws(token).getBody().getSubject();
         }
     }
     /*
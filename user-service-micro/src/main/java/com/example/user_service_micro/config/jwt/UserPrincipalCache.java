@@ -0,0 +1,60 @@
+package com.example.user_service_micro.config.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+// --------------------------------------------------------------------
+// email → principal cache used by JwtFilter so an authenticated request
+// no longer needs a findByEmail() round trip just to read the role.
+// Bounded + TTL'd; UserService evicts entries whenever a user's state
+// changes (blacklist / unblacklist / role) so changes apply immediately.
+// Metrics: cache.gets / cache.evictions / cache.size with cache=user.principal
+// --------------------------------------------------------------------
+@Component
+public class UserPrincipalCache {
+
+    private static final Logger log = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    // Immutable snapshot of what the filter needs → safe to share between threads
+    public record Principal(Long id, String email, String role) {}
+
+    private final Cache<String, Principal> cache;
+
+    public UserPrincipalCache(
+            @Value("${user.principal-cache.max-size:10000}") long maxSize,
+            @Value("${user.principal-cache.ttl:60s}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.principal");
+    }
+
+    // Loader returning null (unknown email) is not cached
+    public Principal get(String email, Function<String, Principal> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+            log.info("Evicted cached principal for {}", email);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -15,10 +15,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/internal/users")
 @Tag(
@@ -30,6 +36,10 @@ public class InternalUserController {
     @Autowired private UserRepository userRepository;
     @Autowired private UserMapper userMapper;
 
+    // Shared with wallet-service, which splits its lookups at the same size
+    @Value("${internal.users.batch-max-size:500}")
+    private int maxBatchSize;
+
     @Operation(
             summary = "Internal: Get user by ID",
             description = """
@@ -58,4 +68,57 @@ public class InternalUserController {
 
         return ResponseEntity.ok(userMapper.toUsersDTO(user));
     }
+
+    @Operation(
+            summary = "Internal: Get blacklisted user IDs",
+            description = """
+                          Full blacklist, used by wallet-service instances on startup before they
+                          start receiving revocation pushes (which only carry changes).
+                          """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "IDs of all blacklisted users"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an internal service")
+    })
+    @GetMapping("/revoked")
+    public ResponseEntity<List<Long>> getRevokedUserIdsInternal(HttpServletRequest request) {
+        Boolean isInternal = (Boolean) request.getAttribute("internalService");
+        if (isInternal == null || !isInternal) {
+            return ResponseEntity.status(403).build();
+        }
+
+        return ResponseEntity.ok(userRepository.findBlacklistedIds());
+    }
+
+    @Operation(
+            summary = "Internal: Get users by IDs",
+            description = """
+                          Batch variant of the lookup above: one query instead of N calls.
+                          Unknown IDs are simply absent from the returned map.
+                          """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Map of userId → user"),
+            @ApiResponse(responseCode = "400", description = "More than 500 IDs requested"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Not an internal service")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, UserDTO>> getUsersByIdsInternal(
+            @RequestBody List<Long> ids,
+            HttpServletRequest request
+    ) {
+        Boolean isInternal = (Boolean) request.getAttribute("internalService");
+        if (isInternal == null || !isInternal) {
+            return ResponseEntity.status(403).build();
+        }
+
+        LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Map<Long, UserDTO> users = userRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(User::getId, userMapper::toUsersDTO));
+        return ResponseEntity.ok(users);
+    }
 }
@@ -0,0 +1,48 @@
+package com.example.user_service_micro.model.revocation;
+
+import com.example.user_service_micro.dto.revocation.RevocationEvent;
+import jakarta.persistence.*;
+
+// One blacklist / unblacklist change waiting to reach every wallet-service instance.
+// Written in the same transaction as the user update, deleted once all instances have it.
+@Entity
+@Table(name = "revocation_outbox")
+public class RevocationOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // insertion order → push order
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @Column(nullable = false)
+    private long issuedAt;
+
+    // Default constructor — required by JPA
+    public RevocationOutboxEntry() {}
+
+    public RevocationOutboxEntry(Long userId, boolean revoked, long issuedAt) {
+        this.userId = userId;
+        this.revoked = revoked;
+        this.issuedAt = issuedAt;
+    }
+
+    public RevocationEvent toEvent() {
+        return new RevocationEvent(userId, revoked, issuedAt);
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public boolean isRevoked() { return revoked; }
+    public void setRevoked(boolean revoked) { this.revoked = revoked; }
+
+    public long getIssuedAt() { return issuedAt; }
+    public void setIssuedAt(long issuedAt) { this.issuedAt = issuedAt; }
+}
@@ -0,0 +1,25 @@
+package com.example.user_service_micro.repository.revocation;
+
+import com.example.user_service_micro.model.revocation.RevocationOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface RevocationOutboxRepository extends JpaRepository<RevocationOutboxEntry, Long> {
+
+    // Next page for one wallet-service instance, oldest first
+    List<RevocationOutboxEntry> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable page);
+
+    // Rows every instance has acknowledged
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevocationOutboxEntry e WHERE e.id <= :upToId")
+    int deleteDeliveredUpTo(@Param("upToId") Long upToId);
+}
@@ -2,12 +2,18 @@ package com.example.user_service_micro.repository.user;
 
 import com.example.user_service_micro.model.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
+
+    // Id-only → wallet-service loads its revocation set from this at startup
+    @Query("SELECT u.id FROM User u WHERE u.blacklisted = true")
+    List<Long> findBlacklistedIds();
 }
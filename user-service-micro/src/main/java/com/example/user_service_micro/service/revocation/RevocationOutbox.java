@@ -0,0 +1,127 @@
+package com.example.user_service_micro.service.revocation;
+
+import com.example.user_service_micro.config.client.WalletClient;
+import com.example.user_service_micro.dto.revocation.RevocationEvent;
+import com.example.user_service_micro.model.revocation.RevocationOutboxEntry;
+import com.example.user_service_micro.repository.revocation.RevocationOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// --------------------------------------------------------------------
+// Durable outbox for blacklist / unblacklist changes.
+// UserService records an event in the revocation_outbox table inside the
+// same transaction as the user update → a crash or restart loses nothing.
+// A scheduled drain pushes the rows, oldest first, to EVERY wallet-service
+// instance (WalletClient.revocationTargets): each instance has its own
+// cursor (last id it accepted), so a failing instance is retried from
+// where it stopped on the next tick while the others keep up.
+// A cursor only moves over consecutive ids: a gap can be a transaction
+// that has not committed yet, so rows after it are pushed again until the
+// gap fills or is older than revocation.push.gap-grace-ms (rolled back).
+// Rows are deleted once all instances have them. Cursors live in memory:
+// after a restart the remaining rows are pushed again, which is harmless
+// because applying the same event twice leaves the same state.
+// --------------------------------------------------------------------
+@Component
+public class RevocationOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationOutbox.class);
+
+    private final RevocationOutboxRepository outboxRepository;
+    private final WalletClient walletClient;
+    private final int maxBatch;
+    private final long gapGraceMs;
+    private final Map<String, Long> delivered = new ConcurrentHashMap<>(); // instance url → last outbox id it accepted
+    private final Counter pushed;
+    private final Counter failed;
+
+    public RevocationOutbox(
+            RevocationOutboxRepository outboxRepository,
+            WalletClient walletClient,
+            @Value("${revocation.push.max-batch:500}") int maxBatch,
+            @Value("${revocation.push.gap-grace-ms:10000}") long gapGraceMs,
+            MeterRegistry meterRegistry
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.walletClient = walletClient;
+        this.maxBatch = maxBatch;
+        this.gapGraceMs = gapGraceMs;
+        this.pushed = meterRegistry.counter("user.revocation.pushed");
+        this.failed = meterRegistry.counter("user.revocation.push.failures");
+        Gauge.builder("user.revocation.pending", outboxRepository, RevocationOutboxRepository::count)
+                .register(meterRegistry);
+    }
+
+    // Joins the caller's transaction → the event exists iff the user update commits
+    public void record(Long userId, boolean revoked) {
+        outboxRepository.save(new RevocationOutboxEntry(userId, revoked, System.currentTimeMillis()));
+    }
+
+    @Scheduled(fixedDelayString = "${revocation.push.interval-ms:200}")
+    public void flush() {
+        long deliveredToAll = Long.MAX_VALUE;
+        for (String instanceUrl : walletClient.revocationTargets()) {
+            deliveredToAll = Math.min(deliveredToAll, drainTo(instanceUrl));
+        }
+        if (deliveredToAll > 0 && deliveredToAll != Long.MAX_VALUE) {
+            outboxRepository.deleteDeliveredUpTo(deliveredToAll);
+        }
+    }
+
+    // ✅ Returns the last outbox id this instance has accepted
+    private long drainTo(String instanceUrl) {
+        long cursor = delivered.getOrDefault(instanceUrl, 0L);
+        while (true) {
+            List<RevocationOutboxEntry> rows =
+                    outboxRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, maxBatch));
+            if (rows.isEmpty()) {
+                return cursor;
+            }
+
+            List<RevocationEvent> batch = rows.stream().map(RevocationOutboxEntry::toEvent).toList();
+            try {
+                walletClient.pushRevocations(instanceUrl, batch);
+            } catch (Exception e) {
+                failed.increment();
+                log.warn("⚠ Revocation push to {} failed, retrying from id {}: {}", instanceUrl, cursor, e.getMessage());
+                return cursor;
+            }
+            pushed.increment(batch.size());
+
+            long upTo = consecutiveUpTo(cursor, rows);
+            delivered.put(instanceUrl, upTo);
+            if (upTo != rows.get(rows.size() - 1).getId()) {
+                return upTo; // open gap → push the rows after it again next tick
+            }
+            cursor = upTo;
+        }
+    }
+
+    private long consecutiveUpTo(long cursor, List<RevocationOutboxEntry> rows) {
+        long settledBefore = System.currentTimeMillis() - gapGraceMs;
+        long upTo = cursor;
+        for (RevocationOutboxEntry row : rows) {
+            // cursor 0 → nothing delivered since startup, rows below the first one are already deleted
+            if (upTo != 0 && row.getId() != upTo + 1 && row.getIssuedAt() > settledBefore) {
+                break;
+            }
+            upTo = row.getId();
+        }
+        return upTo;
+    }
+
+    public long pendingCount() {
+        return outboxRepository.count();
+    }
+}
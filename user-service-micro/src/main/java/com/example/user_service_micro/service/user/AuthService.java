@@ -1,4 +1,5 @@
 package com.example.user_service_micro.service.user;
+import com.example.user_service_micro.config.jwt.JwtClaims;
 import com.example.user_service_micro.config.jwt.JwtUtil;
 import com.example.user_service_micro.dto.credentials.LoginRequest;
 import com.example.user_service_micro.dto.credentials.LoginResponse;
@@ -68,7 +69,7 @@ public class AuthService {
                 "User registered successfully!",
                 saved.getName(),
                 saved.getEmail(),
-                jwtUtil.generateToken(saved.getEmail())
+                jwtUtil.generateToken(saved)
         );
     }
 
@@ -115,7 +116,7 @@ public class AuthService {
                 "Admin registered successfully!",
                 saved.getName(),
                 saved.getEmail(),
-                jwtUtil.generateToken(saved.getEmail())
+                jwtUtil.generateToken(saved)
         );
     }
 
@@ -143,7 +144,7 @@ public class AuthService {
 
         return new LoginResponse(
                 "Login successful!",
-                jwtUtil.generateToken(user.getEmail()),
+                jwtUtil.generateToken(user),
                 user.getName(),
                 user.getEmail(),
                 user.getRole()
@@ -162,12 +163,13 @@ public class AuthService {
 
         String token = header.substring(7);
 
-        if (!jwtUtil.validateToken(token)) {
+        JwtClaims claims = jwtUtil.parseToken(token);
+        if (claims == null) {
             log.warn("Token validation failed — invalid token");
             throw new UnauthorizedException("Invalid token");
         }
 
-        String email = jwtUtil.getEmailFromToken(token);
+        String email = claims.email();
         log.info("Token valid for email {}", email);
 
         return email;
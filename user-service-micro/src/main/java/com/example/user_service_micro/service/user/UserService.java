@@ -1,17 +1,21 @@
 package com.example.user_service_micro.service.user;
 
+import com.example.user_service_micro.config.jwt.JwtClaims;
 import com.example.user_service_micro.config.jwt.JwtUtil;
+import com.example.user_service_micro.config.jwt.UserPrincipalCache;
 import com.example.user_service_micro.dto.user.UserDTO;
 import com.example.user_service_micro.dto.user.UserInfoResponse;
 import com.example.user_service_micro.exception.user.UserNotFoundException;
 import com.example.user_service_micro.mapper.user.UserMapper;
 import com.example.user_service_micro.model.user.User;
 import com.example.user_service_micro.repository.user.UserRepository;
+import com.example.user_service_micro.service.revocation.RevocationOutbox;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -21,12 +25,17 @@ public class UserService {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
     private final UserMapper userMapper;
+    private final UserPrincipalCache principalCache;
+    private final RevocationOutbox revocationOutbox;
 
     @Autowired
-    public UserService(UserRepository userRepository, JwtUtil jwtUtil, UserMapper userMapper) {
+    public UserService(UserRepository userRepository, JwtUtil jwtUtil, UserMapper userMapper,
+                       UserPrincipalCache principalCache, RevocationOutbox revocationOutbox) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.userMapper = userMapper;
+        this.principalCache = principalCache;
+        this.revocationOutbox = revocationOutbox;
     }
 
     // Extract user from JWT token
@@ -35,13 +44,12 @@ public class UserService {
             return null;
         }
 
-        String token = authHeader.substring(7);
-        if (!jwtUtil.validateToken(token)) {
+        JwtClaims claims = jwtUtil.parseToken(authHeader.substring(7)); // one parse, one HMAC check
+        if (claims == null) {
             return null;
         }
 
-        String email = jwtUtil.getEmailFromToken(token);
-        return userRepository.findByEmail(email).orElse(null);
+        return userRepository.findByEmail(claims.email()).orElse(null);
     }
 
     public Page<UserDTO> getAllUsers(int page, int size) {
@@ -58,20 +66,26 @@ public class UserService {
         return new UserInfoResponse(user.getName(), user.getEmail(), user.getRole());
     }
 
+    @Transactional // user update + outbox row commit together
     public void blacklistUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found with ID " + userId));
 
         user.setBlacklisted(true);   // ✅ Set new field
         userRepository.save(user);   // ✅ Persist update
+        principalCache.invalidate(user.getEmail()); // ✅ Next request re-reads the user
+        revocationOutbox.record(userId, true);       // ✅ Outbox row, pushed to every wallet-service instance
     }
 
     // ✅ New: Unblacklist user
+    @Transactional
     public void unblacklistUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setBlacklisted(false);
         userRepository.save(user);
+        principalCache.invalidate(user.getEmail());
+        revocationOutbox.record(userId, false);
     }
 
 }
@@ -0,0 +1,59 @@
+package com.example.user_service_micro.config;
+
+import com.example.user_service_micro.config.jwt.JwtClaims;
+import com.example.user_service_micro.config.jwt.JwtUtil;
+import com.example.user_service_micro.exception.token.TokenExpiredException;
+import com.example.user_service_micro.model.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtUtilTest.class);
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256!!";
+
+    private User user;
+
+    @BeforeEach
+    void setup() {
+        user = new User();
+        user.setId(5L);
+        user.setName("Prasanna");
+        user.setEmail("prasanna@example.com");
+        user.setRole("ADMIN");
+    }
+
+    @Test
+    void parseToken_ReturnsTypedClaims() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+        JwtClaims claims = jwtUtil.parseToken(jwtUtil.generateToken(user));
+
+        log.info("Parsed claims: {}", claims);
+        assertEquals("prasanna@example.com", claims.email());
+        assertEquals(5L, claims.userId());
+        assertEquals("ADMIN", claims.role());
+        assertNotNull(claims.expiresAt());
+    }
+
+    @Test
+    void parseToken_TamperedTokenReturnsNull() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+        String foreign = new JwtUtil("another-secret-key-that-is-long-enough-for-hs256", 60_000).generateToken(user);
+
+        assertNull(jwtUtil.parseToken(foreign));
+        assertNull(jwtUtil.parseToken("not.a.jwt"));
+    }
+
+    @Test
+    void parseToken_ExpiredTokenThrows() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET, -1_000);
+        String expired = jwtUtil.generateToken(user);
+
+        assertThrows(TokenExpiredException.class, () -> jwtUtil.parseToken(expired));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.user_service_micro.config;
+
+import com.example.user_service_micro.config.jwt.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private UserPrincipalCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setup() {
+        registry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(100, Duration.ofMinutes(1), registry);
+        loads = new AtomicInteger();
+    }
+
+    private UserPrincipalCache.Principal load(String email) {
+        loads.incrementAndGet();
+        return email.startsWith("unknown") ? null : new UserPrincipalCache.Principal(1L, email, "USER");
+    }
+
+    @Test
+    void get_LoadsOnceThenServesFromCache() {
+        cache.get("a@example.com", this::load);
+        cache.get("a@example.com", this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "user.principal").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void invalidate_ForcesReload() {
+        cache.get("a@example.com", this::load);
+        cache.invalidate("a@example.com");
+        cache.get("a@example.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_UnknownUserIsNotCached() {
+        assertNull(cache.get("unknown@example.com", this::load));
+        assertNull(cache.get("unknown@example.com", this::load));
+
+        assertEquals(2, loads.get());
+    }
+}
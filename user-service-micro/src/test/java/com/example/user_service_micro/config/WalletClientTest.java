@@ -0,0 +1,101 @@
+package com.example.user_service_micro.config;
+
+import com.example.user_service_micro.config.client.WalletClient;
+import com.example.user_service_micro.dto.revocation.RevocationEvent;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against an in-process JDK HttpServer standing in for wallet-service
+class WalletClientTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+
+    private HttpServer walletService;
+    private SimpleMeterRegistry meterRegistry;
+    private String walletUrl;
+    private WalletClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        walletService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        walletService.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        walletService.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        walletUrl = "http://localhost:" + walletService.getAddress().getPort();
+        client = new WalletClient(walletUrl, new String[]{walletUrl}, "service-key",
+                4, Duration.ofMillis(500), Duration.ofMillis(500), Duration.ofMillis(300),
+                50, 4, Duration.ofSeconds(30), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        walletService.stop(0);
+    }
+
+    private static List<RevocationEvent> events() {
+        return List.of(new RevocationEvent(1L, true, System.currentTimeMillis()));
+    }
+
+    @Test
+    void pushRevocations_ServerErrorsOpenBreakerThenFailFast() {
+        status = 503;
+        for (int i = 0; i < 4; i++) {
+            assertThrows(Exception.class, () -> client.pushRevocations(walletUrl, events()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.revocationCircuitState(walletUrl));
+        assertEquals(CircuitBreaker.State.CLOSED, client.circuitState()); // wallet creation unaffected
+
+        int before = calls.get();
+        assertThrows(CallNotPermittedException.class, () -> client.pushRevocations(walletUrl, events()));
+        assertEquals(before, calls.get());
+    }
+
+    @Test
+    void pushRevocations_ClientErrorsKeepBreakerClosed() {
+        status = 403;
+        for (int i = 0; i < 6; i++) {
+            assertThrows(Exception.class, () -> client.pushRevocations(walletUrl, events()));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, client.revocationCircuitState(walletUrl));
+    }
+
+    @Test
+    void pushRevocations_SlowWalletServiceHitsResponseTimeout() {
+        delayMillis = 1_000;
+        long start = System.nanoTime();
+        assertThrows(Exception.class, () -> client.pushRevocations(walletUrl, events()));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 900);
+    }
+
+    @Test
+    void createWallet_SwallowsFailureAndExposesPoolMetrics() {
+        status = 500;
+        assertDoesNotThrow(() -> client.createWallet(7L));
+        assertEquals(4.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "wallet-service").gauge().value());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.user_service_micro.controller;
+
+import com.example.user_service_micro.controller.backDoor.InternalUserController;
+import com.example.user_service_micro.dto.user.UserDTO;
+import com.example.user_service_micro.mapper.user.UserMapper;
+import com.example.user_service_micro.model.user.User;
+import com.example.user_service_micro.repository.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class InternalUserControllerTest {
+
+    @InjectMocks
+    private InternalUserController internalUserController;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @BeforeEach
+    void setup() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(internalUserController, "maxBatchSize", 500); // internal.users.batch-max-size default
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+
+    @Test
+    void getUsersByIds_ReturnsMapOfFoundUsers() {
+        when(request.getAttribute("internalService")).thenReturn(true);
+        User u1 = user(1L);
+        User u2 = user(2L);
+        when(userRepository.findAllById(any())).thenReturn(List.of(u1, u2));
+        when(userMapper.toUsersDTO(any(User.class))).thenAnswer(inv -> {
+            UserDTO dto = new UserDTO();
+            dto.setId(((User) inv.getArgument(0)).getId());
+            return dto;
+        });
+
+        ResponseEntity<Map<Long, UserDTO>> response =
+                internalUserController.getUsersByIdsInternal(List.of(1L, 2L, 2L, 3L), request);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(2, response.getBody().size());
+        assertEquals(1L, response.getBody().get(1L).getId());
+        assertNull(response.getBody().get(3L));
+        verify(userRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getUsersByIds_ForbiddenWithoutServiceKey() {
+        when(request.getAttribute("internalService")).thenReturn(null);
+
+        ResponseEntity<Map<Long, UserDTO>> response =
+                internalUserController.getUsersByIdsInternal(List.of(1L), request);
+
+        assertEquals(403, response.getStatusCode().value());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getUsersByIds_RejectsOversizedBatch() {
+        when(request.getAttribute("internalService")).thenReturn(true);
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().toList();
+
+        ResponseEntity<Map<Long, UserDTO>> response =
+                internalUserController.getUsersByIdsInternal(ids, request);
+
+        assertEquals(400, response.getStatusCode().value());
+    }
+
+    @Test
+    void getRevokedUserIds_ReturnsBlacklistedIds() {
+        when(request.getAttribute("internalService")).thenReturn(true);
+        when(userRepository.findBlacklistedIds()).thenReturn(List.of(4L, 9L));
+
+        ResponseEntity<List<Long>> response = internalUserController.getRevokedUserIdsInternal(request);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(List.of(4L, 9L), response.getBody());
+    }
+
+    @Test
+    void getRevokedUserIds_ForbiddenWithoutServiceKey() {
+        when(request.getAttribute("internalService")).thenReturn(null);
+
+        assertEquals(403, internalUserController.getRevokedUserIdsInternal(request).getStatusCode().value());
+        verifyNoInteractions(userRepository);
+    }
+}
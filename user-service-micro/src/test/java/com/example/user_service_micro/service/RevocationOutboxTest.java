@@ -0,0 +1,148 @@
+package com.example.user_service_micro.service;
+
+import com.example.user_service_micro.config.client.WalletClient;
+import com.example.user_service_micro.dto.revocation.RevocationEvent;
+import com.example.user_service_micro.model.revocation.RevocationOutboxEntry;
+import com.example.user_service_micro.repository.revocation.RevocationOutboxRepository;
+import com.example.user_service_micro.service.revocation.RevocationOutbox;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RevocationOutboxTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocationOutboxTest.class);
+
+    private static final String WALLET_A = "http://wallet-a:8086";
+    private static final String WALLET_B = "http://wallet-b:8086";
+
+    private final List<RevocationOutboxEntry> table = new ArrayList<>(); // stands in for revocation_outbox
+    private long nextId = 1;
+
+    private WalletClient walletClient;
+    private RevocationOutboxRepository outboxRepository;
+    private RevocationOutbox outbox;
+
+    @BeforeEach
+    void setup() {
+        walletClient = mock(WalletClient.class);
+        when(walletClient.revocationTargets()).thenReturn(List.of(WALLET_A, WALLET_B));
+
+        outboxRepository = mock(RevocationOutboxRepository.class);
+        when(outboxRepository.save(any(RevocationOutboxEntry.class))).thenAnswer(inv -> {
+            RevocationOutboxEntry entry = inv.getArgument(0);
+            entry.setId(nextId++);
+            table.add(entry);
+            return entry;
+        });
+        when(outboxRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(inv -> {
+            long afterId = inv.getArgument(0);
+            Pageable page = inv.getArgument(1);
+            return table.stream().filter(e -> e.getId() > afterId).limit(page.getPageSize()).toList();
+        });
+        when(outboxRepository.deleteDeliveredUpTo(anyLong())).thenAnswer(inv -> {
+            long upToId = inv.getArgument(0);
+            int before = table.size();
+            table.removeIf(e -> e.getId() <= upToId);
+            return before - table.size();
+        });
+        when(outboxRepository.count()).thenAnswer(inv -> (long) table.size());
+
+        outbox = new RevocationOutbox(outboxRepository, walletClient, 2, 10_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_PushesToEveryInstanceInBatchesAndInOrder() {
+        outbox.record(1L, true);
+        outbox.record(2L, true);
+        outbox.record(1L, false);
+
+        outbox.flush();
+
+        for (String instance : List.of(WALLET_A, WALLET_B)) {
+            ArgumentCaptor<List<RevocationEvent>> captor = ArgumentCaptor.forClass(List.class);
+            verify(walletClient, times(2)).pushRevocations(eq(instance), captor.capture());
+            List<RevocationEvent> first = captor.getAllValues().get(0);
+            List<RevocationEvent> second = captor.getAllValues().get(1);
+            log.info("Pushed batches of {} and {} to {}", first.size(), second.size(), instance);
+
+            assertEquals(2, first.size());
+            assertEquals(1L, first.get(0).getUserId());
+            assertTrue(first.get(0).isRevoked());
+            assertFalse(second.get(0).isRevoked());
+        }
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    @Test
+    void flush_KeepsRowsUntilEveryInstanceHasThem() {
+        doThrow(new RuntimeException("connection refused")).when(walletClient).pushRevocations(eq(WALLET_B), anyList());
+        outbox.record(1L, true);
+        outbox.record(2L, true);
+        outbox.record(3L, true);
+
+        outbox.flush();
+        assertEquals(3, outbox.pendingCount());
+        verify(walletClient, times(2)).pushRevocations(eq(WALLET_A), anyList()); // healthy instance is not held up
+
+        reset(walletClient);
+        when(walletClient.revocationTargets()).thenReturn(List.of(WALLET_A, WALLET_B));
+        outbox.flush();
+
+        assertEquals(0, outbox.pendingCount());
+        verify(walletClient, never()).pushRevocations(eq(WALLET_A), anyList()); // already delivered there
+        verify(walletClient, times(2)).pushRevocations(eq(WALLET_B), anyList());
+    }
+
+    @Test
+    void flush_RepushesRowsAfterAnUncommittedGap() {
+        outbox.record(1L, true);
+        outbox.flush();
+
+        // id 2 is taken by a transaction that has not committed yet, id 3 already has
+        nextId++;
+        outbox.record(3L, true);
+        outbox.flush();
+        assertEquals(1, outbox.pendingCount());
+
+        table.add(0, entry(2L, 2L)); // the slow transaction commits
+        reset(walletClient);
+        when(walletClient.revocationTargets()).thenReturn(List.of(WALLET_A, WALLET_B));
+        outbox.flush();
+
+        verify(walletClient).pushRevocations(eq(WALLET_A), argThat(events ->
+                events.size() == 2 && events.get(0).getUserId() == 2L && events.get(1).getUserId() == 3L));
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    @Test
+    void flush_SkipsAGapOlderThanTheGrace() {
+        outbox.record(1L, true);
+        outbox.flush();
+
+        RevocationOutboxEntry late = entry(3L, 3L);
+        late.setIssuedAt(System.currentTimeMillis() - 60_000); // id 2 rolled back long ago
+        table.add(late);
+        outbox.flush();
+
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    private static RevocationOutboxEntry entry(Long id, Long userId) {
+        RevocationOutboxEntry entry = new RevocationOutboxEntry(userId, true, System.currentTimeMillis());
+        entry.setId(id);
+        return entry;
+    }
+}
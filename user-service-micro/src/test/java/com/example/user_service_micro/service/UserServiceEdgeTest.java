@@ -6,8 +6,11 @@ import com.example.user_service_micro.exception.user.UserNotFoundException;
 import com.example.user_service_micro.mapper.user.UserMapper;
 import com.example.user_service_micro.model.user.User;
 import com.example.user_service_micro.repository.user.UserRepository;
+import com.example.user_service_micro.service.revocation.RevocationOutbox;
 import com.example.user_service_micro.service.user.UserService;
+import com.example.user_service_micro.config.jwt.JwtClaims;
 import com.example.user_service_micro.config.jwt.JwtUtil;
+import com.example.user_service_micro.config.jwt.UserPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -34,6 +37,12 @@ class UserServiceEdgeTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private RevocationOutbox revocationOutbox;
+
     @InjectMocks
     private UserService userService;
 
@@ -75,7 +84,7 @@ class UserServiceEdgeTest {
     void getUserFromToken_InvalidJwt() {
         log.info("Running test: getUserFromToken_InvalidJwt");
         String header = "Bearer invalid.jwt";
-        when(jwtUtil.validateToken("invalid.jwt")).thenReturn(false);
+        when(jwtUtil.parseToken("invalid.jwt")).thenReturn(null);
         log.debug("Mocked invalid token validation for: invalid.jwt");
         User result = userService.getUserFromToken(header);
         log.debug("Result with invalid JWT: {}", result);
@@ -86,8 +95,7 @@ class UserServiceEdgeTest {
     void getUserFromToken_UserNotFound() {
         log.info("Running test: getUserFromToken_UserNotFound");
         String header = "Bearer valid.jwt";
-        when(jwtUtil.validateToken("valid.jwt")).thenReturn(true);
-        when(jwtUtil.getEmailFromToken("valid.jwt")).thenReturn("unknown@example.com");
+        when(jwtUtil.parseToken("valid.jwt")).thenReturn(new JwtClaims("unknown@example.com", 99L, "USER", null));
         when(userRepository.findByEmail("unknown@example.com")).thenReturn(Optional.empty());
         log.debug("Mocked valid JWT but user not found in DB");
 
@@ -100,8 +108,7 @@ class UserServiceEdgeTest {
     void getUserFromToken_Success() {
         log.info("Running test: getUserFromToken_Success");
         String header = "Bearer valid.jwt";
-        when(jwtUtil.validateToken("valid.jwt")).thenReturn(true);
-        when(jwtUtil.getEmailFromToken("valid.jwt")).thenReturn(user.getEmail());
+        when(jwtUtil.parseToken("valid.jwt")).thenReturn(new JwtClaims(user.getEmail(), user.getId(), user.getRole(), null));
         when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
         log.debug("Mocked valid token and existing user lookup");
 
@@ -170,4 +177,31 @@ class UserServiceEdgeTest {
         assertEquals("Prasanna", response.getName());
         assertEquals("USER", response.getRole());
     }
-}
\ No newline at end of file
+
+    // ---------------- blacklist / unblacklist ----------------
+    @Test
+    void blacklistUser_EvictsCachedPrincipalAndRecordsRevocation() {
+        log.info("Running test: blacklistUser_EvictsCachedPrincipalAndRecordsRevocation");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.blacklistUser(1L);
+
+        assertTrue(user.getBlacklisted());
+        verify(userRepository).save(user);
+        verify(principalCache).invalidate(user.getEmail());
+        verify(revocationOutbox).record(1L, true);
+    }
+
+    @Test
+    void unblacklistUser_EvictsCachedPrincipalAndRecordsRestore() {
+        log.info("Running test: unblacklistUser_EvictsCachedPrincipalAndRecordsRestore");
+        user.setBlacklisted(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userService.unblacklistUser(1L);
+
+        assertFalse(user.getBlacklisted());
+        verify(principalCache).invalidate(user.getEmail());
+        verify(revocationOutbox).record(1L, false);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.wallet_service_micro.benchmark;
+
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.jwt.JwtVerifier;
+import com.example.wallet_service_micro.config.properties.AuthProperties;
+import com.example.wallet_service_micro.config.properties.UserBatchProperties;
+import com.example.wallet_service_micro.config.properties.UserCacheProperties;
+import com.example.wallet_service_micro.config.properties.UserClientProperties;
+import com.example.wallet_service_micro.client.user.UserPrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// --------------------------------------------------------------------
+// Throughput of user-service lookups when user-service is slow.
+// A local reactor-netty stub answers GET /api/internal/users/{id} after
+// STUB_DELAY_MS. Each invocation issues WAVE distinct-id lookups:
+//  • blockingWorkers → UserClient (.block()) on a 200-thread pool, the
+//                      default Tomcat worker count → threads sit waiting
+//  • reactive        → ReactiveUserClient composed with flatMap, no
+//                      thread is held while the stub sleeps
+// Caching, batching and single-flight are off so every lookup is a real
+// round trip. Score is lookups/second.
+// Run: gradle jmh
+// --------------------------------------------------------------------
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserLookupConcurrencyBenchmark {
+
+    private static final int WAVE = 2_000;
+    private static final int TOMCAT_THREADS = 200;
+    private static final long STUB_DELAY_MS = 50;
+
+    private DisposableServer stub;
+    private ConnectionProvider connections;
+    private ExecutorService workers;
+    private UserClient blockingClient;
+    private ReactiveUserClient reactiveClient;
+    private final AtomicLong ids = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        stub = HttpServer.create()
+                .port(0)
+                .route(routes -> routes.get("/api/internal/users/{id}", (req, res) -> res
+                        .header("Content-Type", "application/json")
+                        .sendString(Mono.just("{\"id\":" + req.param("id") + ",\"email\":\"u@example.com\",\"role\":\"USER\"}")
+                                .delayElement(Duration.ofMillis(STUB_DELAY_MS)))))
+                .bindNow();
+
+        // Pool large enough that the connection limit is not what is being measured
+        connections = ConnectionProvider.builder("benchmark").maxConnections(WAVE).pendingAcquireMaxCount(-1).build();
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+
+        UserCacheProperties cacheProperties = new UserCacheProperties();
+        cacheProperties.setEnabled(false);
+        UserBatchProperties batchProperties = new UserBatchProperties();
+        batchProperties.setWindow(Duration.ZERO);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        reactiveClient = new ReactiveUserClient(
+                webClient,
+                "http://localhost:" + stub.port(),
+                "benchmark-key",
+                500,
+                new AuthProperties(),
+                new JwtVerifier(""),
+                new UserPrincipalCache(cacheProperties, meterRegistry),
+                batchProperties,
+                new UserClientProperties(),
+                meterRegistry
+        );
+        blockingClient = new UserClient(reactiveClient);
+        workers = Executors.newFixedThreadPool(TOMCAT_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        workers.shutdownNow();
+        connections.disposeLater().block();
+        stub.disposeNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WAVE)
+    public int blockingWorkers() throws Exception {
+        List<Future<?>> results = new ArrayList<>(WAVE);
+        for (int i = 0; i < WAVE; i++) {
+            long id = ids.incrementAndGet();
+            results.add(workers.submit(() -> blockingClient.getUserByIdInternal(id)));
+        }
+        for (Future<?> result : results) {
+            result.get();
+        }
+        return results.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WAVE)
+    public Long reactive() {
+        return Flux.range(0, WAVE)
+                .flatMap(i -> reactiveClient.getUserByIdInternal(ids.incrementAndGet()), WAVE)
+                .count()
+                .block();
+    }
+}
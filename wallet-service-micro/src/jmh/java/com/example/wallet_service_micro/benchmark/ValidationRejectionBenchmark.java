@@ -0,0 +1,97 @@
+package com.example.wallet_service_micro.benchmark;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferItemResult;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+// --------------------------------------------------------------------
+// Throughput of REJECTED transfer items (abuse spikes are mostly these):
+//  • thrown      → validate* chain, its rejection caught and turned into
+//                  the item result (the previous batch code). validate*
+//                  now throws the trace-less ValidationRejectedException,
+//                  so this is the chain + catch, no stack trace any more
+//  • resultCode  → one checkTransfer pass returning a preallocated
+//                  ValidationResult, item result built directly
+// reason picks which check rejects: the later it sits in the chain,
+// the more checks both paths run first.
+// Logging is OFF so only the rejection mechanics are compared; with
+// WARN the thrown path also formats and writes a ❌ line per item.
+// Run: gradle jmh
+// --------------------------------------------------------------------
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ValidationRejectionBenchmark {
+
+    private static final long DAILY_LIMIT = Money.toMinor(50_000.0);
+
+    @Param({"WALLET_FROZEN", "INSUFFICIENT_BALANCE", "DAILY_LIMIT_EXCEEDED"})
+    public String reason;
+
+    private WalletValidator validator;
+    private Wallet sender;
+    private Wallet receiver;
+    private BatchTransferItemResult item;
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.OFF);
+
+        WalletProperties properties = new WalletProperties();
+        properties.setMinAmount(1.0);
+        properties.setMaxAmount(100_000.0);
+        properties.setDailyLimit(Money.toMajor(DAILY_LIMIT));
+        validator = new WalletValidator(properties);
+
+        amount = Money.toMinor(100.0);
+        sender = new Wallet(1L, "Sender");
+        receiver = new Wallet(2L, "Receiver");
+        sender.setBalance(Money.toMinor(1_000.0));
+        switch (reason) {
+            case "WALLET_FROZEN" -> sender.setFrozen(true);
+            case "INSUFFICIENT_BALANCE" -> sender.setBalance(amount - 1);
+            case "DAILY_LIMIT_EXCEEDED" -> sender.setDailySpent(DAILY_LIMIT - amount + 1);
+            default -> throw new IllegalArgumentException("Unknown reason " + reason);
+        }
+        item = new BatchTransferItemResult(0, receiver.getUserId(), Money.toMajor(amount), "TXN-BENCH");
+
+        if (!validator.checkTransfer(sender, receiver, amount).name().equals(reason)) {
+            throw new IllegalStateException("Wallet state does not produce " + reason);
+        }
+    }
+
+    @Benchmark
+    public BatchTransferItemResult thrown() {
+        try {
+            validator.validateNotBlacklisted(sender);
+            validator.validateNotBlacklisted(receiver);
+            validator.validateFrozen(sender);
+            validator.validateBalance(sender, amount);
+            validator.validateDailyLimit(sender, amount);
+            item.succeed();
+        } catch (IllegalArgumentException e) {
+            item.fail(e.getMessage());
+        }
+        return item;
+    }
+
+    @Benchmark
+    public BatchTransferItemResult resultCode() {
+        ValidationResult verdict = validator.checkTransfer(sender, receiver, amount);
+        if (verdict.isOk()) {
+            item.succeed();
+        } else {
+            item.reject(verdict.name(), verdict.getMessage());
+        }
+        return item;
+    }
+}
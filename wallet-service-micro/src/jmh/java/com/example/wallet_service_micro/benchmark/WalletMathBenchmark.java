@@ -0,0 +1,113 @@
+package com.example.wallet_service_micro.benchmark;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+// --------------------------------------------------------------------
+// Cost and allocations of the per-transfer hot path: WalletValidator's
+// amount / frozen / balance / daily-limit checks + the debit/credit math.
+//  • minorUnits      → current code: long minor units on Wallet
+//  • boxedDouble     → the previous representation (Double fields,
+//                      double validator math) kept here as a baseline
+//  • parseApiAmount  → the one decimal → minor-unit conversion per request
+// Read gc.alloc.rate.norm (bytes/op) from the gc profiler.
+// Logging is raised to WARN, as in production, so "✅ passed" lines are off.
+// Run: gradle jmh
+// --------------------------------------------------------------------
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WalletMathBenchmark {
+
+    private static final double BOXED_DAILY_LIMIT = 1_000_000_000.0;
+    private static final long DAILY_LIMIT = Money.toMinor(BOXED_DAILY_LIMIT);
+
+    private WalletValidator validator;
+    private Wallet sender;
+    private Wallet receiver;
+    private BoxedWallet boxedSender;
+    private BoxedWallet boxedReceiver;
+    private long amount;
+    private double apiAmount;
+
+    @Setup
+    public void setUp() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        WalletProperties properties = new WalletProperties();
+        properties.setMinAmount(1.0);
+        properties.setMaxAmount(100_000.0);
+        properties.setDailyLimit(Money.toMajor(DAILY_LIMIT));
+        validator = new WalletValidator(properties);
+
+        sender = new Wallet(1L, "Sender");
+        receiver = new Wallet(2L, "Receiver");
+        boxedSender = new BoxedWallet();
+        boxedReceiver = new BoxedWallet();
+        apiAmount = 12.34;
+        amount = Money.toMinor(apiAmount);
+    }
+
+    // Reset per iteration so balances / daily totals never hit a guard
+    @Setup(Level.Iteration)
+    public void refill() {
+        sender.setBalance(Long.MAX_VALUE / 2);
+        sender.setDailySpent(0);
+        sender.setFrozen(false);
+        boxedSender.balance = Double.MAX_VALUE / 2;
+        boxedSender.dailySpent = 0.0;
+        boxedSender.frozen = false;
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        validator.validateAmount(amount, "Transfer");
+        validator.validateFrozen(sender);
+        validator.validateBalance(sender, amount);
+        validator.validateDailyLimit(sender, amount);
+
+        sender.debit(amount, DAILY_LIMIT);
+        receiver.credit(amount);
+        sender.setDailySpent(0); // keep the daily limit out of the picture
+        return sender.getBalance();
+    }
+
+    @Benchmark
+    public double boxedDouble() {
+        boxedSender.validate(apiAmount);
+
+        boxedSender.balance = boxedSender.balance - apiAmount;
+        boxedSender.dailySpent = boxedSender.dailySpent + apiAmount;
+        if (boxedSender.dailySpent >= BOXED_DAILY_LIMIT) boxedSender.frozen = true;
+        boxedReceiver.balance = boxedReceiver.balance + apiAmount;
+        boxedSender.dailySpent = 0.0;
+        return boxedSender.balance;
+    }
+
+    @Benchmark
+    public long parseApiAmount() {
+        return Money.toMinor(apiAmount);
+    }
+
+    // Shape of Wallet + WalletValidator before the switch to minor units
+    private static final class BoxedWallet {
+        Double balance = 0.0;
+        Double dailySpent = 0.0;
+        Boolean frozen = false;
+
+        void validate(double amount) {
+            if (amount <= 0 || amount < 1.0 || amount > 100_000.0) throw new IllegalArgumentException("amount");
+            if (frozen) throw new IllegalArgumentException("frozen");
+            if (balance < amount) throw new IllegalArgumentException("balance");
+            double remaining = BOXED_DAILY_LIMIT - dailySpent;
+            if (amount > remaining) throw new IllegalArgumentException("limit");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.wallet_service_micro.loadtest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// --------------------------------------------------------------------
+// Closed-loop load generator: harness.concurrency clients each send one
+// request at a time against a running service for harness.duration
+// seconds, then p50 / p90 / p99 latency and throughput are printed.
+//
+// Compare execution modes by running it twice against the same endpoint:
+//   1) service started normally
+//   2) service started with --spring.profiles.active=virtual
+//
+//   gradle loadTest -Pharness.url=http://localhost:8086/api/wallet/my-wallets \
+//                   -Pharness.jwtSecret=<jwt.secret> -Pharness.label=platform
+//
+// harness.jwtSecret mints an HS256 token carrying id/name/role claims, so
+// wallet-service verifies it locally and the run measures wallet-service
+// itself, not user-service. harness.authHeader sends a literal header instead.
+// --------------------------------------------------------------------
+public final class LoadHarness {
+
+    private record Config(URI url, String method, String body, String authHeader, String label,
+                          int concurrency, int warmupSeconds, int durationSeconds) {}
+
+    private record Result(long[] latenciesNanos, long errors, double seconds) {}
+
+    public static void main(String[] args) throws Exception {
+        Config config = readConfig();
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("> %s %s | concurrency=%d | warmup=%ds | duration=%ds%n",
+                config.method(), config.url(), config.concurrency(), config.warmupSeconds(), config.durationSeconds());
+
+        run(client, config, config.warmupSeconds());
+        Result result = run(client, config, config.durationSeconds());
+        report(config.label(), result);
+    }
+
+    private static Result run(HttpClient client, Config config, int seconds) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long started = System.nanoTime();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> perClient = new ArrayList<>();
+            long[] errors = new long[config.concurrency()];
+
+            for (int c = 0; c < config.concurrency(); c++) {
+                int slot = c;
+                perClient.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long t0 = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = client.send(request(config), HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (!ok) {
+                            errors[slot]++;
+                            continue;
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - t0;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+
+            long[] all = new long[0];
+            for (Future<long[]> f : perClient) {
+                long[] samples = f.get();
+                int offset = all.length;
+                all = Arrays.copyOf(all, offset + samples.length);
+                System.arraycopy(samples, 0, all, offset, samples.length);
+            }
+            double elapsed = (System.nanoTime() - started) / 1e9;
+            return new Result(all, Arrays.stream(errors).sum(), elapsed);
+        }
+    }
+
+    private static HttpRequest request(Config config) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(config.url()).timeout(Duration.ofSeconds(30));
+        if (config.authHeader() != null) {
+            builder.header("Authorization", config.authHeader());
+        }
+        if (config.body() != null) {
+            builder.header("Content-Type", "application/json");
+            return builder.method(config.method(), HttpRequest.BodyPublishers.ofString(config.body())).build();
+        }
+        return builder.method(config.method(), HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static void report(String label, Result result) {
+        long[] latencies = result.latenciesNanos();
+        Arrays.sort(latencies);
+
+        System.out.printf("%n-- %s ------------------------------%n", label);
+        System.out.printf("requests   : %d ok, %d errors%n", latencies.length, result.errors());
+        System.out.printf("throughput : %.1f req/s%n", latencies.length / result.seconds());
+        System.out.printf("latency    : p50=%.2fms  p90=%.2fms  p99=%.2fms  max=%.2fms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // ------------------------ Configuration ------------------------
+
+    private static Config readConfig() throws Exception {
+        String url = System.getProperty("harness.url");
+        if (url == null) {
+            throw new IllegalArgumentException("harness.url is required");
+        }
+
+        String authHeader = System.getProperty("harness.authHeader");
+        String secret = System.getProperty("harness.jwtSecret");
+        if (authHeader == null && secret != null) {
+            authHeader = "Bearer " + mintToken(secret,
+                    Long.getLong("harness.userId", 1L),
+                    System.getProperty("harness.role", "USER"));
+        }
+
+        return new Config(
+                URI.create(url),
+                System.getProperty("harness.method", "GET"),
+                System.getProperty("harness.body"),
+                authHeader,
+                System.getProperty("harness.label", "run"),
+                Integer.getInteger("harness.concurrency", 200),
+                Integer.getInteger("harness.warmup", 5),
+                Integer.getInteger("harness.duration", 30)
+        );
+    }
+
+    // Same claims user-service puts in its tokens (sub/id/name/role), HS256 via the JDK only
+    private static String mintToken(String secret, long userId, String role) throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        String header = "{\"alg\":\"HS256\"}";
+        String payload = "{\"sub\":\"loadtest" + userId + "@example.com\",\"id\":" + userId
+                + ",\"name\":\"Load Test\",\"role\":\"" + role + "\",\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}";
+
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        String unsigned = b64.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + b64.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return unsigned + "." + b64.encodeToString(mac.doFinal(unsigned.getBytes(StandardCharsets.UTF_8)));
+    }
+}
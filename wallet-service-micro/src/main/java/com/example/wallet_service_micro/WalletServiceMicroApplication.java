@@ -3,9 +3,11 @@ package com.example.wallet_service_micro;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "com.example.wallet_service_micro.client")
+@EnableScheduling
 public class WalletServiceMicroApplication {
 
 	public static void main(String[] args) {
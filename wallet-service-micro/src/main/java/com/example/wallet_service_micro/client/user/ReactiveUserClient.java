@@ -0,0 +1,368 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.config.jwt.JwtVerifier;
+import com.example.wallet_service_micro.config.properties.AuthProperties;
+import com.example.wallet_service_micro.config.properties.UserBatchProperties;
+import com.example.wallet_service_micro.config.properties.UserClientProperties;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.dto.userRequest.UserIdRequest;
+import com.example.wallet_service_micro.exception.user.RemoteUserServiceException;
+import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.user.UserServiceUnavailableException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+// --------------------------------------------------------------------
+// Non-blocking user-service client. Every lookup returns a Mono, so a
+// caller that composes on it never holds a thread while user-service
+// answers. Resolution order for identities:
+//   principal cache → local JWT verification → single-flight remote call
+// Every remote call runs under a deadline and the "user-service" circuit
+// breaker. While user-service is unavailable, identity lookups fall back
+// to the last-known principal (stale cache tier) instead of failing.
+// UserClient is the blocking facade over this class.
+// --------------------------------------------------------------------
+@Component
+public class ReactiveUserClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserClient.class);
+    private static final int REMOTE_BATCH_CONCURRENCY = 4;
+    private static final TypeReference<Map<String, Object>> ERROR_BODY = new TypeReference<>() {};
+
+    private final WebClient webClient; // used to make API calls
+    private final String userServiceUrl; // base URL of the user-service
+    private final String internalServiceToken; // X-Internal-Service-Key for /api/internal/** calls
+    private final ObjectMapper objectMapper; // used to deserialize JSON error bodies
+    private final AuthProperties authProperties; // decides between local JWT verification and the remote /me call
+    private final JwtVerifier jwtVerifier;
+    private final UserPrincipalCache principalCache; // token/id → UserDTO, keeps most requests off user-service
+    private final MeterRegistry meterRegistry;       // user.client.remote.calls{operation} → compare against http.server.requests
+    private final UserBatchLoader batchLoader;       // null when batching is disabled (wallet.user-batch.window=0)
+    private final SingleFlight<String, UserDTO> tokenFlights; // same token in parallel → one resolution
+    private final SingleFlight<Long, UserDTO> idFlights;      // same id in parallel → one lookup
+    private final Duration deadline;                 // upper bound for one remote call, pool wait included
+    private final int remoteBatchLimit;              // largest /api/internal/users/batch user-service accepts
+    private final CircuitBreaker circuitBreaker;     // resilience4j.circuitbreaker.* metrics, name=user-service
+
+    public ReactiveUserClient(WebClient webClient,
+                              @Value("${user.service.url}") String userServiceUrl,
+                              @Value("${internal.service-token}") String internalServiceToken,
+                              @Value("${internal.users.batch-max-size:500}") int remoteBatchLimit,
+                              AuthProperties authProperties,
+                              JwtVerifier jwtVerifier,
+                              UserPrincipalCache principalCache,
+                              UserBatchProperties batchProperties,
+                              UserClientProperties clientProperties,
+                              MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.userServiceUrl = userServiceUrl;
+        this.internalServiceToken = internalServiceToken;
+        this.objectMapper = new ObjectMapper();
+        this.authProperties = authProperties;
+        this.jwtVerifier = jwtVerifier;
+        this.principalCache = principalCache;
+        this.meterRegistry = meterRegistry;
+        this.batchLoader = batchProperties.isEnabled()
+                ? new UserBatchLoader(this::fetchUsersByIds, batchProperties.getWindow(), batchProperties.getMaxSize(), meterRegistry)
+                : null;
+        this.tokenFlights = new SingleFlight<>("token", meterRegistry);
+        this.idFlights = new SingleFlight<>("by-id", meterRegistry);
+        this.deadline = clientProperties.getDeadline();
+        this.remoteBatchLimit = remoteBatchLimit;
+        this.circuitBreaker = circuitBreaker(clientProperties, meterRegistry);
+    }
+
+    // --------------------------------------------------------------------
+    // Count-based breaker over the last N calls. Only unavailability counts
+    // as failure (I/O errors, timeouts, 5xx); a 4xx is a valid answer from a
+    // healthy user-service. Slow calls open it too → a degrading user-service
+    // is cut off before every caller sits on the full deadline.
+    // --------------------------------------------------------------------
+    private static CircuitBreaker circuitBreaker(UserClientProperties properties, MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(properties.getBreakerWindow())
+                .minimumNumberOfCalls(properties.getBreakerMinCalls())
+                .failureRateThreshold(properties.getBreakerFailureRate())
+                .slowCallDurationThreshold(properties.getBreakerSlowCall())
+                .slowCallRateThreshold(properties.getBreakerSlowCallRate())
+                .waitDurationInOpenState(properties.getBreakerOpenFor())
+                .permittedNumberOfCallsInHalfOpenState(properties.getBreakerHalfOpenCalls())
+                .ignoreException(ex -> ex instanceof WebClientResponseException w && w.getStatusCode().is4xxClientError())
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        CircuitBreaker breaker = registry.circuitBreaker("user-service");
+        breaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("⚡ user-service circuit breaker {}", event.getStateTransition()));
+        return breaker;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (batchLoader != null) {
+            batchLoader.shutdown();
+        }
+    }
+
+    // ✅ Concurrent single-id lookups are grouped into one batch call (see UserBatchLoader)
+    public Mono<UserDTO> getUserByIdInternal(Long userId) {
+        return Mono.defer(() -> {
+            UserDTO cached = principalCache.getById(userId);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            return idFlights.execute(userId, () ->
+                    (batchLoader != null ? loadBatched(userId) : fetchUserByIdInternal(userId))
+                            .doOnNext(principalCache::putById)
+                            .onErrorResume(UserServiceUnavailableException.class,
+                                    ex -> degraded("by-id", principalCache.getStaleById(userId), ex)));
+        });
+    }
+
+    // ✅ Map of userId → user for every id user-service knows; unknown ids are absent
+    public Mono<Map<Long, UserDTO>> getUsersByIds(Collection<Long> userIds) {
+        return Mono.defer(() -> {
+            Map<Long, UserDTO> result = new HashMap<>();
+            Set<Long> missing = new LinkedHashSet<>();
+            for (Long id : userIds) {
+                UserDTO cached = principalCache.getById(id);
+                if (cached != null) {
+                    result.put(id, cached);
+                } else {
+                    missing.add(id);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return Mono.just(result);
+            }
+            return fetchUsersByIds(missing)
+                    .map(fetched -> {
+                        fetched.values().forEach(principalCache::putById);
+                        result.putAll(fetched);
+                        return result;
+                    })
+                    .onErrorResume(UserServiceUnavailableException.class, ex -> {
+                        // Degraded → only when every missing id has a last-known principal
+                        for (Long id : missing) {
+                            UserDTO stale = principalCache.getStaleById(id);
+                            if (stale == null) {
+                                return Mono.error(ex);
+                            }
+                            result.put(id, stale);
+                        }
+                        return degraded("batch", result, ex);
+                    });
+        });
+    }
+
+    public Mono<List<UserDTO>> getAllUsers(String authHeader) {
+        return remote(webClient.get()
+                .uri(userServiceUrl + "/api/admin/users")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .retrieve()
+                .bodyToMono(UserDTO[].class)
+                .map(List::of)
+                .defaultIfEmpty(List.of()));
+    }
+
+    public Mono<UserDTO> getUserFromToken(String authHeader) {
+        return Mono.defer(() -> {
+            // ✅ Cached principal → entry dies with the token's exp, so no re-verification needed
+            UserDTO cached = principalCache.getByToken(authHeader);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+
+            return tokenFlights.execute(authHeader, () -> {
+                // ✅ LOCAL mode: signature + expiry checked here, no round trip to user-service
+                UserDTO local = authProperties.isLocal() ? jwtVerifier.verify(authHeader) : null;
+                Mono<UserDTO> user = local != null ? Mono.just(local) : fetchUserFromToken(authHeader);
+                return user
+                        .doOnNext(u -> principalCache.putToken(authHeader, u, jwtVerifier.readExpiry(authHeader)))
+                        .onErrorResume(UserServiceUnavailableException.class,
+                                ex -> degraded("me", principalCache.getStaleByToken(authHeader), ex));
+            });
+        });
+    }
+
+    // Explicit invalidation hook for anything that changes a user's state
+    public void invalidateUser(Long userId) {
+        principalCache.invalidateUser(userId);
+    }
+
+    public Mono<Void> blacklistUser(Long userId, String authHeader) {
+        return updateUserStatus(userId, authHeader, "/api/admin/users/blacklist");
+    }
+
+    public Mono<Void> unblacklistUser(Long userId, String authHeader) {
+        return updateUserStatus(userId, authHeader, "/api/admin/users/unblacklist");
+    }
+
+    // ✅ Every id user-service currently has blacklisted → RevokedUserRegistry startup snapshot
+    public Mono<List<Long>> getRevokedUserIds() {
+        return remote(webClient.get()
+                .uri(userServiceUrl + "/api/internal/users/revoked")
+                .header("X-Internal-Service-Key", internalServiceToken)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<Long>>() {})
+                .defaultIfEmpty(List.of())
+                .doOnSubscribe(s -> countRemoteCall("revoked")));
+    }
+
+    // ------------------------ Remote calls ------------------------
+
+    private Mono<UserDTO> loadBatched(Long userId) {
+        return Mono.fromFuture(() -> batchLoader.load(userId))
+                .switchIfEmpty(Mono.error(() ->
+                        new UserNotFoundException("User not found with ID " + userId))); // single GET used to fail the same way
+    }
+
+    private Mono<UserDTO> fetchUserByIdInternal(Long userId) {
+        return remote(webClient.get() // Initiating a GET request from user_service_micro
+                .uri(userServiceUrl + "/api/internal/users/" + userId)
+                .header("X-Internal-Service-Key", internalServiceToken)
+                .retrieve()
+                .bodyToMono(UserDTO.class)
+                .doOnSubscribe(s -> countRemoteCall("by-id")));
+    }
+
+    // Bulk callers (batch transfers, payouts) can pass thousands of ids → split at the remote limit
+    private Mono<Map<Long, UserDTO>> fetchUsersByIds(Set<Long> userIds) {
+        if (userIds.size() <= remoteBatchLimit) {
+            return fetchUserBatch(userIds);
+        }
+        List<Set<Long>> parts = new ArrayList<>();
+        Set<Long> part = new LinkedHashSet<>();
+        for (Long id : userIds) {
+            part.add(id);
+            if (part.size() == remoteBatchLimit) {
+                parts.add(part);
+                part = new LinkedHashSet<>();
+            }
+        }
+        if (!part.isEmpty()) {
+            parts.add(part);
+        }
+        return Flux.fromIterable(parts)
+                .flatMap(this::fetchUserBatch, REMOTE_BATCH_CONCURRENCY)
+                .reduceWith(() -> new HashMap<Long, UserDTO>(userIds.size() * 2), (all, found) -> {
+                    all.putAll(found);
+                    return all;
+                });
+    }
+
+    private Mono<Map<Long, UserDTO>> fetchUserBatch(Set<Long> userIds) {
+        return remote(webClient.post()
+                .uri(userServiceUrl + "/api/internal/users/batch")
+                .header("X-Internal-Service-Key", internalServiceToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userIds)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<Map<Long, UserDTO>>() {})
+                .defaultIfEmpty(Map.of())
+                .doOnSubscribe(s -> countRemoteCall("batch")));
+    }
+
+    // Remote fallback → user-service resolves the token against its database
+    private Mono<UserDTO> fetchUserFromToken(String authHeader) {
+        return remote(webClient.get()
+                .uri(userServiceUrl + "/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .retrieve()
+                .bodyToMono(UserDTO.class)
+                .doOnSubscribe(s -> countRemoteCall("me")));
+    }
+
+    private Mono<Void> updateUserStatus(Long userId, String authHeader, String path) {
+        return remote(webClient.put()
+                .uri(userServiceUrl + path)
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .contentType(MediaType.APPLICATION_JSON) // Indicates the server that the body is of JSON type.
+                .bodyValue(new UserIdRequest(userId)) // bodyValue() converts the object into JSON automatically.
+                .retrieve()
+                .bodyToMono(Void.class)) // no content expected back
+                .doOnSuccess(v -> principalCache.invalidateUser(userId)); // cached principals still carry the old state
+    }
+
+    // --------------------------------------------------------------------
+    // Deadline + breaker + shared error mapping. Callers only ever see
+    // RemoteUserServiceException; the UserServiceUnavailableException subtype
+    // marks failures where user-service could not answer at all.
+    // --------------------------------------------------------------------
+    private <T> Mono<T> remote(Mono<T> call) {
+        return call
+                .timeout(deadline) // inside the breaker → a deadline miss counts as a failure
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(CallNotPermittedException.class,
+                        ex -> new UserServiceUnavailableException("User-service circuit is open, failing fast"))
+                .onErrorMap(TimeoutException.class,
+                        ex -> new UserServiceUnavailableException("User-service did not answer within " + deadline.toMillis() + "ms"))
+                .onErrorMap(WebClientResponseException.class, ex -> ex.getStatusCode().is5xxServerError()
+                        ? new UserServiceUnavailableException(extractMessage(ex))
+                        : new RemoteUserServiceException(extractMessage(ex)))
+                .onErrorMap(ex -> !(ex instanceof RemoteUserServiceException),
+                        ex -> new UserServiceUnavailableException("User-service is unavailable: " + ex.getMessage()));
+    }
+
+    // ✅ Last-known principal instead of an error; nothing cached → original failure
+    private <T> Mono<T> degraded(String operation, T stale, UserServiceUnavailableException cause) {
+        if (stale == null) {
+            return Mono.error(cause);
+        }
+        logger.warn("🩹 Serving cached principal for {} lookup, user-service unavailable: {}", operation, cause.getMessage());
+        meterRegistry.counter("user.client.degraded", "operation", operation).increment();
+        return Mono.just(stale);
+    }
+
+    private void countRemoteCall(String operation) {
+        meterRegistry.counter("user.client.remote.calls", "operation", operation).increment();
+    }
+
+    // ✅ Shared error extraction
+    private String extractMessage(WebClientResponseException ex) {
+        try {
+            Map<String, Object> body = objectMapper.readValue(ex.getResponseBodyAsString(), ERROR_BODY);
+            return body.getOrDefault("message", ex.getStatusCode() + " " + ex.getStatusText()).toString();
+        } catch (Exception e) {
+            return ex.getStatusCode() + " " + ex.getStatusText();
+        }
+    }
+}
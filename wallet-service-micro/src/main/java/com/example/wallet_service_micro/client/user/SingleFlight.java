@@ -0,0 +1,60 @@
+package com.example.wallet_service_micro.client.user;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// --------------------------------------------------------------------
+// Single-flight: while a call for a key is running, every other caller
+// with the same key waits for that result instead of issuing its own.
+// The first subscriber triggers the call; the entry is removed as soon
+// as it finishes, so nothing is cached here.
+// The call is shared through Mono.cache(): a caller that cancels only
+// drops its own subscription, the call itself runs to its end (bounded
+// by the client's deadline) → a cancelled first caller does not take
+// the others' result with it, and a caller joining as it finishes
+// still gets the value.
+// Metric: user.client.coalesced{operation} → calls that piggy-backed
+// --------------------------------------------------------------------
+class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    SingleFlight(String operation, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder("user.client.coalesced")
+                .description("Calls that shared an in-flight user-service lookup")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            boolean[] started = {false};
+            Flight flight = inFlight.computeIfAbsent(key, k -> {
+                started[0] = true;
+                return new Flight(k, call);
+            });
+            if (!started[0]) {
+                coalesced.increment();
+            }
+            return flight.result;
+        });
+    }
+
+    // One call for one key; removes itself when the call completes or fails
+    private final class Flight {
+
+        private final Mono<V> result;
+
+        Flight(K key, Supplier<Mono<V>> call) {
+            this.result = Mono.defer(call) // a supplier that throws still terminates → entry is released
+                    // before the signal reaches any caller → a caller's next call starts fresh, never replays this one
+                    .doOnTerminate(() -> inFlight.remove(key, this))
+                    .cache(); // every caller sees the same value or the same exception
+        }
+    }
+}
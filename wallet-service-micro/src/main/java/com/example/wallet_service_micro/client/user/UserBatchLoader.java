@@ -0,0 +1,116 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// --------------------------------------------------------------------
+// Data-loader style batching for single-id lookups.
+// The first load() in an empty window arms a timer; every load() that
+// arrives before it fires (or until maxBatchSize ids are queued) joins
+// the same batch → one POST /api/internal/users/batch instead of N GETs.
+// Ids missing from the batch response complete with null.
+// --------------------------------------------------------------------
+class UserBatchLoader {
+
+    private final Function<Set<Long>, Mono<Map<Long, UserDTO>>> batchFetcher;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-batch-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Guards pending only, never held during I/O. A ReentrantLock rather than synchronized:
+    // on JDK 21 a virtual thread parked on a contended monitor pins its carrier thread.
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, CompletableFuture<UserDTO>> pending = new HashMap<>();
+
+    UserBatchLoader(Function<Set<Long>, Mono<Map<Long, UserDTO>>> batchFetcher,
+                    Duration window,
+                    int maxBatchSize,
+                    MeterRegistry meterRegistry) {
+        this.batchFetcher = batchFetcher;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("user.client.batch.size")
+                .description("Ids per batched user-service lookup")
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<UserDTO> load(Long userId) {
+        Map<Long, CompletableFuture<UserDTO>> full = null;
+        CompletableFuture<UserDTO> future;
+
+        lock.lock();
+        try {
+            future = pending.get(userId); // same id twice in one window → same future
+            if (future == null) {
+                future = new CompletableFuture<>();
+                boolean firstInWindow = pending.isEmpty();
+                pending.put(userId, future);
+
+                if (pending.size() >= maxBatchSize) {
+                    full = swap();
+                } else if (firstInWindow) {
+                    timer.schedule(this::dispatchWindow, windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    private void dispatchWindow() {
+        Map<Long, CompletableFuture<UserDTO>> batch;
+        lock.lock();
+        try {
+            batch = swap();
+        } finally {
+            lock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    private Map<Long, CompletableFuture<UserDTO>> swap() {
+        Map<Long, CompletableFuture<UserDTO>> batch = pending;
+        pending = new HashMap<>();
+        return batch;
+    }
+
+    private void dispatch(Map<Long, CompletableFuture<UserDTO>> batch) {
+        batchSizes.record(batch.size());
+        Mono.defer(() -> batchFetcher.apply(batch.keySet())) // non-blocking → the timer thread only subscribes
+                .defaultIfEmpty(Map.of())
+                .subscribe(
+                        users -> batch.forEach((id, future) -> future.complete(users.get(id))),
+                        ex -> batch.values().forEach(future -> future.completeExceptionally(ex))
+                );
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.config.properties.UserCacheProperties;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+// --------------------------------------------------------------------
+// Bounded cache in front of user-service lookups.
+//  • token cache  → key is SHA-256(token), raw JWTs are never kept in memory;
+//                   each entry expires together with the JWT it was built from
+//  • user cache   → userId → UserDTO with a short TTL (internal lookups)
+//  • stale tier   → last-known principals kept for staleTtl (never past the
+//                   JWT exp), read ONLY as a fallback while user-service is
+//                   unavailable (see ReactiveUserClient)
+// Metrics are published as cache.gets / cache.evictions / cache.size
+// with cache=user.principal.token, user.principal.id and user.principal.stale.*.
+// --------------------------------------------------------------------
+@Component
+public class UserPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserPrincipalCache.class);
+
+    private record CachedPrincipal(UserDTO user, long expiresAtNanos) {}
+
+    private final boolean enabled;
+    private final long tokenMaxTtlNanos;
+    private final long staleTtlNanos;
+    private final Cache<String, CachedPrincipal> tokens;
+    private final Cache<Long, UserDTO> usersById;
+    private final Cache<String, CachedPrincipal> staleTokens;
+    private final Cache<Long, UserDTO> staleUsersById;
+
+    public UserPrincipalCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.tokenMaxTtlNanos = properties.getTokenMaxTtl().toNanos();
+        this.staleTtlNanos = properties.getStaleTtl().toNanos();
+
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTokens())
+                .expireAfter(untilTokenExpiry())
+                .recordStats()
+                .build();
+
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterWrite(properties.getUserTtl())
+                .recordStats()
+                .build();
+
+        this.staleTokens = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTokens())
+                .expireAfter(untilTokenExpiry())
+                .recordStats()
+                .build();
+
+        this.staleUsersById = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterWrite(properties.getStaleTtl())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, tokens, "user.principal.token");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "user.principal.id");
+        CaffeineCacheMetrics.monitor(meterRegistry, staleTokens, "user.principal.stale.token");
+        CaffeineCacheMetrics.monitor(meterRegistry, staleUsersById, "user.principal.stale.id");
+    }
+
+    // Entries die at their own deadline (JWT exp / cap), reads never extend the lifetime
+    private static Expiry<String, CachedPrincipal> untilTokenExpiry() {
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+                return Math.max(0, value.expiresAtNanos() - currentTime);
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    // ✅ Token-keyed lookups
+    public UserDTO getByToken(String authHeader) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPrincipal cached = tokens.getIfPresent(hash(authHeader));
+        return cached != null ? cached.user() : null;
+    }
+
+    // expiresAtMillis = JWT exp claim (epoch millis), <= 0 when unknown → capped by tokenMaxTtl
+    public void putToken(String authHeader, UserDTO user, long expiresAtMillis) {
+        if (!enabled || user == null) {
+            return;
+        }
+        long remaining = Long.MAX_VALUE;
+        if (expiresAtMillis > 0) {
+            remaining = TimeUnit.MILLISECONDS.toNanos(expiresAtMillis - System.currentTimeMillis());
+            if (remaining <= 0) {
+                return; // already expired, nothing worth caching
+            }
+        }
+        String key = hash(authHeader);
+        long now = System.nanoTime();
+        tokens.put(key, new CachedPrincipal(user, now + Math.min(tokenMaxTtlNanos, remaining)));
+        if (staleTtlNanos > 0) {
+            staleTokens.put(key, new CachedPrincipal(user, now + Math.min(staleTtlNanos, remaining)));
+        }
+    }
+
+    // ✅ Id-keyed lookups
+    public UserDTO getById(Long userId) {
+        return enabled && userId != null ? usersById.getIfPresent(userId) : null;
+    }
+
+    public void putById(UserDTO user) {
+        if (enabled && user != null && user.getId() != null) {
+            usersById.put(user.getId(), user);
+            if (staleTtlNanos > 0) {
+                staleUsersById.put(user.getId(), user);
+            }
+        }
+    }
+
+    // ✅ Degraded reads → only for callers that could not reach user-service
+    public UserDTO getStaleByToken(String authHeader) {
+        if (!enabled) {
+            return null;
+        }
+        CachedPrincipal cached = staleTokens.getIfPresent(hash(authHeader));
+        return cached != null ? cached.user() : null;
+    }
+
+    public UserDTO getStaleById(Long userId) {
+        return enabled && userId != null ? staleUsersById.getIfPresent(userId) : null;
+    }
+
+    // --------------------------------------------------------------------
+    // Invalidation hooks — called whenever a user's state changes
+    // (blacklist / unblacklist) so the next request goes back to the source.
+    // --------------------------------------------------------------------
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        usersById.invalidate(userId);
+        staleUsersById.invalidate(userId);
+        tokens.asMap().values().removeIf(p -> Objects.equals(p.user().getId(), userId));
+        staleTokens.asMap().values().removeIf(p -> Objects.equals(p.user().getId(), userId));
+        logger.info("🧹 Evicted cached principals for userId={}", userId);
+    }
+
+    public void invalidateAll() {
+        usersById.invalidateAll();
+        tokens.invalidateAll();
+        staleUsersById.invalidateAll();
+        staleTokens.invalidateAll();
+        logger.info("🧹 Evicted all cached principals");
+    }
+
+    private static String hash(String authHeader) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(authHeader.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // mandated by every JRE
+        }
+    }
+}
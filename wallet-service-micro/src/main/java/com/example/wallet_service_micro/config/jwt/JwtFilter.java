@@ -1,7 +1,10 @@
 package com.example.wallet_service_micro.config.jwt;
 
-import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
 import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.service.revocation.RevokedUserRegistry;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,14 +18,36 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.List;
-
+import java.util.concurrent.CompletableFuture;
+
+// --------------------------------------------------------------------
+// Resolves the caller from the Bearer token without holding a Tomcat
+// worker: a cache hit or local JWT verification completes inline; when
+// the lookup has to go to user-service (/me), the request is put in
+// async mode and the worker released. Once the lookup completes the
+// request is re-dispatched (DispatcherType.ASYNC) with the outcome in
+// the RESOLVED_USER attribute, and this filter finishes it then.
+// SecurityConfig authorizes such re-dispatches like initial ones.
+// --------------------------------------------------------------------
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final UserClient userClient;
+    public static final String RESOLVED_USER = JwtFilter.class.getName() + ".RESOLVED_USER";
+
+    private record Resolution(UserDTO user, boolean failed) {}
+
+    private final ReactiveUserClient userClient;
+    private final RevokedUserRegistry revokedUserRegistry;
 
-    public JwtFilter(UserClient userClient) {
+    public JwtFilter(ReactiveUserClient userClient, RevokedUserRegistry revokedUserRegistry) {
         this.userClient = userClient;
+        this.revokedUserRegistry = revokedUserRegistry;
+    }
+
+    // Runs on ASYNC re-dispatches too → a deferred lookup is finished there
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
     }
 
     @Override
@@ -37,6 +62,7 @@ public class JwtFilter extends OncePerRequestFilter {
         // Allow Public Endpoints
         if (path.equals("/") ||
                 path.startsWith("/api/public") ||
+                path.startsWith("/api/internal/") || // service-to-service, authenticated by X-Internal-Service-Key
                 path.contains("/actuator") ||
                 path.startsWith("/v3/api-docs") ||
                 path.startsWith("/swagger-ui") ||
@@ -46,27 +72,61 @@ public class JwtFilter extends OncePerRequestFilter {
             return;
         }
 
-        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        Resolution resolved = (Resolution) request.getAttribute(RESOLVED_USER);
+        if (resolved == null && request.getDispatcherType() == DispatcherType.ASYNC) {
+            filterChain.doFilter(request, response); // Mono controller finishing, authorized on its initial dispatch
             return;
         }
 
-        try {
-            // ✅ Get user info from user-service
-            UserDTO user = userClient.getUserFromToken(authHeader);
-            if (user != null && user.getEmail() != null) {
-                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
-                var auth = new UsernamePasswordAuthenticationToken(user, null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(auth);
+        if (resolved == null) {
+            String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
             }
-        } catch (Exception e) {
+
+            // ✅ Resolve user: local JWT verification in LOCAL mode, user-service /me otherwise
+            CompletableFuture<UserDTO> lookup = userClient.getUserFromToken(authHeader).toFuture();
+            if (!lookup.isDone()) {
+                // Remote call in flight → release the worker, finish on the re-dispatch
+                AsyncContext async = request.startAsync();
+                lookup.whenComplete((user, error) -> {
+                    request.setAttribute(RESOLVED_USER, new Resolution(user, error != null));
+                    async.dispatch();
+                });
+                return;
+            }
+            resolved = resolve(lookup);
+        }
+
+        if (resolved.failed()) {
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             return;
         }
+        UserDTO user = resolved.user();
+
+        // ✅ Blacklisted users pushed by user-service are rejected even if their token is still valid
+        if (user != null && revokedUserRegistry.isRevoked(user.getId())) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        if (user != null && user.getEmail() != null) {
+            var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
+            var auth = new UsernamePasswordAuthenticationToken(user, null, authorities);
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
 
         filterChain.doFilter(request, response);
     }
+
+    private static Resolution resolve(CompletableFuture<UserDTO> completed) {
+        try {
+            return new Resolution(completed.join(), false);
+        } catch (Exception e) {
+            return new Resolution(null, true);
+        }
+    }
 }
 
 
@@ -0,0 +1,89 @@
+package com.example.wallet_service_micro.config.jwt;
+
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.auth.UnauthorizedException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+
+@Component
+public class JwtVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtVerifier.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final JwtParser parser; // null when no shared secret is configured → local verification disabled
+
+    public JwtVerifier(@Value("${jwt.secret:}") String secret) {
+        this.parser = secret.isBlank()
+                ? null
+                : Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(secret.getBytes())).build();
+    }
+
+    public boolean isEnabled() {
+        return parser != null;
+    }
+
+    // --------------------------------------------------------------------
+    // Verifies signature + expiry and builds the principal from the claims.
+    // Returns null when the token is genuine but was issued without the
+    // id/role claims (older tokens) → caller should fall back to user-service.
+    // --------------------------------------------------------------------
+    public UserDTO verify(String authHeader) {
+        if (parser == null) {
+            return null;
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(authHeader.substring(7)).getBody();
+        } catch (ExpiredJwtException e) {
+            logger.warn("⌛ Rejected expired JWT for subject={}", e.getClaims().getSubject());
+            throw new UnauthorizedException("JWT token has expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.warn("❌ Rejected invalid JWT: {}", e.getMessage());
+            throw new UnauthorizedException("Invalid token");
+        }
+
+        Long id = claims.get("id", Long.class);
+        String role = claims.get("role", String.class);
+        if (id == null || role == null || claims.getSubject() == null) {
+            logger.debug("🔁 JWT for {} carries no id/role claims, falling back to user-service", claims.getSubject());
+            return null;
+        }
+
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setEmail(claims.getSubject());
+        user.setName(claims.get("name", String.class));
+        user.setRole(role);
+        return user;
+    }
+
+    // --------------------------------------------------------------------
+    // Reads the exp claim (epoch millis) WITHOUT verifying the signature.
+    // Only used to bound cache lifetimes for tokens that were already
+    // accepted by verify() or by user-service. Returns -1 when unknown.
+    // --------------------------------------------------------------------
+    public long readExpiry(String authHeader) {
+        try {
+            String[] parts = authHeader.substring(7).split("\\.");
+            JsonNode exp = MAPPER.readTree(Base64.getUrlDecoder().decode(parts[1])).get("exp");
+            return exp != null && exp.canConvertToLong() ? exp.asLong() * 1000 : -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.wallet_service_micro.config.persistence;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JpaBatchingConfig {
+
+    // Same as the ledger id allocationSize → one sequence call per full batch
+    public static final int BATCH_SIZE = 50;
+
+    // --------------------------------------------------------------------
+    // JDBC statement batching for inserts/updates flushed together:
+    //  • batch_size           → up to BATCH_SIZE rows per executeBatch()
+    //  • order_inserts/updates → group statements per entity so a flush with
+    //                           mixed entities still forms full batches
+    //  • batch_versioned_data → keep batching for @Version'd entities (Wallet)
+    // Only works for entities whose ids are not IDENTITY-generated (see
+    // Transaction). Defaults only: spring.jpa.properties.hibernate.* wins.
+    // --------------------------------------------------------------------
+    @Bean
+    public HibernatePropertiesCustomizer jdbcBatchingCustomizer() {
+        return properties -> {
+            properties.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE);
+            properties.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            properties.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            properties.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+        };
+    }
+}
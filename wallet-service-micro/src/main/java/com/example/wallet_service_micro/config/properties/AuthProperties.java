@@ -0,0 +1,21 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.auth")
+public class AuthProperties {
+
+    public enum Mode {
+        LOCAL,  // verify the JWT signature + expiry in wallet-service, fall back to user-service only if claims are missing
+        REMOTE  // always resolve the user through user-service /api/users/me
+    }
+
+    private Mode mode = Mode.LOCAL;
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    public boolean isLocal() { return mode == Mode.LOCAL; }
+}
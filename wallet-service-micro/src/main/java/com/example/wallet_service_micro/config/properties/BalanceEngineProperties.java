@@ -0,0 +1,32 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.engine")
+public class BalanceEngineProperties {
+
+    private boolean enabled = false;                      // opt-in → loads / transfers go through the in-memory engine
+    private int partitions = 4;                           // single-writer threads, wallets spread by id
+    private int queueCapacity = 10_000;                   // accepted, not yet persisted commands per partition → beyond that requests are refused as busy
+    private int persistBatchSize = 1_000;                 // completed commands per DB transaction
+    private Duration replyTimeout = Duration.ofSeconds(2); // how long a request waits for its partition
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getPartitions() { return partitions; }
+    public void setPartitions(int partitions) { this.partitions = partitions; }
+
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    public int getPersistBatchSize() { return persistBatchSize; }
+    public void setPersistBatchSize(int persistBatchSize) { this.persistBatchSize = persistBatchSize; }
+
+    public Duration getReplyTimeout() { return replyTimeout; }
+    public void setReplyTimeout(Duration replyTimeout) { this.replyTimeout = replyTimeout; }
+}
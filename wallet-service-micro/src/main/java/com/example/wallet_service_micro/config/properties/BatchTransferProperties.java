@@ -0,0 +1,18 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.transfer.batch")
+public class BatchTransferProperties {
+
+    private int maxItems = 5_000;   // larger requests are rejected as a whole (400)
+    private int chunkSize = 200;    // transfers per DB transaction → bounds lock hold time and rollback scope
+
+    public int getMaxItems() { return maxItems; }
+    public void setMaxItems(int maxItems) { this.maxItems = maxItems; }
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+}
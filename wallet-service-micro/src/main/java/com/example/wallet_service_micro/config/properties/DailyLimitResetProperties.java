@@ -0,0 +1,23 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.daily-reset")
+public class DailyLimitResetProperties {
+
+    private int chunkSize = 5_000;   // wallet ids per unfreeze UPDATE (wallet.daily-reset.cron sets when it runs, midnight by default;
+                                     // wallet.daily-reset.recheck-interval how soon a failed run is repeated, PT5M)
+    private int retentionDays = 7;   // daily spend rows kept for support / statements, older ones are purged
+    private int purgeBatchSize = 1_000; // daily spend rows deleted per statement
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    public int getRetentionDays() { return retentionDays; }
+    public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+
+    public int getPurgeBatchSize() { return purgeBatchSize; }
+    public void setPurgeBatchSize(int purgeBatchSize) { this.purgeBatchSize = purgeBatchSize; }
+}
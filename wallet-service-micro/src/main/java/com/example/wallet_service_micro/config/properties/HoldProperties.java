@@ -0,0 +1,24 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.hold")
+public class HoldProperties {
+
+    private Duration defaultTtl = Duration.ofMinutes(15); // hold without ttlSeconds → expires after this
+    private Duration maxTtl = Duration.ofDays(7);         // longer requested ttls are rejected (400)
+    private int sweepBatchSize = 500;                     // expired holds read per page (wallet.hold.sweep-interval sets the cadence)
+
+    public Duration getDefaultTtl() { return defaultTtl; }
+    public void setDefaultTtl(Duration defaultTtl) { this.defaultTtl = defaultTtl; }
+
+    public Duration getMaxTtl() { return maxTtl; }
+    public void setMaxTtl(Duration maxTtl) { this.maxTtl = maxTtl; }
+
+    public int getSweepBatchSize() { return sweepBatchSize; }
+    public void setSweepBatchSize(int sweepBatchSize) { this.sweepBatchSize = sweepBatchSize; }
+}
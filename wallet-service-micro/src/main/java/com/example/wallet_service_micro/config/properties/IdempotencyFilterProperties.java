@@ -0,0 +1,32 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.idempotency.filter")
+public class IdempotencyFilterProperties {
+
+    private boolean enabled = true;                       // false → every duplicate check goes to the DB
+    private Duration window = Duration.ofHours(24);       // ids are remembered at least this long (two generations)
+    private int expectedInsertions = 1_000_000;           // per generation; reaching it rotates early (~1.8 MB at 0.1%)
+    private double falsePositiveRate = 0.001;             // target FPP per generation → share of "maybe" answers sent to the DB
+    private int warmUpPageSize = 10_000;                  // ids per page when re-reading the window at startup
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getExpectedInsertions() { return expectedInsertions; }
+    public void setExpectedInsertions(int expectedInsertions) { this.expectedInsertions = expectedInsertions; }
+
+    public double getFalsePositiveRate() { return falsePositiveRate; }
+    public void setFalsePositiveRate(double falsePositiveRate) { this.falsePositiveRate = falsePositiveRate; }
+
+    public int getWarmUpPageSize() { return warmUpPageSize; }
+    public void setWarmUpPageSize(int warmUpPageSize) { this.warmUpPageSize = warmUpPageSize; }
+}
@@ -0,0 +1,24 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.idempotency.replay")
+public class IdempotencyReplayProperties {
+
+    private boolean enabled = true;                 // false → Idempotency-Key only names the transaction, retries get "Duplicate transaction"
+    private Duration ttl = Duration.ofHours(24);    // how long a stored response can be replayed
+    private int purgeBatchSize = 500;               // expired records deleted per statement (wallet.idempotency.replay.purge-interval sets the cadence)
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+    public int getPurgeBatchSize() { return purgeBatchSize; }
+    public void setPurgeBatchSize(int purgeBatchSize) { this.purgeBatchSize = purgeBatchSize; }
+}
@@ -0,0 +1,18 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.payout")
+public class PayoutProperties {
+
+    private int maxRecipients = 50_000;  // larger payouts are rejected (400) → split them client-side
+    private int sliceSize = 1_000;       // wallet ids per IN-lookup, credits per JDBC batch, ledger rows per flush
+
+    public int getMaxRecipients() { return maxRecipients; }
+    public void setMaxRecipients(int maxRecipients) { this.maxRecipients = maxRecipients; }
+
+    public int getSliceSize() { return sliceSize; }
+    public void setSliceSize(int sliceSize) { this.sliceSize = sliceSize; }
+}
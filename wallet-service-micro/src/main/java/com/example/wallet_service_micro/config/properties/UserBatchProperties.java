@@ -0,0 +1,22 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.user-batch")
+public class UserBatchProperties {
+
+    private Duration window = Duration.ofMillis(5); // how long a single-id lookup waits for others to join; 0 → no batching
+    private int maxSize = 100;                       // dispatch early once this many ids are queued
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getMaxSize() { return maxSize; }
+    public void setMaxSize(int maxSize) { this.maxSize = maxSize; }
+
+    public boolean isEnabled() { return !window.isZero() && !window.isNegative(); }
+}
@@ -0,0 +1,36 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.user-cache")
+public class UserCacheProperties {
+
+    private boolean enabled = true;
+    private long maxTokens = 10_000;                     // token → principal entries
+    private long maxUsers = 10_000;                      // userId → UserDTO entries
+    private Duration tokenMaxTtl = Duration.ofMinutes(15); // upper bound, entries never outlive the JWT exp
+    private Duration userTtl = Duration.ofSeconds(30);   // short, profile/blacklist changes show up quickly
+    private Duration staleTtl = Duration.ofHours(1);     // last-known principals served only while user-service is down; 0 → off
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getMaxTokens() { return maxTokens; }
+    public void setMaxTokens(long maxTokens) { this.maxTokens = maxTokens; }
+
+    public long getMaxUsers() { return maxUsers; }
+    public void setMaxUsers(long maxUsers) { this.maxUsers = maxUsers; }
+
+    public Duration getTokenMaxTtl() { return tokenMaxTtl; }
+    public void setTokenMaxTtl(Duration tokenMaxTtl) { this.tokenMaxTtl = tokenMaxTtl; }
+
+    public Duration getUserTtl() { return userTtl; }
+    public void setUserTtl(Duration userTtl) { this.userTtl = userTtl; }
+
+    public Duration getStaleTtl() { return staleTtl; }
+    public void setStaleTtl(Duration staleTtl) { this.staleTtl = staleTtl; }
+}
@@ -0,0 +1,77 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.user-client")
+public class UserClientProperties {
+
+    // ✅ Connection pool (reactor-netty)
+    private int maxConnections = 100;                          // open connections to user-service
+    private int pendingAcquireMaxCount = 500;                  // requests allowed to queue for a connection
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(1); // give up waiting for a free connection
+    private Duration maxIdleTime = Duration.ofSeconds(20);     // below typical server keep-alive → no half-closed reuse
+    private Duration maxLifeTime = Duration.ofMinutes(5);      // recycle connections so new user-service instances get traffic
+
+    // ✅ Timeouts
+    private Duration connectTimeout = Duration.ofMillis(500);
+    private Duration responseTimeout = Duration.ofSeconds(2);  // per HTTP exchange, after the request is written
+    private Duration deadline = Duration.ofSeconds(3);         // whole call incl. pool wait → what the caller waits at most
+
+    // ✅ Circuit breaker
+    private float breakerFailureRate = 50;                     // % of failed calls that opens the breaker
+    private Duration breakerSlowCall = Duration.ofSeconds(1);  // calls slower than this count as slow
+    private float breakerSlowCallRate = 80;                    // % of slow calls that opens the breaker
+    private int breakerWindow = 20;                            // last N calls are evaluated
+    private int breakerMinCalls = 10;                          // no decision before this many calls
+    private Duration breakerOpenFor = Duration.ofSeconds(10);  // fail fast for this long, then probe
+    private int breakerHalfOpenCalls = 3;                      // probe calls allowed while half-open
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getPendingAcquireMaxCount() { return pendingAcquireMaxCount; }
+    public void setPendingAcquireMaxCount(int pendingAcquireMaxCount) { this.pendingAcquireMaxCount = pendingAcquireMaxCount; }
+
+    public Duration getPendingAcquireTimeout() { return pendingAcquireTimeout; }
+    public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) { this.pendingAcquireTimeout = pendingAcquireTimeout; }
+
+    public Duration getMaxIdleTime() { return maxIdleTime; }
+    public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+
+    public Duration getMaxLifeTime() { return maxLifeTime; }
+    public void setMaxLifeTime(Duration maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+
+    public Duration getDeadline() { return deadline; }
+    public void setDeadline(Duration deadline) { this.deadline = deadline; }
+
+    public float getBreakerFailureRate() { return breakerFailureRate; }
+    public void setBreakerFailureRate(float breakerFailureRate) { this.breakerFailureRate = breakerFailureRate; }
+
+    public Duration getBreakerSlowCall() { return breakerSlowCall; }
+    public void setBreakerSlowCall(Duration breakerSlowCall) { this.breakerSlowCall = breakerSlowCall; }
+
+    public float getBreakerSlowCallRate() { return breakerSlowCallRate; }
+    public void setBreakerSlowCallRate(float breakerSlowCallRate) { this.breakerSlowCallRate = breakerSlowCallRate; }
+
+    public int getBreakerWindow() { return breakerWindow; }
+    public void setBreakerWindow(int breakerWindow) { this.breakerWindow = breakerWindow; }
+
+    public int getBreakerMinCalls() { return breakerMinCalls; }
+    public void setBreakerMinCalls(int breakerMinCalls) { this.breakerMinCalls = breakerMinCalls; }
+
+    public Duration getBreakerOpenFor() { return breakerOpenFor; }
+    public void setBreakerOpenFor(Duration breakerOpenFor) { this.breakerOpenFor = breakerOpenFor; }
+
+    public int getBreakerHalfOpenCalls() { return breakerHalfOpenCalls; }
+    public void setBreakerHalfOpenCalls(int breakerHalfOpenCalls) { this.breakerHalfOpenCalls = breakerHalfOpenCalls; }
+}
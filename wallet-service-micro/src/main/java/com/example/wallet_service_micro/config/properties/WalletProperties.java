@@ -1,5 +1,6 @@
 package com.example.wallet_service_micro.config.properties;
 
+import com.example.wallet_service_micro.model.wallet.Money;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -7,16 +8,18 @@ import org.springframework.stereotype.Component;
 @ConfigurationProperties(prefix = "wallet.transaction")
 public class WalletProperties {
 
-    private double minAmount;
-    private double maxAmount;
-    private double dailyLimit;
+    // Configured in major units as always (daily-limit: 50000 → 50000.00), converted ONCE at binding:
+    // the getters return minor units, like Wallet balances. More than 2 decimals fails startup (Money.toMinor).
+    private long minAmount;
+    private long maxAmount;
+    private long dailyLimit;
 
-    public double getMinAmount() { return minAmount; }
-    public void setMinAmount(double minAmount) { this.minAmount = minAmount; }
+    public long getMinAmount() { return minAmount; }
+    public void setMinAmount(double minAmount) { this.minAmount = Money.toMinor(minAmount); }
 
-    public double getMaxAmount() { return maxAmount; }
-    public void setMaxAmount(double maxAmount) { this.maxAmount = maxAmount; }
+    public long getMaxAmount() { return maxAmount; }
+    public void setMaxAmount(double maxAmount) { this.maxAmount = Money.toMinor(maxAmount); }
 
-    public double getDailyLimit() { return dailyLimit; }
-    public void setDailyLimit(double dailyLimit) { this.dailyLimit = dailyLimit; }
+    public long getDailyLimit() { return dailyLimit; }
+    public void setDailyLimit(double dailyLimit) { this.dailyLimit = Money.toMinor(dailyLimit); }
 }
@@ -0,0 +1,36 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "wallet.write")
+public class WalletWriteProperties {
+
+    public enum Strategy {
+        ENTITY,             // read the Wallet, change it in Java, saveAndFlush → races surface as @Version conflicts, retried
+        PESSIMISTIC,        // SELECT ... FOR UPDATE in wallet-id order, then write → waits instead of conflicting
+        CONDITIONAL_UPDATE  // one guarded UPDATE per wallet, affected rows decide → no optimistic-lock retries
+    }
+
+    private Strategy strategy = Strategy.CONDITIONAL_UPDATE;
+
+    // ✅ Optimistic retries (ENTITY) → exponential backoff with full jitter
+    private int maxAttempts = 5;                               // including the first try
+    private Duration backoffBase = Duration.ofMillis(5);       // first retry waits up to this
+    private Duration backoffMax = Duration.ofMillis(200);      // upper bound for any single wait
+
+    public Strategy getStrategy() { return strategy; }
+    public void setStrategy(Strategy strategy) { this.strategy = strategy; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+
+    public Duration getBackoffBase() { return backoffBase; }
+    public void setBackoffBase(Duration backoffBase) { this.backoffBase = backoffBase; }
+
+    public Duration getBackoffMax() { return backoffMax; }
+    public void setBackoffMax(Duration backoffMax) { this.backoffMax = backoffMax; }
+}
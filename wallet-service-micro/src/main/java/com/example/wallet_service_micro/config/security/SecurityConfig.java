@@ -1,6 +1,7 @@
 package com.example.wallet_service_micro.config.security;
 
 import com.example.wallet_service_micro.config.jwt.JwtFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -27,12 +28,18 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // Mono-returning controllers finish on an ASYNC re-dispatch; the request was already
+                        // authorized on its initial dispatch. Not so when JwtFilter deferred the user lookup
+                        // (RESOLVED_USER set) → that re-dispatch goes through the rules below.
+                        .requestMatchers(request -> request.getDispatcherType() == DispatcherType.ASYNC
+                                && request.getAttribute(JwtFilter.RESOLVED_USER) == null).permitAll()
                         .requestMatchers(
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html"
                         ).permitAll()
                         .requestMatchers("/", "/api/wallet/public/**").permitAll()
+                        .requestMatchers("/api/internal/**").permitAll() // checked via X-Internal-Service-Key in the controller
                         .requestMatchers("/api/wallet/admin/**").hasRole("ADMIN") // ✅ changed
                         .anyRequest().authenticated()
                 )
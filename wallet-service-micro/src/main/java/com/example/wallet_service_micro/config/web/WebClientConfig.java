@@ -1,17 +1,49 @@
 package com.example.wallet_service_micro.config.web;
 
+import com.example.wallet_service_micro.config.properties.UserClientProperties;
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 // here it’s used to configure and provide a WebClient bean
 public class WebClientConfig {
 
+    // --------------------------------------------------------------------
+    // Dedicated, bounded pool for user-service calls. metrics(true) publishes
+    // reactor.netty.connection.provider.{active,idle,pending}.connections
+    // tagged name=user-service → visible under /actuator/metrics.
+    // --------------------------------------------------------------------
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider userServiceConnectionProvider(UserClientProperties properties) {
+        return ConnectionProvider.builder("user-service")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getMaxIdleTime()) // close idle connections even when the pool is quiet
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();
+    public WebClient webClient(WebClient.Builder builder,
+                               ConnectionProvider userServiceConnectionProvider,
+                               UserClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(userServiceConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .keepAlive(true)
+                .responseTimeout(properties.getResponseTimeout());
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
     }
 }
 
@@ -19,4 +51,4 @@ public class WebClientConfig {
 
 This class (WebClientConfig) is just creating and registering a component (bean),
 inside the Spring container — so that the entire application can use the same instance anywhere it’s needed.
- */
\ No newline at end of file
+ */
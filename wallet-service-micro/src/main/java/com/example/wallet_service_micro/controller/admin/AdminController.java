@@ -1,12 +1,13 @@
 package com.example.wallet_service_micro.controller.admin;
 
-import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
 import com.example.wallet_service_micro.dto.BlackList.WalletBlacklistResponse;
 import com.example.wallet_service_micro.dto.BlackList.walletUnblacklistResponse;
 import com.example.wallet_service_micro.dto.transactions.UserTransactionRangeRequest;
 import com.example.wallet_service_micro.dto.userRequest.UserIdRequest;
 import com.example.wallet_service_micro.dto.userRequest.UserTransactionRequest;
 import com.example.wallet_service_micro.dto.walletRequest.WalletNameRequest;
+import com.example.wallet_service_micro.dto.walletRequest.WalletStripingRequest;
 import com.example.wallet_service_micro.dto.walletRequest.WalletTransactionRequest;
 import com.example.wallet_service_micro.dto.transactions.TransactionDTO;
 import com.example.wallet_service_micro.dto.user.UserDTO;
@@ -29,9 +30,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequestMapping("/api/wallet/admin")
@@ -41,32 +45,48 @@ public class AdminController {
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
     private final AdminWalletService adminWalletService;
-    private final UserClient userClient;
+    private final ReactiveUserClient userClient; // non-blocking → the servlet thread is released while user-service answers
     private final WalletTransactionService walletTransactionService;
 
-    public AdminController(AdminWalletService adminWalletService, UserClient userClient, WalletTransactionService walletTransactionService) {
+    public AdminController(AdminWalletService adminWalletService, ReactiveUserClient userClient, WalletTransactionService walletTransactionService) {
         this.adminWalletService = adminWalletService;
         this.userClient = userClient;
         this.walletTransactionService = walletTransactionService;
     }
 
     // ------------------------ Admin Validation (Internal) ------------------------
-    private UserDTO validateAdmin(String authHeader) {
+    private Mono<UserDTO> validateAdmin(String authHeader) {
         logger.debug("🔐 Validating admin from Authorization header...");
-        UserDTO admin = userClient.getUserFromToken(authHeader);
-
-        if (admin == null) {
-            logger.warn("❌ Unauthorized access attempt: token invalid or missing");
-            throw new UnauthorizedException("Unauthorized access");
-        }
+        return userClient.getUserFromToken(authHeader)
+                .switchIfEmpty(Mono.error(() -> {
+                    logger.warn("❌ Unauthorized access attempt: token invalid or missing");
+                    return new UnauthorizedException("Unauthorized access");
+                }))
+                .map(admin -> {
+                    if (!"ADMIN".equalsIgnoreCase(admin.getRole())) {
+                        logger.warn("🚫 Forbidden access attempt by userId={} with role={}", admin.getId(), admin.getRole());
+                        throw new ForbiddenException("Admins only");
+                    }
+
+                    logger.info("✅ Admin validated successfully: id={}, name={}, role={}", admin.getId(), admin.getName(), admin.getRole());
+                    return admin;
+                });
+    }
 
-        if (!"ADMIN".equalsIgnoreCase(admin.getRole())) {
-            logger.warn("🚫 Forbidden access attempt by userId={} with role={}", admin.getId(), admin.getRole());
-            throw new ForbiddenException("Admins only");
-        }
+    // Admin validated + target user resolved without blocking, then JPA work runs on boundedElastic
+    private Mono<UserDTO> validateAdminAndUser(String authHeader, Long userId) {
+        return validateAdmin(authHeader)
+                .then(userClient.getUserByIdInternal(userId))
+                .switchIfEmpty(Mono.error(() -> {
+                    logger.error("❌ User not found with ID={}", userId);
+                    return new UserNotFoundException("User not found with ID " + userId);
+                }));
+    }
 
-        logger.info("✅ Admin validated successfully: id={}, name={}, role={}", admin.getId(), admin.getName(), admin.getRole());
-        return admin;
+    private static <T> Mono<ResponseEntity<T>> blocking(Callable<T> work) {
+        return Mono.fromCallable(work)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok);
     }
 
     // ------------------------ Get User Transaction History ------------------------
@@ -79,28 +99,19 @@ public class AdminController {
     @ApiResponse(responseCode = "403", description = "Forbidden — Admins only", content = @Content)
     @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
     @PostMapping("/transactions")
-    public ResponseEntity<Page<TransactionDTO>> getUserTransactions(
+    public Mono<ResponseEntity<Page<TransactionDTO>>> getUserTransactions(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody UserTransactionRequest request) {
 
         logger.info("📘 Admin requested transaction history for userId={} (page={}, size={})",
                 request.getUserId(), request.getPage(), request.getSize());
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
         int page = request.getPage();
         int size = request.getSize();
 
-        UserDTO user = userClient.getUserByIdInternal(userId);
-        if (user == null) {
-            logger.error("❌ User not found with ID={}", userId);
-            throw new UserNotFoundException("User not found with ID " + userId);
-        }
-
-        Page<TransactionDTO> transactions = walletTransactionService.getTransactions(user, page, size);
-
-        return ResponseEntity.ok(transactions);
+        return validateAdminAndUser(authHeader, userId)
+                .flatMap(user -> blocking(() -> walletTransactionService.getTransactions(user, page, size)));
     }
 
     // ------------------------ Get Default Wallet Balance ------------------------
@@ -111,19 +122,18 @@ public class AdminController {
     @ApiResponse(responseCode = "200", description = "Balance fetched successfully")
     @ApiResponse(responseCode = "404", description = "User not found", content = @Content)
     @PostMapping("/balance")
-    public ResponseEntity<WalletBalanceResponse> getBalanceByUserId(
+    public Mono<ResponseEntity<WalletBalanceResponse>> getBalanceByUserId(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody UserIdRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
-        userClient.getUserByIdInternal(userId);
 
-        WalletBalanceResponse response = adminWalletService.getWalletByUserIdAndWalletName(userId, "Default");
-        response.setMessage("Balance fetched successfully for userId=" + userId);
-
-        return ResponseEntity.ok(response);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> {
+                    WalletBalanceResponse response = adminWalletService.getWalletByUserIdAndWalletName(userId, "Default");
+                    response.setMessage("Balance fetched successfully for userId=" + userId);
+                    return response;
+                }));
     }
 
     // ------------------------ Get All Wallets ------------------------
@@ -133,18 +143,14 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Wallets fetched successfully")
     @PostMapping("/wallets")
-    public ResponseEntity<List<WalletBalanceResponse>> getAllWalletsByUserId(
+    public Mono<ResponseEntity<List<WalletBalanceResponse>>> getAllWalletsByUserId(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody UserIdRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
-        userClient.getUserByIdInternal(userId);
-
-        List<WalletBalanceResponse> wallets = adminWalletService.getAllWalletsByUserId(userId);
 
-        return ResponseEntity.ok(wallets);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> adminWalletService.getAllWalletsByUserId(userId)));
     }
 
     // ------------------------ Get Wallet Balance by Name ------------------------
@@ -154,20 +160,19 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Balance fetched successfully")
     @PostMapping("/wallets/by-name/balance")
-    public ResponseEntity<WalletBalanceResponse> getWalletBalanceByUserIdAndWalletName(
+    public Mono<ResponseEntity<WalletBalanceResponse>> getWalletBalanceByUserIdAndWalletName(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody WalletNameRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
         String walletName = request.getWalletName();
 
-        userClient.getUserByIdInternal(userId);
-        WalletBalanceResponse wallet = adminWalletService.getWalletByUserIdAndWalletName(userId, walletName);
-        wallet.setMessage("Balance fetched successfully for wallet '" + walletName + "'");
-
-        return ResponseEntity.ok(wallet);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> {
+                    WalletBalanceResponse wallet = adminWalletService.getWalletByUserIdAndWalletName(userId, walletName);
+                    wallet.setMessage("Balance fetched successfully for wallet '" + walletName + "'");
+                    return wallet;
+                }));
     }
 
     // ------------------------ Get Wallet Transaction History ------------------------
@@ -177,21 +182,16 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Transactions fetched successfully")
     @PostMapping("/wallets/transactions")
-    public ResponseEntity<Page<TransactionDTO>> getWalletTransactionHistory(
+    public Mono<ResponseEntity<Page<TransactionDTO>>> getWalletTransactionHistory(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody WalletTransactionRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
         String walletName = request.getWalletName();
 
-        userClient.getUserByIdInternal(userId);
-
-        Page<TransactionDTO> transactions =
-                walletTransactionService.getTransactionsByWalletName(userId, walletName, request.getPage(), request.getSize());
-
-        return ResponseEntity.ok(transactions);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() ->
+                        walletTransactionService.getTransactionsByWalletName(userId, walletName, request.getPage(), request.getSize())));
     }
 
     // ------------------------ Blacklist Wallet ------------------------
@@ -201,31 +201,47 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Wallet blacklisted successfully")
     @PutMapping("/wallets/blacklist")
-    public ResponseEntity<WalletBlacklistResponse> blacklistWallet(
+    public Mono<ResponseEntity<WalletBlacklistResponse>> blacklistWallet(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody WalletNameRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
         String walletName = request.getWalletName();
 
-        userClient.getUserByIdInternal(userId);
-        adminWalletService.blacklistWalletByName(userId, walletName, authHeader);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> {
+                    adminWalletService.blacklistWalletByName(userId, walletName, authHeader);
+
+                    boolean allBlacklisted = adminWalletService.areAllWalletsBlacklisted(userId);
+
+                    return new WalletBlacklistResponse(
+                            userId,
+                            walletName,
+                            true,
+                            allBlacklisted,
+                            allBlacklisted
+                                    ? "Wallet blacklisted. User also blacklisted because all wallets are blacklisted."
+                                    : "Wallet blacklisted. User is NOT blacklisted because other wallets are active."
+                    );
+                }));
+    }
 
-        boolean allBlacklisted = adminWalletService.areAllWalletsBlacklisted(userId);
+    // ------------------------ Stripe Hot Wallet ------------------------
+    @Operation(
+            summary = "Stripe a hot wallet",
+            description = "Spread incoming credits of a heavily credited wallet over balance slots; 0 slots turns it off (ADMIN only)"
+    )
+    @ApiResponse(responseCode = "200", description = "Wallet restriped successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid slot count or wallet not found", content = @Content)
+    @PutMapping("/wallets/striping")
+    public Mono<ResponseEntity<WalletBalanceResponse>> stripeWallet(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @RequestBody WalletStripingRequest request) {
 
-        WalletBlacklistResponse response = new WalletBlacklistResponse(
-                userId,
-                walletName,
-                true,
-                allBlacklisted,
-                allBlacklisted
-                        ? "Wallet blacklisted. User also blacklisted because all wallets are blacklisted."
-                        : "Wallet blacklisted. User is NOT blacklisted because other wallets are active."
-        );
+        Long userId = request.getUserId();
 
-        return ResponseEntity.ok(response);
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> adminWalletService.stripeWallet(userId, request.getWalletName(), request.getSlots())));
     }
 
     // ------------------------ Unblacklist Wallets ------------------------
@@ -235,24 +251,22 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Wallets unblacklisted successfully")
     @PutMapping("/wallets/unblacklist")
-    public ResponseEntity<walletUnblacklistResponse> unblacklistUserWallets(
+    public Mono<ResponseEntity<walletUnblacklistResponse>> unblacklistUserWallets(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody UserIdRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
-        userClient.getUserByIdInternal(userId);
-
-        int walletCount = adminWalletService.unblacklistAllWallets(userId, authHeader);
 
-        walletUnblacklistResponse response = new walletUnblacklistResponse(
-                userId,
-                walletCount,
-                "User and all wallets unblocked successfully"
-        );
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> {
+                    int walletCount = adminWalletService.unblacklistAllWallets(userId, authHeader);
 
-        return ResponseEntity.ok(response);
+                    return new walletUnblacklistResponse(
+                            userId,
+                            walletCount,
+                            "User and all wallets unblocked successfully"
+                    );
+                }));
     }
 
     @Operation(
@@ -261,12 +275,10 @@ public class AdminController {
     )
     @ApiResponse(responseCode = "200", description = "Transactions fetched successfully")
     @PostMapping("/transactions/range")
-    public ResponseEntity<List<TransactionDTO>> getUserTransactionsInRange(
+    public Mono<ResponseEntity<List<TransactionDTO>>> getUserTransactionsInRange(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
             @RequestBody UserTransactionRangeRequest request) {
 
-        validateAdmin(authHeader);
-
         Long userId = request.getUserId();
         String walletName = request.getWalletName();
         LocalDateTime start = request.getStart();
@@ -275,14 +287,9 @@ public class AdminController {
         logger.info("📘 Admin requested transactions for userId={} walletName={} from {} to {}",
                 userId, walletName, start, end);
 
-        // Validate user exists
-        userClient.getUserByIdInternal(userId);
-
-        // Fetch transactions only for the given walletName
-        List<TransactionDTO> transactions =
-                walletTransactionService.getUserTransactionsBetween(userId, walletName, start, end);
-
-        return ResponseEntity.ok(transactions);
+        // Validate admin + user exists, then fetch transactions only for the given walletName
+        return validateAdminAndUser(authHeader, userId)
+                .then(blocking(() -> walletTransactionService.getUserTransactionsBetween(userId, walletName, start, end)));
     }
 
 }
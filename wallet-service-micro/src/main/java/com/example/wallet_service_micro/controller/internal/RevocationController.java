@@ -0,0 +1,40 @@
+package com.example.wallet_service_micro.controller.internal;
+
+import com.example.wallet_service_micro.dto.revocation.RevocationEvent;
+import com.example.wallet_service_micro.exception.auth.ForbiddenException;
+import com.example.wallet_service_micro.service.revocation.RevokedUserRegistry;
+import io.swagger.v3.oas.annotations.Hidden;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Hidden
+@RestController
+@RequestMapping("/api/internal/revocations")
+public class RevocationController {
+
+    private final RevokedUserRegistry revokedUserRegistry;
+    private final String internalServiceToken;
+
+    public RevocationController(RevokedUserRegistry revokedUserRegistry,
+                                @Value("${internal.service-token}") String internalServiceToken) {
+        this.revokedUserRegistry = revokedUserRegistry;
+        this.internalServiceToken = internalServiceToken;
+    }
+
+    // ✅ Called by user-service's revocation outbox, events arrive in the order they were recorded
+    @PostMapping
+    public ResponseEntity<Void> applyRevocations(
+            @RequestHeader(value = "X-Internal-Service-Key", required = false) String serviceKey,
+            @RequestBody List<RevocationEvent> events
+    ) {
+        if (serviceKey == null || !serviceKey.equals(internalServiceToken)) {
+            throw new ForbiddenException("Internal endpoint");
+        }
+
+        events.forEach(revokedUserRegistry::apply);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.wallet_service_micro.controller.wallet;
 
 import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferRequest;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferResponse;
 import com.example.wallet_service_micro.dto.walletRequest.WalletNameRequest;
 import com.example.wallet_service_micro.dto.walletRequest.WalletTransactionRequest;
+import com.example.wallet_service_micro.dto.hold.HoldCaptureRequest;
+import com.example.wallet_service_micro.dto.hold.HoldRequest;
+import com.example.wallet_service_micro.dto.hold.HoldResponse;
 import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyRequest;
 import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyResponse;
+import com.example.wallet_service_micro.dto.payout.PayoutRequest;
+import com.example.wallet_service_micro.dto.payout.PayoutResponse;
 import com.example.wallet_service_micro.dto.selfTransfer.UserInternalTransferRequest;
 import com.example.wallet_service_micro.dto.selfTransfer.UserInternalTransferResponse;
 import com.example.wallet_service_micro.dto.transactions.TransactionDTO;
@@ -15,7 +22,10 @@ import com.example.wallet_service_micro.dto.wallet.WalletBalanceResponse;
 import com.example.wallet_service_micro.dto.walletCreation.CreateWalletRequest;
 import com.example.wallet_service_micro.dto.walletCreation.CreateWalletResponse;
 import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.service.hold.HoldService;
+import com.example.wallet_service_micro.service.idempotency.IdempotencyStore;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.wallet.BatchTransferService;
 import com.example.wallet_service_micro.service.wallet.WalletService;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
 
@@ -27,12 +37,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -45,15 +57,24 @@ public class WalletController {
     private final WalletService walletService;
     private final WalletManagementService walletManagementService;
     private final WalletTransactionService walletTransactionService;
+    private final IdempotencyStore idempotencyStore;
+    private final BatchTransferService batchTransferService;
+    private final HoldService holdService;
 
     public WalletController(UserClient userClient,
                             WalletService walletService,
                             WalletManagementService walletManagementService,
-                            WalletTransactionService walletTransactionService) {
+                            WalletTransactionService walletTransactionService,
+                            IdempotencyStore idempotencyStore,
+                            BatchTransferService batchTransferService,
+                            HoldService holdService) {
         this.userClient = userClient;
         this.walletService = walletService;
         this.walletManagementService = walletManagementService;
         this.walletTransactionService = walletTransactionService;
+        this.idempotencyStore = idempotencyStore;
+        this.batchTransferService = batchTransferService;
+        this.holdService = holdService;
     }
 
     // --------------------------------------------------------------------
@@ -127,19 +148,32 @@ public class WalletController {
     // --------------------------------------------------------------------
     // ✅ Load money to wallet
     // --------------------------------------------------------------------
-    @Operation(summary = "Load money", description = "Adds money to the specified wallet.")
+    @Operation(summary = "Load money", description = "Adds money to the specified wallet. "
+            + "Retries with the same Idempotency-Key get the original response.")
     @ApiResponses({
-            @ApiResponse(responseCode = "201", description = "Money loaded successfully"),
+            @ApiResponse(responseCode = "201", description = "Money loaded successfully (or replayed)"),
             @ApiResponse(responseCode = "400", description = "Invalid request"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PostMapping("/load")
     public ResponseEntity<LoadMoneyResponse> loadMoney(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
-            @Valid @RequestBody LoadMoneyRequest request) {
+            @Valid @RequestBody LoadMoneyRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
         UserDTO user = userClient.getUserFromToken(authHeader);
-        String txnId = UUID.randomUUID().toString();
+        String txnId = idempotencyKey == null
+                ? UUID.randomUUID().toString()
+                : IdempotencyStore.scopedKey(user.getId(), idempotencyKey);
+        String fingerprint = "LOAD|" + request.getWalletName() + "|" + request.getAmount();
+
+        if (idempotencyKey != null) {
+            Optional<LoadMoneyResponse> replayed =
+                    idempotencyStore.replay(txnId, "LOAD", fingerprint, LoadMoneyResponse.class);
+            if (replayed.isPresent()) {
+                return replayed(replayed.get());
+            }
+        }
 
         logger.info("💵 Load money request: userId={}, wallet='{}', amount={}, txnId={}",
                 user.getId(), request.getWalletName(), request.getAmount(), txnId);
@@ -151,6 +185,10 @@ public class WalletController {
                 request.getWalletName()
         );
 
+        if (idempotencyKey != null) {
+            idempotencyStore.save(txnId, user.getId(), "LOAD", fingerprint, response);
+        }
+
         logger.info("✅ Money loaded successfully: userId={}, wallet='{}', newBalance={}, txnId={}",
                 user.getId(), request.getWalletName(), response.getBalance(), txnId);
 
@@ -160,38 +198,180 @@ public class WalletController {
     // --------------------------------------------------------------------
     // ✅ Transfer money to another user
     // --------------------------------------------------------------------
-    @Operation(summary = "Transfer to another user", description = "Transfers money from sender to another user.")
+    @Operation(summary = "Transfer to another user", description = "Transfers money from sender to another user. "
+            + "Retries with the same Idempotency-Key get the original response.")
     @ApiResponses({
-            @ApiResponse(responseCode = "201", description = "Transfer completed"),
+            @ApiResponse(responseCode = "201", description = "Transfer completed (or replayed)"),
             @ApiResponse(responseCode = "400", description = "Invalid transfer request"),
             @ApiResponse(responseCode = "401", description = "Unauthorized")
     })
     @PostMapping("/transfer")
-    public ResponseEntity<TransferResponse> transfer(
+    public Mono<ResponseEntity<TransferResponse>> transfer(
             @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
-            @Valid @RequestBody TransferRequest request) {
+            @Valid @RequestBody TransferRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
 
         UserDTO sender = userClient.getUserFromToken(authHeader);
-        String transactionId = UUID.randomUUID().toString();
+        String transactionId = idempotencyKey == null
+                ? UUID.randomUUID().toString()
+                : IdempotencyStore.scopedKey(sender.getId(), idempotencyKey);
+        String fingerprint = "TRANSFER|" + request.getSenderWalletName() + "|"
+                + request.getReceiverId() + "|" + request.getAmount();
+
+        if (idempotencyKey != null) {
+            Optional<TransferResponse> replayed =
+                    idempotencyStore.replay(transactionId, "TRANSFER", fingerprint, TransferResponse.class);
+            if (replayed.isPresent()) {
+                return Mono.just(replayed(replayed.get()));
+            }
+        }
 
         logger.info("💸 Transfer initiated: senderId={}, receiverId={}, amount={}, senderWallet='{}', txnId={}",
                 sender.getId(), request.getReceiverId(), request.getAmount(), request.getSenderWalletName(), transactionId);
 
-        TransferResponse response = walletService.transferAmount(
+        // ✅ Completes on an ASYNC dispatch → the Tomcat worker is released while user-service resolves the recipient
+        return walletService.transferAmount(
                 sender,
                 request.getReceiverId(),
                 request.getAmount(),
                 transactionId,
                 request.getSenderWalletName(),
                 authHeader
-        );
+        ).map(response -> {
+            if (idempotencyKey != null) {
+                idempotencyStore.save(transactionId, sender.getId(), "TRANSFER", fingerprint, response);
+            }
+
+            logger.info("✅ Transfer completed: senderId={}, receiverId={}, amount={}, txnId={}, status={}",
+                    sender.getId(), request.getReceiverId(), request.getAmount(), transactionId, response.getMessage());
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ Batch transfer to many users
+    // --------------------------------------------------------------------
+    @Operation(summary = "Batch transfer", description = "Performs many transfers from one wallet in one request. "
+            + "Each item gets its own result; a rejected item does not stop the others. "
+            + "With an Idempotency-Key, re-sending the batch only executes items that did not succeed.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch (empty, too large, unknown sender wallet)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResponse> transferBatch(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @Valid @RequestBody BatchTransferRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+
+        UserDTO sender = userClient.getUserFromToken(authHeader);
+        logger.info("📦 Batch transfer requested: senderId={}, senderWallet='{}', items={}",
+                sender.getId(), request.getSenderWalletName(), request.getTransfers().size());
+
+        BatchTransferResponse response = batchTransferService.transferBatch(sender, request, idempotencyKey);
+
+        logger.info("✅ Batch transfer processed: senderId={}, succeeded={}, failed={}",
+                sender.getId(), response.getSucceeded(), response.getFailed());
+
+        return ResponseEntity.ok(response);
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ Payout: one debit, many recipients
+    // --------------------------------------------------------------------
+    @Operation(summary = "Payout to many users", description = "Debits the sender wallet once for the total and credits "
+            + "every recipient's Default wallet. Applied completely or not at all.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Payout completed"),
+            @ApiResponse(responseCode = "400", description = "Invalid payout (amounts, recipients, balance or daily limit)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/payout")
+    public ResponseEntity<PayoutResponse> payout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @Valid @RequestBody PayoutRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+
+        UserDTO sender = userClient.getUserFromToken(authHeader);
+        String payoutId = idempotencyKey == null
+                ? UUID.randomUUID().toString()
+                : IdempotencyStore.scopedKey(sender.getId(), idempotencyKey);
+
+        logger.info("💸 Payout initiated: senderId={}, senderWallet='{}', recipients={}, payoutId={}",
+                sender.getId(), request.getSenderWalletName(), request.getPayouts().size(), payoutId);
 
-        logger.info("✅ Transfer completed: senderId={}, receiverId={}, amount={}, txnId={}, status={}",
-                sender.getId(), request.getReceiverId(), request.getAmount(), transactionId, response.getMessage());
+        PayoutResponse response = walletService.payout(sender, request, payoutId);
 
+        logger.info("✅ Payout completed: senderId={}, recipients={}, total={}, payoutId={}",
+                sender.getId(), response.getRecipients(), response.getTotalAmount(), payoutId);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ Holds: reserve now, capture or release later
+    // --------------------------------------------------------------------
+    @Operation(summary = "Reserve an amount", description = "Holds an amount of a wallet for a later payment to another user. "
+            + "Held money is not spendable; the hold is released automatically when it expires.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Amount held"),
+            @ApiResponse(responseCode = "400", description = "Invalid hold (amount, ttl, available balance or daily limit)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/holds")
+    public ResponseEntity<HoldResponse> reserveHold(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @Valid @RequestBody HoldRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+
+        UserDTO user = userClient.getUserFromToken(authHeader);
+        String holdId = idempotencyKey == null
+                ? UUID.randomUUID().toString()
+                : IdempotencyStore.scopedKey(user.getId(), idempotencyKey);
+
+        logger.info("🔒 Hold requested: userId={}, wallet='{}', receiverId={}, amount={}, holdId={}",
+                user.getId(), request.getSenderWalletName(), request.getReceiverId(), request.getAmount(), holdId);
+
+        HoldResponse response = holdService.reserve(user, request, holdId);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Capture a hold", description = "Pays the held amount (or a smaller one) to the receiver; "
+            + "the rest of the hold is released.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Hold captured"),
+            @ApiResponse(responseCode = "400", description = "Unknown, expired or already settled hold, or amount above the held amount"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<HoldResponse> captureHold(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @PathVariable String holdId,
+            @RequestBody(required = false) HoldCaptureRequest request) {
+
+        UserDTO user = userClient.getUserFromToken(authHeader);
+        logger.info("💸 Hold capture requested: userId={}, holdId={}", user.getId(), holdId);
+        return ResponseEntity.ok(holdService.capture(user, holdId, request));
+    }
+
+    @Operation(summary = "Release a hold", description = "Cancels a hold; the amount becomes available again.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Hold released"),
+            @ApiResponse(responseCode = "400", description = "Unknown or already settled hold"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<HoldResponse> releaseHold(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader,
+            @PathVariable String holdId) {
+
+        UserDTO user = userClient.getUserFromToken(authHeader);
+        logger.info("🔓 Hold release requested: userId={}, holdId={}", user.getId(), holdId);
+        return ResponseEntity.ok(holdService.release(user, holdId));
+    }
+
     // --------------------------------------------------------------------
     // ✅ Get all wallets for logged-in user
     // --------------------------------------------------------------------
@@ -277,4 +457,11 @@ public class WalletController {
         logger.info("✅ Wallet created successfully: userId={}, wallet='{}'", user.getId(), request.getWalletName());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    // Same status as the original call; the header tells clients (and logs) it was not re-executed
+    private static <T> ResponseEntity<T> replayed(T response) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IdempotencyStore.REPLAYED_HEADER, "true")
+                .body(response);
+    }
 }
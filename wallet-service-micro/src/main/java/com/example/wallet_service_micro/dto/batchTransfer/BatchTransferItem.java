@@ -0,0 +1,27 @@
+package com.example.wallet_service_micro.dto.batchTransfer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+// No bean-validation constraints on purpose: a bad item is reported in its own result, not as a 400 for the batch
+@Schema(description = "One transfer inside a batch")
+public class BatchTransferItem {
+
+    @Schema(description = "User ID of the receiver (credited to their Default wallet)", example = "42")
+    private Long receiverId;
+
+    @Schema(description = "Amount of money to transfer", example = "150.00")
+    private Double amount;
+
+    public BatchTransferItem() {}
+
+    public BatchTransferItem(Long receiverId, Double amount) {
+        this.receiverId = receiverId;
+        this.amount = amount;
+    }
+
+    public Long getReceiverId() { return receiverId; }
+    public void setReceiverId(Long receiverId) { this.receiverId = receiverId; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+}
@@ -0,0 +1,80 @@
+package com.example.wallet_service_micro.dto.batchTransfer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of one transfer inside a batch")
+public class BatchTransferItemResult {
+
+    public enum Status { SUCCESS, FAILED }
+
+    @Schema(description = "Position of the item in the request", example = "0")
+    private int index;
+
+    @Schema(description = "User ID of the receiver", example = "42")
+    private Long receiverId;
+
+    @Schema(description = "Requested amount", example = "150.00")
+    private Double amount;
+
+    @Schema(description = "Transaction id recorded in the ledger for this item")
+    private String transactionId;
+
+    @Schema(description = "SUCCESS or FAILED", example = "SUCCESS")
+    private Status status;
+
+    @Schema(description = "Reason when FAILED", example = "Insufficient balance")
+    private String message;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Validation code when the wallet checks rejected the item", example = "INSUFFICIENT_BALANCE")
+    private String code;
+
+    public BatchTransferItemResult() {}
+
+    public BatchTransferItemResult(int index, Long receiverId, Double amount, String transactionId) {
+        this.index = index;
+        this.receiverId = receiverId;
+        this.amount = amount;
+        this.transactionId = transactionId;
+    }
+
+    public void succeed() {
+        this.status = Status.SUCCESS;
+        this.message = null;
+        this.code = null;
+    }
+
+    public void fail(String message) {
+        this.status = Status.FAILED;
+        this.message = message;
+        this.code = null;
+    }
+
+    // Rejected by the wallet checks → a fixed code + message, no exception involved
+    public void reject(String code, String message) {
+        fail(message);
+        this.code = code;
+    }
+
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public Long getReceiverId() { return receiverId; }
+    public void setReceiverId(Long receiverId) { this.receiverId = receiverId; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public String getTransactionId() { return transactionId; }
+    public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+
+    public String getCode() { return code; }
+    public void setCode(String code) { this.code = code; }
+}
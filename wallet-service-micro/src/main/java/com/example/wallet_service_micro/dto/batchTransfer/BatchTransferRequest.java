@@ -0,0 +1,28 @@
+package com.example.wallet_service_micro.dto.batchTransfer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(description = "Many transfers from one sender wallet, processed in one request")
+public class BatchTransferRequest {
+
+    @NotNull(message = "Sender wallet name is required")
+    @Schema(description = "Wallet name from which every amount will be deducted", example = "payroll")
+    private String senderWalletName;
+
+    @NotEmpty(message = "At least one transfer is required")
+    @Schema(description = "Transfers to perform; results are returned in the same order")
+    private List<@Valid BatchTransferItem> transfers;
+
+    public BatchTransferRequest() {}
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public List<BatchTransferItem> getTransfers() { return transfers; }
+    public void setTransfers(List<BatchTransferItem> transfers) { this.transfers = transfers; }
+}
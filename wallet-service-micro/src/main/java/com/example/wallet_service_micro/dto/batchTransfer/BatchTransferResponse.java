@@ -0,0 +1,57 @@
+package com.example.wallet_service_micro.dto.batchTransfer;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Per-item results of a batch transfer")
+public class BatchTransferResponse {
+
+    @Schema(description = "Wallet name from which money was deducted", example = "payroll")
+    private String senderWalletName;
+
+    @Schema(description = "Number of transfers in the request", example = "3")
+    private int requested;
+
+    @Schema(description = "Number of transfers that were committed", example = "2")
+    private int succeeded;
+
+    @Schema(description = "Number of transfers that were rejected or rolled back", example = "1")
+    private int failed;
+
+    @Schema(description = "Sum of the committed amounts", example = "300.00")
+    private Double totalTransferred;
+
+    @Schema(description = "Sender balance after the batch", example = "700.00")
+    private Double senderBalance;
+
+    @Schema(description = "Indicates whether the sender's wallet is frozen", example = "false")
+    private Boolean frozen;
+
+    @Schema(description = "One result per requested transfer, in request order")
+    private List<BatchTransferItemResult> results;
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public Double getTotalTransferred() { return totalTransferred; }
+    public void setTotalTransferred(Double totalTransferred) { this.totalTransferred = totalTransferred; }
+
+    public Double getSenderBalance() { return senderBalance; }
+    public void setSenderBalance(Double senderBalance) { this.senderBalance = senderBalance; }
+
+    public Boolean getFrozen() { return frozen; }
+    public void setFrozen(Boolean frozen) { this.frozen = frozen; }
+
+    public List<BatchTransferItemResult> getResults() { return results; }
+    public void setResults(List<BatchTransferItemResult> results) { this.results = results; }
+}
@@ -0,0 +1,19 @@
+package com.example.wallet_service_micro.dto.hold;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Captures a hold; without an amount the whole held amount is paid")
+public class HoldCaptureRequest {
+
+    @Schema(description = "Amount to pay, at most the held amount; the rest is released", example = "120.00")
+    private Double amount;
+
+    public HoldCaptureRequest() {}
+
+    public HoldCaptureRequest(Double amount) {
+        this.amount = amount;
+    }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+}
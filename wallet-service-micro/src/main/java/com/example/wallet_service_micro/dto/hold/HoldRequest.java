@@ -0,0 +1,38 @@
+package com.example.wallet_service_micro.dto.hold;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "Reserves an amount of a wallet for a later payment to another user")
+public class HoldRequest {
+
+    @NotNull(message = "ReceiverId is required")
+    @Schema(description = "User ID of the receiver (credited to their Default wallet on capture)", example = "42")
+    private Long receiverId;
+
+    @NotNull(message = "Amount is required")
+    @Schema(description = "Amount to reserve", example = "150.00")
+    private Double amount;
+
+    @NotNull(message = "Sender wallet name is required")
+    @Schema(description = "Wallet name the amount is reserved on", example = "main_wallet")
+    private String senderWalletName;
+
+    @Schema(description = "Seconds until an uncaptured hold is released automatically (default wallet.hold.default-ttl)",
+            example = "900")
+    private Long ttlSeconds;
+
+    public HoldRequest() {}
+
+    public Long getReceiverId() { return receiverId; }
+    public void setReceiverId(Long receiverId) { this.receiverId = receiverId; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,57 @@
+package com.example.wallet_service_micro.dto.hold;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "State of a hold and of the wallet it was placed on")
+public class HoldResponse {
+
+    @Schema(description = "Hold id; a capture is recorded in the ledger under this transaction id")
+    private String holdId;
+
+    @Schema(description = "HELD, CAPTURED, RELEASED or EXPIRED", example = "HELD")
+    private String status;
+
+    @Schema(description = "Amount held, or paid when captured", example = "150.00")
+    private Double amount;
+
+    @Schema(description = "Wallet name the hold was placed on", example = "main_wallet")
+    private String senderWalletName;
+
+    @Schema(description = "Wallet balance after the operation", example = "1000.00")
+    private Double balance;
+
+    @Schema(description = "Balance minus open holds → what can still be spent", example = "850.00")
+    private Double available;
+
+    @Schema(description = "When an uncaptured hold is released automatically")
+    private LocalDateTime expiresAt;
+
+    @Schema(description = "Status message", example = "Amount held ✅")
+    private String message;
+
+    public String getHoldId() { return holdId; }
+    public void setHoldId(String holdId) { this.holdId = holdId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public Double getBalance() { return balance; }
+    public void setBalance(Double balance) { this.balance = balance; }
+
+    public Double getAvailable() { return available; }
+    public void setAvailable(Double available) { this.available = available; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
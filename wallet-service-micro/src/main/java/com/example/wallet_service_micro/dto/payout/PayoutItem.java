@@ -0,0 +1,29 @@
+package com.example.wallet_service_micro.dto.payout;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(description = "One recipient of a payout")
+public class PayoutItem {
+
+    @NotNull(message = "ReceiverId is required")
+    @Schema(description = "User ID of the receiver (credited to their Default wallet)", example = "42")
+    private Long receiverId;
+
+    @NotNull(message = "Amount is required")
+    @Schema(description = "Amount paid to this receiver", example = "25.00")
+    private Double amount;
+
+    public PayoutItem() {}
+
+    public PayoutItem(Long receiverId, Double amount) {
+        this.receiverId = receiverId;
+        this.amount = amount;
+    }
+
+    public Long getReceiverId() { return receiverId; }
+    public void setReceiverId(Long receiverId) { this.receiverId = receiverId; }
+
+    public Double getAmount() { return amount; }
+    public void setAmount(Double amount) { this.amount = amount; }
+}
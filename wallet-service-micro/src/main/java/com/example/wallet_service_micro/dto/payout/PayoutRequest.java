@@ -0,0 +1,28 @@
+package com.example.wallet_service_micro.dto.payout;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(description = "Pays many recipients from one wallet; applied completely or not at all")
+public class PayoutRequest {
+
+    @NotNull(message = "Sender wallet name is required")
+    @Schema(description = "Wallet name debited once for the total", example = "merchant")
+    private String senderWalletName;
+
+    @NotEmpty(message = "At least one recipient is required")
+    @Schema(description = "Recipients and amounts")
+    private List<@Valid PayoutItem> payouts;
+
+    public PayoutRequest() {}
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public List<PayoutItem> getPayouts() { return payouts; }
+    public void setPayouts(List<PayoutItem> payouts) { this.payouts = payouts; }
+}
@@ -0,0 +1,55 @@
+package com.example.wallet_service_micro.dto.payout;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Result of a payout")
+public class PayoutResponse {
+
+    @Schema(description = "Payout id; recipient i is recorded in the ledger as <payoutId>:<i>")
+    private String payoutId;
+
+    @Schema(description = "Number of recipients paid", example = "1000")
+    private int recipients;
+
+    @Schema(description = "Total debited from the sender wallet", example = "25000.00")
+    private Double totalAmount;
+
+    @Schema(description = "Sender balance after the payout", example = "75000.00")
+    private Double senderBalance;
+
+    @Schema(description = "Remaining daily limit of the sender wallet", example = "10000.00")
+    private Double remainingDailyLimit;
+
+    @Schema(description = "Indicates whether the sender's wallet is frozen", example = "false")
+    private Boolean frozen;
+
+    @Schema(description = "Wallet name from which money was deducted", example = "merchant")
+    private String senderWalletName;
+
+    @Schema(description = "Status message", example = "Payout successful ✅")
+    private String message;
+
+    public String getPayoutId() { return payoutId; }
+    public void setPayoutId(String payoutId) { this.payoutId = payoutId; }
+
+    public int getRecipients() { return recipients; }
+    public void setRecipients(int recipients) { this.recipients = recipients; }
+
+    public Double getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Double totalAmount) { this.totalAmount = totalAmount; }
+
+    public Double getSenderBalance() { return senderBalance; }
+    public void setSenderBalance(Double senderBalance) { this.senderBalance = senderBalance; }
+
+    public Double getRemainingDailyLimit() { return remainingDailyLimit; }
+    public void setRemainingDailyLimit(Double remainingDailyLimit) { this.remainingDailyLimit = remainingDailyLimit; }
+
+    public Boolean getFrozen() { return frozen; }
+    public void setFrozen(Boolean frozen) { this.frozen = frozen; }
+
+    public String getSenderWalletName() { return senderWalletName; }
+    public void setSenderWalletName(String senderWalletName) { this.senderWalletName = senderWalletName; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,33 @@
+package com.example.wallet_service_micro.dto.revocation;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Blacklist / unblacklist notification pushed by user-service")
+public class RevocationEvent {
+
+    @Schema(description = "User whose access changed", example = "42")
+    private Long userId;
+
+    @Schema(description = "true → blacklisted, false → access restored", example = "true")
+    private boolean revoked;
+
+    @Schema(description = "Epoch millis when user-service recorded the change", example = "1735689600000")
+    private long issuedAt;
+
+    public RevocationEvent() {}
+
+    public RevocationEvent(Long userId, boolean revoked, long issuedAt) {
+        this.userId = userId;
+        this.revoked = revoked;
+        this.issuedAt = issuedAt;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public boolean isRevoked() { return revoked; }
+    public void setRevoked(boolean revoked) { this.revoked = revoked; }
+
+    public long getIssuedAt() { return issuedAt; }
+    public void setIssuedAt(long issuedAt) { this.issuedAt = issuedAt; }
+}
@@ -36,6 +36,14 @@ public class TransactionDTO {
             example = "user@example.com")
     private String userEmail;
 
+    @Schema(description = "Wallet balance right after this transaction (null for striped wallets and older entries)",
+            example = "1250.75")
+    private Double balanceAfter;
+
+    @Schema(description = "Position of this transaction in the wallet's ledger (1, 2, 3, ...)",
+            example = "42")
+    private Long sequence;
+
     // ✅ Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -60,4 +68,10 @@ public class TransactionDTO {
 
     public String getUserEmail() { return userEmail; }
     public void setUserEmail(String userEmail) { this.userEmail = userEmail; }
+
+    public Double getBalanceAfter() { return balanceAfter; }
+    public void setBalanceAfter(Double balanceAfter) { this.balanceAfter = balanceAfter; }
+
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
 }
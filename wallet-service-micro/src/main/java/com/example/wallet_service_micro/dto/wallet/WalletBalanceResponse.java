@@ -8,6 +8,9 @@ public class WalletBalanceResponse {
     @Schema(description = "Current wallet balance", example = "1500.75")
     private Double balance;
 
+    @Schema(description = "Part of the balance reserved by open holds (not spendable until captured or released)", example = "200.00")
+    private Double held;
+
     @Schema(description = "Indicates whether the wallet is frozen", example = "false")
     private Boolean frozen;
 
@@ -19,6 +22,9 @@ public class WalletBalanceResponse {
     public Double getBalance() { return balance; }
     public void setBalance(Double balance) { this.balance = balance; }
 
+    public Double getHeld() { return held; }
+    public void setHeld(Double held) { this.held = held; }
+
     public Boolean getFrozen() { return frozen; }
     public void setFrozen(Boolean frozen) { this.frozen = frozen; }
 
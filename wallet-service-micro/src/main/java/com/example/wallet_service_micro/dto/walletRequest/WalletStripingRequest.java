@@ -0,0 +1,37 @@
+package com.example.wallet_service_micro.dto.walletRequest;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Request to spread a hot wallet's incoming credits over balance slots")
+public class WalletStripingRequest {
+
+    @Schema(description = "ID of the user", example = "12345")
+    private Long userId;
+
+    @Schema(description = "Name of the wallet", example = "Default")
+    private String walletName;
+
+    @Schema(description = "Number of balance slots, 0 turns striping off", example = "16")
+    private int slots;
+
+    public Long getUserId() {
+        return userId;
+    }
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getWalletName() {
+        return walletName;
+    }
+    public void setWalletName(String walletName) {
+        this.walletName = walletName;
+    }
+
+    public int getSlots() {
+        return slots;
+    }
+    public void setSlots(int slots) {
+        this.slots = slots;
+    }
+}
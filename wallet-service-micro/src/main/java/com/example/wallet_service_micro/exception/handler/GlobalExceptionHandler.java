@@ -5,10 +5,15 @@ import com.example.wallet_service_micro.exception.user.RemoteUserServiceExceptio
 import com.example.wallet_service_micro.exception.auth.ForbiddenException;
 import com.example.wallet_service_micro.exception.auth.UnauthorizedException;
 import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.OptimisticLockException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -69,13 +74,45 @@ public class GlobalExceptionHandler {
         return buildError(HttpStatus.FORBIDDEN, "Access denied", ex.getMessage());
     }
 
-    // ✅ Concurrency conflict
-    @ExceptionHandler(OptimisticLockException.class)
-    public ResponseEntity<ErrorResponse> handleOptimisticLock(OptimisticLockException ex) {
+    // ✅ Concurrency conflict (JPA, or Spring's translation of it once a write's retries are used up)
+    @ExceptionHandler({OptimisticLockException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorResponse> handleOptimisticLock(Exception ex) {
         return buildError(HttpStatus.CONFLICT, "Concurrent modification detected",
                 "The wallet was updated by another transaction. Please retry your request.");
     }
 
+    // ✅ Constraint violations not mapped by the service (duplicates of a transaction id are) → no SQL in the body
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex) {
+        logger.warn("⚠️ Data integrity violation: {}", ex.getMostSpecificCause().getMessage());
+        return buildError(HttpStatus.CONFLICT, "Conflicting data",
+                "The request conflicts with data that already exists. Please check and retry.");
+    }
+
+    // ✅ Switched off while the balance engine owns balances → the service, not the request, says no
+    @ExceptionHandler(EngineOwnedOperationException.class)
+    public ResponseEntity<ErrorResponse> handleEngineOwned(EngineOwnedOperationException ex) {
+        return buildError(HttpStatus.SERVICE_UNAVAILABLE, "Operation unavailable", ex.getMessage());
+    }
+
+    // ✅ Rejected by a WalletValidator check* → code + fixed message, the one place results become responses
+    @ExceptionHandler(ValidationRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleRejected(ValidationRejectedException ex) {
+        ValidationResult result = ex.getResult();
+        HttpStatus status = switch (result) {
+            case WALLET_BLACKLISTED -> HttpStatus.FORBIDDEN;
+            case RECIPIENT_NOT_FOUND, RECEIVER_WALLET_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        ErrorResponse response = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                "Request rejected",
+                Map.of("code", result.name(), "reason", result.getMessage())
+        );
+        return ResponseEntity.status(status).body(response);
+    }
+
     // ✅ Illegal arguments
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex) {
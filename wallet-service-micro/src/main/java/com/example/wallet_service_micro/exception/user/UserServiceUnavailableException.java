@@ -0,0 +1,10 @@
+package com.example.wallet_service_micro.exception.user;
+
+// user-service could not answer (timeout, connection failure, 5xx or open circuit).
+// Subtype of RemoteUserServiceException → still a 502 for callers, but eligible
+// for the cached-principal fallback in ReactiveUserClient.
+public class UserServiceUnavailableException extends RemoteUserServiceException {
+    public UserServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.wallet_service_micro.exception.wallet;
+
+// --------------------------------------------------------------------
+// The operation writes balances directly and is switched off while the
+// balance engine owns them in memory (wallet.engine.enabled=true).
+// Nothing is wrong with the request → 503, not a 500.
+// --------------------------------------------------------------------
+public class EngineOwnedOperationException extends RuntimeException {
+
+    public EngineOwnedOperationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.wallet_service_micro.exception.wallet;
+
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+
+// --------------------------------------------------------------------
+// A WalletValidator check* result carried to GlobalExceptionHandler,
+// which turns it into the ErrorResponse. No stack trace is filled: the
+// code says what was rejected, and a rejected request costs one small
+// object instead of a trace per abusive call.
+// Still an IllegalArgumentException → callers and retry loops that treat
+// bad input as such keep working.
+// --------------------------------------------------------------------
+public class ValidationRejectedException extends IllegalArgumentException {
+
+    private final transient ValidationResult result;
+
+    public ValidationRejectedException(ValidationResult result) {
+        super(result.getMessage());
+        this.result = result;
+    }
+
+    public ValidationResult getResult() { return result; }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -2,8 +2,10 @@ package com.example.wallet_service_micro.mapper.transaction;
 
 import com.example.wallet_service_micro.dto.transactions.TransactionDTO;
 import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.util.List;
 
@@ -13,8 +15,22 @@ public interface TransactionMapper {
     @Mapping(target = "senderWalletName", source = "senderWalletName")
     @Mapping(target = "receiverWalletName", source = "receiverWalletName")
     @Mapping(target = "walletName", source = "walletName")   // ✅ ADD THIS
+    @Mapping(target = "amount", source = "amount", qualifiedByName = "minorToMajor")
+    @Mapping(target = "balanceAfter", source = "balanceAfter", qualifiedByName = "nullableMinorToMajor")
+    @Mapping(target = "sequence", source = "walletSequence")
     TransactionDTO toDTO(Transaction transaction);
 
     // ✅ Map list of Transactions to list of DTOs
     List<TransactionDTO> toDTOList(List<Transaction> transactions);
+
+    // Stored in minor units, shown as a decimal
+    @Named("minorToMajor")
+    default Double minorToMajor(long minor) {
+        return Money.toMajor(minor);
+    }
+
+    @Named("nullableMinorToMajor")
+    default Double nullableMinorToMajor(Long minor) {
+        return minor == null ? null : Money.toMajor(minor);
+    }
 }
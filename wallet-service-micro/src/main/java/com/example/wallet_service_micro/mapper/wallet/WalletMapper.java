@@ -4,21 +4,23 @@ import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyResponse;
 import com.example.wallet_service_micro.dto.selfTransfer.UserInternalTransferResponse;
 import com.example.wallet_service_micro.dto.transferMoney.TransferResponse;
 import com.example.wallet_service_micro.dto.wallet.WalletBalanceResponse;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 @Mapper(componentModel = "spring")
 public interface WalletMapper {
 
-    @Mapping(target = "balance", source = "wallet.balance")
-    @Mapping(target = "dailySpent", source = "wallet.dailySpent")
+    @Mapping(target = "balance", source = "wallet.balance", qualifiedByName = "minorToMajor")
+    @Mapping(target = "dailySpent", source = "wallet.dailySpent", qualifiedByName = "minorToMajor")
     @Mapping(target = "frozen", source = "wallet.frozen")
     @Mapping(target = "remainingDailyLimit", ignore = true)
     @Mapping(target = "message", ignore = true)
     LoadMoneyResponse toLoadMoneyResponse(Wallet wallet);
 
-    @Mapping(target = "senderBalance", source = "wallet.balance")
+    @Mapping(target = "senderBalance", source = "wallet.balance", qualifiedByName = "minorToMajor")
     @Mapping(target = "frozen", source = "wallet.frozen")
     //@Mapping(target = "recipientBalance", ignore = true)
     @Mapping(target = "amountTransferred", ignore = true)
@@ -27,7 +29,8 @@ public interface WalletMapper {
 
 
     @Mapping(target = "message", ignore = true)
-    @Mapping(target = "balance", source = "wallet.balance")
+    @Mapping(target = "balance", source = "wallet.balance", qualifiedByName = "minorToMajor")
+    @Mapping(target = "held", source = "wallet.held", qualifiedByName = "minorToMajor")
     @Mapping(target = "frozen", source = "wallet.frozen")
     WalletBalanceResponse toBalanceResponse(Wallet wallet);
 
@@ -35,7 +38,7 @@ public interface WalletMapper {
 // map Wallet -> UserInternalTransferResponse
 // ---------------------------
     @Mapping(target = "senderWalletName", source = "wallet.walletName")
-    @Mapping(target = "senderBalance", source = "wallet.balance")
+    @Mapping(target = "senderBalance", source = "wallet.balance", qualifiedByName = "minorToMajor")
     @Mapping(target = "senderFrozen", source = "wallet.frozen")
     @Mapping(target = "receiverWalletName", ignore = true)
     @Mapping(target = "receiverBalance", ignore = true)
@@ -44,4 +47,10 @@ public interface WalletMapper {
     @Mapping(target = "message", ignore = true)
     UserInternalTransferResponse toInternalTransferResponse(Wallet wallet);
 
+    // Wallet amounts are minor units, responses keep the decimal API shape
+    @Named("minorToMajor")
+    default Double minorToMajor(long minor) {
+        return Money.toMajor(minor);
+    }
+
 }
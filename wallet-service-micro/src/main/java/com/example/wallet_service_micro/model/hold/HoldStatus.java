@@ -0,0 +1,9 @@
+package com.example.wallet_service_micro.model.hold;
+
+// HELD → exactly one of the other three, each transition a guarded UPDATE (WalletHoldRepository.transition)
+public enum HoldStatus {
+    HELD,
+    CAPTURED,
+    RELEASED,
+    EXPIRED
+}
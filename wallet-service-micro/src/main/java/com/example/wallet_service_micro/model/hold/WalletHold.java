@@ -0,0 +1,99 @@
+package com.example.wallet_service_micro.model.hold;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+// One reservation on a wallet (authorization): the amount sits in wallet.held_minor until the hold is
+// captured (paid to the receiver), released or expired. (status, expires_at) is indexed for the sweeper.
+@Table(name = "wallet_hold",
+        indexes = @Index(name = "idx_wallet_hold_status_expires_at", columnList = "status, expires_at"))
+public class WalletHold implements Persistable<String> {
+
+    @Id
+    @Column(name = "hold_id", length = 96)
+    private String holdId; // "<userId>:<Idempotency-Key>" or a UUID → also the transaction id of the capture
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private Long receiverUserId;
+
+    @Column(nullable = false)
+    private Long receiverWalletId;
+
+    @Column(name = "amount_minor", nullable = false)
+    private long amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    private boolean isNew = true; // assigned id → without this save() would SELECT before the INSERT
+
+    public WalletHold() {}
+
+    public WalletHold(String holdId, Long userId, Long walletId, Long receiverUserId, Long receiverWalletId,
+                      long amount, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.holdId = holdId;
+        this.userId = userId;
+        this.walletId = walletId;
+        this.receiverUserId = receiverUserId;
+        this.receiverWalletId = receiverWalletId;
+        this.amount = amount;
+        this.status = HoldStatus.HELD;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() { return holdId; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
+    // --- Getters and Setters ---
+    public String getHoldId() { return holdId; }
+    public void setHoldId(String holdId) { this.holdId = holdId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Long getWalletId() { return walletId; }
+    public void setWalletId(Long walletId) { this.walletId = walletId; }
+
+    public Long getReceiverUserId() { return receiverUserId; }
+    public void setReceiverUserId(Long receiverUserId) { this.receiverUserId = receiverUserId; }
+
+    public Long getReceiverWalletId() { return receiverWalletId; }
+    public void setReceiverWalletId(Long receiverWalletId) { this.receiverWalletId = receiverWalletId; }
+
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
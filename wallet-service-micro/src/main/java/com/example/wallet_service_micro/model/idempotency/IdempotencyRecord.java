@@ -0,0 +1,85 @@
+package com.example.wallet_service_micro.model.idempotency;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Entity
+// One row per client Idempotency-Key (scoped to the user) → the response that was sent for it.
+// The primary key is the replay lookup; expires_at is indexed for the batched purge.
+@Table(name = "idempotency_records",
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "record_key", length = 96)
+    private String key; // "<userId>:<Idempotency-Key>" → also the transaction id of the operation
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 16)
+    private String operation;
+
+    @Column(nullable = false)
+    private String requestFingerprint; // same key + different request → rejected, not replayed
+
+    @Lob
+    @Column(nullable = false)
+    private String responseBody; // JSON of LoadMoneyResponse / TransferResponse
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Transient
+    private boolean isNew = true; // assigned id → without this save() would SELECT before the INSERT
+
+    public IdempotencyRecord() {}
+
+    public IdempotencyRecord(String key, Long userId, String operation, String requestFingerprint,
+                             String responseBody, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.key = key;
+        this.userId = userId;
+        this.operation = operation;
+        this.requestFingerprint = requestFingerprint;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() { return key; }
+
+    @Override
+    public boolean isNew() { return isNew; }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() { this.isNew = false; }
+
+    // --- Getters and Setters ---
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+
+    public String getRequestFingerprint() { return requestFingerprint; }
+    public void setRequestFingerprint(String requestFingerprint) { this.requestFingerprint = requestFingerprint; }
+
+    public String getResponseBody() { return responseBody; }
+    public void setResponseBody(String responseBody) { this.responseBody = responseBody; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -4,18 +4,28 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+// One business transaction id → one DEBIT + one CREDIT row (or one load row), never the same type twice.
+// This is the final duplicate guard behind WalletTransactionService.isDuplicate; it also indexes lookups by id.
+// (wallet_id, wallet_seq) is unique → a wallet's rows in posting order, straight from the index.
+@Table(name = "transactions",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_transactions_txn_type", columnNames = {"transaction_id", "type"}),
+                @UniqueConstraint(name = "uk_transactions_wallet_seq", columnNames = {"wallet_id", "wallet_seq"})
+        })
 public class Transaction {
 
+    // Pooled sequence (a table on databases without sequences, e.g. MySQL): ids are handed out
+    // in blocks of 50 without a round trip each, and unlike IDENTITY the insert itself can be batched.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String transactionId;
 
-    @Column(nullable = false)
-    private double amount;
+    @Column(name = "amount_minor", nullable = false)
+    private long amount; // minor units (see Money)
 
     @Column(nullable = false)
     private String type;
@@ -37,6 +47,14 @@ public class Transaction {
     private String senderWalletName;
     private String receiverWalletName;
 
+    // Wallet balance right after this row, and the row's number within the wallet (1, 2, 3, ...),
+    // both assigned under the wallet's row lock. null → striped wallet or a row from before they existed
+    @Column(name = "balance_after_minor")
+    private Long balanceAfter;
+
+    @Column(name = "wallet_seq")
+    private Long walletSequence;
+
     public Transaction() {}
 
     // --- Getters and Setters ---
@@ -46,8 +64,8 @@ public class Transaction {
     public String getTransactionId() { return transactionId; }
     public void setTransactionId(String transactionId) { this.transactionId = transactionId; }
 
-    public double getAmount() { return amount; }
-    public void setAmount(double amount) { this.amount = amount; }
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
 
     public String getType() { return type; }
     public void setType(String type) { this.type = type; }
@@ -72,4 +90,13 @@ public class Transaction {
 
     public String getReceiverWalletName() { return receiverWalletName; }
     public void setReceiverWalletName(String receiverWalletName) { this.receiverWalletName = receiverWalletName; }
+
+    public Long getBalanceAfter() { return balanceAfter; }
+    public void setBalanceAfter(Long balanceAfter) { this.balanceAfter = balanceAfter; }
+
+    public Long getWalletSequence() { return walletSequence; }
+    public void setWalletSequence(Long walletSequence) { this.walletSequence = walletSequence; }
+
+    // Signed effect on the wallet balance → DEBIT takes, CREDIT / SELF_CREDITED add
+    public long balanceDelta() { return "DEBIT".equals(type) ? -amount : amount; }
 }
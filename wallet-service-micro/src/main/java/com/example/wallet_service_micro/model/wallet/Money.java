@@ -0,0 +1,52 @@
+package com.example.wallet_service_micro.model.wallet;
+
+import java.math.BigDecimal;
+
+// --------------------------------------------------------------------
+// Money is stored and computed as a primitive long count of minor units
+// (1/100 of the currency unit), so balances, limits and daily totals add
+// up exactly and never get boxed. The API still speaks decimals: amounts
+// are converted once on the way in (toMinor) and once on the way out
+// (toMajor / format).
+// --------------------------------------------------------------------
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_MAJOR = 100;
+
+    // Largest magnitude where every 2-decimal amount is still an exact long → well past any wallet limit
+    private static final double MAX_MAJOR = 90_000_000_000_000d;
+
+    private Money() {}
+
+    // ✅ Decimal API amount → minor units. Rejects more than 2 decimals instead of silently rounding.
+    public static long toMinor(double major) {
+        if (!inRange(major)) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+        if (!hasScale(major)) {
+            throw new IllegalArgumentException("Amount can have at most " + SCALE + " decimal places");
+        }
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+
+    // Same rules as toMinor, without throwing (WalletValidator.checkAmount)
+    public static boolean inRange(double major) {
+        return Math.abs(major) <= MAX_MAJOR; // also false for NaN
+    }
+
+    // Division is correctly rounded → equal only if `major` really is a 2-decimal amount (0.29 ok, 0.295 not)
+    public static boolean hasScale(double major) {
+        return Math.round(major * MINOR_PER_MAJOR) / (double) MINOR_PER_MAJOR == major;
+    }
+
+    // ✅ Minor units → decimal for responses (exact for 2 decimals, prints as e.g. 123.45)
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    // ✅ Minor units → "123.45" for messages and logs
+    public static String format(long minor) {
+        return BigDecimal.valueOf(minor, SCALE).toPlainString();
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.wallet_service_micro.model.wallet;
 
 import jakarta.persistence.*;
-import java.time.LocalDate;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "wallet",
@@ -18,10 +18,22 @@ public class Wallet {
     @Column(nullable = false)
     private String walletName;
 
-    private Double balance = 0.0;
-    private Double dailySpent = 0.0;
+    // Minor units (see Money) → exact arithmetic, no boxing
+    @Column(name = "balance_minor", nullable = false)
+    private long balance;
+
+    // Sum of open holds (WalletHold) → spendable = balance - held, see getAvailable()
+    @ColumnDefault("0")
+    @Column(name = "held_minor", nullable = false)
+    private long held;
+
+    // Today's spending, read from / counted in DailySpendCounter (wallet_daily_spend), not a column:
+    // daily-limit updates never touch this row
+    @Transient
+    private long dailySpent;
+
+    // Set when today's spending reaches the limit, cleared by DailyLimitResetJob
     private Boolean frozen = false;
-    private LocalDate lastTransactionDate = LocalDate.now();
 
     @Version
     @Column(nullable = false)
@@ -30,6 +42,16 @@ public class Wallet {
     @Column(nullable = false)
     private Boolean blacklisted = false;
 
+    // Hot wallet → credits land in this many WalletBalanceSlot rows; 0 = not striped
+    @ColumnDefault("0")
+    @Column(name = "balance_slots", nullable = false)
+    private int balanceSlots;
+
+    // Last sequence number handed to one of this wallet's ledger rows (WalletTransactionService).
+    // Only ever moved by SQL under the row lock → never written from the entity
+    @ColumnDefault("0")
+    @Column(name = "ledger_seq", nullable = false, insertable = false, updatable = false)
+    private long ledgerSeq;
 
     // Constructors
     public Wallet() {}
@@ -37,10 +59,9 @@ public class Wallet {
     public Wallet(Long userId, String walletName) {
         this.userId = userId;
         this.walletName = walletName;
-        this.balance = 0.0;
-        this.dailySpent = 0.0;
+        this.balance = 0;
+        this.dailySpent = 0;
         this.frozen = false;
-        this.lastTransactionDate = LocalDate.now();
     }
 
 
@@ -53,21 +74,24 @@ public class Wallet {
 
     public void setUserId(Long userId) { this.userId = userId; }
 
-    public Double getBalance() { return balance; }
+    public long getBalance() { return balance; }
 
-    public void setBalance(Double balance) { this.balance = balance; }
+    public void setBalance(long balance) { this.balance = balance; }
 
-    public Double getDailySpent() { return dailySpent; }
+    public long getHeld() { return held; }
 
-    public void setDailySpent(Double dailySpent) { this.dailySpent = dailySpent; }
+    public void setHeld(long held) { this.held = held; }
 
-    public Boolean getFrozen() { return frozen; }
+    // What a debit may take: the balance minus what open holds have reserved
+    public long getAvailable() { return balance - held; }
 
-    public void setFrozen(Boolean frozen) { this.frozen = frozen; }
+    public long getDailySpent() { return dailySpent; }
 
-    public LocalDate getLastTransactionDate() { return lastTransactionDate; }
+    public void setDailySpent(long dailySpent) { this.dailySpent = dailySpent; }
 
-    public void setLastTransactionDate(LocalDate lastTransactionDate) { this.lastTransactionDate = lastTransactionDate; }
+    public Boolean getFrozen() { return frozen; }
+
+    public void setFrozen(Boolean frozen) { this.frozen = frozen; }
 
     public Long getVersion() { return version; }
 
@@ -89,14 +113,44 @@ public class Wallet {
         this.blacklisted = blacklisted;
     }
 
+    public int getBalanceSlots() { return balanceSlots; }
+
+    public void setBalanceSlots(int balanceSlots) { this.balanceSlots = balanceSlots; }
+
+    public long getLedgerSeq() { return ledgerSeq; }
+
+    public void setLedgerSeq(long ledgerSeq) { this.ledgerSeq = ledgerSeq; }
+
+    // Striped → balance_minor is only part of the balance, see BalanceSlots.balanceOf()
+    public boolean isStriped() { return balanceSlots > 0; }
+
+
+    // Balance math (minor units) → plain long arithmetic, freezes once today's spending reaches the limit
+    public void debit(long amount, long dailyLimit) {
+        this.balance -= amount;
+        spend(amount, dailyLimit);
+    }
+
+    public void load(long amount, long dailyLimit) {
+        this.balance += amount;
+        spend(amount, dailyLimit);
+    }
+
+    public void credit(long amount) {
+        this.balance += amount;
+    }
+
+    public void withdraw(long amount) {
+        this.balance -= amount;
+    }
+
+    public void spend(long amount, long dailyLimit) {
+        recordDailySpent(this.dailySpent + amount, dailyLimit);
+    }
 
-    // Helper
-    public void resetDailyIfNewDay() {
-        LocalDate today = LocalDate.now();
-        if (lastTransactionDate == null || !lastTransactionDate.equals(today)) {
-            this.dailySpent = 0.0;
-            this.frozen = false;
-            this.lastTransactionDate = today;
-        }
+    // Today's total as counted by DailySpendCounter; frozen follows it (a flag left from yesterday clears)
+    public void recordDailySpent(long spentToday, long dailyLimit) {
+        this.dailySpent = spentToday;
+        this.frozen = spentToday >= dailyLimit;
     }
 }
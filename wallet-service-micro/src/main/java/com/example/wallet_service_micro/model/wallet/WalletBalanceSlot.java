@@ -0,0 +1,49 @@
+package com.example.wallet_service_micro.model.wallet;
+
+import jakarta.persistence.*;
+
+// --------------------------------------------------------------------
+// One sub-balance of a striped (hot) wallet. Its balance is the wallet
+// row's balance_minor plus the sum of its slots:
+//  • credits add to ONE slot with a single UPDATE → concurrent credits
+//    touch neither the wallet row nor its @Version
+//  • debits stay on the wallet row (daily limit, frozen, guards); when
+//    the row is short, the slots are swept onto it first
+// No @Version on purpose: a slot only changes through single-statement
+// increments, or while its wallet row is locked (sweep / restripe).
+// --------------------------------------------------------------------
+@Entity
+@Table(name = "wallet_balance_slot",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "slot"}))
+public class WalletBalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(name = "balance_minor", nullable = false)
+    private long balance;
+
+    public WalletBalanceSlot() {}
+
+    public WalletBalanceSlot(Long walletId, int slot) {
+        this.walletId = walletId;
+        this.slot = slot;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getWalletId() { return walletId; }
+
+    public int getSlot() { return slot; }
+
+    public long getBalance() { return balance; }
+
+    public void setBalance(long balance) { this.balance = balance; }
+}
@@ -0,0 +1,48 @@
+package com.example.wallet_service_micro.model.wallet;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+
+// --------------------------------------------------------------------
+// What one wallet spent (loads + debits) on one day, in minor units.
+// Kept out of the wallet row: the limit check is a guarded increment of
+// this row (see WalletDailySpendRepository.addIfWithinLimit), so it never
+// conflicts with balance writes on the wallet's @Version. A new day is a
+// new row → nothing to reset; old rows are purged by DailyLimitResetJob.
+// --------------------------------------------------------------------
+@Entity
+@Table(name = "wallet_daily_spend",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"wallet_id", "spend_date"}),
+        indexes = @Index(name = "idx_wallet_daily_spend_date", columnList = "spend_date"))
+public class WalletDailySpend {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "spend_date", nullable = false)
+    private LocalDate spendDate;
+
+    @Column(name = "spent_minor", nullable = false)
+    private long spent;
+
+    public WalletDailySpend() {}
+
+    public WalletDailySpend(Long walletId, LocalDate spendDate, long spent) {
+        this.walletId = walletId;
+        this.spendDate = spendDate;
+        this.spent = spent;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getWalletId() { return walletId; }
+
+    public LocalDate getSpendDate() { return spendDate; }
+
+    public long getSpent() { return spent; }
+}
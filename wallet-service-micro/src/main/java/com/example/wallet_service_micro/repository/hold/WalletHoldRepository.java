@@ -0,0 +1,29 @@
+package com.example.wallet_service_micro.repository.hold;
+
+import com.example.wallet_service_micro.model.hold.HoldStatus;
+import com.example.wallet_service_micro.model.hold.WalletHold;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, String> {
+
+    // ✅ Status change as check + write in ONE statement → 0 rows = the hold already left `from`
+    // (a concurrent capture / release / expiry won), so every hold is settled exactly once
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE WalletHold h SET h.status = :to WHERE h.holdId = :holdId AND h.status = :from")
+    int transition(@Param("holdId") String holdId, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    // Ids only, oldest first, one page at a time (idx_wallet_hold_status_expires_at) → sweeper batch
+    @Query("SELECT h.holdId FROM WalletHold h WHERE h.status = :status AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<String> findExpiredIds(@Param("status") HoldStatus status, @Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,19 @@
+package com.example.wallet_service_micro.repository.idempotency;
+
+import com.example.wallet_service_micro.model.idempotency.IdempotencyRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Keys only, oldest first, one page at a time (idx_idempotency_expires_at) → purge batch
+    @Query("SELECT r.key FROM IdempotencyRecord r WHERE r.expiresAt < :now ORDER BY r.expiresAt")
+    List<String> findExpiredKeys(@Param("now") LocalDateTime now, Pageable pageable);
+}
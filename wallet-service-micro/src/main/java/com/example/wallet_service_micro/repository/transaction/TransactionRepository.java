@@ -3,6 +3,7 @@ package com.example.wallet_service_micro.repository.transaction;
 import com.example.wallet_service_micro.model.transaction.Transaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,7 +24,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             "WHERE t.userId = :userId " +
             "AND t.walletName = :walletName " +
             "AND t.timestamp BETWEEN :start AND :end " +
-            "ORDER BY t.timestamp DESC")
+            "ORDER BY t.walletSequence DESC, t.timestamp DESC")
     List<Transaction> findByUserAndWalletNameAndTimestampBetween(
             @Param("userId") Long userId,
             @Param("walletName") String walletName,
@@ -34,9 +35,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     // Duplicate Transaction Check
     boolean existsByTransactionId(String transactionId);
 
+    // Recent ids only (no entities) → refills the in-memory duplicate filter at startup
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.timestamp >= :since ORDER BY t.id")
+    Slice<String> findTransactionIdsSince(@Param("since") LocalDateTime since, Pageable pageable);
+
 
     // Extract Transaction of a user and walletName with pagination
-    @Query("SELECT t FROM Transaction t WHERE t.userId = :userId AND t.walletName = :walletName")
+    // Newest first in posting order (rows without a sequence, i.e. older ones, come last)
+    @Query("SELECT t FROM Transaction t WHERE t.userId = :userId AND t.walletName = :walletName " +
+            "ORDER BY t.walletSequence DESC, t.id DESC")
     Page<Transaction> findTransactionsByUserAndWallet(
             @Param("userId") Long userId,
             @Param("walletName") String walletName,
@@ -0,0 +1,38 @@
+package com.example.wallet_service_micro.repository.wallet;
+
+import com.example.wallet_service_micro.model.wallet.WalletBalanceSlot;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface WalletBalanceSlotRepository extends JpaRepository<WalletBalanceSlot, Long> {
+
+    // ✅ Credit one slot → atomic increment, 0 rows = slot does not exist (wallet restriped meanwhile)
+    @Transactional
+    @Modifying
+    @Query(value = """
+       UPDATE wallet_balance_slot
+       SET balance_minor = balance_minor + :amount
+       WHERE wallet_id = :walletId AND slot = :slot
+       """, nativeQuery = true)
+    int credit(@Param("walletId") Long walletId, @Param("slot") int slot, @Param("amount") long amount);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM WalletBalanceSlot s WHERE s.walletId = :walletId")
+    long sumBalance(@Param("walletId") Long walletId);
+
+    // ✅ Sweep / restripe → every slot of the wallet, locked in slot order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("SELECT s FROM WalletBalanceSlot s WHERE s.walletId = :walletId ORDER BY s.slot")
+    List<WalletBalanceSlot> findByWalletIdForUpdate(@Param("walletId") Long walletId);
+}
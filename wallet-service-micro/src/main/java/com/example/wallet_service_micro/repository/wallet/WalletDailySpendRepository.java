@@ -0,0 +1,63 @@
+package com.example.wallet_service_micro.repository.wallet;
+
+import com.example.wallet_service_micro.model.wallet.WalletDailySpend;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface WalletDailySpendRepository extends JpaRepository<WalletDailySpend, Long> {
+
+    // ✅ Check + count in ONE statement → 0 rows = over the limit, or no row for that day yet
+    @Transactional
+    @Modifying
+    @Query(value = """
+       UPDATE wallet_daily_spend
+       SET spent_minor = spent_minor + :amount
+       WHERE wallet_id = :walletId AND spend_date = :day
+       AND spent_minor + :amount <= :dailyLimit
+       """, nativeQuery = true)
+    int addIfWithinLimit(@Param("walletId") Long walletId,
+                         @Param("day") LocalDate day,
+                         @Param("amount") long amount,
+                         @Param("dailyLimit") long dailyLimit);
+
+    // Released / expired hold → its amount no longer counts for the day it was reserved on
+    @Transactional
+    @Modifying
+    @Query(value = """
+       UPDATE wallet_daily_spend
+       SET spent_minor = GREATEST(spent_minor - :amount, 0)
+       WHERE wallet_id = :walletId AND spend_date = :day
+       """, nativeQuery = true)
+    int subtract(@Param("walletId") Long walletId,
+                 @Param("day") LocalDate day,
+                 @Param("amount") long amount);
+
+    // null → nothing spent that day (no row)
+    @Query(value = "SELECT spent_minor FROM wallet_daily_spend WHERE wallet_id = :walletId AND spend_date = :day",
+            nativeQuery = true)
+    Long findSpent(@Param("walletId") Long walletId, @Param("day") LocalDate day);
+
+    // First spending of the day → row created at 0 in the caller's transaction, then counted with
+    // addIfWithinLimit. A row created concurrently is left as it is (no key violation, no rollback-only).
+    @Transactional
+    @Modifying
+    @Query(value = """
+       INSERT INTO wallet_daily_spend (wallet_id, spend_date, spent_minor)
+       VALUES (:walletId, :day, 0)
+       ON DUPLICATE KEY UPDATE spent_minor = spent_minor
+       """, nativeQuery = true)
+    int createIfAbsent(@Param("walletId") Long walletId, @Param("day") LocalDate day);
+
+    // ✅ Purge → one page of ids of days before `before` (index on spend_date)
+    @Query("SELECT s.id FROM WalletDailySpend s WHERE s.spendDate < :before")
+    List<Long> findIdsBefore(@Param("before") LocalDate before, Pageable page);
+}
@@ -0,0 +1,258 @@
+package com.example.wallet_service_micro.service.engine;
+
+import com.example.wallet_service_micro.config.properties.BalanceEngineProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Load;
+import com.example.wallet_service_micro.service.engine.EngineCommand.SetBlacklisted;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Transfer;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import com.example.wallet_service_micro.service.wallet.BalanceSlots;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// --------------------------------------------------------------------
+// Opt-in single-writer balance engine (wallet.engine.enabled), LMAX style:
+//  • wallets are spread over `partitions` worker threads by id; a
+//    partition owns its wallets' balance + daily counters in memory, so
+//    loads and same-partition transfers take no DB lock at all
+//  • request threads hand over a command and wait for the reply
+//  • results are written behind by EnginePersister in batches
+// Cross-partition transfer protocol (no thread ever waits on another):
+//  1. sender's partition validates + debits, posts Credit to the receiver's
+//  2. receiver's partition credits, queues ONE persist item for both legs,
+//     answers the caller
+//  3. receiver refused (blacklisted) → Refund back to the sender's
+//     partition, which undoes the debit and fails the caller
+// Trade-offs: a caller is answered BEFORE the DB commit (a crash loses the
+// unpersisted tail, see awaitPersisted), and while enabled this instance
+// must be the only writer of wallet balances (payouts, batch transfers and
+// restriping are refused by their services). Balance reads go to the DB
+// and trail the engine by at most one persist batch.
+// --------------------------------------------------------------------
+@Component
+public class BalanceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceEngine.class);
+
+    private final BalanceEngineProperties properties;
+    private final WalletProperties walletProperties;
+    private final WalletValidator walletValidator;
+    private final WalletRepository walletRepository;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+    private final WalletTransactionService txnService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet(); // txnIds accepted but not yet in the ledger
+    private final AtomicLong unpersisted = new AtomicLong();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private EnginePartition[] partitions;
+    private EnginePersister persister;
+
+    public BalanceEngine(BalanceEngineProperties properties,
+                         WalletProperties walletProperties,
+                         WalletValidator walletValidator,
+                         WalletRepository walletRepository,
+                         BalanceSlots balanceSlots,
+                         DailySpendCounter dailySpend,
+                         WalletTransactionService txnService,
+                         PlatformTransactionManager transactionManager,
+                         EntityManager entityManager,
+                         MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.walletProperties = walletProperties;
+        this.walletValidator = walletValidator;
+        this.walletRepository = walletRepository;
+        this.balanceSlots = balanceSlots;
+        this.dailySpend = dailySpend;
+        this.txnService = txnService;
+        this.transactionManager = transactionManager;
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || partitions != null) {
+            return;
+        }
+        persister = new EnginePersister(new TransactionTemplate(transactionManager), entityManager, txnService,
+                dailySpend::today, properties.getPersistBatchSize(), this::persisted, meterRegistry);
+        threads.add(Thread.ofPlatform().name("wallet-engine-persister").start(persister));
+
+        partitions = new EnginePartition[properties.getPartitions()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new EnginePartition(i, this, walletValidator, walletProperties.getDailyLimit(),
+                    this::loadWallet, dailySpend::today, persister, properties.getQueueCapacity());
+            threads.add(Thread.ofPlatform().name("wallet-engine-" + i).start(partitions[i]));
+        }
+        logger.info("⚡ Balance engine started | partitions={} | queueCapacity={} | persistBatchSize={}",
+                partitions.length, properties.getQueueCapacity(), properties.getPersistBatchSize());
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ Commands → return the wallet's state right after the command
+    // (same exceptions as the JPA path: IllegalArgumentException for
+    // limits / balance, IllegalStateException for blacklisted)
+    // --------------------------------------------------------------------
+    public Wallet load(long walletId, long amount, Transaction ledgerRow) {
+        CompletableFuture<Wallet> reply = new CompletableFuture<>();
+        return submit(walletId, new Load(walletId, amount, ledgerRow, reply), ledgerRow.getTransactionId(), reply);
+    }
+
+    // ledgerRows = DEBIT + CREDIT of the transfer (WalletTransactionService.transferRows)
+    public Wallet transfer(long senderWalletId, long receiverWalletId, long amount, List<Transaction> ledgerRows) {
+        CompletableFuture<Wallet> reply = new CompletableFuture<>();
+        return submit(senderWalletId, new Transfer(senderWalletId, receiverWalletId, amount, ledgerRows, reply),
+                ledgerRows.get(0).getTransactionId(), reply);
+    }
+
+    // Admin blacklisting → the owning partition sees it before its next command; no-op when disabled
+    public void setBlacklisted(long walletId, boolean blacklisted) {
+        if (partitions != null) {
+            partitionOf(walletId).post(new SetBlacklisted(walletId, blacklisted));
+        }
+    }
+
+    private Wallet submit(long walletId, EngineCommand command, String txnId, CompletableFuture<Wallet> reply) {
+        if (partitions == null) {
+            throw new IllegalStateException("Balance engine is not running");
+        }
+        if (!inFlight.add(txnId)) {
+            throw new ValidationRejectedException(ValidationResult.DUPLICATE_TRANSACTION);
+        }
+        if (!partitionOf(walletId).offer(command)) {
+            inFlight.remove(txnId);
+            throw new IllegalStateException("Wallet engine is busy, please retry");
+        }
+        unpersisted.incrementAndGet();
+        reply.whenComplete((wallet, error) -> {
+            if (error != null) { // refused → nothing to persist
+                inFlight.remove(txnId);
+                unpersisted.decrementAndGet();
+            }
+        });
+
+        try {
+            return reply.get(properties.getReplyTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // still queued → it may complete later; the txnId stays taken so a retry cannot apply it twice
+            logger.warn("⏱️ Balance engine did not answer in time | walletId={} | txnId={}", walletId, txnId);
+            throw new IllegalStateException("Wallet engine did not answer in time, please check the transaction status");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the wallet engine");
+        }
+    }
+
+    // Persister → ledger rows are in the DB now, the regular duplicate check covers their txnIds.
+    // Rows of a command whose write keeps failing never come here → its txnId stays refused
+    private void persisted(List<Transaction> rows) {
+        for (Transaction row : rows) {
+            if (inFlight.remove(row.getTransactionId())) {
+                unpersisted.decrementAndGet();
+            }
+        }
+    }
+
+    // Partition thread, first touch of a wallet. Striped wallets: the engine keeps the
+    // total (row + slots) and writes deltas to the row, so the sum in the DB stays right.
+    // Frozen follows today's counter, not the row (which keeps yesterday's flag until the reset job ran)
+    private Wallet loadWallet(long walletId) {
+        Wallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
+        if (wallet.isStriped()) {
+            wallet.setBalance(balanceSlots.balanceOf(wallet));
+        }
+        long spent = dailySpend.spentToday(walletId);
+        wallet.setDailySpent(spent);
+        wallet.setFrozen(spent >= walletProperties.getDailyLimit());
+        return wallet;
+    }
+
+    EnginePartition partitionOf(long walletId) {
+        return partitions[(int) Math.floorMod(walletId, (long) partitions.length)];
+    }
+
+    // ✅ true once every accepted command is in the DB (tests, graceful shutdown)
+    public boolean awaitPersisted(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (unpersisted.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Let in-flight commands finish (a Credit may still be travelling between partitions),
+    // stop the partitions, then the persister drains what they handed over
+    @PreDestroy
+    public void shutdown() {
+        if (partitions == null) {
+            return;
+        }
+        awaitPersisted(properties.getReplyTimeout().multipliedBy(5));
+        for (EnginePartition partition : partitions) {
+            partition.stop();
+        }
+        join(threads.subList(1, threads.size()));
+        persister.stop();
+        join(threads.subList(0, 1));
+        logger.info("🛑 Balance engine stopped | unpersisted={}", unpersisted.get());
+        partitions = null;
+        threads.clear();
+    }
+
+    private static void join(List<Thread> toJoin) {
+        for (Thread thread : toJoin) {
+            try {
+                thread.join(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.wallet_service_micro.service.engine;
+
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Messages processed by an EnginePartition, one at a time, in arrival order
+sealed interface EngineCommand {
+
+    // ✅ From request threads (take a queue permit)
+    record Load(long walletId, long amount, Transaction ledgerRow,
+                CompletableFuture<Wallet> reply) implements EngineCommand {}
+
+    record Transfer(long senderWalletId, long receiverWalletId, long amount, List<Transaction> ledgerRows,
+                    CompletableFuture<Wallet> reply) implements EngineCommand {}
+
+    // ✅ Between partitions (cross-partition transfer legs, no permit)
+    // Sender already debited on `debitDay`; senderAfter = sender state to answer with
+    record Credit(Transfer transfer, Wallet senderAfter, LocalDate debitDay) implements EngineCommand {}
+
+    // Receiver refused → undo the debit on the sender's partition, then fail the transfer
+    record Refund(Transfer transfer, LocalDate debitDay, RuntimeException reason) implements EngineCommand {}
+
+    // ✅ From admin operations → keeps the in-memory flag in line with the DB
+    record SetBlacklisted(long walletId, boolean blacklisted) implements EngineCommand {}
+}
@@ -0,0 +1,268 @@
+package com.example.wallet_service_micro.service.engine;
+
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Credit;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Load;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Refund;
+import com.example.wallet_service_micro.service.engine.EngineCommand.SetBlacklisted;
+import com.example.wallet_service_micro.service.engine.EngineCommand.Transfer;
+import com.example.wallet_service_micro.service.engine.EnginePersister.Delta;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+// --------------------------------------------------------------------
+// One single-writer partition: the ONLY thread that reads or changes the
+// state of its wallets, so every check + write is a plain in-memory step.
+// Commands are drained in batches (LMAX-style batching: one wake-up, many
+// commands). Validation reuses WalletValidator / Wallet on detached
+// Wallet copies, so the rules are the same as on the JPA path.
+// Daily totals are kept per wallet in memory for the partition's `day`;
+// the first batch of a new day zeroes them (the DB side starts a new
+// wallet_daily_spend row, DailyLimitResetJob unfreezes the rows).
+// Ledger rows get their running balance + wallet sequence here, from the
+// in-memory wallet (a refused cross-partition credit leaves a gap in the
+// sender's sequence: its DEBIT row is dropped, the number is not reused).
+// --------------------------------------------------------------------
+final class EnginePartition implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnginePartition.class);
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final int index;
+    private final BalanceEngine engine;
+    private final WalletValidator walletValidator;
+    private final long dailyLimit;
+    private final LongFunction<Wallet> loader;
+    private final Supplier<LocalDate> today;
+    private final EnginePersister persister;
+
+    private final LinkedBlockingQueue<EngineCommand> inbox = new LinkedBlockingQueue<>();
+    private final Semaphore permits; // bounds accepted-but-unpersisted client commands
+    private final Map<Long, Wallet> wallets = new HashMap<>();
+    private volatile boolean running = true;
+    private LocalDate day;
+
+    EnginePartition(int index, BalanceEngine engine, WalletValidator walletValidator, long dailyLimit,
+                    LongFunction<Wallet> loader, Supplier<LocalDate> today, EnginePersister persister, int capacity) {
+        this.index = index;
+        this.engine = engine;
+        this.walletValidator = walletValidator;
+        this.dailyLimit = dailyLimit;
+        this.loader = loader;
+        this.today = today;
+        this.day = today.get();
+        this.persister = persister;
+        this.permits = new Semaphore(capacity);
+    }
+
+    // Request thread → false when the partition is at capacity
+    boolean offer(EngineCommand command) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        inbox.add(command);
+        return true;
+    }
+
+    // Other partitions / admin → never refused, never blocks (no cross-partition waits → no deadlocks)
+    void post(EngineCommand command) {
+        inbox.add(command);
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        List<EngineCommand> batch = new ArrayList<>(DRAIN_BATCH);
+        while (running || !inbox.isEmpty()) {
+            try {
+                EngineCommand first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                inbox.drainTo(batch, DRAIN_BATCH - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            rollDayIfNeeded();
+            for (EngineCommand command : batch) {
+                process(command);
+            }
+            batch.clear();
+        }
+        logger.info("🛑 Engine partition {} stopped | wallets={}", index, wallets.size());
+    }
+
+    private void process(EngineCommand command) {
+        switch (command) {
+            case Load load -> load(load);
+            case Transfer transfer -> debit(transfer);
+            case Credit credit -> credit(credit);
+            case Refund refund -> refund(refund);
+            case SetBlacklisted flag -> {
+                Wallet wallet = wallets.get(flag.walletId());
+                if (wallet != null) wallet.setBlacklisted(flag.blacklisted()); // not loaded yet → the DB value will be read
+            }
+        }
+    }
+
+    // ------------------------ Commands ------------------------
+
+    private void load(Load load) {
+        try {
+            Wallet wallet = wallet(load.walletId());
+            walletValidator.validateNotBlacklisted(wallet);
+            walletValidator.validateDailyLimit(wallet, load.amount());
+            wallet.load(load.amount(), dailyLimit);
+            stamp(wallet, load.ledgerRow());
+
+            persister.submit(List.of(Delta.spending(wallet.getId(), load.amount(), load.amount(), day, wallet.getFrozen())),
+                    List.of(load.ledgerRow()), this::release);
+            load.reply().complete(snapshot(wallet));
+        } catch (RuntimeException e) {
+            release();
+            load.reply().completeExceptionally(e);
+        }
+    }
+
+    // Sender side of a transfer: validate + debit, then credit here or hand over to the receiver's partition
+    private void debit(Transfer transfer) {
+        Wallet sender;
+        try {
+            sender = wallet(transfer.senderWalletId());
+            walletValidator.validateNotBlacklisted(sender);
+            walletValidator.validateFrozen(sender);
+            walletValidator.validateBalance(sender, transfer.amount());
+            walletValidator.validateDailyLimit(sender, transfer.amount());
+
+            if (engine.partitionOf(transfer.receiverWalletId()) == this) {
+                Wallet receiver = wallet(transfer.receiverWalletId());
+                walletValidator.validateNotBlacklisted(receiver);
+
+                sender.debit(transfer.amount(), dailyLimit);
+                receiver.credit(transfer.amount());
+                stamp(sender, transfer.ledgerRows().get(0));
+                stamp(receiver, transfer.ledgerRows().get(1));
+                persister.submit(deltas(transfer, day, sender.getFrozen()), transfer.ledgerRows(), this::release);
+                transfer.reply().complete(snapshot(sender));
+                return;
+            }
+        } catch (RuntimeException e) {
+            release();
+            transfer.reply().completeExceptionally(e);
+            return;
+        }
+
+        // Cross-partition: the money leaves now, the receiver's partition decides whether it lands
+        sender.debit(transfer.amount(), dailyLimit);
+        stamp(sender, transfer.ledgerRows().get(0));
+        engine.partitionOf(transfer.receiverWalletId()).post(new Credit(transfer, snapshot(sender), day));
+    }
+
+    // Receiver side of a cross-partition transfer → persists BOTH legs in one DB transaction
+    private void credit(Credit credit) {
+        Transfer transfer = credit.transfer();
+        EnginePartition senderPartition = engine.partitionOf(transfer.senderWalletId());
+        try {
+            Wallet receiver = wallet(transfer.receiverWalletId());
+            walletValidator.validateNotBlacklisted(receiver);
+            receiver.credit(transfer.amount());
+            stamp(receiver, transfer.ledgerRows().get(1));
+        } catch (RuntimeException e) {
+            senderPartition.post(new Refund(transfer, credit.debitDay(), e));
+            return;
+        }
+        persister.submit(deltas(transfer, credit.debitDay(), credit.senderAfter().getFrozen()), transfer.ledgerRows(),
+                senderPartition::release);
+        transfer.reply().complete(credit.senderAfter());
+    }
+
+    // Undo a debit whose credit was refused. Other commands may have run in between → undo by delta
+    private void refund(Refund refund) {
+        Transfer transfer = refund.transfer();
+        Wallet sender = wallets.get(transfer.senderWalletId());
+        sender.credit(transfer.amount());
+        if (refund.debitDay().equals(day)) { // debited before midnight → today's total never had it
+            sender.setDailySpent(sender.getDailySpent() - transfer.amount());
+            sender.setFrozen(sender.getDailySpent() >= dailyLimit);
+        }
+        release();
+        transfer.reply().completeExceptionally(refund.reason());
+    }
+
+    // ------------------------ State ------------------------
+
+    // Once per drained batch → a new day costs one pass over this partition's wallets
+    private void rollDayIfNeeded() {
+        LocalDate now = today.get();
+        if (now.equals(day)) {
+            return;
+        }
+        for (Wallet wallet : wallets.values()) {
+            wallet.setDailySpent(0);
+            wallet.setFrozen(false);
+        }
+        day = now;
+        logger.info("🌙 Engine partition {} started {} | wallets={}", index, now, wallets.size());
+    }
+
+    private Wallet wallet(long walletId) {
+        Wallet wallet = wallets.get(walletId);
+        if (wallet == null) {
+            wallet = loader.apply(walletId); // first touch only → one blocking read on this thread
+            wallets.put(walletId, wallet);
+        }
+        return wallet;
+    }
+
+    // Row → the wallet's next ledger position, with the balance it left behind (rows: DEBIT, CREDIT)
+    private static void stamp(Wallet wallet, Transaction row) {
+        wallet.setLedgerSeq(wallet.getLedgerSeq() + 1);
+        row.setWalletSequence(wallet.getLedgerSeq());
+        row.setBalanceAfter(wallet.getBalance());
+    }
+
+    private static List<Delta> deltas(Transfer transfer, LocalDate debitDay, boolean senderFrozen) {
+        return List.of(
+                Delta.spending(transfer.senderWalletId(), -transfer.amount(), transfer.amount(), debitDay, senderFrozen),
+                Delta.credit(transfer.receiverWalletId(), transfer.amount()));
+    }
+
+    // Replies must not share the partition's mutable objects
+    static Wallet snapshot(Wallet wallet) {
+        Wallet copy = new Wallet(wallet.getUserId(), wallet.getWalletName());
+        copy.setId(wallet.getId());
+        copy.setBalance(wallet.getBalance());
+        copy.setHeld(wallet.getHeld());
+        copy.setDailySpent(wallet.getDailySpent());
+        copy.setFrozen(wallet.getFrozen());
+        copy.setBlacklisted(wallet.getBlacklisted());
+        return copy;
+    }
+
+    int walletCount() {
+        return wallets.size();
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.wallet_service_micro.service.engine;
+
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// --------------------------------------------------------------------
+// Write-behind of the engine: completed commands are queued here and
+// written in batches, one DB transaction per batch:
+//  • wallet changes as DELTAS (not absolute values), summed per wallet and
+//    day, as JDBC batches → a hot wallet touched 500 times = one UPDATE
+//  • daily totals added to wallet_daily_spend the same way (UPDATE batch,
+//    INSERT for the wallets without a row for that day yet)
+//  • ledger rows through WalletTransactionService.saveLedgerRows, already
+//    numbered by the partitions; wallet.ledger_seq follows as GREATEST()
+//    of the numbers written, so batches may land in any order
+// A failing batch is retried item by item. A command that still fails was
+// already answered, so it is never dropped: it is kept and retried with a
+// capped backoff between batches (logged + wallet.engine.persist.failures)
+// and its txnIds stay in-flight, so the duplicate check keeps refusing them
+// until its rows are really written.
+// --------------------------------------------------------------------
+final class EnginePersister implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnginePersister.class);
+
+    // Spending (load / debit): no guards, the partition already validated. Only ever sets
+    // frozen; unfreezing is DailyLimitResetJob's, so a late delta of yesterday cannot re-freeze
+    private static final String SPENDING_SQL = """
+            UPDATE wallet SET
+                balance_minor = balance_minor + ?,
+                frozen = CASE WHEN ? THEN TRUE ELSE frozen END,
+                ledger_seq = GREATEST(ledger_seq, ?),
+                version = version + 1
+            WHERE id = ?
+            """;
+
+    private static final String COUNT_SQL =
+            "UPDATE wallet_daily_spend SET spent_minor = spent_minor + ? WHERE wallet_id = ? AND spend_date = ?";
+
+    private static final String FIRST_COUNT_SQL =
+            "INSERT INTO wallet_daily_spend (wallet_id, spend_date, spent_minor) VALUES (?, ?, ?)";
+
+    private static final String CREDIT_SQL =
+            "UPDATE wallet SET balance_minor = balance_minor + ?, ledger_seq = GREATEST(ledger_seq, ?), version = version + 1 WHERE id = ?";
+
+    private static final long RETRY_BACKOFF_BASE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long RETRY_BACKOFF_MAX_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    // One wallet change. day == null → plain credit (no daily counter); freeze → limit reached by it
+    record Delta(long walletId, long balance, long spent, LocalDate day, boolean freeze) {
+
+        static Delta spending(long walletId, long balance, long spent, LocalDate day, boolean freeze) {
+            return new Delta(walletId, balance, spent, day, freeze);
+        }
+
+        static Delta credit(long walletId, long balance) {
+            return new Delta(walletId, balance, 0, null, false);
+        }
+    }
+
+    private record Item(List<Delta> deltas, List<Transaction> ledgerRows, Runnable onPersisted) {}
+
+    private record Key(long walletId, LocalDate day) {}
+
+    // Per (wallet, day) sum of a batch
+    private static final class Spending {
+        long balance;
+        long spent;
+        boolean freeze;
+    }
+
+    private final TransactionTemplate transaction;
+    private final EntityManager entityManager;
+    private final WalletTransactionService txnService;
+    private final Supplier<LocalDate> today;
+    private final int batchSize;
+    private final Consumer<List<Transaction>> afterBatch;
+    private final Counter persisted;
+    private final Counter failures;
+
+    private final LinkedBlockingQueue<Item> queue = new LinkedBlockingQueue<>();
+    private final List<Item> failed = new ArrayList<>(); // acked but not written yet → persister thread only
+    private int retryRound;
+    private long nextRetryAt;
+    private volatile boolean running = true;
+
+    EnginePersister(TransactionTemplate transaction, EntityManager entityManager, WalletTransactionService txnService,
+                    Supplier<LocalDate> today, int batchSize, Consumer<List<Transaction>> afterBatch, MeterRegistry meterRegistry) {
+        this.transaction = transaction;
+        this.entityManager = entityManager;
+        this.txnService = txnService;
+        this.today = today;
+        this.batchSize = batchSize;
+        this.afterBatch = afterBatch;
+        this.persisted = meterRegistry.counter("wallet.engine.persisted");
+        this.failures = meterRegistry.counter("wallet.engine.persist.failures");
+    }
+
+    // Partition threads → never blocks
+    void submit(List<Delta> deltas, List<Transaction> ledgerRows, Runnable onPersisted) {
+        queue.add(new Item(deltas, ledgerRows, onPersisted));
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        List<Item> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            retryFailed(false);
+            try {
+                Item first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            persist(batch);
+            batch.clear();
+        }
+        retryFailed(true);
+        for (Item item : failed) {
+            logger.error("❌ Engine command NOT persisted at shutdown | deltas={} | txnIds={}", item.deltas(), txnIds(item));
+        }
+    }
+
+    private void persist(List<Item> batch) {
+        try {
+            write(batch);
+            written(batch);
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Engine batch of {} failed, retrying one by one | reason={}", batch.size(), e.getMessage());
+            for (Item item : batch) {
+                if (!writeOne(item)) {
+                    failed.add(item);
+                }
+            }
+            nextRetryAt = System.nanoTime() + backoff();
+        }
+    }
+
+    // ✅ Kept commands, once their backoff is over (or regardless, at shutdown)
+    private void retryFailed(boolean now) {
+        if (failed.isEmpty() || (!now && System.nanoTime() < nextRetryAt)) {
+            return;
+        }
+        failed.removeIf(this::writeOne);
+        if (failed.isEmpty()) {
+            retryRound = 0;
+            logger.info("✅ Engine commands kept for retry are persisted");
+        } else {
+            retryRound++;
+            nextRetryAt = System.nanoTime() + backoff();
+        }
+    }
+
+    private boolean writeOne(Item item) {
+        try {
+            write(List.of(item));
+            written(List.of(item));
+            return true;
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.error("❌ Engine command not persisted, kept for retry | deltas={} | txnIds={} | reason={}",
+                    item.deltas(), txnIds(item), e.getMessage());
+            return false;
+        }
+    }
+
+    // Only what is in the DB now → its permits and txnIds are released
+    private void written(List<Item> items) {
+        persisted.increment(items.size());
+        List<Transaction> rows = new ArrayList<>();
+        for (Item item : items) {
+            rows.addAll(item.ledgerRows());
+            item.onPersisted().run();
+        }
+        afterBatch.accept(rows);
+    }
+
+    // base * 2^round, capped
+    private long backoff() {
+        return Math.min(RETRY_BACKOFF_MAX_NANOS, RETRY_BACKOFF_BASE_NANOS << Math.min(retryRound, 16));
+    }
+
+    private static List<String> txnIds(Item item) {
+        return item.ledgerRows().stream().map(Transaction::getTransactionId).distinct().toList();
+    }
+
+    private void write(List<Item> items) {
+        // ✅ Coalesce: one delta per (wallet, day), insertion order kept
+        Map<Key, Spending> spending = new LinkedHashMap<>();
+        Map<Long, long[]> credits = new LinkedHashMap<>();
+        List<Transaction> rows = new ArrayList<>();
+        for (Item item : items) {
+            for (Delta delta : item.deltas()) {
+                if (delta.day() == null) {
+                    credits.computeIfAbsent(delta.walletId(), id -> new long[1])[0] += delta.balance();
+                } else {
+                    Spending sum = spending.computeIfAbsent(new Key(delta.walletId(), delta.day()), key -> new Spending());
+                    sum.balance += delta.balance();
+                    sum.spent += delta.spent();
+                    sum.freeze |= delta.freeze();
+                }
+            }
+            rows.addAll(item.ledgerRows());
+        }
+        Map<Long, Long> lastSeq = new HashMap<>();
+        for (Transaction row : rows) {
+            if (row.getWalletSequence() != null) {
+                lastSeq.merge(row.getWalletId(), row.getWalletSequence(), Math::max);
+            }
+        }
+
+        transaction.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).doWork(connection -> {
+                LocalDate now = today.get();
+                try (PreparedStatement update = connection.prepareStatement(SPENDING_SQL)) {
+                    for (Map.Entry<Key, Spending> entry : spending.entrySet()) {
+                        update.setLong(1, entry.getValue().balance);
+                        update.setBoolean(2, entry.getValue().freeze && entry.getKey().day().equals(now));
+                        update.setLong(3, lastSeq.getOrDefault(entry.getKey().walletId(), 0L));
+                        update.setLong(4, entry.getKey().walletId());
+                        update.addBatch();
+                    }
+                    if (!spending.isEmpty()) update.executeBatch();
+                }
+                count(connection, spending);
+                try (PreparedStatement credit = connection.prepareStatement(CREDIT_SQL)) {
+                    for (Map.Entry<Long, long[]> entry : credits.entrySet()) {
+                        credit.setLong(1, entry.getValue()[0]);
+                        credit.setLong(2, lastSeq.getOrDefault(entry.getKey(), 0L));
+                        credit.setLong(3, entry.getKey());
+                        credit.addBatch();
+                    }
+                    if (!credits.isEmpty()) credit.executeBatch();
+                }
+            });
+            txnService.saveLedgerRows(rows);
+        });
+    }
+
+    // ✅ Daily totals: UPDATE the existing rows in one batch, INSERT the missing ones in another
+    private static void count(Connection connection, Map<Key, Spending> spending) throws SQLException {
+        if (spending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Key, Spending>> entries = new ArrayList<>(spending.entrySet());
+        int[] updated;
+        try (PreparedStatement update = connection.prepareStatement(COUNT_SQL)) {
+            for (Map.Entry<Key, Spending> entry : entries) {
+                update.setLong(1, entry.getValue().spent);
+                update.setLong(2, entry.getKey().walletId());
+                update.setDate(3, Date.valueOf(entry.getKey().day()));
+                update.addBatch();
+            }
+            updated = update.executeBatch();
+        }
+        try (PreparedStatement insert = connection.prepareStatement(FIRST_COUNT_SQL)) {
+            boolean any = false;
+            for (int i = 0; i < entries.size(); i++) {
+                if (updated[i] != 0) { // SUCCESS_NO_INFO counts as updated
+                    continue;
+                }
+                Map.Entry<Key, Spending> entry = entries.get(i);
+                insert.setLong(1, entry.getKey().walletId());
+                insert.setDate(2, Date.valueOf(entry.getKey().day()));
+                insert.setLong(3, entry.getValue().spent);
+                insert.addBatch();
+                any = true;
+            }
+            if (any) insert.executeBatch();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.wallet_service_micro.service.factory;
 
 import com.example.wallet_service_micro.dto.user.UserDTO;
 import com.example.wallet_service_micro.dto.walletCreation.CreateWalletResponse;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.repository.wallet.WalletRepository;
 import org.slf4j.Logger;
@@ -41,7 +42,7 @@ public class WalletManagementService {
 
         CreateWalletResponse response = new CreateWalletResponse();
         response.setWalletName(walletName);
-        response.setBalance(wallet.getBalance());
+        response.setBalance(Money.toMajor(wallet.getBalance()));
         response.setMessage("Wallet created successfully ✅");
 
         logger.debug("📦 Wallet creation response: {}", response);
@@ -0,0 +1,439 @@
+package com.example.wallet_service_micro.service.hold;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.properties.HoldProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.dto.hold.HoldCaptureRequest;
+import com.example.wallet_service_micro.dto.hold.HoldRequest;
+import com.example.wallet_service_micro.dto.hold.HoldResponse;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.hold.HoldStatus;
+import com.example.wallet_service_micro.model.hold.WalletHold;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.hold.WalletHoldRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import com.example.wallet_service_micro.service.wallet.BalanceSlots;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// --------------------------------------------------------------------
+// Two-phase debits (authorize now, pay later):
+//  • reserve() → the amount moves into wallet.held_minor (guarded UPDATE:
+//    available = balance - held must cover it) and counts for the daily
+//    limit; a HELD row in wallet_hold remembers it
+//  • capture() → HELD → CAPTURED, balance and held drop, the receiver is
+//    credited, DEBIT + CREDIT ledger rows under the hold id
+//  • release() → HELD → RELEASED, the amount is available again
+//  • expireStale() → scheduled, releases holds past expires_at (EXPIRED)
+// Every step is a few single-statement writes in one short transaction:
+// no row lock is held between reserve and capture. A guarded UPDATE that
+// lost a race is retried like a transfer (409 once attempts run out). The status change is
+// a guarded UPDATE too, so a hold is settled once even when a capture,
+// a release and the sweeper race.
+// Not available while the balance engine is enabled (it owns balances):
+// no step runs then, the sweeper included.
+// Metrics: wallet.hold{result=reserved|captured|released|expired}
+// --------------------------------------------------------------------
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+
+    private final WalletHoldRepository holdRepository;
+    private final WalletRepository walletRepository;
+    private final WalletManagementService walletManagementService;
+    private final WalletValidator walletValidator;
+    private final WalletTransactionService txnService;
+    private final UserClient userClient;
+    private final WalletWriter walletWriter;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+    private final BalanceEngine balanceEngine;
+    private final HoldProperties properties;
+    private final WalletProperties walletProperties;
+    private final TransactionTemplate tx;
+    private final Clock clock;
+
+    private final Counter reserved;
+    private final Counter captured;
+    private final Counter released;
+    private final Counter expired;
+
+    public HoldService(WalletHoldRepository holdRepository,
+                       WalletRepository walletRepository,
+                       WalletManagementService walletManagementService,
+                       WalletValidator walletValidator,
+                       WalletTransactionService txnService,
+                       UserClient userClient,
+                       WalletWriter walletWriter,
+                       BalanceSlots balanceSlots,
+                       DailySpendCounter dailySpend,
+                       BalanceEngine balanceEngine,
+                       HoldProperties properties,
+                       WalletProperties walletProperties,
+                       MeterRegistry meterRegistry,
+                       PlatformTransactionManager transactionManager) {
+        this(holdRepository, walletRepository, walletManagementService, walletValidator, txnService, userClient,
+                walletWriter, balanceSlots, dailySpend, balanceEngine, properties, walletProperties, meterRegistry,
+                transactionManager, Clock.systemDefaultZone());
+    }
+
+    HoldService(WalletHoldRepository holdRepository,
+                WalletRepository walletRepository,
+                WalletManagementService walletManagementService,
+                WalletValidator walletValidator,
+                WalletTransactionService txnService,
+                UserClient userClient,
+                WalletWriter walletWriter,
+                BalanceSlots balanceSlots,
+                DailySpendCounter dailySpend,
+                BalanceEngine balanceEngine,
+                HoldProperties properties,
+                WalletProperties walletProperties,
+                MeterRegistry meterRegistry,
+                PlatformTransactionManager transactionManager,
+                Clock clock) {
+        this.holdRepository = holdRepository;
+        this.walletRepository = walletRepository;
+        this.walletManagementService = walletManagementService;
+        this.walletValidator = walletValidator;
+        this.txnService = txnService;
+        this.userClient = userClient;
+        this.walletWriter = walletWriter;
+        this.balanceSlots = balanceSlots;
+        this.dailySpend = dailySpend;
+        this.balanceEngine = balanceEngine;
+        this.properties = properties;
+        this.walletProperties = walletProperties;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+
+        this.reserved = meterRegistry.counter("wallet.hold", "result", "reserved");
+        this.captured = meterRegistry.counter("wallet.hold", "result", "captured");
+        this.released = meterRegistry.counter("wallet.hold", "result", "released");
+        this.expired = meterRegistry.counter("wallet.hold", "result", "expired");
+    }
+
+    // --------------------------------------------------------------------
+    // RESERVE
+    // --------------------------------------------------------------------
+    public HoldResponse reserve(UserDTO user, HoldRequest request, String holdId) {
+        if (user == null) throw new UserNotFoundException("Sender not found");
+        requireEngineOff();
+        if (request.getReceiverId() == null) require(ValidationResult.RECEIVER_REQUIRED);
+        require(walletValidator.checkAmount(request.getAmount()));
+        if (request.getReceiverId().equals(user.getId())) require(ValidationResult.OWN_WALLET_TRANSFER);
+
+        long amount = Money.toMinor(request.getAmount());
+        Duration ttl = ttlOf(request);
+
+        if (holdRepository.existsById(holdId) || txnService.isDuplicate(holdId)) require(ValidationResult.DUPLICATE_TRANSACTION);
+
+        UserDTO recipient = userClient.getUserByIdInternal(request.getReceiverId());
+        if (recipient == null) throw new UserNotFoundException("Recipient not found");
+        Wallet receiverWallet = walletManagementService.getExistingWallet(recipient, "Default");
+        require(walletValidator.checkNotBlacklisted(receiverWallet));
+
+        Wallet wallet = walletManagementService.getExistingWallet(user, request.getSenderWalletName());
+        dailySpend.fill(wallet);
+        require(walletValidator.checkSpender(wallet)); // balance and daily limit → the guarded holdIfAvailable
+
+        logger.info("🔒 Reserving hold | userId={} | wallet={} | amount={} | holdId={}",
+                user.getId(), wallet.getWalletName(), Money.format(amount), holdId);
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        WalletHold hold = new WalletHold(holdId, user.getId(), wallet.getId(), recipient.getId(), receiverWallet.getId(),
+                amount, now, now.plus(ttl));
+        try {
+            inTransaction("reserve", () -> {
+                // Counter → row → slots (WalletWriter lock order); a striped wallet's slots onto the row
+                // before the guard, which only sees the row
+                long spent = dailySpend.add(wallet, amount);
+                if (wallet.isStriped() && wallet.getAvailable() < amount) {
+                    walletWriter.sweepSlots(wallet);
+                }
+                if (walletRepository.holdIfAvailable(wallet.getId(), amount, spent >= walletProperties.getDailyLimit()) == 0) {
+                    rejected(wallet.getId(), amount); // throws → the daily count rolls back with it
+                }
+                holdRepository.save(hold);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent reserve with the same Idempotency-Key stored its hold first
+            throw new ValidationRejectedException(ValidationResult.DUPLICATE_TRANSACTION);
+        }
+
+        reserved.increment();
+        Wallet after = reload(wallet.getId());
+        logger.info("✅ Hold reserved | holdId={} | held={} | available={} | expiresAt={}",
+                holdId, Money.format(after.getHeld()), Money.format(after.getAvailable()), hold.getExpiresAt());
+        return response(hold, HoldStatus.HELD, amount, after,
+                Boolean.TRUE.equals(after.getFrozen())
+                        ? "Amount held, wallet frozen as daily limit reached"
+                        : "Amount held ✅");
+    }
+
+    // --------------------------------------------------------------------
+    // CAPTURE → pay the receiver; a smaller amount releases the rest
+    // --------------------------------------------------------------------
+    public HoldResponse capture(UserDTO user, String holdId, HoldCaptureRequest request) {
+        requireEngineOff();
+        WalletHold hold = openHold(user, holdId);
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now(clock))) {
+            throw new IllegalArgumentException("Hold " + holdId + " has expired");
+        }
+
+        boolean partial = request != null && request.getAmount() != null;
+        if (partial) require(walletValidator.checkAmount(request.getAmount()));
+        long amount = partial ? Money.toMinor(request.getAmount()) : hold.getAmount();
+        if (amount > hold.getAmount()) {
+            throw new IllegalArgumentException("Capture amount " + Money.format(amount)
+                    + " exceeds the held amount " + Money.format(hold.getAmount()));
+        }
+
+        UserDTO recipient = userClient.getUserByIdInternal(hold.getReceiverUserId());
+        if (recipient == null) throw new UserNotFoundException("Recipient not found");
+
+        logger.info("💸 Capturing hold | holdId={} | held={} | amount={}",
+                holdId, Money.format(hold.getAmount()), Money.format(amount));
+
+        inTransaction("capture", () -> {
+            settle(hold, HoldStatus.CAPTURED);
+            Wallet receiverWallet = reload(hold.getReceiverWalletId());
+            walletValidator.validateNotBlacklisted(receiverWallet);
+
+            // Payer and receiver steps in ascending wallet id (WalletWriter lock order)
+            if (hold.getWalletId() < receiverWallet.getId()) {
+                takeCaptured(hold, amount);
+                payReceiver(receiverWallet, amount);
+            } else {
+                payReceiver(receiverWallet, amount);
+                takeCaptured(hold, amount);
+            }
+
+            txnService.saveLedgerRows(txnService.transferRows(user, recipient, amount, holdId,
+                    reload(hold.getWalletId()), receiverWallet));
+        });
+
+        captured.increment();
+        Wallet after = reload(hold.getWalletId());
+        logger.info("✅ Hold captured | holdId={} | amount={} | balance={}", holdId, Money.format(amount), Money.format(after.getBalance()));
+        return response(hold, HoldStatus.CAPTURED, amount, after, "Hold captured ✅");
+    }
+
+    // --------------------------------------------------------------------
+    // RELEASE → nothing is paid, the amount is available again
+    // --------------------------------------------------------------------
+    public HoldResponse release(UserDTO user, String holdId) {
+        requireEngineOff();
+        WalletHold hold = openHold(user, holdId);
+
+        tx.executeWithoutResult(status -> {
+            settle(hold, HoldStatus.RELEASED);
+            unhold(hold);
+        });
+
+        released.increment();
+        Wallet after = reload(hold.getWalletId());
+        logger.info("🔓 Hold released | holdId={} | amount={} | available={}",
+                holdId, Money.format(hold.getAmount()), Money.format(after.getAvailable()));
+        return response(hold, HoldStatus.RELEASED, hold.getAmount(), after, "Hold released ✅");
+    }
+
+    // --------------------------------------------------------------------
+    // Sweeper: page of expired HELD ids (index range scan) → each hold
+    // expired in its own short transaction, until a short page. A hold a
+    // client settles meanwhile is skipped (its status is no longer HELD).
+    // Idle while the balance engine is enabled: holds stay HELD until then.
+    // --------------------------------------------------------------------
+    @Scheduled(initialDelayString = "${wallet.hold.sweep-initial-delay:PT30S}",
+            fixedDelayString = "${wallet.hold.sweep-interval:PT30S}")
+    public int expireStale() {
+        if (balanceEngine.isEnabled()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        PageRequest batch = PageRequest.of(0, properties.getSweepBatchSize());
+        int total = 0;
+        List<String> ids;
+        do {
+            ids = holdRepository.findExpiredIds(HoldStatus.HELD, now, batch);
+            int expiredInPage = 0;
+            for (String id : ids) {
+                if (expire(id)) {
+                    expiredInPage++;
+                }
+            }
+            total += expiredInPage;
+            if (expiredInPage == 0) {
+                break; // nothing in this page could be expired → the next read would return it again
+            }
+        } while (ids.size() == properties.getSweepBatchSize());
+
+        if (total > 0) {
+            expired.increment(total);
+            logger.info("🧹 Expired {} stale holds", total);
+        }
+        return total;
+    }
+
+    private boolean expire(String holdId) {
+        try {
+            return Boolean.TRUE.equals(tx.execute(status -> {
+                WalletHold hold = holdRepository.findById(holdId).orElse(null);
+                if (hold == null || holdRepository.transition(holdId, HoldStatus.HELD, HoldStatus.EXPIRED) == 0) {
+                    return false; // captured / released since the page was read
+                }
+                unhold(hold);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            logger.error("❌ Hold {} could not be expired, next sweep retries", holdId, e);
+            return false;
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // HELPERS
+    // --------------------------------------------------------------------
+    private Duration ttlOf(HoldRequest request) {
+        if (request.getTtlSeconds() == null) {
+            return properties.getDefaultTtl();
+        }
+        Duration ttl = Duration.ofSeconds(request.getTtlSeconds());
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(properties.getMaxTtl()) > 0) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + properties.getMaxTtl().toSeconds());
+        }
+        return ttl;
+    }
+
+    // check* rejection → GlobalExceptionHandler builds the response from the code, as for transfers
+    private static void require(ValidationResult verdict) {
+        if (!verdict.isOk()) {
+            throw new ValidationRejectedException(verdict);
+        }
+    }
+
+    // Every step writes balances / daily counters directly → not next to the engine, which owns them in memory
+    private void requireEngineOff() {
+        if (balanceEngine.isEnabled()) {
+            throw new EngineOwnedOperationException("Holds are not available while the balance engine is enabled");
+        }
+    }
+
+    // The caller's own hold, still HELD
+    private WalletHold openHold(UserDTO user, String holdId) {
+        if (user == null) throw new UserNotFoundException("User not found");
+        WalletHold hold = holdRepository.findById(holdId)
+                .filter(h -> h.getUserId().equals(user.getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Hold not found: " + holdId));
+        if (hold.getStatus() != HoldStatus.HELD) {
+            throw new IllegalArgumentException("Hold " + holdId + " is already " + hold.getStatus());
+        }
+        return hold;
+    }
+
+    // HELD → `to`, or the request lost the race against another settlement
+    private void settle(WalletHold hold, HoldStatus to) {
+        if (holdRepository.transition(hold.getHoldId(), HoldStatus.HELD, to) == 0) {
+            throw new IllegalArgumentException("Hold " + hold.getHoldId() + " is no longer HELD");
+        }
+    }
+
+    // Payer's step of a capture: counter (the part not captured is uncounted) → row
+    private void takeCaptured(WalletHold hold, long amount) {
+        if (amount < hold.getAmount()) {
+            dailySpend.giveBack(hold.getWalletId(), hold.getCreatedAt().toLocalDate(), hold.getAmount() - amount);
+        }
+        if (walletRepository.captureHeld(hold.getWalletId(), hold.getAmount(), amount,
+                dailySpend.today(), walletProperties.getDailyLimit()) == 0) {
+            walletValidator.validateNotBlacklisted(reload(hold.getWalletId()));
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, hold.getWalletId());
+        }
+    }
+
+    private void payReceiver(Wallet receiverWallet, long amount) {
+        if (receiverWallet.isStriped()) {
+            balanceSlots.credit(receiverWallet, amount);
+        } else if (walletRepository.creditIfAllowed(receiverWallet.getId(), amount) == 0) {
+            walletValidator.validateNotBlacklisted(reload(receiverWallet.getId()));
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, receiverWallet.getId());
+        }
+    }
+
+    // Released / expired → out of the daily count of the day it was reserved, then out of held_minor.
+    // Counter → row (WalletWriter lock order); the row UPDATE unfreezes a wallet the hold had frozen.
+    private void unhold(WalletHold hold) {
+        dailySpend.giveBack(hold.getWalletId(), hold.getCreatedAt().toLocalDate(), hold.getAmount());
+        if (walletRepository.releaseHeld(hold.getWalletId(), hold.getAmount(),
+                dailySpend.today(), walletProperties.getDailyLimit()) == 0) {
+            throw new IllegalStateException("Wallet " + hold.getWalletId() + " holds less than hold " + hold.getHoldId());
+        }
+    }
+
+    // Guarded reserve updated nothing → re-read and let the validator explain why; every guard
+    // passing means the UPDATE lost a race → optimistic conflict, retried by inTransaction
+    private void rejected(Long walletId, long amount) {
+        Wallet current = reload(walletId);
+        walletValidator.validateNotBlacklisted(current);
+        walletValidator.validateBalance(current, amount);
+        throw new ObjectOptimisticLockingFailureException(Wallet.class, walletId);
+    }
+
+    // One step in one transaction; an optimistic conflict (a guarded UPDATE lost a race) is retried
+    // after WalletWriter's jittered backoff, like transfers, and answered with 409 once attempts run out
+    private void inTransaction(String operation, Runnable step) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                tx.executeWithoutResult(status -> step.run());
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                logger.warn("⚠️ Optimistic locking conflict during hold {} attempt #{}", operation, attempt);
+                if (!walletWriter.awaitRetry(attempt)) throw e;
+            }
+        }
+    }
+
+    private Wallet reload(Long walletId) {
+        return walletRepository.findById(walletId)
+                .orElseThrow(() -> new IllegalStateException("Wallet " + walletId + " no longer exists"));
+    }
+
+    private HoldResponse response(WalletHold hold, HoldStatus status, long amount, Wallet wallet, String message) {
+        long balance = balanceSlots.balanceOf(wallet);
+        HoldResponse response = new HoldResponse();
+        response.setHoldId(hold.getHoldId());
+        response.setStatus(status.name());
+        response.setAmount(Money.toMajor(amount));
+        response.setSenderWalletName(wallet.getWalletName());
+        response.setBalance(Money.toMajor(balance));
+        response.setAvailable(Money.toMajor(balance - wallet.getHeld()));
+        response.setExpiresAt(hold.getExpiresAt());
+        response.setMessage(message);
+        return response;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.wallet_service_micro.service.idempotency;
+
+import com.example.wallet_service_micro.config.properties.IdempotencyReplayProperties;
+import com.example.wallet_service_micro.model.idempotency.IdempotencyRecord;
+import com.example.wallet_service_micro.repository.idempotency.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+// --------------------------------------------------------------------
+// Response replay for client-supplied Idempotency-Key headers on
+// /load, /transfer and /transfer/batch:
+//  • replay() → one primary-key lookup before anything else runs; a hit
+//    returns the stored response, no validation / wallet reads / writes
+//  • save()   → after the operation succeeded, keep its response for `ttl`
+//  • replace() → a batch re-sent to finish its failed items stores the
+//    merged results over the previous ones, live for `ttl` again
+//  • purgeExpired() → scheduled, deletes expired rows in key batches
+// The key is scoped to the user ("<userId>:<key>") and is also used as the
+// transaction id, so a retry that races the first attempt (or comes after
+// the record expired) still hits the ledger duplicate check.
+// Metrics:
+//  • wallet.idempotency.replay{result=hit|miss|mismatch}
+//  • wallet.idempotency.purged
+// --------------------------------------------------------------------
+@Service
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyReplayProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter mismatches;
+    private final Counter purged;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            IdempotencyReplayProperties properties,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this(repository, properties, objectMapper, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    IdempotencyStore(IdempotencyRecordRepository repository,
+                     IdempotencyReplayProperties properties,
+                     ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry,
+                     Clock clock) {
+        this.repository = repository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+
+        this.hits = meterRegistry.counter("wallet.idempotency.replay", "result", "hit");
+        this.misses = meterRegistry.counter("wallet.idempotency.replay", "result", "miss");
+        this.mismatches = meterRegistry.counter("wallet.idempotency.replay", "result", "mismatch");
+        this.purged = meterRegistry.counter("wallet.idempotency.purged");
+    }
+
+    // ✅ Header value → user-scoped key (also the transaction id of the operation)
+    public static String scopedKey(Long userId, String idempotencyKey) {
+        if (!VALID_KEY.matcher(idempotencyKey).matches()) {
+            throw new IllegalArgumentException(HEADER + " must be 1-64 characters of [A-Za-z0-9_-]");
+        }
+        return userId + ":" + idempotencyKey;
+    }
+
+    // ✅ Stored response for this key, if it is still live and the request matches
+    public <T> Optional<T> replay(String key, String operation, String requestFingerprint, Class<T> responseType) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<IdempotencyRecord> found = repository.findById(key)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now(clock)));
+        if (found.isEmpty()) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        IdempotencyRecord record = found.get();
+        if (!record.getOperation().equals(operation) || !record.getRequestFingerprint().equals(requestFingerprint)) {
+            mismatches.increment();
+            logger.warn("⚠️ Idempotency key reused with a different request: key={}, operation={}", key, operation);
+            throw new IllegalArgumentException(HEADER + " was already used for a different request");
+        }
+
+        hits.increment();
+        logger.info("🔁 Replaying stored response: key={}, operation={}", key, operation);
+        try {
+            return Optional.of(objectMapper.readValue(record.getResponseBody(), responseType));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for " + key + " cannot be read", e);
+        }
+    }
+
+    // ✅ Remember the response of a completed operation
+    public void save(String key, Long userId, String operation, String requestFingerprint, Object response) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        try {
+            repository.save(new IdempotencyRecord(key, userId, operation, requestFingerprint,
+                    objectMapper.writeValueAsString(response), now, now.plus(properties.getTtl())));
+        } catch (JsonProcessingException e) {
+            logger.error("❌ Response for key={} not stored, retries will get 'Duplicate transaction'", key, e);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent attempt with the same key stored first; the ledger already rejected one of them
+            logger.warn("⚠️ Idempotency record already present: key={}", key);
+        }
+    }
+
+    // ✅ Overwrite the stored response of a key that replay() just returned
+    public void replace(String key, Object response) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        repository.findById(key).ifPresent(record -> {
+            try {
+                record.setResponseBody(objectMapper.writeValueAsString(response));
+                record.setExpiresAt(LocalDateTime.now(clock).plus(properties.getTtl()));
+                repository.save(record);
+            } catch (JsonProcessingException e) {
+                logger.error("❌ Response for key={} not replaced, retries get the previous one", key, e);
+            }
+        });
+    }
+
+    // --------------------------------------------------------------------
+    // Purge: page of expired keys (index range scan) → one DELETE ... IN
+    // per page, each in its own short transaction, until a short page.
+    // --------------------------------------------------------------------
+    @Scheduled(initialDelayString = "${wallet.idempotency.replay.purge-initial-delay:PT1M}",
+            fixedDelayString = "${wallet.idempotency.replay.purge-interval:PT10M}")
+    public int purgeExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        PageRequest batch = PageRequest.of(0, properties.getPurgeBatchSize());
+        int total = 0;
+        List<String> keys;
+        do {
+            keys = repository.findExpiredKeys(now, batch);
+            if (!keys.isEmpty()) {
+                repository.deleteAllByIdInBatch(keys);
+                total += keys.size();
+            }
+        } while (keys.size() == properties.getPurgeBatchSize());
+
+        if (total > 0) {
+            purged.increment(total);
+            logger.info("🧹 Purged {} expired idempotency records", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.wallet_service_micro.service.revocation;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.client.user.UserPrincipalCache;
+import com.example.wallet_service_micro.dto.revocation.RevocationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// --------------------------------------------------------------------
+// In-memory set of user ids that user-service has blacklisted.
+// Fed by RevocationController (push from user-service), checked by
+// JwtFilter on every request → O(1), no remote call.
+// Startup: pushes only carry CHANGES, so a fresh instance first loads
+// the full blacklist from user-service (GET /api/internal/users/revoked).
+// Ids pushed while that snapshot is in flight keep the pushed state.
+// A failed load is logged 🚨 and repeated by retryBootstrap() every
+// revocation.bootstrap.retry-interval until one succeeds.
+// Metrics:
+//  • user.revocation.propagation.lag       → issuedAt (user-service) → applied here
+//  • user.revocation.revoked               → current set size
+//  • user.revocation.bootstrap.failures    → snapshot loads that failed
+// --------------------------------------------------------------------
+@Component
+public class RevokedUserRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevokedUserRegistry.class);
+
+    private final Set<Long> revokedUserIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pushedBeforeReady = ConcurrentHashMap.newKeySet(); // newer than any snapshot still loading
+    private final UserClient userClient;
+    private final UserPrincipalCache principalCache;
+    private final Timer propagationLag;
+    private final Counter bootstrapFailures;
+
+    private volatile boolean ready; // snapshot applied
+
+    public RevokedUserRegistry(UserClient userClient, UserPrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.principalCache = principalCache;
+        this.propagationLag = Timer.builder("user.revocation.propagation.lag")
+                .description("Time between a blacklist change in user-service and wallet-service applying it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.bootstrapFailures = meterRegistry.counter("user.revocation.bootstrap.failures");
+        Gauge.builder("user.revocation.revoked", revokedUserIds, Set::size)
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(Long userId) {
+        return userId != null && revokedUserIds.contains(userId);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void apply(RevocationEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+
+        if (!ready) {
+            pushedBeforeReady.add(event.getUserId()); // the snapshot being loaded may predate this change
+        }
+        if (event.isRevoked()) {
+            revokedUserIds.add(event.getUserId());
+        } else {
+            revokedUserIds.remove(event.getUserId());
+        }
+        principalCache.invalidateUser(event.getUserId()); // cached principal predates the change
+
+        if (event.getIssuedAt() > 0) {
+            long lagMillis = Math.max(0, System.currentTimeMillis() - event.getIssuedAt());
+            propagationLag.record(Duration.ofMillis(lagMillis));
+        }
+        logger.info("🚫 Revocation applied: userId={}, revoked={}", event.getUserId(), event.isRevoked());
+    }
+
+    // ------------------------ Startup snapshot ------------------------
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        loadLogged();
+    }
+
+    // ✅ user-service was down at startup → keep trying until the blacklist is loaded
+    @Scheduled(initialDelayString = "${revocation.bootstrap.retry-interval:PT10S}",
+            fixedDelayString = "${revocation.bootstrap.retry-interval:PT10S}")
+    public void retryBootstrap() {
+        if (!ready) {
+            loadLogged();
+        }
+    }
+
+    private void loadLogged() {
+        try {
+            load();
+        } catch (RuntimeException e) {
+            bootstrapFailures.increment();
+            logger.error("🚨 Revoked user snapshot failed, retrying | failuresSoFar={} | {}",
+                    (long) bootstrapFailures.count(), e.getMessage());
+        }
+    }
+
+    // ✅ Returns the number of ids added from the snapshot
+    public synchronized int load() {
+        List<Long> snapshot = userClient.getRevokedUserIds();
+        int added = 0;
+        for (Long userId : snapshot) {
+            if (!pushedBeforeReady.contains(userId) && revokedUserIds.add(userId)) {
+                principalCache.invalidateUser(userId);
+                added++;
+            }
+        }
+        ready = true;
+        pushedBeforeReady.clear();
+        logger.info("🚫 Revoked user snapshot loaded | blacklisted={} | added={} | revokedNow={}",
+                snapshot.size(), added, revokedUserIds.size());
+        return added;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.wallet_service_micro.service.transactions;
+
+import com.example.wallet_service_micro.config.properties.IdempotencyFilterProperties;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// --------------------------------------------------------------------
+// Rotating Bloom filter of the transaction ids recorded recently, in
+// front of existsByTransactionId:
+//  • mightContain() == false → id was definitely not recorded inside the
+//    window → new, no DB round trip
+//  • mightContain() == true  → seen, or a false positive → ask the DB
+// Two generations (current + previous) rotate every `window`, or early
+// when the current one reaches expectedInsertions, so memory and FPP stay
+// bounded and every id is remembered for at least one window.
+// Until the startup warm-up has re-read the window from the DB, every id
+// is "maybe" → DB. Ids recorded by other instances (or older than the
+// window) are not known here; the (transaction_id, type) unique
+// constraint stays the final guard for those.
+// Metrics:
+//  • wallet.idempotency.filter.checks{result=new|maybe}
+//  • wallet.idempotency.filter.db.lookups{outcome=duplicate|false_positive}
+//  • wallet.idempotency.filter.fpp.estimated  → current generation
+//  • wallet.idempotency.filter.rotations{reason=window|capacity}
+// --------------------------------------------------------------------
+@Component
+public class RecentTransactionIdFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecentTransactionIdFilter.class);
+
+    private final IdempotencyFilterProperties properties;
+    private final TransactionRepository transactionRepository;
+    private final Clock clock;
+
+    private final Counter definitelyNew;
+    private final Counter maybeSeen;
+    private final Counter confirmedDuplicate;
+    private final Counter falsePositive;
+    private final Counter rotatedByWindow;
+    private final Counter rotatedByCapacity;
+
+    private final ReentrantLock rotation = new ReentrantLock(); // not synchronized → no carrier pinning on virtual threads
+
+    private volatile Generation current;
+    private volatile Generation previous;
+    private volatile boolean ready;
+
+    public RecentTransactionIdFilter(IdempotencyFilterProperties properties,
+                                     TransactionRepository transactionRepository,
+                                     MeterRegistry meterRegistry) {
+        this(properties, transactionRepository, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    RecentTransactionIdFilter(IdempotencyFilterProperties properties,
+                              TransactionRepository transactionRepository,
+                              MeterRegistry meterRegistry,
+                              Clock clock) {
+        this.properties = properties;
+        this.transactionRepository = transactionRepository;
+        this.clock = clock;
+        this.current = newGeneration();
+        this.previous = newGeneration();
+
+        this.definitelyNew = meterRegistry.counter("wallet.idempotency.filter.checks", "result", "new");
+        this.maybeSeen = meterRegistry.counter("wallet.idempotency.filter.checks", "result", "maybe");
+        this.confirmedDuplicate = meterRegistry.counter("wallet.idempotency.filter.db.lookups", "outcome", "duplicate");
+        this.falsePositive = meterRegistry.counter("wallet.idempotency.filter.db.lookups", "outcome", "false_positive");
+        this.rotatedByWindow = meterRegistry.counter("wallet.idempotency.filter.rotations", "reason", "window");
+        this.rotatedByCapacity = meterRegistry.counter("wallet.idempotency.filter.rotations", "reason", "capacity");
+        Gauge.builder("wallet.idempotency.filter.fpp.estimated", this, f -> f.current.bits.expectedFpp())
+                .description("Estimated false-positive rate of the current generation")
+                .register(meterRegistry);
+    }
+
+    // ✅ false → definitely new inside the window; true → go to the DB
+    public boolean mightContain(String transactionId) {
+        if (!properties.isEnabled() || !ready) {
+            return true;
+        }
+        rotateIfDue();
+        boolean maybe = current.bits.mightContain(transactionId) || previous.bits.mightContain(transactionId);
+        (maybe ? maybeSeen : definitelyNew).increment();
+        return maybe;
+    }
+
+    // ✅ Call as soon as the id is written (before commit is fine: an extra entry only costs a DB check)
+    public void put(String transactionId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        rotateIfDue();
+        Generation generation = current;
+        generation.bits.put(transactionId);
+        if (generation.inserted.incrementAndGet() >= properties.getExpectedInsertions()) {
+            rotate(generation, rotatedByCapacity);
+        }
+    }
+
+    // ✅ Result of the DB lookup that followed a "maybe" → feeds the false-positive metric
+    public void recordLookup(boolean duplicate) {
+        if (!properties.isEnabled() || !ready) {
+            return; // not warmed up yet → every id was a "maybe", not a false positive
+        }
+        (duplicate ? confirmedDuplicate : falsePositive).increment();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // --------------------------------------------------------------------
+    // Startup: re-read the ids recorded inside the window, then start
+    // answering "definitely new". Paged id-only query, no entities.
+    // --------------------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now(clock).minus(properties.getWindow());
+        long loaded = 0;
+        Pageable page = PageRequest.of(0, properties.getWarmUpPageSize());
+        Slice<String> ids;
+        do {
+            ids = transactionRepository.findTransactionIdsSince(since, page);
+            ids.forEach(this::put);
+            loaded += ids.getNumberOfElements();
+            page = ids.nextPageable();
+        } while (ids.hasNext());
+
+        ready = true;
+        logger.info("🧮 Transaction id filter ready | ids={} | window={} | fpp≈{}",
+                loaded, properties.getWindow(), String.format("%.5f", current.bits.expectedFpp()));
+    }
+
+    // ------------------------ Generations ------------------------
+
+    private void rotateIfDue() {
+        Generation generation = current;
+        if (!clock.instant().isBefore(generation.createdAt.plus(properties.getWindow()))) {
+            rotate(generation, rotatedByWindow);
+        }
+    }
+
+    private void rotate(Generation expected, Counter reason) {
+        rotation.lock();
+        try {
+            if (current != expected) {
+                return; // another thread already rotated
+            }
+            previous = expected;
+            current = newGeneration();
+            reason.increment();
+        } finally {
+            rotation.unlock();
+        }
+        logger.debug("🔁 Transaction id filter rotated | inserted={}", expected.inserted.get());
+    }
+
+    private Generation newGeneration() {
+        return new Generation(new BloomBits(properties.getExpectedInsertions(), properties.getFalsePositiveRate()), clock.instant());
+    }
+
+    private record Generation(BloomBits bits, Instant createdAt, AtomicLong inserted) {
+        Generation(BloomBits bits, Instant createdAt) {
+            this(bits, createdAt, new AtomicLong());
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // Lock-free Bloom filter over an AtomicLongArray. Sized from the
+    // expected insertions + target FPP; k probes by double hashing of one
+    // 64-bit hash of the id (FNV-1a over chars + a murmur3 finalizer).
+    // --------------------------------------------------------------------
+    static final class BloomBits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashes;
+
+        BloomBits(int expectedInsertions, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (bits + 63) / 64 * 64);
+            this.words = new AtomicLongArray((int) (bitCount / 64));
+            this.hashes = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String id) {
+            long h1 = hash(id);
+            long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old = words.get(word);
+                while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask)) {
+                    old = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String id) {
+            long h1 = hash(id);
+            long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // (share of bits set)^k → what a never-seen id currently "maybe"s at
+        double expectedFpp() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return Math.pow((double) set / bitCount, hashes);
+        }
+
+        private static long hash(String id) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < id.length(); i++) {
+                h ^= id.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+            z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
@@ -2,20 +2,39 @@ package com.example.wallet_service_micro.service.transactions;
 
 import com.example.wallet_service_micro.dto.transactions.TransactionDTO;
 import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
 import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
 import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,16 +42,40 @@ public class WalletTransactionService {
 
     private static final Logger logger = LoggerFactory.getLogger(WalletTransactionService.class);
 
+    // Ledger sequence: reserve n numbers per wallet. Striped wallets are skipped, their balance is
+    // spread over slot rows that are credited without this row's lock (the point of striping)
+    private static final String RESERVE_SEQ_SQL =
+            "UPDATE wallet SET ledger_seq = ledger_seq + ? WHERE id = ? AND balance_slots = 0";
+
+    // Same reservation for wallets whose ledgerSeq the caller just read with its balance write →
+    // only applies if nobody numbered rows of the wallet since that read
+    private static final String RESERVE_SEQ_FROM_SQL =
+            "UPDATE wallet SET ledger_seq = ledger_seq + ? WHERE id = ? AND ledger_seq = ? AND balance_slots = 0";
+
+    private static final String POSITION_SQL =
+            "SELECT id, balance_minor, ledger_seq FROM wallet WHERE balance_slots = 0 AND id IN (%s)";
+
+    private static final int STAMP_CHUNK = 1_000; // wallet ids per IN-lookup
+
+    // (transaction_id, type) → the DB's own duplicate check, see insert()
+    private static final String TXN_ID_CONSTRAINT = "uk_transactions_txn_type";
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
     private final WalletManagementService walletManagementService;
+    private final RecentTransactionIdFilter recentTransactionIds;
+    private final EntityManager entityManager;
 
     public WalletTransactionService(TransactionRepository transactionRepository,
                                     TransactionMapper transactionMapper,
-                                    WalletManagementService walletManagementService) {
+                                    WalletManagementService walletManagementService,
+                                    RecentTransactionIdFilter recentTransactionIds,
+                                    EntityManager entityManager) {
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
         this.walletManagementService = walletManagementService;
+        this.recentTransactionIds = recentTransactionIds;
+        this.entityManager = entityManager;
     }
 
     // --------------------------------------------------------------------
@@ -40,7 +83,7 @@ public class WalletTransactionService {
     // --------------------------------------------------------------------
     private Transaction createTransaction(
             UserDTO user,
-            double amount,
+            long amount,
             String type,
             String txnId,
             Wallet wallet,
@@ -68,7 +111,13 @@ public class WalletTransactionService {
     // DUPLICATE CHECK
     // --------------------------------------------------------------------
     public boolean isDuplicate(String transactionId) {
+        // Definitely not recorded inside the filter window → skip the DB round trip
+        if (!recentTransactionIds.mightContain(transactionId)) {
+            return false;
+        }
+
         boolean exists = transactionRepository.existsByTransactionId(transactionId);
+        recentTransactionIds.recordLookup(exists);
         if (exists) {
             logger.warn("⚠️ Duplicate transaction detected: {}", transactionId);
         }
@@ -78,60 +127,262 @@ public class WalletTransactionService {
     // --------------------------------------------------------------------
     // RECORD LOAD / SELF-CREDITED
     // --------------------------------------------------------------------
-    public void recordLoadTransaction(UserDTO user, double amount, String txnId, String walletName) {
+    // `wallet` = the object the balance write just updated → no second lookup by name
+    @Transactional // joins the balance write's transaction → rows are numbered under its row locks
+    public void recordLoadTransaction(UserDTO user, long amount, String txnId, Wallet wallet) {
 
         logger.info("💰 Recording LOAD | userId={} | wallet={} | txnId={} | amount={}",
-                user.getId(), walletName, txnId, amount);
-
-        Wallet wallet = walletManagementService.getWallet(user.getId(), walletName);
-
-        Transaction tx = createTransaction(
-                user,
-                amount,
-                "SELF_CREDITED",
-                txnId,
-                wallet,
-                null,
-                walletName
-        );
+                user.getId(), wallet.getWalletName(), txnId, Money.format(amount));
 
-        transactionRepository.save(tx);
+        saveWrittenRows(List.of(loadRow(user, amount, txnId, wallet)), wallet);
         logger.info("✅ Load transaction saved | txnId={}", txnId);
     }
 
+    // Ledger row of a load, built without saving (the balance engine persists it later)
+    public Transaction loadRow(UserDTO user, long amount, String txnId, Wallet wallet) {
+        return createTransaction(user, amount, "SELF_CREDITED", txnId, wallet, null, wallet.getWalletName());
+    }
+
     // --------------------------------------------------------------------
     // RECORD EXTERNAL TRANSFER
     // --------------------------------------------------------------------
+    @Transactional
     public void recordTransferTransactions(
             UserDTO sender,
             UserDTO recipient,
-            double amount,
+            long amount,
             String txnId,
-            String senderWalletName,
-            String receiverWalletName) {
+            Wallet senderWallet,
+            Wallet receiverWallet) {
 
         logger.info("💸 Recording TRANSFER | txnId={} | senderId={} | receiverId={} | amount={}",
-                txnId, sender.getId(), recipient.getId(), amount);
+                txnId, sender.getId(), recipient.getId(), Money.format(amount));
 
-        Wallet senderWallet = walletManagementService.getWallet(sender.getId(), senderWalletName);
-        Wallet receiverWallet = walletManagementService.getWallet(recipient.getId(), receiverWalletName);
+        saveWrittenRows(transferRows(sender, recipient, amount, txnId, senderWallet, receiverWallet),
+                senderWallet, receiverWallet);
 
-        // Debit (sender)
-        Transaction debit = createTransaction(
-                sender, amount, "DEBIT", txnId,
-                senderWallet, senderWalletName, receiverWalletName
-        );
+        logger.info("✅ Transfer recorded successfully | txnId={}", txnId);
+    }
 
-        // Credit (recipient)
-        Transaction credit = createTransaction(
-                recipient, amount, "CREDIT", txnId,
-                receiverWallet, senderWalletName, receiverWalletName
+    // --------------------------------------------------------------------
+    // LEDGER ROWS OF A TRANSFER → DEBIT (sender) + CREDIT (recipient)
+    // Built without saving, so batch callers can collect many transfers
+    // and hand them to saveLedgerRows() at once.
+    // --------------------------------------------------------------------
+    public List<Transaction> transferRows(
+            UserDTO sender,
+            UserDTO recipient,
+            long amount,
+            String txnId,
+            Wallet senderWallet,
+            Wallet receiverWallet) {
+
+        String senderWalletName = senderWallet.getWalletName();
+        String receiverWalletName = receiverWallet.getWalletName();
+        return List.of(
+                createTransaction(sender, amount, "DEBIT", txnId, senderWallet, senderWalletName, receiverWalletName),
+                createTransaction(recipient, amount, "CREDIT", txnId, receiverWallet, senderWalletName, receiverWalletName)
         );
+    }
 
-        transactionRepository.save(debit);
-        transactionRepository.save(credit);
+    // One flush → all rows in JDBC batches (see JpaBatchingConfig)
+    @Transactional
+    public void saveLedgerRows(List<Transaction> rows) {
+        stamp(rows);
+        insert(() -> {
+            transactionRepository.saveAll(rows);
+            transactionRepository.flush();
+        });
+        rows.forEach(row -> recentTransactionIds.put(row.getTransactionId()));
+    }
 
-        logger.info("✅ Transfer recorded successfully | txnId={}", txnId);
+    // Very large writes inside ONE transaction (payouts): flush + detach every slice,
+    // so the persistence context (and the dirty check at commit) stays slice-sized
+    @Transactional
+    public void saveLedgerRowsInSlices(List<Transaction> rows, int sliceSize) {
+        stamp(rows);
+        for (int from = 0; from < rows.size(); from += sliceSize) {
+            List<Transaction> slice = rows.subList(from, Math.min(from + sliceSize, rows.size()));
+            insert(() -> {
+                transactionRepository.saveAll(slice);
+                transactionRepository.flush();
+            });
+            entityManager.clear();
+        }
+        rows.forEach(row -> recentTransactionIds.put(row.getTransactionId()));
+    }
+
+    // --------------------------------------------------------------------
+    // The filter only knows ids seen by THIS instance within its window, so
+    // a retry of an id recorded by another instance (or long ago) passes
+    // isDuplicate() and reaches the unique key → same answer as isDuplicate,
+    // not a 500 carrying SQL. The caller's transaction rolls back with it.
+    // --------------------------------------------------------------------
+    private void insert(Runnable save) {
+        try {
+            save.run();
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, TXN_ID_CONSTRAINT)) {
+                throw e;
+            }
+            logger.warn("⚠️ Duplicate transaction detected by the ledger's unique key");
+            throw new ValidationRejectedException(ValidationResult.DUPLICATE_TRANSACTION);
+        }
+    }
+
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        String name = e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                ? violation.getConstraintName()
+                : e.getMostSpecificCause().getMessage();
+        return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
+    // --------------------------------------------------------------------
+    // LEDGER ROWS OF WALLETS THIS TRANSACTION JUST WROTE. Their Wallet
+    // objects carry the state of that write (balance + ledgerSeq, read
+    // under its row lock), so the rows are numbered in memory and one
+    // batched UPDATE reserves the numbers, guarded by the ledgerSeq they
+    // were computed from → no wallet row is read again. A wallet whose
+    // guard misses, or a striped one, is left to stamp().
+    // A driver that rewrites batches (MySQL rewriteBatchedStatements)
+    // answers SUCCESS_NO_INFO instead of a count → those wallets' numbers
+    // are read back once: reserved here only if ledger_seq moved by
+    // exactly their rows (this transaction holds their row locks since
+    // the read, nobody else moves it in between).
+    // --------------------------------------------------------------------
+    private void saveWrittenRows(List<Transaction> rows, Wallet... written) {
+        Map<Long, Wallet> wallets = new TreeMap<>(); // ascending ids → same lock order everywhere
+        for (Wallet wallet : written) {
+            if (!wallet.isStriped()) wallets.put(wallet.getId(), wallet);
+        }
+        Map<Long, List<Transaction>> byWallet = new TreeMap<>();
+        for (Transaction row : rows) {
+            if (wallets.containsKey(row.getWalletId())) {
+                byWallet.computeIfAbsent(row.getWalletId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+
+        if (!byWallet.isEmpty()) {
+            transactionRepository.flush(); // pending entity balance writes first (and their version checks)
+            List<Long> ids = new ArrayList<>(byWallet.keySet());
+            int[] reserved = entityManager.unwrap(Session.class).doReturningWork(connection -> {
+                try (PreparedStatement reserve = connection.prepareStatement(RESERVE_SEQ_FROM_SQL)) {
+                    for (Long id : ids) {
+                        reserve.setLong(1, byWallet.get(id).size());
+                        reserve.setLong(2, id);
+                        reserve.setLong(3, wallets.get(id).getLedgerSeq());
+                        reserve.addBatch();
+                    }
+                    return confirmReserved(connection, ids, reserve.executeBatch(), wallets, byWallet);
+                }
+            });
+            for (int i = 0; i < ids.size(); i++) {
+                if (reserved[i] == 0) {
+                    continue; // numbered elsewhere since the read → stamp() reads the position
+                }
+                Wallet wallet = wallets.get(ids.get(i));
+                List<Transaction> walletRows = byWallet.get(ids.get(i));
+                wallet.setLedgerSeq(wallet.getLedgerSeq() + walletRows.size());
+                stampWallet(walletRows, wallet.getBalance(), wallet.getLedgerSeq());
+            }
+        }
+        saveLedgerRows(rows);
+    }
+
+    // SUCCESS_NO_INFO entries → 1 if the wallet's ledger_seq is its read one + its rows, else 0 (→ stamp())
+    private static int[] confirmReserved(Connection connection, List<Long> ids, int[] counts, Map<Long, Wallet> wallets,
+                                         Map<Long, List<Transaction>> byWallet) throws SQLException {
+        List<Long> unknown = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] == Statement.SUCCESS_NO_INFO) unknown.add(ids.get(i));
+        }
+        if (unknown.isEmpty()) {
+            return counts;
+        }
+
+        Map<Long, Long> ledgerSeq = new HashMap<>(unknown.size() * 2);
+        String sql = String.format(POSITION_SQL, String.join(",", Collections.nCopies(unknown.size(), "?")));
+        try (PreparedStatement position = connection.prepareStatement(sql)) {
+            for (int i = 0; i < unknown.size(); i++) {
+                position.setLong(i + 1, unknown.get(i));
+            }
+            try (ResultSet rs = position.executeQuery()) {
+                while (rs.next()) {
+                    ledgerSeq.put(rs.getLong(1), rs.getLong(3));
+                }
+            }
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            if (counts[i] != Statement.SUCCESS_NO_INFO) continue;
+            Long id = ids.get(i);
+            long expected = wallets.get(id).getLedgerSeq() + byWallet.get(id).size();
+            counts[i] = ledgerSeq.getOrDefault(id, -1L) == expected ? 1 : 0;
+        }
+        return counts;
+    }
+
+    // --------------------------------------------------------------------
+    // RUNNING BALANCE + SEQUENCE. Runs in the transaction that changed the
+    // balances, after those writes → this transaction holds the wallet row
+    // locks, so nothing else moves balance_minor / ledger_seq until commit:
+    //  • one batched UPDATE reserves k sequence numbers per wallet
+    //  • one SELECT per STAMP_CHUNK wallets reads balance + last number
+    // The balance read is the final one of this transaction; walking the
+    // wallet's rows backwards from it gives each row's balance after.
+    // Rows stamped already (balance engine, saveWrittenRows) are kept.
+    // --------------------------------------------------------------------
+    private void stamp(List<Transaction> rows) {
+        Map<Long, List<Transaction>> byWallet = new TreeMap<>(); // ascending ids → same lock order everywhere
+        for (Transaction row : rows) {
+            if (row.getWalletSequence() == null) {
+                byWallet.computeIfAbsent(row.getWalletId(), id -> new ArrayList<>()).add(row);
+            }
+        }
+        if (byWallet.isEmpty()) {
+            return;
+        }
+
+        transactionRepository.flush(); // pending entity balance writes first (and their version checks)
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement reserve = connection.prepareStatement(RESERVE_SEQ_SQL)) {
+                for (Map.Entry<Long, List<Transaction>> entry : byWallet.entrySet()) {
+                    reserve.setLong(1, entry.getValue().size());
+                    reserve.setLong(2, entry.getKey());
+                    reserve.addBatch();
+                }
+                reserve.executeBatch();
+            }
+
+            List<Long> ids = new ArrayList<>(byWallet.keySet());
+            for (int from = 0; from < ids.size(); from += STAMP_CHUNK) {
+                List<Long> chunk = ids.subList(from, Math.min(from + STAMP_CHUNK, ids.size()));
+                String sql = String.format(POSITION_SQL, String.join(",", Collections.nCopies(chunk.size(), "?")));
+                try (PreparedStatement position = connection.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        position.setLong(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = position.executeQuery()) {
+                        while (rs.next()) {
+                            stampWallet(byWallet.get(rs.getLong(1)), rs.getLong(2), rs.getLong(3));
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    // `balance` / `lastSeq` → after all of `walletRows` (in posting order)
+    private static void stampWallet(List<Transaction> walletRows, long balance, long lastSeq) {
+        long seq = lastSeq - walletRows.size();
+        long running = balance;
+        for (Transaction row : walletRows) {
+            running -= row.balanceDelta();
+        }
+        for (Transaction row : walletRows) {
+            running += row.balanceDelta();
+            row.setBalanceAfter(running);
+            row.setWalletSequence(++seq);
+        }
     }
 
     public Page<TransactionDTO> getTransactionsByWallet(UserDTO user, String walletName, int page, int size) {
@@ -0,0 +1,41 @@
+package com.example.wallet_service_micro.service.validator;
+
+import com.example.wallet_service_micro.model.wallet.Money;
+
+// --------------------------------------------------------------------
+// Outcome of WalletValidator's exception-free checks. One constant per
+// rejection reason, created once → a rejected request allocates nothing
+// to report it: no exception, no stack trace, no message building.
+// The message is fixed; the throwing validate* methods log the
+// detailed, wallet-specific text and reject with the same code.
+// Every endpoint rejects through ValidationRejectedException, batch
+// items through their result; GlobalExceptionHandler maps the codes to
+// HTTP statuses.
+// --------------------------------------------------------------------
+public enum ValidationResult {
+
+    OK(null),
+    AMOUNT_REQUIRED("Amount is required"),
+    INVALID_AMOUNT("Amount must be greater than 0"),
+    AMOUNT_OUT_OF_RANGE("Amount is outside the allowed range"),
+    INVALID_PRECISION("Amount can have at most " + Money.SCALE + " decimal places"),
+    RECEIVER_REQUIRED("ReceiverId is required"),
+    RECIPIENT_NOT_FOUND("Recipient not found"),
+    RECEIVER_WALLET_NOT_FOUND("Recipient has no receiving wallet"),
+    OWN_WALLET_TRANSFER("Use internal transfer API for transferring between your own wallets"),
+    DUPLICATE_TRANSACTION("Duplicate transaction"),
+    WALLET_BLACKLISTED("Wallet is blacklisted and cannot perform transactions"),
+    WALLET_FROZEN("Wallet frozen. Cannot proceed."),
+    INSUFFICIENT_BALANCE("Insufficient balance"),
+    DAILY_LIMIT_EXCEEDED("Daily limit exceeded");
+
+    private final String message;
+
+    ValidationResult(String message) {
+        this.message = message;
+    }
+
+    public boolean isOk() { return this == OK; }
+
+    public String getMessage() { return message; }
+}
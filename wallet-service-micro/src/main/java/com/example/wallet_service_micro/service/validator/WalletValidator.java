@@ -1,11 +1,21 @@
 package com.example.wallet_service_micro.service.validator;
 
 import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+// --------------------------------------------------------------------
+// All amounts are minor units (see Money). The checks are plain long
+// comparisons; debug logging with numeric arguments is guarded so the
+// happy path does not box or build varargs arrays per request.
+// validate* log the wallet-specific detail and reject with the same
+// ValidationResult code the check* methods return → one status and
+// body per rejection, whichever path found it.
+// --------------------------------------------------------------------
 @Component
 public class WalletValidator {
 
@@ -17,36 +27,38 @@ public class WalletValidator {
         this.walletProperties = walletProperties;
     }
 
-    public void validateAmount(double amount, String operation) {
-        logger.debug("Validating amount: {} for operation: {}", amount, operation);
+    public void validateAmount(long amount, String operation) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Validating amount: {} for operation: {}", Money.format(amount), operation);
+        }
 
-        if (amount <= 0) {
-            logger.warn("❌ Invalid amount: {} (must be > 0) for operation: {}", amount, operation);
-            throw new IllegalArgumentException("Amount must be greater than 0");
+        ValidationResult result = checkAmount(amount);
+        if (result == ValidationResult.INVALID_AMOUNT) {
+            logger.warn("❌ Invalid amount: {} (must be > 0) for operation: {}", Money.format(amount), operation);
+            throw new ValidationRejectedException(result);
         }
 
-        if (amount < walletProperties.getMinAmount() || amount > walletProperties.getMaxAmount()) {
-            logger.warn("❌ {} amount {} out of range ({} - {})",
-                    operation, amount, walletProperties.getMinAmount(), walletProperties.getMaxAmount());
-            throw new IllegalArgumentException(operation + " amount must be between "
-                    + walletProperties.getMinAmount() + " and " + walletProperties.getMaxAmount());
+        if (result == ValidationResult.AMOUNT_OUT_OF_RANGE) {
+            String min = Money.format(walletProperties.getMinAmount());
+            String max = Money.format(walletProperties.getMaxAmount());
+            logger.warn("❌ {} amount {} out of range ({} - {})", operation, Money.format(amount), min, max);
+            throw new ValidationRejectedException(result);
         }
 
         logger.info("✅ Amount validation passed for operation: {}", operation);
     }
 
-    public void validateDailyLimit(Wallet wallet, double amount) {
-        double remaining = walletProperties.getDailyLimit() - wallet.getDailySpent();
-        logger.debug("Checking daily limit for wallet: {} | spent: {} | remaining: {} | requested: {}",
-                wallet.getWalletName(), wallet.getDailySpent(), remaining, amount);
+    public void validateDailyLimit(Wallet wallet, long amount) {
+        long remaining = remainingToday(wallet);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Checking daily limit for wallet: {} | spent: {} | remaining: {} | requested: {}",
+                    wallet.getWalletName(), Money.format(wallet.getDailySpent()), Money.format(remaining), Money.format(amount));
+        }
 
         if (amount > remaining) {
             logger.warn("❌ Daily limit exceeded for wallet: {} | attempted: {} | remaining: {}",
-                    wallet.getWalletName(), amount, remaining);
-            throw new IllegalArgumentException(
-                    "Daily limit exceeded for wallet '" + wallet.getWalletName() +
-                            "'. You can only transact " + remaining + " more today."
-            );
+                    wallet.getWalletName(), Money.format(amount), Money.format(remaining));
+            throw new ValidationRejectedException(ValidationResult.DAILY_LIMIT_EXCEEDED);
         }
 
         logger.info("✅ Daily limit validation passed for wallet: {}", wallet.getWalletName());
@@ -56,22 +68,25 @@ public class WalletValidator {
     public void validateFrozen(Wallet wallet) {
         logger.debug("Checking frozen status for wallet: {}", wallet.getWalletName());
 
-        if (wallet.getFrozen()) {
+        if (isFrozen(wallet)) {
             logger.error("❌ Wallet '{}' is frozen. Cannot proceed.", wallet.getWalletName());
-            throw new IllegalArgumentException("Wallet frozen. Cannot proceed.");
+            throw new ValidationRejectedException(ValidationResult.WALLET_FROZEN);
         }
 
         logger.info("✅ Wallet '{}' is active (not frozen)", wallet.getWalletName());
     }
 
-    public void validateBalance(Wallet wallet, double amount) {
-        logger.debug("Validating balance for wallet: {} | balance: {} | required: {}",
-                wallet.getWalletName(), wallet.getBalance(), amount);
+    // Against the available balance → money reserved by open holds cannot be spent twice
+    public void validateBalance(Wallet wallet, long amount) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Validating balance for wallet: {} | available: {} | required: {}",
+                    wallet.getWalletName(), Money.format(wallet.getAvailable()), Money.format(amount));
+        }
 
-        if (wallet.getBalance() < amount) {
-            logger.warn("❌ Insufficient balance in wallet: {} | balance: {} | required: {}",
-                    wallet.getWalletName(), wallet.getBalance(), amount);
-            throw new IllegalArgumentException("Insufficient balance");
+        if (!covers(wallet, amount)) {
+            logger.warn("❌ Insufficient balance in wallet: {} | available: {} | held: {} | required: {}",
+                    wallet.getWalletName(), Money.format(wallet.getAvailable()), Money.format(wallet.getHeld()), Money.format(amount));
+            throw new ValidationRejectedException(ValidationResult.INSUFFICIENT_BALANCE);
         }
 
         logger.info("✅ Wallet '{}' has sufficient balance", wallet.getWalletName());
@@ -80,13 +95,89 @@ public class WalletValidator {
     public void validateNotBlacklisted(Wallet wallet) {
         logger.debug("Checking blacklist status for wallet: {}", wallet.getWalletName());
 
-        if (Boolean.TRUE.equals(wallet.getBlacklisted())) {
+        if (isBlacklisted(wallet)) {
             logger.error("❌ Wallet '{}' is blacklisted. Transaction denied.", wallet.getWalletName());
-            throw new IllegalStateException(
-                    "Wallet '" + wallet.getWalletName() + "' is blacklisted and cannot perform transactions."
-            );
+            throw new ValidationRejectedException(ValidationResult.WALLET_BLACKLISTED);
         }
 
         logger.info("✅ Wallet '{}' is not blacklisted", wallet.getWalletName());
     }
+
+    // --------------------------------------------------------------------
+    // Exception-free checks → a preallocated ValidationResult. Nothing is
+    // thrown, logged or formatted on rejection, so a flood of rejected
+    // items costs about as much as accepted ones. For callers that turn a
+    // rejection into their response themselves (batch items).
+    // --------------------------------------------------------------------
+    // Decimal API amount (null = missing) → the toMinor rules first, then the minor-unit checks
+    public ValidationResult checkAmount(Double major) {
+        if (major == null) return ValidationResult.AMOUNT_REQUIRED;
+        if (!Money.inRange(major)) return ValidationResult.AMOUNT_OUT_OF_RANGE;
+        if (!Money.hasScale(major)) return ValidationResult.INVALID_PRECISION;
+        return checkAmount(Money.toMinor(major));
+    }
+
+    public ValidationResult checkAmount(long amount) {
+        if (amount <= 0) return ValidationResult.INVALID_AMOUNT;
+        if (amount < walletProperties.getMinAmount() || amount > walletProperties.getMaxAmount()) {
+            return ValidationResult.AMOUNT_OUT_OF_RANGE;
+        }
+        return ValidationResult.OK;
+    }
+
+    // Receiving side of a payout or hold → only a blacklisted wallet is refused
+    public ValidationResult checkNotBlacklisted(Wallet wallet) {
+        return isBlacklisted(wallet) ? ValidationResult.WALLET_BLACKLISTED : ValidationResult.OK;
+    }
+
+    // Loads are only refused to blacklisted wallets here; the daily limit is the guarded count's
+    public ValidationResult checkLoad(Wallet wallet) {
+        return checkNotBlacklisted(wallet);
+    }
+
+    // Paying side before the amount is known to fit (holds: the guarded UPDATE checks balance and limit)
+    public ValidationResult checkSpender(Wallet wallet) {
+        if (isBlacklisted(wallet)) return ValidationResult.WALLET_BLACKLISTED;
+        if (isFrozen(wallet)) return ValidationResult.WALLET_FROZEN;
+        return ValidationResult.OK;
+    }
+
+    // Every rule for a debit of `amount`; `available` = what the wallet can spend when its row
+    // alone does not say (striped wallet: row + slots - held)
+    public ValidationResult checkDebit(Wallet wallet, long amount, long available) {
+        ValidationResult spender = checkSpender(wallet);
+        if (!spender.isOk()) return spender;
+        if (available < amount) return ValidationResult.INSUFFICIENT_BALANCE;
+        if (amount > remainingToday(wallet)) return ValidationResult.DAILY_LIMIT_EXCEEDED;
+        return ValidationResult.OK;
+    }
+
+    // One pass in the order the validate* calls run for a transfer → the first failing check wins
+    public ValidationResult checkTransfer(Wallet sender, Wallet receiver, long amount) {
+        return checkTransfer(sender, receiver, amount, sender.getAvailable());
+    }
+
+    public ValidationResult checkTransfer(Wallet sender, Wallet receiver, long amount, long available) {
+        if (isBlacklisted(receiver)) return ValidationResult.WALLET_BLACKLISTED;
+        return checkDebit(sender, amount, available);
+    }
+
+    // ------------------------ Rules (shared by both paths) ------------------------
+
+    private long remainingToday(Wallet wallet) {
+        return walletProperties.getDailyLimit() - wallet.getDailySpent();
+    }
+
+    private static boolean isFrozen(Wallet wallet) {
+        return Boolean.TRUE.equals(wallet.getFrozen());
+    }
+
+    private static boolean isBlacklisted(Wallet wallet) {
+        return Boolean.TRUE.equals(wallet.getBlacklisted());
+    }
+
+    // Against the available balance → money reserved by open holds cannot be spent twice
+    private static boolean covers(Wallet wallet, long amount) {
+        return wallet.getAvailable() >= amount;
+    }
 }
@@ -2,9 +2,12 @@ package com.example.wallet_service_micro.service.wallet;
 
 import com.example.wallet_service_micro.client.user.UserClient;
 import com.example.wallet_service_micro.dto.wallet.WalletBalanceResponse;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
 import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,16 +25,22 @@ public class AdminWalletService {
     private final WalletRepository walletRepository;
     private final WalletMapper walletMapper;
     private final UserClient userClient;
+    private final BalanceSlots balanceSlots;
+    private final BalanceEngine balanceEngine;
 
     // ---------- Constructor (Manual — NO Lombok) ----------
     public AdminWalletService(
             WalletRepository walletRepository,
             WalletMapper walletMapper,
-            UserClient userClient
+            UserClient userClient,
+            BalanceSlots balanceSlots,
+            BalanceEngine balanceEngine
     ) {
         this.walletRepository = walletRepository;
         this.walletMapper = walletMapper;
         this.userClient = userClient;
+        this.balanceSlots = balanceSlots;
+        this.balanceEngine = balanceEngine;
     }
 
     // ---------- Business Logic ----------
@@ -44,6 +53,7 @@ public class AdminWalletService {
         return wallets.stream()
                 .map(wallet -> {
                     WalletBalanceResponse dto = walletMapper.toBalanceResponse(wallet);
+                    dto.setBalance(Money.toMajor(balanceSlots.balanceOf(wallet)));
                     dto.setMessage("Wallet: " + wallet.getWalletName());
                     return dto;
                 })
@@ -59,11 +69,32 @@ public class AdminWalletService {
                 ));
 
         WalletBalanceResponse response = walletMapper.toBalanceResponse(wallet);
+        response.setBalance(Money.toMajor(balanceSlots.balanceOf(wallet)));
         response.setMessage("Wallet fetched successfully ✅");
 
         return response;
     }
 
+    // ✅ Hot wallet → spread incoming credits over `slots` sub-balances (0 = plain wallet again)
+    public WalletBalanceResponse stripeWallet(Long userId, String walletName, int slots) {
+        log.info("🧵 Admin restriping wallet | userId={} | walletName={} | slots={}", userId, walletName, slots);
+        if (balanceEngine.isEnabled()) {
+            throw new EngineOwnedOperationException("Wallets cannot be restriped while the balance engine is enabled");
+        }
+
+        Wallet wallet = walletRepository.findByUserIdAndWalletName(userId, walletName)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Wallet '" + walletName + "' not found for userId=" + userId
+                ));
+        Wallet restriped = balanceSlots.restripe(wallet.getId(), slots);
+
+        WalletBalanceResponse response = walletMapper.toBalanceResponse(restriped);
+        response.setMessage(slots == 0
+                ? "Wallet '" + walletName + "' is no longer striped"
+                : "Wallet '" + walletName + "' now spreads credits over " + slots + " balance slots");
+        return response;
+    }
+
     @Transactional
     public void blacklistWalletByName(Long userId, String walletName, String authHeader) {
         log.warn("🚫 Blacklisting wallet | userId={} | walletName={}", userId, walletName);
@@ -75,6 +106,7 @@ public class AdminWalletService {
 
         wallet.setBlacklisted(Boolean.TRUE);
         walletRepository.save(wallet);
+        balanceEngine.setBlacklisted(wallet.getId(), true);
 
         boolean allBlacklisted = walletRepository.findByUserId(userId)
                 .stream()
@@ -110,6 +142,7 @@ public class AdminWalletService {
 
         wallets.forEach(wallet -> wallet.setBlacklisted(Boolean.FALSE));
         walletRepository.saveAll(wallets);
+        wallets.forEach(wallet -> balanceEngine.setBlacklisted(wallet.getId(), false));
 
         userClient.unblacklistUser(userId, authHeader);
         log.info("✅ All wallets unblocked for userId={}", userId);
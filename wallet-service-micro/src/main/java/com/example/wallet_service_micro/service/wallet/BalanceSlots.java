@@ -0,0 +1,111 @@
+package com.example.wallet_service_micro.service.wallet;
+
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.model.wallet.WalletBalanceSlot;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// --------------------------------------------------------------------
+// Striped wallets (see WalletBalanceSlot): a popular receiving wallet
+// spreads its incoming credits over N slot rows, so concurrent transfers
+// to it stop colliding on the wallet row and its @Version.
+//  • credit()    → one slot, picked per thread (LongAdder-style probe),
+//                  one UPDATE, no wallet row lock
+//  • drain()     → debit side: slots moved onto the locked wallet row
+//  • balanceOf() → row + slots, what balance responses show
+//  • restripe()  → admin switch, 0 slots = back to a plain wallet
+// Lock order is always wallet row → its slots (sweep, restripe, batch
+// chunks); a credit holds one slot and nothing else of that wallet.
+// Across wallets, callers take each wallet's locks in ascending wallet id
+// (see WalletWriter "Lock order").
+// --------------------------------------------------------------------
+@Component
+public class BalanceSlots {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSlots.class);
+
+    public static final int MAX_SLOTS = 64;
+
+    private final WalletBalanceSlotRepository slotRepository;
+    private final WalletRepository walletRepository;
+
+    public BalanceSlots(WalletBalanceSlotRepository slotRepository, WalletRepository walletRepository) {
+        this.slotRepository = slotRepository;
+        this.walletRepository = walletRepository;
+    }
+
+    // ✅ Receiving side of a striped wallet. Blacklisting is checked on the caller's read of the wallet.
+    // 0 rows → the slot count read with the wallet is stale (restriped meanwhile): a conflict like a
+    // @Version mismatch, so the caller's retry loop re-reads the wallet and tries again (409 if none)
+    public void credit(Wallet wallet, long amount) {
+        int slot = slotFor(wallet.getBalanceSlots());
+        if (slotRepository.credit(wallet.getId(), slot, amount) == 0) {
+            logger.warn("🔁 Slot {} of wallet {} is gone (restriped to another count), retrying on a fresh read", slot, wallet.getId());
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, wallet.getId());
+        }
+    }
+
+    // ✅ Whole balance (no locks) → row + slots
+    public long balanceOf(Wallet wallet) {
+        return wallet.isStriped() ? wallet.getBalance() + slotRepository.sumBalance(wallet.getId()) : wallet.getBalance();
+    }
+
+    // Inside the transaction that holds the wallet row lock: empties every slot, returns what they held
+    public long drain(Long walletId) {
+        long held = 0;
+        for (WalletBalanceSlot slot : slotRepository.findByWalletIdForUpdate(walletId)) {
+            held += slot.getBalance();
+            slot.setBalance(0);
+        }
+        return held;
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ RESTRIPE → the wallet's current slots are folded back into the row,
+    // then `slots` empty ones are created (0 → plain wallet again).
+    // The balance is unchanged; the row version moves, like any write.
+    // --------------------------------------------------------------------
+    @Transactional(rollbackFor = Exception.class)
+    public Wallet restripe(Long walletId, int slots) {
+        if (slots < 0 || slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Balance slots must be between 0 and " + MAX_SLOTS);
+        }
+        Wallet wallet = walletRepository.findByIdForUpdate(walletId)
+                .orElseThrow(() -> new IllegalArgumentException("Wallet " + walletId + " not found"));
+
+        List<WalletBalanceSlot> current = slotRepository.findByWalletIdForUpdate(walletId);
+        long held = current.stream().mapToLong(WalletBalanceSlot::getBalance).sum();
+        slotRepository.deleteAllInBatch(current);
+
+        List<WalletBalanceSlot> created = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            created.add(new WalletBalanceSlot(walletId, i));
+        }
+        slotRepository.saveAll(created);
+
+        wallet.credit(held);
+        wallet.setBalanceSlots(slots);
+        walletRepository.flush();
+
+        logger.info("🧵 Wallet restriped | walletId={} | slots {} → {} | folded back={}",
+                walletId, current.size(), slots, Money.format(held));
+        return wallet;
+    }
+
+    // Same thread → same slot; different threads spread out (murmur3 finalizer over the thread id)
+    static int slotFor(int slots) {
+        long z = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) Math.floorMod(z ^ (z >>> 33), (long) slots);
+    }
+}
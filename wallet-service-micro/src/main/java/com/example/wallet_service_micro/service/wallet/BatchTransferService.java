@@ -0,0 +1,411 @@
+package com.example.wallet_service_micro.service.wallet;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.properties.BatchTransferProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferItem;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferItemResult;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferRequest;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferResponse;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.idempotency.IdempotencyStore;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// --------------------------------------------------------------------
+// Many transfers from one sender wallet in one request (payroll,
+// settlement jobs). Per request instead of per transfer:
+//  • one authenticated sender, one sender-wallet lookup
+//  • one batched recipient lookup (UserClient.getUsersByIds) and one
+//    query for all receivers' Default wallets
+// Then per chunk of wallet.transfer.batch.chunk-size transfers, in its
+// own transaction:
+//  • every wallet of the chunk locked ONCE, up front, in ascending wallet id
+//    (WalletWriter lock order → no deadlocks with single transfers): runs of
+//    receiver rows by one SELECT ... FOR UPDATE each, the sender's counter,
+//    row and slots at its place, a striped receiver's slot at its place
+//  • items validated + applied in memory on the locked rows, in request
+//    order, so each item sees the balance / daily total left by the ones
+//    before it
+//  • wallets written once at commit, ledger rows in JDBC batches, the
+//    sender's daily counter (DailySpendCounter) bumped once by the total
+// A rejected item only fails itself. A chunk that cannot commit fails its
+// applied items with a fixed code (CHUNK_CONFLICT: lock timeout / deadlock /
+// concurrent change, worth retrying; CHUNK_FAILED: anything else, details
+// only in the log); later chunks still run.
+// Striped receivers (BalanceSlots) are credited through a slot and left
+// out of the chunk lock; a striped sender's slots are drained onto its
+// locked row at the start of each chunk.
+// With an Idempotency-Key, item i gets transaction id "<user>:<key>:<i>"
+// and the response is stored (IdempotencyStore, operation BATCH_TRANSFER):
+// a resend gets the stored per-item results back; items that failed
+// before are executed again and the merged results replace the stored ones.
+// The ledger duplicate check still guards a resend after the record expired.
+// Metrics: wallet.transfer.batch.items{status=success|failed}
+// --------------------------------------------------------------------
+@Service
+public class BatchTransferService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchTransferService.class);
+
+    private static final String RECEIVER_WALLET = "Default"; // same target as single transfers
+    private static final String OPERATION = "BATCH_TRANSFER"; // IdempotencyStore operation
+
+    // Chunk could not commit → fixed code + message per item; the exception itself is only logged
+    private enum ChunkFailure {
+        CHUNK_CONFLICT("Not applied, a wallet of this chunk was busy or changed concurrently; retry"),
+        CHUNK_FAILED("Not applied, the chunk could not be committed");
+
+        private final String message;
+
+        ChunkFailure(String message) { this.message = message; }
+
+        static ChunkFailure of(RuntimeException e) {
+            return e instanceof ConcurrencyFailureException ? CHUNK_CONFLICT : CHUNK_FAILED;
+        }
+    }
+
+    private final UserClient userClient;
+    private final WalletRepository walletRepository;
+    private final WalletManagementService walletManagementService;
+    private final WalletValidator walletValidator;
+    private final WalletProperties walletProperties;
+    private final WalletTransactionService txnService;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+    private final BalanceEngine balanceEngine;
+    private final BatchTransferProperties batchProperties;
+    private final IdempotencyStore idempotencyStore;
+    private final TransactionTemplate chunkTransaction;
+    private final Counter succeededItems;
+    private final Counter failedItems;
+
+    public BatchTransferService(UserClient userClient,
+                                WalletRepository walletRepository,
+                                WalletManagementService walletManagementService,
+                                WalletValidator walletValidator,
+                                WalletProperties walletProperties,
+                                WalletTransactionService txnService,
+                                BalanceSlots balanceSlots,
+                                DailySpendCounter dailySpend,
+                                BalanceEngine balanceEngine,
+                                BatchTransferProperties batchProperties,
+                                IdempotencyStore idempotencyStore,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.userClient = userClient;
+        this.walletRepository = walletRepository;
+        this.walletManagementService = walletManagementService;
+        this.walletValidator = walletValidator;
+        this.walletProperties = walletProperties;
+        this.txnService = txnService;
+        this.balanceSlots = balanceSlots;
+        this.dailySpend = dailySpend;
+        this.balanceEngine = balanceEngine;
+        this.batchProperties = batchProperties;
+        this.idempotencyStore = idempotencyStore;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.succeededItems = meterRegistry.counter("wallet.transfer.batch.items", "status", "success");
+        this.failedItems = meterRegistry.counter("wallet.transfer.batch.items", "status", "failed");
+    }
+
+    // One validated item waiting for its chunk
+    private record PendingTransfer(BatchTransferItemResult result, UserDTO recipient, long amount, Wallet receiverWallet) {}
+
+    public BatchTransferResponse transferBatch(UserDTO sender, BatchTransferRequest request, String idempotencyKey) {
+        if (sender == null) throw new UserNotFoundException("Sender not found");
+        if (balanceEngine.isEnabled()) {
+            throw new EngineOwnedOperationException("Batch transfers are not available while the balance engine is enabled");
+        }
+
+        List<BatchTransferItem> items = request.getTransfers();
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one transfer is required");
+        }
+        if (items.size() > batchProperties.getMaxItems()) {
+            throw new IllegalArgumentException("A batch can contain at most " + batchProperties.getMaxItems() + " transfers");
+        }
+
+        logger.info("📦 Batch transfer started | senderId={} | wallet={} | items={}",
+                sender.getId(), request.getSenderWalletName(), items.size());
+
+        String batchKey = idempotencyKey == null ? null : IdempotencyStore.scopedKey(sender.getId(), idempotencyKey);
+        String fingerprint = batchKey == null ? null : fingerprint(request);
+        BatchTransferResponse previous = batchKey == null ? null
+                : idempotencyStore.replay(batchKey, OPERATION, fingerprint, BatchTransferResponse.class).orElse(null);
+        if (previous != null && previous.getFailed() == 0) {
+            return previous; // everything was applied by an earlier attempt
+        }
+
+        Wallet senderWallet = walletManagementService.getExistingWallet(sender, request.getSenderWalletName());
+        String keyPrefix = batchKey == null ? null : batchKey + ":";
+
+        // ✅ One lookup for all recipients and one for all their receiving wallets
+        Set<Long> receiverIds = new LinkedHashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getReceiverId() != null && applied(previous, i) == null) {
+                receiverIds.add(items.get(i).getReceiverId());
+            }
+        }
+        Map<Long, UserDTO> recipients = receiverIds.isEmpty() ? Map.of() : userClient.getUsersByIds(receiverIds);
+        Map<Long, Wallet> receiverWallets = recipients.isEmpty() ? Map.of() :
+                walletRepository.findByUserIdInAndWalletName(recipients.keySet(), RECEIVER_WALLET).stream()
+                        .collect(Collectors.toMap(Wallet::getUserId, Function.identity(), (a, b) -> a));
+
+        List<BatchTransferItemResult> results = new ArrayList<>(items.size());
+        List<PendingTransfer> pending = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransferItemResult earlier = applied(previous, i);
+            if (earlier != null) {
+                results.add(earlier); // stored result, not executed again
+                continue;
+            }
+            BatchTransferItem item = items.get(i);
+            String txnId = keyPrefix == null ? UUID.randomUUID().toString() : keyPrefix + i;
+            BatchTransferItemResult result = new BatchTransferItemResult(i, item.getReceiverId(), item.getAmount(), txnId);
+            results.add(result);
+            PendingTransfer transfer = precheck(sender, item, result, recipients, receiverWallets);
+            if (transfer != null) pending.add(transfer);
+        }
+
+        // ✅ Chunked commits
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            List<PendingTransfer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+            try {
+                chunkTransaction.executeWithoutResult(status -> applyChunk(sender, senderWallet, chunk));
+            } catch (RuntimeException e) {
+                ChunkFailure failure = ChunkFailure.of(e);
+                logger.error("❌ Batch chunk rolled back | senderId={} | items={} | code={} | reason={}",
+                        sender.getId(), chunk.size(), failure, e.getMessage());
+                chunk.stream()
+                        .map(PendingTransfer::result)
+                        .filter(r -> r.getStatus() != BatchTransferItemResult.Status.FAILED) // applied, or not reached yet
+                        .forEach(r -> r.reject(failure.name(), failure.message));
+            }
+        }
+
+        BatchTransferResponse response = toResponse(sender, request.getSenderWalletName(), results, pending);
+        if (batchKey != null) {
+            if (previous == null) {
+                idempotencyStore.save(batchKey, sender.getId(), OPERATION, fingerprint, response);
+            } else {
+                idempotencyStore.replace(batchKey, response);
+            }
+        }
+        return response;
+    }
+
+    // Item i as applied by an earlier attempt with the same key, else null
+    private static BatchTransferItemResult applied(BatchTransferResponse previous, int index) {
+        if (previous == null || previous.getResults() == null || index >= previous.getResults().size()) return null;
+        BatchTransferItemResult result = previous.getResults().get(index);
+        return result.getStatus() == BatchTransferItemResult.Status.SUCCESS ? result : null;
+    }
+
+    // Same key + different items → rejected by IdempotencyStore; hashed to fit the fingerprint column
+    private static String fingerprint(BatchTransferRequest request) {
+        StringBuilder items = new StringBuilder();
+        for (BatchTransferItem item : request.getTransfers()) {
+            items.append(item.getReceiverId()).append(':').append(item.getAmount()).append(';');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(items.toString().getBytes(StandardCharsets.UTF_8));
+            return "BATCH|" + request.getSenderWalletName() + "|" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Everything that can be decided without the wallet rows → no lock needed. null = rejected, the
+    // item's result carries the code; nothing is thrown per item
+    private PendingTransfer precheck(UserDTO sender, BatchTransferItem item, BatchTransferItemResult result,
+                                     Map<Long, UserDTO> recipients, Map<Long, Wallet> receiverWallets) {
+        if (item.getReceiverId() == null) return reject(result, ValidationResult.RECEIVER_REQUIRED);
+        ValidationResult verdict = walletValidator.checkAmount(item.getAmount());
+        if (!verdict.isOk()) return reject(result, verdict);
+
+        UserDTO recipient = recipients.get(item.getReceiverId());
+        if (recipient == null) return reject(result, ValidationResult.RECIPIENT_NOT_FOUND);
+        if (recipient.getId().equals(sender.getId())) return reject(result, ValidationResult.OWN_WALLET_TRANSFER);
+        Wallet receiverWallet = receiverWallets.get(recipient.getId());
+        if (receiverWallet == null) return reject(result, ValidationResult.RECEIVER_WALLET_NOT_FOUND);
+        if (txnService.isDuplicate(result.getTransactionId())) return reject(result, ValidationResult.DUPLICATE_TRANSACTION);
+
+        return new PendingTransfer(result, recipient, Money.toMinor(item.getAmount()), receiverWallet);
+    }
+
+    private static PendingTransfer reject(BatchTransferItemResult result, ValidationResult verdict) {
+        result.reject(verdict.name(), verdict.getMessage());
+        return null;
+    }
+
+    // Runs inside the chunk transaction
+    private void applyChunk(UserDTO sender, Wallet senderRead, List<PendingTransfer> chunk) {
+        Long senderWalletId = senderRead.getId();
+        Map<Long, Wallet> locked = lockInIdOrder(senderRead, chunk);
+        Wallet senderWallet = locked.get(senderWalletId);
+        if (senderWallet == null) throw new IllegalStateException("Sender wallet no longer exists");
+        dailySpend.fill(senderWallet);
+
+        List<Transaction> ledgerRows = new ArrayList<>(chunk.size() * 2);
+        long debited = 0;
+        for (PendingTransfer transfer : chunk) {
+            BatchTransferItemResult result = transfer.result();
+            Wallet receiverWallet = transfer.receiverWallet().isStriped()
+                    ? transfer.receiverWallet()
+                    : locked.get(transfer.receiverWallet().getId());
+            if (receiverWallet == null) {
+                reject(result, ValidationResult.RECEIVER_WALLET_NOT_FOUND); // removed since the precheck
+                continue;
+            }
+            // ✅ Exception-free: a rejected item is a result code, not a thrown + caught exception per item
+            ValidationResult verdict = walletValidator.checkTransfer(senderWallet, receiverWallet, transfer.amount());
+            if (!verdict.isOk()) {
+                reject(result, verdict);
+                continue;
+            }
+
+            senderWallet.debit(transfer.amount(), walletProperties.getDailyLimit());
+            debited += transfer.amount();
+            if (receiverWallet.isStriped()) {
+                balanceSlots.credit(receiverWallet, transfer.amount());
+            } else {
+                receiverWallet.credit(transfer.amount());
+            }
+            ledgerRows.addAll(txnService.transferRows(sender, transfer.recipient(), transfer.amount(),
+                    result.getTransactionId(), senderWallet, receiverWallet));
+            result.succeed();
+        }
+
+        if (!ledgerRows.isEmpty()) {
+            // one counter UPDATE per chunk; spent elsewhere meanwhile → chunk fails
+            senderWallet.recordDailySpent(dailySpend.add(senderWallet, debited), walletProperties.getDailyLimit());
+            txnService.saveLedgerRows(ledgerRows); // wallets are flushed with them at commit
+        }
+    }
+
+    // Wallet by wallet in ascending id, per wallet counter → row → slots. Later writes in the chunk
+    // only touch what is locked here: a striped receiver's slot is taken by a credit of 0 (same
+    // thread → same slot for its real credits), the sender's slots are drained onto its row.
+    // A plain sender's row shares its SELECT with the receiver rows above it.
+    private Map<Long, Wallet> lockInIdOrder(Wallet senderRead, List<PendingTransfer> chunk) {
+        Long senderWalletId = senderRead.getId();
+        SortedMap<Long, Wallet> stripedReceivers = new TreeMap<>();
+        SortedSet<Long> walletIds = new TreeSet<>();
+        walletIds.add(senderWalletId);
+        for (PendingTransfer transfer : chunk) {
+            Wallet receiverWallet = transfer.receiverWallet();
+            walletIds.add(receiverWallet.getId());
+            if (receiverWallet.isStriped()) stripedReceivers.put(receiverWallet.getId(), receiverWallet);
+        }
+
+        Map<Long, Wallet> locked = new HashMap<>();
+        List<Long> rows = new ArrayList<>(); // plain receivers not locked yet, ascending
+        for (Long walletId : walletIds) {
+            boolean isSender = walletId.equals(senderWalletId);
+            Wallet striped = stripedReceivers.get(walletId);
+            if (!isSender && striped == null) {
+                rows.add(walletId);
+                continue;
+            }
+            lockRows(rows, locked); // the rows below this wallet first
+            rows.clear();
+            if (isSender) {
+                dailySpend.lockToday(walletId);
+                if (!senderRead.isStriped()) {
+                    rows.add(walletId); // locked with the run above it, lowest id first
+                    continue;
+                }
+                lockRows(List.of(walletId), locked);
+                drainSender(locked.get(walletId));
+            } else {
+                balanceSlots.credit(striped, 0);
+            }
+        }
+        lockRows(rows, locked);
+        drainSender(locked.get(senderWalletId)); // restriped since it was read → its slots are still ours to drain
+        return locked;
+    }
+
+    // Whole balance on the locked row for this chunk
+    private void drainSender(Wallet senderWallet) {
+        if (senderWallet != null && senderWallet.isStriped()) {
+            senderWallet.credit(balanceSlots.drain(senderWallet.getId()));
+        }
+    }
+
+    private void lockRows(List<Long> walletIds, Map<Long, Wallet> locked) {
+        if (!walletIds.isEmpty()) {
+            walletRepository.findAllByIdForUpdate(walletIds).forEach(w -> locked.put(w.getId(), w));
+        }
+    }
+
+    private BatchTransferResponse toResponse(UserDTO sender, String senderWalletName,
+                                             List<BatchTransferItemResult> results, List<PendingTransfer> pending) {
+        long transferred = 0;
+        int succeeded = 0;
+        for (BatchTransferItemResult result : results) {
+            if (result.getStatus() == BatchTransferItemResult.Status.SUCCESS) {
+                transferred += Money.toMinor(result.getAmount()); // earlier attempts' items included
+                succeeded++;
+            }
+        }
+        int failed = results.size() - succeeded;
+        succeededItems.increment(pending.stream()
+                .filter(t -> t.result().getStatus() == BatchTransferItemResult.Status.SUCCESS).count());
+        failedItems.increment(failed);
+
+        Wallet senderWallet = walletManagementService.getExistingWallet(sender, senderWalletName); // committed state
+        BatchTransferResponse response = new BatchTransferResponse();
+        response.setSenderWalletName(senderWallet.getWalletName());
+        response.setRequested(results.size());
+        response.setSucceeded(succeeded);
+        response.setFailed(failed);
+        response.setTotalTransferred(Money.toMajor(transferred));
+        response.setSenderBalance(Money.toMajor(balanceSlots.balanceOf(senderWallet)));
+        response.setFrozen(senderWallet.getFrozen());
+        response.setResults(results);
+
+        logger.info("✅ Batch transfer finished | senderId={} | succeeded={} | failed={} | total={}",
+                sender.getId(), succeeded, failed, Money.format(transferred));
+        return response;
+    }
+}
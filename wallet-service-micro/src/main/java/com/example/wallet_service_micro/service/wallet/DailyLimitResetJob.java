@@ -0,0 +1,134 @@
+package com.example.wallet_service_micro.service.wallet;
+
+import com.example.wallet_service_micro.config.properties.DailyLimitResetProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// --------------------------------------------------------------------
+// Day boundary, in bulk instead of per request:
+//  • unfreeze → wallets frozen by yesterday's limit, one UPDATE per id
+//    range of chunkSize (each its own short transaction, so row locks are
+//    held for one chunk only). Wallets that reached the limit TODAY stay
+//    frozen, so the startup catch-up (a midnight missed while down) and a
+//    second run are harmless.
+//  • purge    → daily spend rows older than retentionDays, by pages of ids
+// Daily totals need no reset: DailySpendCounter starts a new row per day,
+// and reads / writes derive `frozen` from it, so a late run only leaves
+// stale flags in the table, never a blocked wallet.
+// A failed run (database down at midnight) is logged 🚨, counted and
+// repeated by recheck() every wallet.daily-reset.recheck-interval until
+// one completes for today.
+// Metrics: wallet.daily.reset.unfrozen, wallet.daily.reset.purged,
+//          wallet.daily.reset.failures (alert on any increase)
+// --------------------------------------------------------------------
+@Component
+public class DailyLimitResetJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailyLimitResetJob.class);
+
+    private final WalletRepository walletRepository;
+    private final WalletDailySpendRepository dailySpendRepository;
+    private final WalletProperties walletProperties;
+    private final DailyLimitResetProperties properties;
+    private final DailySpendCounter dailySpend;
+    private final Counter unfrozen;
+    private final Counter purged;
+    private final Counter failures;
+
+    private volatile LocalDate completedDay; // last day a run finished for
+
+    public DailyLimitResetJob(WalletRepository walletRepository,
+                              WalletDailySpendRepository dailySpendRepository,
+                              WalletProperties walletProperties,
+                              DailyLimitResetProperties properties,
+                              DailySpendCounter dailySpend,
+                              MeterRegistry meterRegistry) {
+        this.walletRepository = walletRepository;
+        this.dailySpendRepository = dailySpendRepository;
+        this.walletProperties = walletProperties;
+        this.properties = properties;
+        this.dailySpend = dailySpend;
+        this.unfrozen = meterRegistry.counter("wallet.daily.reset.unfrozen");
+        this.purged = meterRegistry.counter("wallet.daily.reset.purged");
+        this.failures = meterRegistry.counter("wallet.daily.reset.failures");
+    }
+
+    @Scheduled(cron = "${wallet.daily-reset.cron:0 0 0 * * *}")
+    public void atMidnight() {
+        runLogged();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        runLogged();
+    }
+
+    // ✅ No run completed yet today (failed, or midnight missed) → once more
+    @Scheduled(initialDelayString = "${wallet.daily-reset.recheck-interval:PT5M}",
+            fixedDelayString = "${wallet.daily-reset.recheck-interval:PT5M}")
+    public void recheck() {
+        if (!dailySpend.today().equals(completedDay)) {
+            runLogged();
+        }
+    }
+
+    // Scheduled entry points → a failure is reported here instead of lost in the scheduler's log
+    private void runLogged() {
+        try {
+            startNewDay();
+        } catch (RuntimeException e) {
+            failures.increment();
+            logger.error("🚨 Daily limit reset failed, recheck() repeats it | day={} | failuresSoFar={}",
+                    dailySpend.today(), (long) failures.count(), e);
+        }
+    }
+
+    // ✅ Returns the number of wallets unfrozen
+    public int startNewDay() {
+        LocalDate today = dailySpend.today();
+        long started = System.nanoTime();
+
+        int count = 0;
+        long maxId = walletRepository.findMaxId();
+        int chunk = Math.max(1, properties.getChunkSize());
+        for (long from = 1; from <= maxId; from += chunk) {
+            count += walletRepository.unfreezeRange(from, from + chunk - 1, today, walletProperties.getDailyLimit());
+        }
+        unfrozen.increment(count);
+
+        int removed = purgeBefore(today.minusDays(properties.getRetentionDays()));
+
+        completedDay = today;
+        logger.info("🌙 Daily limits reset | day={} | unfrozen={} | purgedRows={} | chunks={} | took={}ms",
+                today, count, removed, (maxId + chunk - 1) / chunk, (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    private int purgeBefore(LocalDate before) {
+        PageRequest batch = PageRequest.of(0, properties.getPurgeBatchSize());
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = dailySpendRepository.findIdsBefore(before, batch);
+            if (!ids.isEmpty()) {
+                dailySpendRepository.deleteAllByIdInBatch(ids);
+                total += ids.size();
+            }
+        } while (ids.size() == properties.getPurgeBatchSize());
+        purged.increment(total);
+        return total;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.wallet_service_micro.service.wallet;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+// --------------------------------------------------------------------
+// Daily-limit counters (wallet_daily_spend), one row per wallet per day:
+//  • add()   → guarded increment in the caller's transaction: the limit
+//              check and the count are one statement, so concurrent
+//              spenders can never pass the limit together, and a rolled
+//              back write rolls its count back too
+//  • fill()  → today's total onto a Wallet, for validation / responses;
+//              `frozen` is derived from it, so a wallet frozen yesterday
+//              can spend again even before DailyLimitResetJob has run
+//  • giveBack() → uncount a released / expired hold
+// There is no reset: a new day starts a new row. The first spending of a
+// day creates the row in the caller's transaction with an insert-or-keep
+// (a concurrent creator just wins) → one connection per write, and the
+// caller's transaction never sees a key violation.
+// --------------------------------------------------------------------
+@Component
+public class DailySpendCounter {
+
+    private final WalletDailySpendRepository repository;
+    private final WalletProperties walletProperties;
+    private final WalletValidator walletValidator;
+
+    public DailySpendCounter(WalletDailySpendRepository repository,
+                             WalletProperties walletProperties,
+                             WalletValidator walletValidator) {
+        this.repository = repository;
+        this.walletProperties = walletProperties;
+        this.walletValidator = walletValidator;
+    }
+
+    public LocalDate today() {
+        return LocalDate.now();
+    }
+
+    public long spentToday(Long walletId) {
+        Long spent = repository.findSpent(walletId, today());
+        return spent == null ? 0 : spent;
+    }
+
+    public void fill(Wallet wallet) {
+        wallet.recordDailySpent(spentToday(wallet.getId()), walletProperties.getDailyLimit());
+    }
+
+    // ✅ Counts `amount` for today or throws (usual validator message); the wallet object carries the new total.
+    // Freezing is left to the caller: an entity write sets the flag, a guarded UPDATE writes it in SQL
+    // (touching `frozen` on a managed entity there would add a second, version-checked UPDATE)
+    public long add(Wallet wallet, long amount) {
+        LocalDate today = today();
+        long dailyLimit = walletProperties.getDailyLimit();
+
+        int updated = repository.addIfWithinLimit(wallet.getId(), today, amount, dailyLimit);
+        if (updated == 0) {
+            // No row yet (created here, or by a concurrent first spender) or over the limit → once more
+            repository.createIfAbsent(wallet.getId(), today);
+            updated = repository.addIfWithinLimit(wallet.getId(), today, amount, dailyLimit);
+        }
+
+        long spent = spentToday(wallet.getId());
+        if (updated == 0) {
+            wallet.setDailySpent(spent);
+            walletValidator.validateDailyLimit(wallet, amount);
+            // Within the limit on re-read → lost to a concurrent count; retried like any optimistic conflict (409 at the end)
+            throw new ObjectOptimisticLockingFailureException(Wallet.class, wallet.getId());
+        }
+
+        wallet.setDailySpent(spent);
+        return spent;
+    }
+
+    // Today's row, created if needed and write-locked until the caller's transaction ends → a caller
+    // that counts later (batch chunks) still takes the counter at its place in the lock order
+    public void lockToday(Long walletId) {
+        repository.createIfAbsent(walletId, today());
+    }
+
+    // Money counted by add() that never left the wallet (released / expired hold) → uncounted on `day`.
+    // The caller's next wallet UPDATE re-derives `frozen` from today's counter (WalletRepository
+    // releaseHeld / captureHeld); for an older day today's row is locked here first, so that read
+    // still comes after the counter in the lock order.
+    public void giveBack(Long walletId, LocalDate day, long amount) {
+        repository.subtract(walletId, day, amount);
+        if (day.isBefore(today())) {
+            lockToday(walletId);
+        }
+    }
+}
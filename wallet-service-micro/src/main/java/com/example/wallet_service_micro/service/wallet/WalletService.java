@@ -1,29 +1,52 @@
 package com.example.wallet_service_micro.service.wallet;
 
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
 import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.properties.PayoutProperties;
 import com.example.wallet_service_micro.config.properties.WalletProperties;
 import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyRequest;
 import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyResponse;
+import com.example.wallet_service_micro.dto.payout.PayoutItem;
+import com.example.wallet_service_micro.dto.payout.PayoutRequest;
+import com.example.wallet_service_micro.dto.payout.PayoutResponse;
 import com.example.wallet_service_micro.dto.selfTransfer.UserInternalTransferResponse;
 import com.example.wallet_service_micro.dto.transferMoney.TransferResponse;
 import com.example.wallet_service_micro.dto.user.UserDTO;
 import com.example.wallet_service_micro.dto.wallet.WalletBalanceResponse;
 import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
 import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
 import com.example.wallet_service_micro.service.validator.WalletValidator;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Service
 public class WalletService {
@@ -37,6 +60,13 @@ public class WalletService {
     private final WalletTransactionService txnService;
     private final WalletManagementService walletManagementService;
     private final UserClient userClient;
+    private final ReactiveUserClient reactiveUserClient; // recipient lookup of a transfer → no thread waits on user-service
+    private final WalletWriter walletWriter;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+    private final BalanceEngine balanceEngine;
+    private final PayoutProperties payoutProperties;
+    private final TransactionTemplate writeTransaction;
 
     public WalletService(WalletRepository walletRepository,
                          WalletProperties walletProperties,
@@ -44,7 +74,14 @@ public class WalletService {
                          WalletValidator walletValidator,
                          WalletTransactionService txnService,
                          WalletManagementService walletManagementService,
-                         UserClient userClient) {
+                         UserClient userClient,
+                         ReactiveUserClient reactiveUserClient,
+                         WalletWriter walletWriter,
+                         BalanceSlots balanceSlots,
+                         DailySpendCounter dailySpend,
+                         BalanceEngine balanceEngine,
+                         PayoutProperties payoutProperties,
+                         PlatformTransactionManager transactionManager) {
 
         this.walletRepository = walletRepository;
         this.walletProperties = walletProperties;
@@ -53,6 +90,16 @@ public class WalletService {
         this.txnService = txnService;
         this.walletManagementService = walletManagementService;
         this.userClient = userClient;
+        this.reactiveUserClient = reactiveUserClient;
+        this.walletWriter = walletWriter;
+        this.balanceSlots = balanceSlots;
+        this.dailySpend = dailySpend;
+        this.balanceEngine = balanceEngine;
+        this.payoutProperties = payoutProperties;
+        // One load / transfer = one transaction: its wallets are read, validated and written in it and
+        // their ledger rows are numbered from that write. A template, not @Transactional on a method of
+        // this class: calls from inside the class would bypass the proxy
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
     // --------------------------------------------------------------------
@@ -63,161 +110,179 @@ public class WalletService {
                 user != null ? user.getId() : null, walletName, transactionId);
 
         if (user == null) throw new UserNotFoundException("User not found");
-        if (request == null || request.getAmount() == null)
-            throw new IllegalArgumentException("Amount cannot be null");
-
-        if (txnService.isDuplicate(transactionId))
-            throw new IllegalArgumentException("Duplicate transaction");
-
-        double amount = request.getAmount();
-        logger.debug("🔍 Fetching wallet for load operation | walletName={} | amount={}", walletName, amount);
-
-        // Fetch wallet once
-        Wallet wallet = walletManagementService.getExistingWallet(user, walletName);
-
-        // Validation logs
-        walletValidator.validateNotBlacklisted(wallet);
-        walletValidator.validateAmount(amount, "Load");
-        wallet.resetDailyIfNewDay();
-        walletValidator.validateDailyLimit(wallet, amount);
+        require(walletValidator.checkAmount(request == null ? null : request.getAmount()));
+        if (txnService.isDuplicate(transactionId)) require(ValidationResult.DUPLICATE_TRANSACTION);
+
+        long amount = Money.toMinor(request.getAmount()); // decimal API amount → minor units, once
+        logger.debug("🔍 Fetching wallet for load operation | walletName={} | amount={}", walletName, request.getAmount());
+
+        if (balanceEngine.isEnabled()) {
+            Wallet wallet = walletManagementService.getExistingWallet(user, walletName);
+            Wallet after = balanceEngine.load(wallet.getId(), amount, txnService.loadRow(user, amount, transactionId, wallet));
+            logger.info("⚡ LoadMoney applied by the balance engine | userId={} | walletName={} | finalBalance={}",
+                    user.getId(), after.getWalletName(), Money.format(after.getBalance()));
+            return loadResponse(after);
+        }
 
-        logger.info("✅ Validation passed for loadMoney | wallet={} | amount={}", walletName, amount);
+        // ✅ Read once, validate, write once, ledger row from the written wallet → one transaction
+        return writeTransaction.execute(status -> {
+            Wallet wallet = walletManagementService.getExistingWallet(user, walletName);
+            require(walletValidator.checkLoad(wallet));
+            // The daily limit is checked once, by the guarded count in walletWriter.load (DailySpendCounter.add)
 
-        return performLoadMoney(user, wallet, amount, transactionId);
+            logger.info("✅ Validation passed for loadMoney | wallet={} | amount={}", walletName, request.getAmount());
+            return applyLoad(user, wallet, amount, transactionId);
+        });
     }
 
-
-    @Transactional(propagation = Propagation.REQUIRES_NEW,
-            isolation = Isolation.REPEATABLE_READ,
-            rollbackFor = Exception.class)
-    public LoadMoneyResponse performLoadMoney(UserDTO user, Wallet wallet, double amount, String transactionId) {
+    // Inside writeTransaction
+    private LoadMoneyResponse applyLoad(UserDTO user, Wallet wallet, long amount, String transactionId) {
         logger.info("⚙️ Performing transactional wallet load | userId={} | walletName={} | amount={}",
-                user.getId(), wallet.getWalletName(), amount);
-
-        double projectedDailySpent = wallet.getDailySpent() + amount;
+                user.getId(), wallet.getWalletName(), Money.format(amount));
 
-        // If transaction exceeds daily limit, log and throw
-        if (projectedDailySpent > walletProperties.getDailyLimit()) {
-            double remainingLimit = walletProperties.getDailyLimit() - wallet.getDailySpent();
-            logger.warn("❌ Daily limit exceeded | walletName={} | currentSpent={} | attemptedAmount={} | remainingLimit={}",
-                    wallet.getWalletName(), wallet.getDailySpent(), amount, remainingLimit);
-            throw new IllegalArgumentException(
-                    "Transaction exceeds daily limit. You can only add " + remainingLimit + " more today.");
-        }
-
-        // Update wallet balance
-        wallet.setBalance(wallet.getBalance() + amount);
-        wallet.setDailySpent(projectedDailySpent);
+        // Count against the daily limit (throws beyond it) + update the balance; freezes on reaching the limit exactly
+        walletWriter.load(wallet, amount);
 
-        // Freeze wallet if exactly reaching limit
-        if (wallet.getDailySpent() == walletProperties.getDailyLimit()) {
-            wallet.setFrozen(true);
+        if (Boolean.TRUE.equals(wallet.getFrozen())) {
             logger.warn("❄️ Wallet frozen due to reaching daily limit | walletName={} | dailySpent={}",
-                    wallet.getWalletName(), wallet.getDailySpent());
+                    wallet.getWalletName(), Money.format(wallet.getDailySpent()));
         }
-
-        walletRepository.saveAndFlush(wallet);
-        logger.debug("💾 Wallet updated | newBalance={} | dailySpent={}", wallet.getBalance(), wallet.getDailySpent());
+        logger.debug("💾 Wallet updated | newBalance={} | dailySpent={}", Money.format(wallet.getBalance()), Money.format(wallet.getDailySpent()));
 
         // Record transaction
-        txnService.recordLoadTransaction(user, amount, transactionId, wallet.getWalletName());
+        txnService.recordLoadTransaction(user, amount, transactionId, wallet);
         logger.info("🧾 Load transaction recorded | txnId={}", transactionId);
 
-        // Prepare response
+        LoadMoneyResponse response = loadResponse(wallet);
+
+        logger.info("✅ LoadMoney completed | userId={} | walletName={} | finalBalance={}",
+                user.getId(), wallet.getWalletName(), Money.format(wallet.getBalance()));
+
+        return response;
+    }
+
+    private LoadMoneyResponse loadResponse(Wallet wallet) {
         LoadMoneyResponse response = walletMapper.toLoadMoneyResponse(wallet);
+        if (wallet.isStriped()) response.setBalance(balanceOf(wallet));
         response.setWalletName(wallet.getWalletName());
-        response.setRemainingDailyLimit(walletProperties.getDailyLimit() - wallet.getDailySpent());
+        response.setRemainingDailyLimit(Money.toMajor(walletProperties.getDailyLimit() - wallet.getDailySpent()));
         response.setMessage(wallet.getFrozen()
                 ? "Wallet frozen as daily limit reached"
                 : "Wallet loaded successfully ✅");
-
-        logger.info("✅ LoadMoney completed | userId={} | walletName={} | finalBalance={}",
-                user.getId(), wallet.getWalletName(), wallet.getBalance());
-
         return response;
     }
 
 
 
-    public TransferResponse transferAmount(UserDTO sender, Long receiverId, Double amount, String transactionId,
-                                           String senderWalletName, String authHeader) {
+    // Request checks throw right away; the recipient lookup is non-blocking and the JPA work
+    // (retries and their backoff included) then runs on boundedElastic
+    public Mono<TransferResponse> transferAmount(UserDTO sender, Long receiverId, Double amount, String transactionId,
+                                                 String senderWalletName, String authHeader) {
         logger.info("💸 Initiating transfer | senderId={} | receiverId={} | amount={} | txnId={}",
                 sender != null ? sender.getId() : null, receiverId, amount, transactionId);
 
         if (sender == null) throw new UserNotFoundException("Sender not found");
+        require(walletValidator.checkAmount(amount)); // before the remote lookup → a bad amount costs nothing
 
-        UserDTO recipient = userClient.getUserByIdInternal(receiverId);
-        if (recipient == null) throw new UserNotFoundException("Recipient not found");
-
-        if (txnService.isDuplicate(transactionId))
-            throw new IllegalArgumentException("Duplicate transaction");
-
-        walletValidator.validateAmount(amount, "Transfer");
-
-        Wallet senderWallet = walletManagementService.getExistingWallet(sender, senderWalletName);
-        Wallet receiverWallet = walletManagementService.getExistingWallet(recipient, "Default");
-
-        walletValidator.validateNotBlacklisted(senderWallet);
-        walletValidator.validateNotBlacklisted(receiverWallet);
-
-        senderWallet.resetDailyIfNewDay();
-        receiverWallet.resetDailyIfNewDay();
-
-        walletValidator.validateFrozen(senderWallet);
-        walletValidator.validateBalance(senderWallet, amount);
-        walletValidator.validateDailyLimit(senderWallet, amount);
+        return reactiveUserClient.getUserByIdInternal(receiverId)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException("Recipient not found")))
+                .publishOn(Schedulers.boundedElastic())
+                .map(recipient -> transferTo(sender, recipient, amount, transactionId, senderWalletName));
+    }
 
-        logger.debug("✅ Transfer validation passed | senderWallet={} | receiverWallet={}",
-                senderWalletName, receiverWallet.getWalletName());
+    private TransferResponse transferTo(UserDTO sender, UserDTO recipient, Double amount, String transactionId,
+                                        String senderWalletName) {
+        if (txnService.isDuplicate(transactionId)) require(ValidationResult.DUPLICATE_TRANSACTION);
+
+        long minorAmount = Money.toMinor(amount); // decimal API amount → minor units, once
+
+        if (balanceEngine.isEnabled()) {
+            if (sender.getId().equals(recipient.getId())) require(ValidationResult.OWN_WALLET_TRANSFER);
+            Wallet senderWallet = walletManagementService.getExistingWallet(sender, senderWalletName);
+            Wallet receiverWallet = walletManagementService.getExistingWallet(recipient, "Default");
+            Wallet after = balanceEngine.transfer(senderWallet.getId(), receiverWallet.getId(), minorAmount,
+                    txnService.transferRows(sender, recipient, minorAmount, transactionId, senderWallet, receiverWallet));
+            logger.info("⚡ Transfer applied by the balance engine | txnId={} | senderBalance={}",
+                    transactionId, Money.format(after.getBalance()));
+            return transferResponse(after, receiverWallet.getWalletName(), minorAmount);
+        }
 
-        for (int attempt = 1; attempt <= 3; attempt++) {
+        // ✅ Optimistic conflicts (wallet.write.strategy=ENTITY, or a striped receiver restriped meanwhile)
+        // → re-read, re-validate, retry after a jittered backoff. Otherwise this runs once.
+        // Each attempt reads both wallets once, validates and writes them and records the ledger rows in ONE transaction.
+        for (int attempt = 1; ; attempt++) {
             try {
                 logger.info("🚀 Performing transfer attempt #{}", attempt);
-                return performTransfer(sender, recipient, amount, transactionId, senderWallet, receiverWallet);
+                return writeTransaction.execute(status -> {
+                    Wallet senderWallet = walletManagementService.getExistingWallet(sender, senderWalletName);
+                    Wallet receiverWallet = walletManagementService.getExistingWallet(recipient, "Default");
+                    checkTransfer(senderWallet, receiverWallet, minorAmount);
+
+                    logger.debug("✅ Transfer validation passed | senderWallet={} | receiverWallet={}",
+                            senderWalletName, receiverWallet.getWalletName());
+                    return applyTransfer(sender, recipient, minorAmount, transactionId, senderWallet, receiverWallet);
+                });
             } catch (ObjectOptimisticLockingFailureException e) {
                 logger.warn("⚠️ Optimistic locking conflict during transfer attempt #{}", attempt);
-                if (attempt == 3) throw e;
-                sleep(300);
+                if (!walletWriter.awaitRetry(attempt)) throw e;
             }
         }
-        throw new RuntimeException("Unexpected transfer failure");
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW,
-            isolation = Isolation.REPEATABLE_READ,
-            rollbackFor = Exception.class)
-    public TransferResponse performTransfer(UserDTO sender, UserDTO recipient, double amount, String transactionId,
-                                            Wallet senderWallet, Wallet receiverWallet) {
-        logger.info("🔄 Executing transactional transfer | senderId={} | receiverId={} | amount={}",
-                sender.getId(), recipient.getId(), amount);
+    // Today's count first (frozen and the limit derive from it), then one pass over every rule
+    private void checkTransfer(Wallet senderWallet, Wallet receiverWallet, long amount) {
+        dailySpend.fill(senderWallet);
+        require(walletValidator.checkTransfer(senderWallet, receiverWallet, amount, available(senderWallet, amount)));
+    }
 
-        if (sender.getId().equals(recipient.getId())) {
-            logger.info("🔄 Redirecting to internal transfer | userId={} | wallet='{}'", sender.getId(), senderWallet.getWalletName());
-            throw new IllegalArgumentException("Use internal transfer API for transferring between your own wallets");
+    // check* rejection → GlobalExceptionHandler builds the response from the code
+    private static void require(ValidationResult verdict) {
+        if (!verdict.isOk()) {
+            throw new ValidationRejectedException(verdict);
         }
+    }
 
-        senderWallet.setBalance(senderWallet.getBalance() - amount);
-        senderWallet.setDailySpent(senderWallet.getDailySpent() + amount);
+    // Striped sender whose row holds less than the debit → its slots count too. Nothing is locked
+    // here: WalletWriter sweeps them onto the row in the sender's step and checks again there
+    private long available(Wallet wallet, long amount) {
+        return wallet.isStriped() && wallet.getAvailable() < amount
+                ? balanceSlots.balanceOf(wallet) - wallet.getHeld()
+                : wallet.getAvailable();
+    }
 
-        if (senderWallet.getDailySpent() >= walletProperties.getDailyLimit())
-            senderWallet.setFrozen(true);
+    // Striped wallets keep part of their balance in slots → responses show the total
+    private Double balanceOf(Wallet wallet) {
+        return Money.toMajor(wallet.isStriped() ? balanceSlots.balanceOf(wallet) : wallet.getBalance());
+    }
 
-        receiverWallet.setBalance(receiverWallet.getBalance() + amount);
+    // Inside writeTransaction
+    private TransferResponse applyTransfer(UserDTO sender, UserDTO recipient, long amount, String transactionId,
+                                           Wallet senderWallet, Wallet receiverWallet) {
+        logger.info("🔄 Executing transactional transfer | senderId={} | receiverId={} | amount={}",
+                sender.getId(), recipient.getId(), Money.format(amount));
 
-        walletRepository.saveAndFlush(senderWallet);
-        walletRepository.saveAndFlush(receiverWallet);
+        if (sender.getId().equals(recipient.getId())) {
+            logger.info("🔄 Redirecting to internal transfer | userId={} | wallet='{}'", sender.getId(), senderWallet.getWalletName());
+            require(ValidationResult.OWN_WALLET_TRANSFER);
+        }
+
+        walletWriter.transfer(senderWallet, receiverWallet, amount);
 
-        txnService.recordTransferTransactions(sender, recipient, amount, transactionId,
-                senderWallet.getWalletName(), receiverWallet.getWalletName());
+        txnService.recordTransferTransactions(sender, recipient, amount, transactionId, senderWallet, receiverWallet);
 
         logger.info("✅ Transfer complete | senderBalance={} | receiverBalance={}",
-                senderWallet.getBalance(), receiverWallet.getBalance());
+                Money.format(senderWallet.getBalance()), Money.format(receiverWallet.getBalance()));
+
+        return transferResponse(senderWallet, receiverWallet.getWalletName(), amount);
+    }
 
+    private TransferResponse transferResponse(Wallet senderWallet, String receiverWalletName, long amount) {
         TransferResponse response = walletMapper.toTransferResponse(senderWallet);
+        if (senderWallet.isStriped()) response.setSenderBalance(balanceOf(senderWallet));
         response.setSenderWalletName(senderWallet.getWalletName());
-        response.setReceiverWalletName(receiverWallet.getWalletName());
-        response.setAmountTransferred(amount);
-        response.setRemainingDailyLimit(walletProperties.getDailyLimit() - senderWallet.getDailySpent());
+        response.setReceiverWalletName(receiverWalletName);
+        response.setAmountTransferred(Money.toMajor(amount));
+        response.setRemainingDailyLimit(Money.toMajor(walletProperties.getDailyLimit() - senderWallet.getDailySpent()));
         response.setFrozen(senderWallet.getFrozen());
 
         if (senderWallet.getFrozen()) {
@@ -244,45 +309,45 @@ public class WalletService {
         logger.info("🔁 Initiating internal transfer | userId={} | from={} | to={} | amount={}",
                 user.getId(), senderWalletName, receiverWalletName, amount);
 
-        if (txnService.isDuplicate(transactionId))
-            throw new IllegalArgumentException("Duplicate transaction");
+        require(walletValidator.checkAmount(amount));
+        if (txnService.isDuplicate(transactionId)) require(ValidationResult.DUPLICATE_TRANSACTION);
 
-        walletValidator.validateAmount(amount, "Internal Transfer");
+        long minorAmount = Money.toMinor(amount); // decimal API amount → minor units, once
 
         Wallet senderWallet = walletManagementService.getExistingWallet(user, senderWalletName);
         Wallet receiverWallet = walletManagementService.getExistingWallet(user, receiverWalletName);
 
-        walletValidator.validateNotBlacklisted(senderWallet);
-        walletValidator.validateNotBlacklisted(receiverWallet);
-
-        senderWallet.resetDailyIfNewDay();
-        receiverWallet.resetDailyIfNewDay();
-
-        walletValidator.validateFrozen(senderWallet);
-        walletValidator.validateBalance(senderWallet, amount);
-        walletValidator.validateDailyLimit(senderWallet, amount);
-
-        senderWallet.setBalance(senderWallet.getBalance() - amount);
-        senderWallet.setDailySpent(senderWallet.getDailySpent() + amount);
-        receiverWallet.setBalance(receiverWallet.getBalance() + amount);
+        if (balanceEngine.isEnabled()) {
+            Wallet after = balanceEngine.transfer(senderWallet.getId(), receiverWallet.getId(), minorAmount,
+                    txnService.transferRows(user, user, minorAmount, transactionId, senderWallet, receiverWallet));
+            logger.info("⚡ Internal transfer applied by the balance engine | txnId={} | fromBalance={}",
+                    transactionId, Money.format(after.getBalance()));
+            // receiver's balance as the DB has it → may trail the engine until the batch is persisted
+            return internalTransferResponse(after, senderWalletName, receiverWalletName,
+                    walletRepository.findById(receiverWallet.getId()).orElse(receiverWallet), minorAmount);
+        }
 
-        if (senderWallet.getDailySpent() >= walletProperties.getDailyLimit())
-            senderWallet.setFrozen(true);
+        checkTransfer(senderWallet, receiverWallet, minorAmount);
 
-        walletRepository.saveAndFlush(senderWallet);
-        walletRepository.saveAndFlush(receiverWallet);
-        txnService.recordTransferTransactions(user, user, amount, transactionId,
-                senderWalletName, receiverWalletName);
+        walletWriter.transfer(senderWallet, receiverWallet, minorAmount);
+        txnService.recordTransferTransactions(user, user, minorAmount, transactionId, senderWallet, receiverWallet);
 
         logger.info("✅ Internal transfer complete | fromBalance={} | toBalance={}",
-                senderWallet.getBalance(), receiverWallet.getBalance());
+                Money.format(senderWallet.getBalance()), Money.format(receiverWallet.getBalance()));
+
+        return internalTransferResponse(senderWallet, senderWalletName, receiverWalletName, receiverWallet, minorAmount);
+    }
 
+    private UserInternalTransferResponse internalTransferResponse(Wallet senderWallet, String senderWalletName,
+                                                                  String receiverWalletName, Wallet receiverWallet,
+                                                                  long minorAmount) {
         UserInternalTransferResponse response = walletMapper.toInternalTransferResponse(senderWallet);
+        if (senderWallet.isStriped()) response.setSenderBalance(balanceOf(senderWallet));
         response.setSenderWalletName(senderWalletName);
         response.setReceiverWalletName(receiverWalletName);
-        response.setReceiverBalance(receiverWallet.getBalance());
-        response.setAmountTransferred(amount);
-        response.setRemainingDailyLimit(walletProperties.getDailyLimit() - senderWallet.getDailySpent());
+        response.setReceiverBalance(balanceOf(receiverWallet));
+        response.setAmountTransferred(Money.toMajor(minorAmount));
+        response.setRemainingDailyLimit(Money.toMajor(walletProperties.getDailyLimit() - senderWallet.getDailySpent()));
         if (senderWallet.getFrozen()) {
             response.setMessage("Wallet is  FROZEN due to daily limit hit❌");
         } else {
@@ -292,6 +357,125 @@ public class WalletService {
         return response;
     }
 
+    // --------------------------------------------------------------------
+    // ✅ PAYOUT (ONE SENDER → MANY USERS)
+    // All or nothing. Recipients are resolved up front: one batched user
+    // lookup, their Default wallets with IN-queries of sliceSize. Then one
+    // transaction reads the sender, validates it against the TOTAL
+    // (balance, frozen, daily limit) instead of per recipient, debits it
+    // once, sends the credits as JDBC batches and inserts the ledger rows
+    // (DEBIT + CREDIT per recipient, id "<payoutId>:<i>") in batches,
+    // flushed every sliceSize rows. Optimistic conflicts are retried like
+    // transfers.
+    // --------------------------------------------------------------------
+    public PayoutResponse payout(UserDTO sender, PayoutRequest request, String payoutId) {
+        if (sender == null) throw new UserNotFoundException("Sender not found");
+        if (balanceEngine.isEnabled()) throw new EngineOwnedOperationException("Payouts are not available while the balance engine is enabled");
+        List<PayoutItem> items = request.getPayouts();
+        if (items == null || items.isEmpty()) throw new IllegalArgumentException("At least one recipient is required");
+        if (items.size() > payoutProperties.getMaxRecipients()) {
+            throw new IllegalArgumentException("A payout can have at most " + payoutProperties.getMaxRecipients() + " recipients");
+        }
+
+        logger.info("💸 Initiating payout | senderId={} | wallet={} | recipients={} | payoutId={}",
+                sender.getId(), request.getSenderWalletName(), items.size(), payoutId);
+
+        if (txnService.isDuplicate(payoutId + ":0")) require(ValidationResult.DUPLICATE_TRANSACTION);
+
+        // ✅ Amounts → minor units, per-item amount rules, aggregate total
+        long[] amounts = new long[items.size()];
+        long total = 0;
+        Set<Long> receiverIds = new LinkedHashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            PayoutItem item = items.get(i);
+            if (item.getReceiverId() == null || item.getAmount() == null) {
+                throw new IllegalArgumentException("Payout #" + i + ": receiverId and amount are required");
+            }
+            if (item.getReceiverId().equals(sender.getId())) {
+                throw new IllegalArgumentException("Payout #" + i + ": use internal transfer API for your own wallets");
+            }
+            require(walletValidator.checkAmount(item.getAmount()));
+            amounts[i] = Money.toMinor(item.getAmount());
+            total = Math.addExact(total, amounts[i]);
+            receiverIds.add(item.getReceiverId());
+        }
+
+        // ✅ Recipients + their wallets, in bulk
+        Map<Long, UserDTO> recipients = userClient.getUsersByIds(receiverIds);
+        Map<Long, Wallet> receiverWallets = new HashMap<>(receiverIds.size() * 2);
+        List<Long> ids = new ArrayList<>(receiverIds);
+        int slice = payoutProperties.getSliceSize();
+        for (int from = 0; from < ids.size(); from += slice) {
+            walletRepository.findByUserIdInAndWalletName(ids.subList(from, Math.min(from + slice, ids.size())), "Default")
+                    .forEach(w -> receiverWallets.putIfAbsent(w.getUserId(), w));
+        }
+
+        // ✅ Credits per wallet (same receiver twice → one credit). Striped receivers are
+        // credited through their slots instead of the batched row UPDATEs, at their place in the id order.
+        SortedMap<Long, Long> credits = new TreeMap<>();
+        Map<Long, Wallet> stripedReceivers = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            Long receiverId = items.get(i).getReceiverId();
+            if (recipients.get(receiverId) == null) {
+                throw new UserNotFoundException("Payout #" + i + ": recipient " + receiverId + " not found");
+            }
+            Wallet receiverWallet = receiverWallets.get(receiverId);
+            if (receiverWallet == null) {
+                throw new IllegalArgumentException("Payout #" + i + ": recipient " + receiverId + " has no 'Default' wallet");
+            }
+            require(walletValidator.checkNotBlacklisted(receiverWallet));
+
+            credits.merge(receiverWallet.getId(), amounts[i], Long::sum);
+            if (receiverWallet.isStriped()) {
+                stripedReceivers.put(receiverWallet.getId(), receiverWallet);
+            }
+        }
+
+        // ✅ Same retry rule as transferAmount: each attempt reads, validates and writes the sender in ONE transaction
+        final long payoutTotal = total;
+        Wallet senderWallet;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                senderWallet = writeTransaction.execute(status -> {
+                    Wallet wallet = walletManagementService.getExistingWallet(sender, request.getSenderWalletName());
+                    dailySpend.fill(wallet);
+                    require(walletValidator.checkDebit(wallet, payoutTotal, available(wallet, payoutTotal)));
+
+                    List<Transaction> ledgerRows = new ArrayList<>(items.size() * 2);
+                    for (int i = 0; i < items.size(); i++) {
+                        Long receiverId = items.get(i).getReceiverId();
+                        ledgerRows.addAll(txnService.transferRows(sender, recipients.get(receiverId), amounts[i],
+                                payoutId + ":" + i, wallet, receiverWallets.get(receiverId)));
+                    }
+
+                    walletWriter.payout(wallet, credits, stripedReceivers, payoutTotal, slice);
+                    txnService.saveLedgerRowsInSlices(ledgerRows, slice);
+                    return wallet;
+                });
+                break;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                logger.warn("⚠️ Optimistic locking conflict during payout attempt #{}", attempt);
+                if (!walletWriter.awaitRetry(attempt)) throw e;
+            }
+        }
+
+        logger.info("✅ Payout complete | payoutId={} | recipients={} | total={} | senderBalance={}",
+                payoutId, items.size(), Money.format(total), Money.format(senderWallet.getBalance()));
+
+        PayoutResponse response = new PayoutResponse();
+        response.setPayoutId(payoutId);
+        response.setRecipients(items.size());
+        response.setTotalAmount(Money.toMajor(total));
+        response.setSenderWalletName(senderWallet.getWalletName());
+        response.setSenderBalance(balanceOf(senderWallet));
+        response.setRemainingDailyLimit(Money.toMajor(walletProperties.getDailyLimit() - senderWallet.getDailySpent()));
+        response.setFrozen(senderWallet.getFrozen());
+        response.setMessage(Boolean.TRUE.equals(senderWallet.getFrozen())
+                ? "Payout successful, wallet frozen as daily limit reached"
+                : "Payout successful ✅");
+        return response;
+    }
+
     // --------------------------------------------------------------------
     // ✅ OTHER HELPERS / ADMIN METHODS WITH LOGS
     // --------------------------------------------------------------------
@@ -300,7 +484,8 @@ public class WalletService {
         return walletRepository.findByUserId(user.getId()).stream()
                 .map(wallet -> {
                     WalletBalanceResponse dto = new WalletBalanceResponse();
-                    dto.setBalance(wallet.getBalance());
+                    dto.setBalance(balanceOf(wallet));
+                    dto.setHeld(Money.toMajor(wallet.getHeld()));
                     dto.setFrozen(wallet.getFrozen());
                     dto.setMessage("Wallet: " + wallet.getWalletName());
                     return dto;
@@ -308,13 +493,9 @@ public class WalletService {
                 .toList();
     }
 
-    private void sleep(long ms) {
-        try { Thread.sleep(ms); }
-        catch (InterruptedException e) { Thread.currentThread().interrupt(); }
-    }
-
     public WalletBalanceResponse toWalletBalanceResponse(Wallet wallet) {
         WalletBalanceResponse response = walletMapper.toBalanceResponse(wallet);
+        if (wallet.isStriped()) response.setBalance(balanceOf(wallet)); // sum of the row and its slots
         response.setMessage("Balance fetched successfully ✅");
         return response;
     }
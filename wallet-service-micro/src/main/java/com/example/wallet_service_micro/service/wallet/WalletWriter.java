@@ -0,0 +1,433 @@
+package com.example.wallet_service_micro.service.wallet;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.Session;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// --------------------------------------------------------------------
+// Applies balance changes for WalletService, using one of three strategies
+// (wallet.write.strategy):
+//  • ENTITY             → mutate the Wallet that was read and validated
+//                         earlier, then saveAndFlush. Concurrent writers
+//                         surface as ObjectOptimisticLockingFailureException;
+//                         callers retry through awaitRetry() (jittered backoff).
+//  • PESSIMISTIC        → SELECT ... FOR UPDATE on every touched wallet in
+//                         ascending id order (no deadlocks), re-validate on
+//                         the locked rows, then write. Waits instead of failing.
+//  • CONDITIONAL_UPDATE → a guarded UPDATE per wallet (WalletRepository
+//                         *IfAllowed), issued in ascending wallet id order.
+//                         Re-validation happens in SQL, so a conflict becomes
+//                         "0 rows", which is explained by re-reading the
+//                         wallet. Only a lost race (the re-read passes every
+//                         guard, e.g. an older REPEATABLE READ snapshot) is
+//                         thrown as an optimistic conflict and retried.
+// Either way, the Wallet objects passed in carry the new state afterwards.
+// Loads and debits are counted against the daily limit in DailySpendCounter
+// first (same transaction), which also decides whether the wallet freezes:
+// that count is the frozen check, the row's `frozen` flag is only its copy.
+// Debit + credit share one transaction. payout() debits once and credits
+// many wallets with batched guarded statements. A striped receiver (see
+// BalanceSlots) is credited through one of its slots, so only the sender
+// row is written; a striped sender short on its row gets its slots swept
+// onto it inside its own step. All locks follow one order, see "Lock order".
+// Metrics: wallet.write.conflicts{strategy,outcome}, wallet.write.lock.wait,
+//          wallet.write.rejected{operation}
+// --------------------------------------------------------------------
+@Component
+public class WalletWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletWriter.class);
+
+    private enum Write { LOAD, DEBIT, CREDIT } // which guard set rejected the update
+
+    // Same statement as WalletRepository.creditIfAllowed, as plain JDBC so many credits share one batch
+    private static final String CREDIT_SQL =
+            "UPDATE wallet SET balance_minor = balance_minor + ?, version = version + 1 WHERE id = ? AND blacklisted = FALSE";
+
+    private final WalletRepository walletRepository;
+    private final WalletProperties walletProperties;
+    private final WalletValidator walletValidator;
+    private final WalletWriteProperties writeProperties;
+    private final MeterRegistry meterRegistry;
+    private final EntityManager entityManager;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+    private final Timer lockWait;
+
+    public WalletWriter(WalletRepository walletRepository,
+                        WalletProperties walletProperties,
+                        WalletValidator walletValidator,
+                        WalletWriteProperties writeProperties,
+                        MeterRegistry meterRegistry,
+                        EntityManager entityManager,
+                        BalanceSlots balanceSlots,
+                        DailySpendCounter dailySpend) {
+        this.walletRepository = walletRepository;
+        this.walletProperties = walletProperties;
+        this.walletValidator = walletValidator;
+        this.writeProperties = writeProperties;
+        this.meterRegistry = meterRegistry;
+        this.entityManager = entityManager;
+        this.balanceSlots = balanceSlots;
+        this.dailySpend = dailySpend;
+        this.lockWait = Timer.builder("wallet.write.lock.wait")
+                .description("Time spent acquiring wallet row locks (PESSIMISTIC strategy)")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ LOAD → balance + amount, counts towards the daily limit
+    // --------------------------------------------------------------------
+    @Transactional(rollbackFor = Exception.class)
+    public void load(Wallet wallet, long amount) {
+        switch (writeProperties.getStrategy()) {
+            case ENTITY -> {
+                wallet.recordDailySpent(dailySpend.add(wallet, amount), walletProperties.getDailyLimit());
+                wallet.credit(amount);
+                walletRepository.saveAndFlush(wallet);
+            }
+            case PESSIMISTIC -> {
+                long spent = dailySpend.add(wallet, amount); // counter before row, like every step (see "Lock order")
+                Wallet locked = lockInIdOrder(wallet).get(wallet.getId());
+                walletValidator.validateNotBlacklisted(locked);
+                locked.recordDailySpent(spent, walletProperties.getDailyLimit());
+                locked.credit(amount);
+                walletRepository.flush();
+                copyState(locked, wallet);
+                wallet.setDailySpent(locked.getDailySpent());
+            }
+            case CONDITIONAL_UPDATE -> {
+                long spent = dailySpend.add(wallet, amount);
+                int updated = walletRepository.loadIfAllowed(wallet.getId(), amount, spent >= walletProperties.getDailyLimit());
+                if (updated == 0) {
+                    throw rejected(wallet, amount, Write.LOAD);
+                }
+                refresh(wallet);
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ TRANSFER → debit sender + credit receiver, all or nothing
+    // The two wallets' steps run in ascending wallet id order (see "Lock order")
+    // --------------------------------------------------------------------
+    @Transactional(rollbackFor = Exception.class)
+    public void transfer(Wallet senderWallet, Wallet receiverWallet, long amount) {
+        if (senderWallet.getId() < receiverWallet.getId()) {
+            debitStep(senderWallet, amount);
+            creditStep(receiverWallet, amount);
+        } else {
+            creditStep(receiverWallet, amount);
+            flushPending(receiverWallet); // receiver row locked before the sender's counter
+            debitStep(senderWallet, amount); // a rejection rolls the credit back
+        }
+        switch (writeProperties.getStrategy()) {
+            case ENTITY -> {
+                // Rows not written yet go in one flush, in id order (hibernate.order_updates)
+                walletRepository.saveAndFlush(senderWallet);
+                if (!receiverWallet.isStriped()) {
+                    walletRepository.saveAndFlush(receiverWallet);
+                }
+            }
+            case PESSIMISTIC -> { } // each step wrote its locked row
+            case CONDITIONAL_UPDATE -> refresh(senderWallet, receiverWallet);
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ PAYOUT → debit the sender ONCE for the total, credit many wallets
+    // Credits are the creditIfAllowed statement sent as JDBC batches of
+    // batchSize, without loading receiver entities; a striped receiver gets
+    // a slot credit at its place in the id order. Row locks follow the
+    // same ascending-id rule as transfers: credits below the sender id,
+    // then the sender, then the credits above it. Any refused credit
+    // (blacklisted / removed wallet) rolls the whole payout back.
+    // --------------------------------------------------------------------
+    @Transactional(rollbackFor = Exception.class)
+    public void payout(Wallet senderWallet, SortedMap<Long, Long> creditsByWalletId, Map<Long, Wallet> stripedReceivers,
+                       long total, int batchSize) {
+        creditInIdOrder(creditsByWalletId.headMap(senderWallet.getId()), stripedReceivers, batchSize);
+        debitStep(senderWallet, total);
+        flushPending(senderWallet);
+        creditInIdOrder(creditsByWalletId.tailMap(senderWallet.getId()), stripedReceivers, batchSize);
+        if (writeProperties.getStrategy() == WalletWriteProperties.Strategy.CONDITIONAL_UPDATE) {
+            refresh(senderWallet);
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // Lock order: wallet by wallet in ascending wallet id, and per wallet
+    // daily counter → wallet row → its slots. The sender's step is all
+    // three (the sweep included), the receiver's step is its row or one of
+    // its slots. Holds, batch chunks and restripe follow the same order, so
+    // two writes touching the same wallets queue on the lowest one instead
+    // of deadlocking.
+    // --------------------------------------------------------------------
+    private void debitStep(Wallet senderWallet, long amount) {
+        switch (writeProperties.getStrategy()) {
+            case ENTITY -> {
+                long spent = dailySpend.add(senderWallet, amount);
+                sweepIfShort(senderWallet, amount);
+                senderWallet.recordDailySpent(spent, walletProperties.getDailyLimit());
+                senderWallet.withdraw(amount); // written by the caller's flush
+            }
+            case PESSIMISTIC -> {
+                long spent = dailySpend.add(senderWallet, amount);
+                Wallet sender = lockInIdOrder(senderWallet).get(senderWallet.getId());
+                // The caller validated an unlocked read → check again now that nobody can change the row
+                walletValidator.validateNotBlacklisted(sender);
+                if (sender.isStriped() && sender.getAvailable() < amount) {
+                    sender.credit(balanceSlots.drain(sender.getId()));
+                }
+                walletValidator.validateBalance(sender, amount);
+                sender.recordDailySpent(spent, walletProperties.getDailyLimit());
+                sender.withdraw(amount);
+                walletRepository.flush();
+                copyState(sender, senderWallet);
+                senderWallet.setDailySpent(spent);
+            }
+            case CONDITIONAL_UPDATE -> {
+                // Daily limit counted first (throws beyond it), then the guarded balance UPDATE freezes on reaching it
+                long spent = dailySpend.add(senderWallet, amount);
+                sweepIfShort(senderWallet, amount);
+                if (walletRepository.debitIfAllowed(senderWallet.getId(), amount, spent >= walletProperties.getDailyLimit()) == 0) {
+                    throw rejected(senderWallet, amount, Write.DEBIT); // rolls the count back with it
+                }
+            }
+        }
+    }
+
+    private void creditStep(Wallet receiverWallet, long amount) {
+        if (receiverWallet.isStriped()) {
+            // Hot receiver → one of its slots; its row is neither locked nor versioned by this write
+            if (writeProperties.getStrategy() == WalletWriteProperties.Strategy.ENTITY) {
+                walletRepository.flush(); // a lower-id sender's row before the slot
+            }
+            balanceSlots.credit(receiverWallet, amount);
+            return;
+        }
+        switch (writeProperties.getStrategy()) {
+            case ENTITY -> receiverWallet.credit(amount); // written by the caller's flush
+            case PESSIMISTIC -> {
+                Wallet receiver = lockInIdOrder(receiverWallet).get(receiverWallet.getId());
+                walletValidator.validateNotBlacklisted(receiver);
+                receiver.credit(amount);
+                walletRepository.flush();
+                copyState(receiver, receiverWallet);
+            }
+            case CONDITIONAL_UPDATE -> {
+                if (walletRepository.creditIfAllowed(receiverWallet.getId(), amount) == 0) {
+                    throw rejected(receiverWallet, amount, Write.CREDIT);
+                }
+            }
+        }
+    }
+
+    // ENTITY steps only change the entity → written before the next step takes a lock of its own
+    private void flushPending(Wallet wallet) {
+        if (writeProperties.getStrategy() == WalletWriteProperties.Strategy.ENTITY) {
+            walletRepository.saveAndFlush(wallet);
+        }
+    }
+
+    // Striped sender whose row holds less than the debit → its slots onto the row, then the balance re-checked
+    private void sweepIfShort(Wallet senderWallet, long amount) {
+        if (senderWallet.isStriped() && senderWallet.getAvailable() < amount) {
+            sweepSlots(senderWallet);
+            walletValidator.validateBalance(senderWallet, amount);
+        }
+    }
+
+    // Plain receivers in JDBC batches, a striped one by a slot credit between them → locks stay in id order
+    private void creditInIdOrder(SortedMap<Long, Long> creditsByWalletId, Map<Long, Wallet> stripedReceivers, int batchSize) {
+        SortedMap<Long, Long> rowCredits = new TreeMap<>();
+        for (Map.Entry<Long, Long> entry : creditsByWalletId.entrySet()) {
+            Wallet striped = stripedReceivers.get(entry.getKey());
+            if (striped == null) {
+                rowCredits.put(entry.getKey(), entry.getValue());
+                continue;
+            }
+            creditInBatches(rowCredits, batchSize);
+            rowCredits.clear();
+            balanceSlots.credit(striped, entry.getValue());
+        }
+        creditInBatches(rowCredits, batchSize);
+    }
+
+    private void creditInBatches(Map<Long, Long> creditsByWalletId, int batchSize) {
+        if (creditsByWalletId.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement credit = connection.prepareStatement(CREDIT_SQL)) {
+                List<Long> pending = new ArrayList<>(batchSize);
+                for (Map.Entry<Long, Long> entry : creditsByWalletId.entrySet()) {
+                    credit.setLong(1, entry.getValue());
+                    credit.setLong(2, entry.getKey());
+                    credit.addBatch();
+                    pending.add(entry.getKey());
+                    if (pending.size() == batchSize) {
+                        checkCredited(credit.executeBatch(), pending);
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    checkCredited(credit.executeBatch(), pending);
+                }
+            }
+        });
+    }
+
+    // Statement.SUCCESS_NO_INFO (rewritten MySQL batches) counts as applied; empties walletIds for the next batch
+    private void checkCredited(int[] updated, List<Long> walletIds) {
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                meterRegistry.counter("wallet.write.rejected", "operation", Write.CREDIT.name()).increment();
+                throw new IllegalArgumentException("Wallet " + walletIds.get(i) + " cannot receive money (blacklisted or removed)");
+            }
+        }
+        walletIds.clear();
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ SWEEP → a striped wallet's slots are moved onto its row (total
+    // unchanged), so the row-based debit guards see the whole balance.
+    // Row lock first, then the slots (BalanceSlots lock order); called in
+    // the wallet's own step, after its daily counter.
+    // --------------------------------------------------------------------
+    @Transactional(rollbackFor = Exception.class)
+    public void sweepSlots(Wallet wallet) {
+        Wallet locked = lockInIdOrder(wallet).get(wallet.getId());
+        long swept = balanceSlots.drain(wallet.getId());
+        locked.credit(swept);
+        walletRepository.flush();
+        copyState(locked, wallet);
+        logger.debug("🧹 Slots swept onto wallet row | walletId={} | swept={} | balance={}",
+                wallet.getId(), Money.format(swept), Money.format(wallet.getBalance()));
+    }
+
+    // --------------------------------------------------------------------
+    // ✅ Optimistic conflict → decide on a retry. Records the conflict and,
+    // if attempts are left, sleeps a "full jitter" exponential backoff:
+    //   random(0, min(backoffMax, backoffBase * 2^(attempt-1)))
+    // so retries of colliding requests spread out instead of colliding again.
+    // Returns false once wallet.write.max-attempts is used up.
+    // --------------------------------------------------------------------
+    public boolean awaitRetry(int attempt) {
+        String strategy = writeProperties.getStrategy().name();
+        if (attempt >= writeProperties.getMaxAttempts()) {
+            meterRegistry.counter("wallet.write.conflicts", "strategy", strategy, "outcome", "exhausted").increment();
+            return false;
+        }
+        meterRegistry.counter("wallet.write.conflicts", "strategy", strategy, "outcome", "retried").increment();
+
+        long cap = Math.min(writeProperties.getBackoffMax().toMillis(),
+                writeProperties.getBackoffBase().toMillis() << Math.min(attempt - 1, 20));
+        long sleep = cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0;
+        logger.debug("🔁 Optimistic conflict, retry #{} in {}ms", attempt, sleep);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    // ------------------------ Locking / refresh ------------------------
+
+    // Always lowest id first → two opposite transfers queue instead of deadlocking.
+    // A wallet already managed by this persistence context (open-in-view, same
+    // transaction) is refreshed under the lock; a plain lock on it would only
+    // re-check @Version and fail the way the ENTITY path does.
+    private Map<Long, Wallet> lockInIdOrder(Wallet... wallets) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Map<Long, Wallet> locked = new LinkedHashMap<>();
+            Arrays.stream(wallets)
+                    .sorted(Comparator.comparing(Wallet::getId))
+                    .forEach(wallet -> locked.computeIfAbsent(wallet.getId(), id -> lock(wallet)));
+            return locked;
+        } finally {
+            sample.stop(lockWait);
+        }
+    }
+
+    private Wallet lock(Wallet wallet) {
+        if (entityManager.contains(wallet)) {
+            entityManager.refresh(wallet, LockModeType.PESSIMISTIC_WRITE, Map.of("jakarta.persistence.lock.timeout", 3000));
+            return wallet;
+        }
+        return walletRepository.findByIdForUpdate(wallet.getId())
+                .orElseThrow(() -> new IllegalStateException("Wallet " + wallet.getId() + " no longer exists"));
+    }
+
+    // Guard failed → re-read and let the validator produce the usual message
+    private RuntimeException rejected(Wallet wallet, long amount, Write write) {
+        meterRegistry.counter("wallet.write.rejected", "operation", write.name()).increment();
+        Wallet current = walletRepository.findById(wallet.getId())
+                .orElseThrow(() -> new IllegalStateException("Wallet '" + wallet.getWalletName() + "' no longer exists"));
+        logger.warn("❌ Guarded update rejected | wallet={} | amount={} | balance={} | frozen={}",
+                current.getWalletName(), Money.format(amount), Money.format(current.getBalance()), current.getFrozen());
+
+        walletValidator.validateNotBlacklisted(current);
+        if (write == Write.DEBIT) {
+            walletValidator.validateBalance(current, amount);
+        }
+
+        // Every guard passes on re-read → the UPDATE lost to a write this snapshot does not show.
+        // An optimistic conflict → the caller's backoff loop retries on a fresh snapshot, 409 once attempts run out
+        return new ObjectOptimisticLockingFailureException(Wallet.class, current.getId());
+    }
+
+    // Copies the committed-to-be state into the caller's objects (responses are built from it) → one SELECT
+    private void refresh(Wallet... wallets) {
+        Map<Long, Wallet> fresh = walletRepository.findAllById(Arrays.stream(wallets).map(Wallet::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+        for (Wallet wallet : wallets) {
+            Wallet current = fresh.get(wallet.getId());
+            if (current != null) {
+                copyState(current, wallet);
+            }
+        }
+    }
+
+    // dailySpent is not copied: it is not a column, the caller's object got it from DailySpendCounter
+    private static void copyState(Wallet from, Wallet to) {
+        if (from == to) {
+            return;
+        }
+        to.setBalance(from.getBalance());
+        to.setHeld(from.getHeld());
+        to.setFrozen(from.getFrozen());
+        to.setVersion(from.getVersion());
+        to.setLedgerSeq(from.getLedgerSeq()); // ledger rows are numbered from it (WalletTransactionService)
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.config.jwt.JwtVerifier;
+import com.example.wallet_service_micro.config.properties.AuthProperties;
+import com.example.wallet_service_micro.config.properties.UserBatchProperties;
+import com.example.wallet_service_micro.config.properties.UserCacheProperties;
+import com.example.wallet_service_micro.config.properties.UserClientProperties;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.user.RemoteUserServiceException;
+import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.user.UserServiceUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs against an in-process reactor-netty stub of user-service
+class ReactiveUserClientTest {
+
+    private final AtomicInteger byIdCalls = new AtomicInteger();
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicBoolean down = new AtomicBoolean(); // every call answers 503 while set
+
+    private DisposableServer userService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userService = HttpServer.create()
+                .port(0)
+                .route(routes -> routes
+                        .get("/api/internal/users/{id}", (req, res) -> {
+                            byIdCalls.incrementAndGet();
+                            String id = req.param("id");
+                            if (down.get()) {
+                                return res.status(503).send();
+                            }
+                            if ("404".equals(id)) {
+                                return res.status(404).header("Content-Type", "application/json")
+                                        .sendString(Mono.just("{\"message\":\"User not found with id: 404\"}"));
+                            }
+                            if ("500".equals(id)) {
+                                return res.status(500).header("Content-Type", "application/json")
+                                        .sendString(Mono.just("{\"message\":\"boom\"}"));
+                            }
+                            if ("999".equals(id)) { // slower than any deadline used below
+                                return res.header("Content-Type", "application/json")
+                                        .sendString(Mono.just(userJson(999)).delayElement(Duration.ofSeconds(2)));
+                            }
+                            return res.header("Content-Type", "application/json")
+                                    .sendString(Mono.just(userJson(Long.parseLong(id))).delayElement(Duration.ofMillis(50)));
+                        })
+                        .post("/api/internal/users/batch", (req, res) -> {
+                            batchCalls.incrementAndGet();
+                            return res.header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"1\":" + userJson(1) + ",\"2\":" + userJson(2) + "}"));
+                        }))
+                .bindNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.disposeNow();
+    }
+
+    private static String userJson(long id) {
+        return "{\"id\":" + id + ",\"name\":\"User " + id + "\",\"email\":\"user" + id + "@example.com\",\"role\":\"USER\"}";
+    }
+
+    private ReactiveUserClient client(Duration batchWindow) {
+        return client(batchWindow, new UserCacheProperties(), new UserClientProperties());
+    }
+
+    private ReactiveUserClient client(Duration batchWindow, UserCacheProperties cacheProperties,
+                                      UserClientProperties clientProperties) {
+        return client(batchWindow, cacheProperties, clientProperties, 500);
+    }
+
+    private ReactiveUserClient client(Duration batchWindow, UserCacheProperties cacheProperties,
+                                      UserClientProperties clientProperties, int remoteBatchLimit) {
+        UserBatchProperties batchProperties = new UserBatchProperties();
+        batchProperties.setWindow(batchWindow);
+        return new ReactiveUserClient(
+                WebClient.create(),
+                "http://localhost:" + userService.port(),
+                "service-key",
+                remoteBatchLimit,
+                new AuthProperties(),
+                new JwtVerifier(""),
+                new UserPrincipalCache(cacheProperties, meterRegistry),
+                batchProperties,
+                clientProperties,
+                meterRegistry
+        );
+    }
+
+    @Test
+    void testParallelLookupsOfSameIdHitUserServiceOnce() {
+        ReactiveUserClient client = client(Duration.ZERO);
+
+        List<UserDTO> users = Flux.range(0, 20)
+                .flatMap(i -> client.getUserByIdInternal(7L))
+                .collectList()
+                .block();
+
+        assertEquals(20, users.size());
+        assertEquals(7L, users.get(0).getId());
+        assertEquals(1, byIdCalls.get()); // single-flight for the burst, cache afterwards
+        assertEquals(7L, client.getUserByIdInternal(7L).block().getId());
+        assertEquals(1, byIdCalls.get());
+    }
+
+    @Test
+    void testConcurrentLookupsAreBatched() {
+        ReactiveUserClient client = client(Duration.ofMillis(20));
+
+        Map<Long, UserDTO> users = Flux.just(1L, 2L)
+                .flatMap(id -> client.getUserByIdInternal(id))
+                .collectMap(UserDTO::getId)
+                .block();
+
+        assertEquals(2, users.size());
+        assertEquals(1, batchCalls.get());
+        assertEquals(0, byIdCalls.get());
+    }
+
+    @Test
+    void testBulkLookupIsSplitAtTheConfiguredBatchSize() {
+        ReactiveUserClient client = client(Duration.ZERO, new UserCacheProperties(), new UserClientProperties(), 2);
+
+        Map<Long, UserDTO> users = client.getUsersByIds(List.of(1L, 2L, 3L, 4L, 5L)).block();
+
+        assertEquals(3, batchCalls.get()); // 2 + 2 + 1
+        assertEquals(2, users.size());     // the stub knows users 1 and 2 only
+    }
+
+    @Test
+    void testMissingIdInBatchIsUserNotFound() {
+        ReactiveUserClient client = client(Duration.ofMillis(5));
+        assertThrows(UserNotFoundException.class, () -> client.getUserByIdInternal(3L).block());
+    }
+
+    @Test
+    void testHttpErrorsMapToRemoteUserServiceException() {
+        ReactiveUserClient client = client(Duration.ZERO);
+
+        RemoteUserServiceException ex = assertThrows(RemoteUserServiceException.class,
+                () -> client.getUserByIdInternal(404L).block());
+        assertEquals("User not found with id: 404", ex.getMessage());
+    }
+
+    @Test
+    void testDeadlineCutsOffSlowUserService() {
+        UserClientProperties clientProperties = new UserClientProperties();
+        clientProperties.setDeadline(Duration.ofMillis(200));
+        ReactiveUserClient client = client(Duration.ZERO, new UserCacheProperties(), clientProperties);
+
+        long start = System.nanoTime();
+        assertThrows(UserServiceUnavailableException.class, () -> client.getUserByIdInternal(999L).block());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_500);
+    }
+
+    @Test
+    void testBreakerOpensOnServerErrorsAndFailsFast() {
+        UserClientProperties clientProperties = new UserClientProperties();
+        clientProperties.setBreakerWindow(4);
+        clientProperties.setBreakerMinCalls(4);
+        UserCacheProperties cacheProperties = new UserCacheProperties();
+        cacheProperties.setEnabled(false); // every lookup goes remote
+        ReactiveUserClient client = client(Duration.ZERO, cacheProperties, clientProperties);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserServiceUnavailableException.class, () -> client.getUserByIdInternal(500L).block());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+
+        int callsBefore = byIdCalls.get();
+        UserServiceUnavailableException ex = assertThrows(UserServiceUnavailableException.class,
+                () -> client.getUserByIdInternal(7L).block());
+        assertEquals("User-service circuit is open, failing fast", ex.getMessage());
+        assertEquals(callsBefore, byIdCalls.get()); // never left wallet-service
+    }
+
+    @Test
+    void testClientErrorsDoNotOpenBreaker() {
+        UserClientProperties clientProperties = new UserClientProperties();
+        clientProperties.setBreakerWindow(4);
+        clientProperties.setBreakerMinCalls(4);
+        ReactiveUserClient client = client(Duration.ZERO, new UserCacheProperties(), clientProperties);
+
+        for (int i = 0; i < 6; i++) {
+            assertThrows(RemoteUserServiceException.class, () -> client.getUserByIdInternal(404L).block());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, client.circuitState());
+    }
+
+    @Test
+    void testStalePrincipalServedWhileUserServiceIsDown() throws InterruptedException {
+        UserCacheProperties cacheProperties = new UserCacheProperties();
+        cacheProperties.setUserTtl(Duration.ofMillis(1));
+        ReactiveUserClient client = client(Duration.ZERO, cacheProperties, new UserClientProperties());
+
+        assertEquals(7L, client.getUserByIdInternal(7L).block().getId());
+        Thread.sleep(20); // fresh entry gone, last-known copy remains
+        down.set(true);
+
+        assertEquals(7L, client.getUserByIdInternal(7L).block().getId());
+        assertEquals(1.0, meterRegistry.counter("user.client.degraded", "operation", "by-id").count());
+        assertThrows(UserServiceUnavailableException.class, () -> client.getUserByIdInternal(8L).block()); // never seen → no fallback
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.wallet_service_micro.client.user;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> flight = new SingleFlight<>("token", registry);
+
+    @Test
+    void testConcurrentCallersShareOneCall() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one(); // user-service answer that has not arrived yet
+        int callers = 8;
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            results.add(flight.execute("key", () -> {
+                calls.incrementAndGet();
+                return response.asMono();
+            }).toFuture());
+        }
+        assertTrue(results.stream().noneMatch(CompletableFuture::isDone));
+
+        response.tryEmitValue("user");
+
+        results.forEach(result -> assertEquals("user", result.join()));
+        assertEquals(1, calls.get());
+        assertEquals(callers - 1, registry.get("user.client.coalesced").tag("operation", "token").counter().count());
+    }
+
+    @Test
+    void testSequentialCallsAreNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+        flight.execute("key", () -> Mono.just("a" + calls.incrementAndGet())).block();
+        String second = flight.execute("key", () -> Mono.just("a" + calls.incrementAndGet())).block();
+
+        assertEquals("a2", second);
+        assertEquals(0, registry.get("user.client.coalesced").counter().count());
+    }
+
+    @Test
+    void testLeaderFailureIsRethrownAndCleared() {
+        assertThrows(IllegalStateException.class,
+                () -> flight.execute("key", () -> Mono.<String>error(new IllegalStateException("down"))).block());
+        assertThrows(IllegalArgumentException.class,
+                () -> flight.execute("key", () -> { throw new IllegalArgumentException("bad token"); }).block());
+
+        assertEquals("ok", flight.execute("key", () -> Mono.just("ok")).block());
+    }
+
+    @Test
+    void testCancelledLeaderDoesNotCancelTheFollowers() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> response = Sinks.one();
+
+        Disposable leader = flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        }).subscribe();
+        CompletableFuture<String> follower = flight.execute("key", () -> {
+            calls.incrementAndGet();
+            return response.asMono();
+        }).toFuture();
+
+        leader.dispose(); // e.g. the leader's HTTP client went away
+        response.tryEmitValue("user");
+
+        assertEquals("user", follower.join());
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserBatchLoaderTest {
+
+    private final List<Set<Long>> batches = new CopyOnWriteArrayList<>();
+    private UserBatchLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    private Mono<Map<Long, UserDTO>> fetch(Set<Long> ids) {
+        batches.add(Set.copyOf(ids));
+        Map<Long, UserDTO> users = new HashMap<>();
+        ids.stream().filter(id -> id < 100).forEach(id -> {
+            UserDTO user = new UserDTO();
+            user.setId(id);
+            users.put(id, user);
+        });
+        return Mono.just(users);
+    }
+
+    private UserBatchLoader loader(Duration window, int maxSize, Function<Set<Long>, Mono<Map<Long, UserDTO>>> fetcher) {
+        return new UserBatchLoader(fetcher, window, maxSize, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testLoadsWithinWindowShareOneBatch() {
+        loader = loader(Duration.ofMillis(50), 100, this::fetch);
+
+        List<CompletableFuture<UserDTO>> futures = IntStream.rangeClosed(1, 10)
+                .mapToObj(i -> loader.load((long) i))
+                .toList();
+        CompletableFuture<UserDTO> duplicate = loader.load(1L);
+
+        assertEquals(10, futures.stream().map(CompletableFuture::join).count());
+        assertEquals(1L, duplicate.join().getId());
+        assertEquals(1, batches.size());
+        assertEquals(10, batches.get(0).size());
+    }
+
+    @Test
+    void testFullBatchDispatchesBeforeWindowEnds() {
+        loader = loader(Duration.ofSeconds(30), 3, this::fetch);
+
+        CompletableFuture<UserDTO> first = loader.load(1L);
+        loader.load(2L);
+        loader.load(3L);
+
+        assertEquals(1L, first.join().getId()); // would hang for 30s if it waited for the timer
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    void testUnknownIdCompletesWithNull() {
+        loader = loader(Duration.ofMillis(5), 100, this::fetch);
+        assertNull(loader.load(500L).join());
+    }
+
+    @Test
+    void testFetchFailurePropagatesToEveryCaller() {
+        loader = loader(Duration.ofMillis(5), 100, ids -> {
+            throw new IllegalStateException("user-service down");
+        });
+
+        CompletableFuture<UserDTO> a = loader.load(1L);
+        CompletableFuture<UserDTO> b = loader.load(2L);
+
+        CompletionException ex = assertThrows(CompletionException.class, a::join);
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertThrows(CompletionException.class, b::join);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.wallet_service_micro.client.user;
+
+import com.example.wallet_service_micro.config.properties.UserCacheProperties;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserPrincipalCacheTest {
+
+    private static final String TOKEN = "Bearer header.payload.signature";
+
+    private SimpleMeterRegistry registry;
+    private UserPrincipalCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new UserPrincipalCache(new UserCacheProperties(), registry);
+    }
+
+    private UserDTO user(Long id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setRole("USER");
+        return user;
+    }
+
+    @Test
+    void testTokenEntryServedUntilInvalidated() {
+        cache.putToken(TOKEN, user(1L), System.currentTimeMillis() + 60_000);
+
+        assertEquals(1L, cache.getByToken(TOKEN).getId());
+        assertNull(cache.getByToken("Bearer other.token.value"));
+
+        cache.invalidateUser(1L);
+        assertNull(cache.getByToken(TOKEN));
+    }
+
+    @Test
+    void testExpiredTokenIsNotCached() {
+        cache.putToken(TOKEN, user(1L), System.currentTimeMillis() - 1_000);
+        assertNull(cache.getByToken(TOKEN));
+    }
+
+    @Test
+    void testTokenEntryNeverOutlivesJwtExpiry() throws InterruptedException {
+        cache.putToken(TOKEN, user(1L), System.currentTimeMillis() + 50);
+        Thread.sleep(100);
+        assertNull(cache.getByToken(TOKEN));
+    }
+
+    @Test
+    void testIdEntriesAndInvalidateAll() {
+        cache.putById(user(2L));
+        assertEquals("user2@example.com", cache.getById(2L).getEmail());
+
+        cache.invalidateAll();
+        assertNull(cache.getById(2L));
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        UserCacheProperties properties = new UserCacheProperties();
+        properties.setEnabled(false);
+        properties.setUserTtl(Duration.ofMinutes(1));
+        UserPrincipalCache disabled = new UserPrincipalCache(properties, new SimpleMeterRegistry());
+
+        disabled.putToken(TOKEN, user(1L), -1);
+        disabled.putById(user(1L));
+
+        assertNull(disabled.getByToken(TOKEN));
+        assertNull(disabled.getById(1L));
+    }
+
+    @Test
+    void testHitAndMissMetricsPublished() {
+        cache.putToken(TOKEN, user(1L), -1);
+        cache.getByToken(TOKEN);
+        cache.getByToken("Bearer missing.token.value");
+
+        double hits = registry.get("cache.gets").tag("cache", "user.principal.token").tag("result", "hit").functionCounter().count();
+        double misses = registry.get("cache.gets").tag("cache", "user.principal.token").tag("result", "miss").functionCounter().count();
+        assertEquals(1, hits);
+        assertEquals(1, misses);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.wallet_service_micro.config.jwt;
+
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.service.revocation.RevokedUserRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtFilterTest {
+
+    private static final String TOKEN = "Bearer abc.def.ghi";
+
+    private ReactiveUserClient userClient;
+    private JwtFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private UserDTO user;
+
+    @BeforeEach
+    void setUp() {
+        userClient = mock(ReactiveUserClient.class);
+        filter = new JwtFilter(userClient, mock(RevokedUserRegistry.class));
+
+        request = new MockHttpServletRequest("POST", "/api/wallet/transfer");
+        request.addHeader(HttpHeaders.AUTHORIZATION, TOKEN);
+        request.setAsyncSupported(true);
+        response = new MockHttpServletResponse();
+
+        user = new UserDTO();
+        user.setId(7L);
+        user.setEmail("user@example.com");
+        user.setRole("USER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testResolvedLookupContinuesOnTheSameDispatch() throws Exception {
+        when(userClient.getUserFromToken(TOKEN)).thenReturn(Mono.just(user)); // cache hit / local verification
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertFalse(request.isAsyncStarted());
+        assertNotNull(chain.getRequest());
+        assertEquals(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+    }
+
+    @Test
+    void testRemoteLookupReleasesTheWorkerAndFinishesOnTheReDispatch() throws Exception {
+        Sinks.One<UserDTO> me = Sinks.one();
+        when(userClient.getUserFromToken(TOKEN)).thenReturn(me.asMono());
+        MockFilterChain initial = new MockFilterChain();
+
+        filter.doFilter(request, response, initial);
+
+        assertTrue(request.isAsyncStarted()); // worker returned to Tomcat, nothing waits on user-service
+        assertNull(initial.getRequest());
+
+        me.tryEmitValue(user); // user-service answers
+        assertNotNull(request.getAttribute(JwtFilter.RESOLVED_USER));
+        assertNotNull(request.getAsyncContext()); // dispatch() requested
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        MockFilterChain redispatch = new MockFilterChain();
+        filter.doFilter(request, response, redispatch);
+
+        assertNotNull(redispatch.getRequest());
+        assertEquals(user, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userClient, times(1)).getUserFromToken(TOKEN);
+    }
+
+    @Test
+    void testFailedRemoteLookupIsUnauthorizedOnTheReDispatch() throws Exception {
+        Sinks.One<UserDTO> me = Sinks.one();
+        when(userClient.getUserFromToken(TOKEN)).thenReturn(me.asMono());
+        filter.doFilter(request, response, new MockFilterChain());
+
+        me.tryEmitError(new RuntimeException("token rejected"));
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        MockFilterChain redispatch = new MockFilterChain();
+        filter.doFilter(request, response, redispatch);
+
+        assertEquals(401, response.getStatus());
+        assertNull(redispatch.getRequest());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.wallet_service_micro.config.jwt;
+
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.auth.UnauthorizedException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtVerifierTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtVerifierTest.class);
+
+    private static final String SECRET = "test-secret-key-that-is-long-enough-for-hs256!!";
+
+    private final JwtVerifier verifier = new JwtVerifier(SECRET);
+
+    private String token(String secret, long ttlMillis, boolean withClaims) {
+        var builder = Jwts.builder()
+                .setSubject("user@example.com")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis));
+        if (withClaims) {
+            builder.claim("id", 7L).claim("name", "Test User").claim("role", "USER");
+        }
+        return "Bearer " + builder.signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256).compact();
+    }
+
+    @Test
+    void testVerifyBuildsPrincipalFromClaims() {
+        UserDTO user = verifier.verify(token(SECRET, 60_000, true));
+
+        log.info("Verified principal: id={}, email={}, role={}", user.getId(), user.getEmail(), user.getRole());
+        assertEquals(7L, user.getId());
+        assertEquals("user@example.com", user.getEmail());
+        assertEquals("Test User", user.getName());
+        assertEquals("USER", user.getRole());
+    }
+
+    @Test
+    void testVerifyReturnsNullWhenClaimsMissing() {
+        assertNull(verifier.verify(token(SECRET, 60_000, false)));
+    }
+
+    @Test
+    void testVerifyRejectsExpiredToken() {
+        assertThrows(UnauthorizedException.class, () -> verifier.verify(token(SECRET, -1_000, true)));
+    }
+
+    @Test
+    void testVerifyRejectsForeignSignature() {
+        String forged = token("another-secret-key-that-is-long-enough-for-hs256", 60_000, true);
+        assertThrows(UnauthorizedException.class, () -> verifier.verify(forged));
+    }
+
+    @Test
+    void testDisabledWithoutSecret() {
+        JwtVerifier disabled = new JwtVerifier("");
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.verify(token(SECRET, 60_000, true)));
+    }
+}
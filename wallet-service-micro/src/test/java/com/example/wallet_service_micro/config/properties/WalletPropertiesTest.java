@@ -0,0 +1,42 @@
+package com.example.wallet_service_micro.config.properties;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// --------------------------------------------------------------------
+// Limits stay configured in major units (existing configs keep their
+// meaning) and are read as minor units; a value with more than two
+// decimals stops the binding instead of being rounded.
+// --------------------------------------------------------------------
+class WalletPropertiesTest {
+
+    @Test
+    void testLimitsBindFromMajorUnits() {
+        WalletProperties properties = bind(Map.of(
+                "wallet.transaction.min-amount", "1",
+                "wallet.transaction.max-amount", "100000",
+                "wallet.transaction.daily-limit", "50000.50"));
+
+        assertEquals(100, properties.getMinAmount());
+        assertEquals(10_000_000, properties.getMaxAmount());
+        assertEquals(5_000_050, properties.getDailyLimit());
+    }
+
+    @Test
+    void testMoreThanTwoDecimalsFailsTheBinding() {
+        assertThrows(BindException.class, () -> bind(Map.of("wallet.transaction.daily-limit", "50000.005")));
+    }
+
+    private static WalletProperties bind(Map<String, String> config) {
+        return new Binder(new MapConfigurationPropertySource(config))
+                .bind("wallet.transaction", Bindable.ofInstance(new WalletProperties()))
+                .get();
+    }
+}
@@ -63,7 +63,7 @@ class WalletControllerLoadMoneyNegativeTest {
                 .when(walletService).loadMoney(eq(mockUser), eq(req), anyString(), eq("Primary"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
-                walletController.loadMoney(token, req)
+                walletController.loadMoney(token, req, null)
         );
 
         log.debug("Exception thrown: {}", ex.getMessage());
@@ -85,7 +85,7 @@ class WalletControllerLoadMoneyNegativeTest {
                 .when(walletService).loadMoney(eq(mockUser), eq(req), anyString(), eq("Primary"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
-                walletController.loadMoney(token, req)
+                walletController.loadMoney(token, req, null)
         );
 
         log.debug("Exception thrown: {}", ex.getMessage());
@@ -107,7 +107,7 @@ class WalletControllerLoadMoneyNegativeTest {
                 .when(walletService).loadMoney(eq(mockUser), eq(req), anyString(), eq("Primary"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
-                walletController.loadMoney(token, req)
+                walletController.loadMoney(token, req, null)
         );
 
         log.debug("Exception thrown: {}", ex.getMessage());
@@ -14,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -58,7 +59,7 @@ class WalletControllerTransferNegativeTest {
                 anyString(), eq("Primary"), eq(token)))
                 .thenThrow(new UserNotFoundException("Recipient not found"));
 
-        assertThrows(UserNotFoundException.class, () -> walletController.transfer(token, req));
+        assertThrows(UserNotFoundException.class, () -> walletController.transfer(token, req, null));
         log.info("Test passed: Recipient not found correctly threw UserNotFoundException");
     }
 
@@ -78,7 +79,7 @@ class WalletControllerTransferNegativeTest {
                 .thenThrow(new IllegalArgumentException("Wallet is frozen"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> walletController.transfer(token, req));
+                () -> walletController.transfer(token, req, null));
         assertEquals("Wallet is frozen", ex.getMessage());
 
         log.info("Test passed: Frozen wallet correctly threw IllegalArgumentException");
@@ -100,7 +101,7 @@ class WalletControllerTransferNegativeTest {
                 .thenThrow(new IllegalArgumentException("Insufficient balance"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> walletController.transfer(token, req));
+                () -> walletController.transfer(token, req, null));
         assertEquals("Insufficient balance", ex.getMessage());
 
         log.info("Test passed: Insufficient balance correctly threw IllegalArgumentException");
@@ -122,7 +123,7 @@ class WalletControllerTransferNegativeTest {
                 .thenThrow(new IllegalArgumentException("Amount must be positive"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                () -> walletController.transfer(token, req));
+                () -> walletController.transfer(token, req, null));
         assertEquals("Amount must be positive", ex.getMessage());
 
         log.info("Test passed: Negative amount correctly threw IllegalArgumentException");
@@ -145,9 +146,9 @@ class WalletControllerTransferNegativeTest {
         when(userClient.getUserFromToken(token)).thenReturn(mockUser);
         when(walletService.transferAmount(eq(mockUser), eq(20L), eq(2000.0),
                 anyString(), eq("Primary"), eq(token)))
-                .thenReturn(resp);
+                .thenReturn(Mono.just(resp));
 
-        TransferResponse result = walletController.transfer(token, req).getBody();
+        TransferResponse result = walletController.transfer(token, req, null).block().getBody();
         assertNotNull(result);
         assertTrue(result.getFrozen(), "Wallet should be frozen due to daily limit exceeded");
 
@@ -17,6 +17,7 @@ import com.example.wallet_service_micro.dto.walletRequest.WalletNameRequest;
 import com.example.wallet_service_micro.dto.walletRequest.WalletTransactionRequest;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.idempotency.IdempotencyStore;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
 import com.example.wallet_service_micro.service.wallet.WalletService;
 
@@ -28,8 +29,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -50,6 +53,9 @@ class WalletControllerTest {
     @Mock
     private WalletTransactionService walletTransactionService;
 
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     @InjectMocks
     private WalletController walletController;
 
@@ -145,7 +151,7 @@ class WalletControllerTest {
                 .thenReturn(resp);
 
         ResponseEntity<LoadMoneyResponse> result =
-                walletController.loadMoney(token, req);
+                walletController.loadMoney(token, req, null);
 
         log.info("Money loaded successfully into wallet {}", req.getWalletName());
         assertEquals(resp, result.getBody());
@@ -168,15 +174,68 @@ class WalletControllerTest {
         when(userClient.getUserFromToken(token)).thenReturn(mockUser);
         when(walletService.transferAmount(eq(mockUser), eq(99L), eq(250.0),
                 anyString(), eq("Primary"), eq(token)))
-                .thenReturn(resp);
+                .thenReturn(Mono.just(resp));
 
         ResponseEntity<TransferResponse> result =
-                walletController.transfer(token, req);
+                walletController.transfer(token, req, null).block();
 
         log.info("Transfer completed: {} transferred to userId {}", result.getBody().getAmountTransferred(), req.getReceiverId());
         assertEquals(250.0, result.getBody().getAmountTransferred());
     }
 
+    @Test
+    void testLoadMoneyReplaysStoredResponse() {
+        log.info("Running test: testLoadMoneyReplaysStoredResponse");
+
+        String token = "Bearer xyz";
+
+        LoadMoneyRequest req = new LoadMoneyRequest();
+        req.setAmount(100.0);
+        req.setWalletName("Primary");
+
+        LoadMoneyResponse stored = new LoadMoneyResponse();
+        stored.setBalance(600.0);
+
+        when(userClient.getUserFromToken(token)).thenReturn(mockUser);
+        when(idempotencyStore.replay("10:retry-1", "LOAD", "LOAD|Primary|100.0", LoadMoneyResponse.class))
+                .thenReturn(Optional.of(stored));
+
+        ResponseEntity<LoadMoneyResponse> result =
+                walletController.loadMoney(token, req, "retry-1");
+
+        log.info("Replayed balance {} for key retry-1", result.getBody().getBalance());
+        assertSame(stored, result.getBody());
+        assertEquals("true", result.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verifyNoInteractions(walletService);
+    }
+
+    @Test
+    void testTransferStoresResponseUnderIdempotencyKey() {
+        log.info("Running test: testTransferStoresResponseUnderIdempotencyKey");
+
+        String token = "Bearer xyz";
+
+        TransferRequest req = new TransferRequest();
+        req.setReceiverId(99L);
+        req.setAmount(250.0);
+        req.setSenderWalletName("Primary");
+
+        TransferResponse resp = new TransferResponse();
+        resp.setAmountTransferred(250.0);
+
+        when(userClient.getUserFromToken(token)).thenReturn(mockUser);
+        when(idempotencyStore.replay(anyString(), anyString(), anyString(), eq(TransferResponse.class)))
+                .thenReturn(Optional.empty());
+        when(walletService.transferAmount(mockUser, 99L, 250.0, "10:order-42", "Primary", token))
+                .thenReturn(Mono.just(resp));
+
+        ResponseEntity<TransferResponse> result =
+                walletController.transfer(token, req, "order-42").block();
+
+        assertNull(result.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        verify(idempotencyStore).save("10:order-42", 10L, "TRANSFER", "TRANSFER|Primary|99|250.0", resp);
+    }
+
     @Test
     void testGetAllWallets() {
         log.info("Running test: testGetAllWallets");
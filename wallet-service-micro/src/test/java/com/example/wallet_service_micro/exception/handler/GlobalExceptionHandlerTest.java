@@ -0,0 +1,50 @@
+package com.example.wallet_service_micro.exception.handler;
+
+import com.example.wallet_service_micro.dto.risk.ErrorResponse;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// --------------------------------------------------------------------
+// Every rejection code becomes an ErrorResponse in one place: its status,
+// the code itself and its fixed message. The exception carries no trace.
+// An operation switched off by the balance engine is a 503, not a 500.
+// --------------------------------------------------------------------
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @ParameterizedTest
+    @EnumSource(value = ValidationResult.class, names = "OK", mode = EnumSource.Mode.EXCLUDE)
+    void testEveryRejectionCodeMapsToAResponse(ValidationResult result) {
+        ValidationRejectedException ex = new ValidationRejectedException(result);
+        ResponseEntity<ErrorResponse> response = handler.handleRejected(ex);
+
+        HttpStatus expected = switch (result) {
+            case WALLET_BLACKLISTED -> HttpStatus.FORBIDDEN;
+            case RECIPIENT_NOT_FOUND, RECEIVER_WALLET_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        assertEquals(expected, response.getStatusCode());
+        assertEquals(expected.value(), response.getBody().getStatus());
+        assertEquals(result.name(), response.getBody().getErrors().get("code"));
+        assertEquals(result.getMessage(), response.getBody().getErrors().get("reason"));
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    void testEngineOwnedOperationIsServiceUnavailable() {
+        ResponseEntity<ErrorResponse> response = handler.handleEngineOwned(
+                new EngineOwnedOperationException("Payouts are not available while the balance engine is enabled"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals(503, response.getBody().getStatus());
+    }
+}
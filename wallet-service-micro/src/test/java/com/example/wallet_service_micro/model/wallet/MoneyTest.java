@@ -0,0 +1,42 @@
+package com.example.wallet_service_micro.model.wallet;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyTest.class);
+
+    @Test
+    void testToMinorIsExactForTwoDecimals() {
+        assertEquals(29, Money.toMinor(0.29));      // 0.29 * 100 = 28.999999999999996 in double math
+        assertEquals(1_005, Money.toMinor(10.05));
+        assertEquals(-5_000, Money.toMinor(-50.0)); // sign is left to WalletValidator
+        assertEquals(123_456_789_012L, Money.toMinor(1_234_567_890.12));
+    }
+
+    @Test
+    void testToMinorRejectsMoreThanTwoDecimals() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> Money.toMinor(0.295));
+        log.info("Rejected: {}", ex.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testRepeatedSmallAmountsAddUpExactly() {
+        Wallet wallet = new Wallet(1L, "Primary");
+        for (int i = 0; i < 10; i++) {
+            wallet.load(Money.toMinor(0.1), Money.toMinor(1.0));
+        }
+
+        // ten times 0.1 as double is 0.9999999999999999 and would never reach the limit
+        assertEquals(Money.toMinor(1.0), wallet.getDailySpent());
+        assertTrue(wallet.getFrozen());
+        assertEquals("1.00", Money.format(wallet.getBalance()));
+        assertEquals(1.0, Money.toMajor(wallet.getBalance()));
+    }
+}
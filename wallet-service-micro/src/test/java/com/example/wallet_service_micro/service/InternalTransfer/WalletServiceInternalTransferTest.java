@@ -1,10 +1,15 @@
 package com.example.wallet_service_micro.service.InternalTransfer;
 
 import com.example.wallet_service_micro.dto.selfTransfer.UserInternalTransferResponse;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.service.wallet.WalletService;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
 import com.example.wallet_service_micro.service.validator.WalletValidator;
 import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
 import com.example.wallet_service_micro.config.properties.WalletProperties;
@@ -14,9 +19,12 @@ import com.example.wallet_service_micro.repository.wallet.WalletRepository;
 
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static com.example.wallet_service_micro.support.WalletWiring.countOnWallet;
+import static com.example.wallet_service_micro.support.WalletWiring.entityWriter;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -31,6 +39,8 @@ class WalletServiceInternalTransferTest {
     @Mock private WalletValidator walletValidator;
     @Mock private WalletTransactionService txnService;
     @Mock private WalletManagementService walletManagementService;
+    @Mock private BalanceEngine balanceEngine; // disabled (false) → JPA path
+    @Mock private DailySpendCounter dailySpend;
 
     @InjectMocks private WalletService walletService;
 
@@ -39,10 +49,17 @@ class WalletServiceInternalTransferTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        // Entity write path over the mocked repository → balance / frozen changes stay observable
+        ReflectionTestUtils.setField(walletService, "walletWriter",
+                entityWriter(walletRepository, walletProperties, walletValidator, dailySpend));
+        countOnWallet(dailySpend);
         user = new UserDTO();
         user.setId(10L);
         user.setEmail("test@example.com");
-        when(walletProperties.getDailyLimit()).thenReturn(5000.0);
+        when(walletProperties.getDailyLimit()).thenReturn(Money.toMinor(5000.0));
+        when(walletValidator.checkAmount(any(Double.class))).thenReturn(ValidationResult.OK);
+        when(walletValidator.checkTransfer(any(), any(), anyLong(), anyLong())).thenReturn(ValidationResult.OK);
 
         log.info("Setup complete: user={}, dailyLimit={}", user.getId(), walletProperties.getDailyLimit());
     }
@@ -52,9 +69,11 @@ class WalletServiceInternalTransferTest {
         log.info("Running testInternalTransferSuccess");
 
         Wallet senderWallet = new Wallet(10L, "Primary");
-        senderWallet.setBalance(300.0);
+        senderWallet.setId(1L);
+        senderWallet.setBalance(Money.toMinor(300.0));
         Wallet receiverWallet = new Wallet(10L, "Savings");
-        receiverWallet.setBalance(200.0);
+        receiverWallet.setId(2L);
+        receiverWallet.setBalance(Money.toMinor(200.0));
 
         log.info("Mocking wallets: sender={}, receiver={}", senderWallet, receiverWallet);
 
@@ -70,8 +89,9 @@ class WalletServiceInternalTransferTest {
         log.info("Transfer completed");
 
         assertNotNull(result);
-        verify(walletValidator).validateAmount(100.0, "Internal Transfer");
-        verify(txnService).recordTransferTransactions(user, user, 100.0, "TXN1", "Primary", "Savings");
+        verify(walletValidator).checkAmount(100.0);
+        verify(walletValidator).checkTransfer(senderWallet, receiverWallet, Money.toMinor(100.0), Money.toMinor(300.0));
+        verify(txnService).recordTransferTransactions(user, user, Money.toMinor(100.0), "TXN1", senderWallet, receiverWallet);
 
         log.info("Assertions passed for testInternalTransferSuccess");
     }
@@ -81,20 +101,23 @@ class WalletServiceInternalTransferTest {
         log.info("Running testFrozenWalletThrows");
 
         Wallet senderWallet = new Wallet(user.getId(), "Primary");
+        senderWallet.setId(1L);
         senderWallet.setFrozen(true);
         Wallet receiverWallet = new Wallet(user.getId(), "Savings");
+        receiverWallet.setId(2L);
 
         log.info("Sender wallet frozen");
 
         when(txnService.isDuplicate("TXN2")).thenReturn(false);
         when(walletManagementService.getExistingWallet(user, "Primary")).thenReturn(senderWallet);
         when(walletManagementService.getExistingWallet(user, "Savings")).thenReturn(receiverWallet);
-        doThrow(new IllegalArgumentException("Wallet is frozen"))
-                .when(walletValidator).validateFrozen(senderWallet);
+        when(walletValidator.checkTransfer(eq(senderWallet), eq(receiverWallet), anyLong(), anyLong()))
+                .thenReturn(ValidationResult.WALLET_FROZEN);
 
-        assertThrows(IllegalArgumentException.class, () ->
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
                 walletService.transferWithinUserWallets(user, "Primary", "Savings", 50.0, "TXN2")
         );
+        assertEquals(ValidationResult.WALLET_FROZEN, ex.getResult());
 
         log.info("Exception correctly thrown for frozen wallet");
     }
@@ -105,9 +128,10 @@ class WalletServiceInternalTransferTest {
 
         when(txnService.isDuplicate("TXN_DUP")).thenReturn(true);
 
-        assertThrows(IllegalArgumentException.class, () ->
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
                 walletService.transferWithinUserWallets(user, "Primary", "Savings", 50.0, "TXN_DUP")
         );
+        assertEquals(ValidationResult.DUPLICATE_TRANSACTION, ex.getResult()); // same code as load / transfer
 
         log.info("Duplicate transaction test passed");
     }
@@ -117,21 +141,24 @@ class WalletServiceInternalTransferTest {
         log.info("Running testInsufficientBalanceThrows");
 
         Wallet senderWallet = new Wallet(user.getId(), "Primary");
-        senderWallet.setBalance(30.0);
+        senderWallet.setId(1L);
+        senderWallet.setBalance(Money.toMinor(30.0));
 
         Wallet receiverWallet = new Wallet(user.getId(), "Savings");
+        receiverWallet.setId(2L);
 
         log.info("Sender balance insufficient");
 
         when(txnService.isDuplicate("TXN3")).thenReturn(false);
         when(walletManagementService.getExistingWallet(user, "Primary")).thenReturn(senderWallet);
         when(walletManagementService.getExistingWallet(user, "Savings")).thenReturn(receiverWallet);
-        doThrow(new IllegalArgumentException("Insufficient balance"))
-                .when(walletValidator).validateBalance(senderWallet, 50.0);
+        when(walletValidator.checkTransfer(senderWallet, receiverWallet, Money.toMinor(50.0), Money.toMinor(30.0)))
+                .thenReturn(ValidationResult.INSUFFICIENT_BALANCE);
 
-        assertThrows(IllegalArgumentException.class, () ->
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
                 walletService.transferWithinUserWallets(user, "Primary", "Savings", 50.0, "TXN3")
         );
+        assertEquals(ValidationResult.INSUFFICIENT_BALANCE, ex.getResult());
 
         log.info("Insufficient balance exception correctly thrown");
     }
@@ -141,11 +168,13 @@ class WalletServiceInternalTransferTest {
         log.info("Running testDailyLimitExceededFreezesWallet");
 
         Wallet senderWallet = new Wallet(user.getId(), "Primary");
-        senderWallet.setBalance(500.0);
-        senderWallet.setDailySpent(walletProperties.getDailyLimit() - 10);
+        senderWallet.setId(1L);
+        senderWallet.setBalance(Money.toMinor(500.0));
+        senderWallet.setDailySpent(walletProperties.getDailyLimit() - Money.toMinor(10));
 
         Wallet receiverWallet = new Wallet(user.getId(), "Savings");
-        receiverWallet.setBalance(100.0);
+        receiverWallet.setId(2L);
+        receiverWallet.setBalance(Money.toMinor(100.0));
 
         log.info("Daily limit nearly reached");
 
@@ -165,14 +194,13 @@ class WalletServiceInternalTransferTest {
     void testInternalTransferNegativeAmountThrows() {
         log.info("Running testInternalTransferNegativeAmountThrows");
 
-        doThrow(new IllegalArgumentException("Amount must be positive"))
-                .when(walletValidator).validateAmount(-50.0, "Internal Transfer");
+        when(walletValidator.checkAmount(-50.0)).thenReturn(ValidationResult.INVALID_AMOUNT);
 
-        assertThrows(IllegalArgumentException.class, () ->
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
                 walletService.transferWithinUserWallets(user, "Primary", "Savings", -50.0, "TXN_NEG")
         );
 
-        verify(walletValidator).validateAmount(-50.0, "Internal Transfer");
+        assertEquals(ValidationResult.INVALID_AMOUNT, ex.getResult());
         verify(walletManagementService, never()).getExistingWallet(any(), anyString());
 
         log.info("Negative amount exception thrown successfully");
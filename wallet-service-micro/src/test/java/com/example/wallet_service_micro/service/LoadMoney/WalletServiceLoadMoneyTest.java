@@ -4,10 +4,15 @@ import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyRequest;
 import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyResponse;
 import com.example.wallet_service_micro.dto.user.UserDTO;
 import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.service.wallet.WalletService;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
 import com.example.wallet_service_micro.service.validator.WalletValidator;
 import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
 import com.example.wallet_service_micro.config.properties.WalletProperties;
@@ -15,7 +20,11 @@ import com.example.wallet_service_micro.repository.transaction.TransactionReposi
 import com.example.wallet_service_micro.repository.wallet.WalletRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import static com.example.wallet_service_micro.support.WalletWiring.countOnWallet;
+import static com.example.wallet_service_micro.support.WalletWiring.entityWriter;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -28,6 +37,9 @@ class WalletServiceLoadMoneyTest {
     @Mock private WalletValidator walletValidator;
     @Mock private WalletTransactionService txnService;
     @Mock private WalletManagementService walletManagementService;
+    @Mock private BalanceEngine balanceEngine; // disabled (false) → JPA path
+    @Mock private DailySpendCounter dailySpend;
+    @Mock private PlatformTransactionManager transactionManager; // balance write + ledger rows run in one template transaction
 
     @InjectMocks private WalletService walletService;
 
@@ -38,15 +50,22 @@ class WalletServiceLoadMoneyTest {
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
+        // Entity write path over the mocked repository → balance / frozen changes stay observable
+        ReflectionTestUtils.setField(walletService, "walletWriter",
+                entityWriter(walletRepository, walletProperties, walletValidator, dailySpend));
+        countOnWallet(dailySpend);
+
         user = new UserDTO();
         user.setId(10L);
         user.setEmail("test@example.com");
 
         wallet = new Wallet(10L, "Primary");
-        wallet.setBalance(500.0);
-        wallet.setDailySpent(0.0);
+        wallet.setBalance(Money.toMinor(500.0));
+        wallet.setDailySpent(0);
 
-        when(walletProperties.getDailyLimit()).thenReturn(5000.0);
+        when(walletProperties.getDailyLimit()).thenReturn(Money.toMinor(5000.0));
+        when(walletValidator.checkAmount(any(Double.class))).thenReturn(ValidationResult.OK);
+        when(walletValidator.checkLoad(any())).thenReturn(ValidationResult.OK);
     }
 
     @Test
@@ -64,8 +83,8 @@ class WalletServiceLoadMoneyTest {
         LoadMoneyResponse result = walletService.loadMoney(user, req, txnId, "Primary");
 
         assertNotNull(result);
-        verify(walletValidator).validateAmount(100.0, "Load");
-        verify(txnService).recordLoadTransaction(user, 100.0, txnId, "Primary");
+        verify(walletValidator).checkAmount(100.0);
+        verify(txnService).recordLoadTransaction(user, Money.toMinor(100.0), txnId, wallet); // the wallet just written, not looked up again
     }
 
     @Test
@@ -78,22 +97,39 @@ class WalletServiceLoadMoneyTest {
         );
     }
 
+    @Test
+    void testLoadMoneyRejectedByCheckCarriesItsCode() {
+        LoadMoneyRequest req = new LoadMoneyRequest();
+        req.setAmount(100.0);
+        when(walletManagementService.getExistingWallet(user, "Primary")).thenReturn(wallet);
+        when(walletValidator.checkLoad(wallet)).thenReturn(ValidationResult.WALLET_BLACKLISTED);
+
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
+                walletService.loadMoney(user, req, "TXN_BLOCKED", "Primary")
+        );
+
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, ex.getResult());
+        verify(dailySpend, never()).add(any(), anyLong());
+        verify(txnService, never()).recordLoadTransaction(any(), anyLong(), any(), any());
+    }
+
     @Test
     void testLoadMoneyDailyLimitExceededThrows() {
-        wallet.setDailySpent(walletProperties.getDailyLimit() - 100);
+        wallet.setDailySpent(walletProperties.getDailyLimit() - Money.toMinor(100));
         LoadMoneyRequest req = new LoadMoneyRequest();
         req.setAmount(200.0);
 
         when(walletManagementService.getExistingWallet(user, "Primary")).thenReturn(wallet);
-        doThrow(new IllegalArgumentException("Daily limit exceeded"))
-                .when(walletValidator).validateDailyLimit(wallet, 200.0);
+        // The guarded count is the only limit check → its rejection is what the caller sees
+        when(dailySpend.add(wallet, Money.toMinor(200.0))).thenThrow(new IllegalArgumentException("Daily limit exceeded"));
 
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
                 walletService.loadMoney(user, req, "TXN_LIMIT", "Primary")
         );
 
         assertEquals("Daily limit exceeded", ex.getMessage());
-        verify(walletValidator).validateDailyLimit(wallet, 200.0);
+        verify(walletValidator, never()).validateDailyLimit(any(), anyLong());
         verify(walletRepository, never()).saveAndFlush(any());
+        verify(txnService, never()).recordLoadTransaction(any(), anyLong(), any(), any());
     }
 }
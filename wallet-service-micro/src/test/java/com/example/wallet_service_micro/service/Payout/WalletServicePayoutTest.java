@@ -0,0 +1,284 @@
+package com.example.wallet_service_micro.service.Payout;
+
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.persistence.JpaBatchingConfig;
+import com.example.wallet_service_micro.config.properties.PayoutProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.dto.payout.PayoutItem;
+import com.example.wallet_service_micro.dto.payout.PayoutRequest;
+import com.example.wallet_service_micro.dto.payout.PayoutResponse;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.transactions.RecentTransactionIdFilter;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.wallet.WalletService;
+import com.example.wallet_service_micro.support.JdbcStatementCounter;
+import com.example.wallet_service_micro.support.JdbcStatementCounter.RoundTrip;
+import com.example.wallet_service_micro.support.WalletWiring;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// --------------------------------------------------------------------
+// Payouts on a real (H2) database: one sender debit for the total,
+// batched credits + ledger rows, the daily limit applied to the sum,
+// all-or-nothing on a bad recipient, an optimistic conflict on the
+// sender retried, and a 20k-recipient run.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Import({JpaBatchingConfig.class, JdbcStatementCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the payout commits on its own, like in production
+class WalletServicePayoutTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletServicePayoutTest.class);
+
+    private static final long MERCHANT_ID = 1L;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private JdbcStatementCounter statements;
+
+    private WalletProperties walletProperties;
+    private WalletWriteProperties writeProperties;
+    private WalletManagementService walletManagementService;
+    private WalletService walletService;
+    private UserDTO merchant;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+
+        walletProperties = new WalletProperties();
+        walletProperties.setMinAmount(1.0);
+        walletProperties.setMaxAmount(10_000.0);
+        walletProperties.setDailyLimit(1_000_000.0);
+        writeProperties = new WalletWriteProperties();
+        WalletWiring wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUsersByIds(anyCollection())).thenAnswer(inv -> {
+            Map<Long, UserDTO> found = new HashMap<>();
+            for (Object id : inv.getArgument(0, Collection.class)) {
+                if ((Long) id < 1_000_000L) found.put((Long) id, user((Long) id)); // ids ≥ 1,000,000 are "unknown"
+            }
+            return found;
+        });
+
+        RecentTransactionIdFilter coldFilter = mock(RecentTransactionIdFilter.class);
+        when(coldFilter.mightContain(anyString())).thenReturn(true);
+
+        walletManagementService = spy(new WalletManagementService(walletRepository));
+        WalletTransactionService txnService = new WalletTransactionService(transactionRepository,
+                mock(TransactionMapper.class), walletManagementService, coldFilter, entityManager);
+        walletService = new WalletService(walletRepository, walletProperties, mock(WalletMapper.class), wiring.validator(),
+                txnService, walletManagementService, userClient, mock(ReactiveUserClient.class), wiring.writer(writeProperties),
+                wiring.balanceSlots(), wiring.dailySpend(), mock(BalanceEngine.class), new PayoutProperties(), transactionManager);
+
+        merchant = user(MERCHANT_ID);
+        insertWallets(2, 5); // users 2..5 → Default wallet
+        Wallet merchantWallet = new Wallet(MERCHANT_ID, "Merchant");
+        merchantWallet.setBalance(Money.toMinor(100_000.0));
+        walletRepository.save(merchantWallet);
+    }
+
+    @Test
+    void testSenderIsDebitedOnceForTheTotal() {
+        PayoutRequest request = request(
+                new PayoutItem(2L, 10.0),
+                new PayoutItem(3L, 20.0),
+                new PayoutItem(2L, 5.0), // same recipient twice → one credit of 15
+                new PayoutItem(4L, 40.0)
+        );
+
+        statements.reset();
+        PayoutResponse response = walletService.payout(merchant, request, "payout-1");
+
+        List<RoundTrip> trips = statements.roundTrips();
+        trips.forEach(t -> log.info("JDBC round trip | rows={} | {}", t.rows(), t.sql().length() > 120 ? t.sql().substring(0, 120) : t.sql()));
+        List<RoundTrip> updates = trips.stream().filter(RoundTrip::isUpdate).toList();
+        List<RoundTrip> inserts = trips.stream().filter(t -> t.isInsertInto("transactions")).toList();
+
+        assertEquals(75.0, response.getTotalAmount());
+        assertEquals(Money.toMinor(100_000.0 - 75.0), balance(MERCHANT_ID, "Merchant"));
+        assertEquals(Money.toMinor(15.0), balance(2L, "Default"));
+        assertEquals(Money.toMinor(40.0), balance(4L, "Default"));
+
+        assertEquals(1, updates.stream().filter(t -> t.sql().contains("balance_minor - ?")).count(), "one sender debit");
+        assertEquals(Money.toMinor(75.0), dailySpendRepository.findSpent(merchantWalletId(), LocalDate.now()));
+        assertEquals(List.of(3), updates.stream().filter(t -> t.sql().contains("balance_minor + ?")).map(RoundTrip::rows).toList(),
+                "one credit batch");
+        assertEquals(List.of(4), updates.stream().filter(t -> t.sql().contains("ledger_seq + ?")).map(RoundTrip::rows).toList(),
+                "one ledger sequence batch (sender + 3 receivers)");
+        assertEquals(List.of(8), inserts.stream().map(RoundTrip::rows).toList(), "one ledger batch");
+        assertEquals(1, statements.commits()); // today's counter row is created in the payout's own transaction
+
+        // sender's DEBIT rows in posting order, each with the balance it left
+        List<Transaction> senderRows = transactionRepository.findAll().stream()
+                .filter(t -> t.getWalletId().equals(merchantWalletId()))
+                .sorted(Comparator.comparing(Transaction::getWalletSequence))
+                .toList();
+        assertEquals(List.of(1L, 2L, 3L, 4L), senderRows.stream().map(Transaction::getWalletSequence).toList());
+        assertEquals(List.of(99_990.0, 99_970.0, 99_965.0, 99_925.0),
+                senderRows.stream().map(t -> Money.toMajor(t.getBalanceAfter())).toList());
+    }
+
+    @Test
+    void testDailyLimitAppliesToTheAggregate() {
+        walletProperties.setDailyLimit(100.0);
+
+        // Every item is under the limit, the sum is not
+        assertThrows(IllegalArgumentException.class, () -> walletService.payout(merchant, request(
+                new PayoutItem(2L, 60.0),
+                new PayoutItem(3L, 60.0)
+        ), "payout-2"));
+
+        assertEquals(Money.toMinor(100_000.0), balance(MERCHANT_ID, "Merchant"));
+        assertEquals(0, transactionRepository.count());
+        assertNull(dailySpendRepository.findSpent(merchantWalletId(), LocalDate.now())); // refused before counting
+    }
+
+    @Test
+    void testBadRecipientRejectsTheWholePayout() {
+        jdbc.update("UPDATE wallet SET blacklisted = TRUE WHERE user_id = 4");
+
+        ValidationRejectedException blacklisted = assertThrows(ValidationRejectedException.class, () -> walletService.payout(merchant, request(
+                new PayoutItem(2L, 10.0),
+                new PayoutItem(4L, 10.0)
+        ), "payout-3"));
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, blacklisted.getResult()); // 403, as on /transfer
+        assertThrows(RuntimeException.class, () -> walletService.payout(merchant, request(
+                new PayoutItem(2L, 10.0),
+                new PayoutItem(1_000_001L, 10.0)
+        ), "payout-4"));
+
+        assertEquals(0L, balance(2L, "Default"));
+        assertEquals(0, transactionRepository.count());
+    }
+
+    @Test
+    void testSenderChangedAfterItsReadIsRetried() {
+        writeProperties.setStrategy(WalletWriteProperties.Strategy.ENTITY);
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(inv -> {
+            Object wallet = inv.callRealMethod();
+            if (first.getAndSet(false)) { // another request commits a write to the sender after this read
+                CompletableFuture.runAsync(() -> jdbc.update("UPDATE wallet SET version = version + 1 WHERE user_id = ?", MERCHANT_ID)).join();
+            }
+            return wallet;
+        }).when(walletManagementService).getExistingWallet(eq(merchant), eq("Merchant"));
+
+        walletService.payout(merchant, request(new PayoutItem(2L, 10.0), new PayoutItem(3L, 10.0)), "payout-retry");
+
+        verify(walletManagementService, times(2)).getExistingWallet(merchant, "Merchant"); // read again, inside the retry
+        assertEquals(Money.toMinor(100_000.0 - 20.0), balance(MERCHANT_ID, "Merchant"));
+        assertEquals(Money.toMinor(20.0), dailySpendRepository.findSpent(merchantWalletId(), LocalDate.now()));
+        assertEquals(4, transactionRepository.count());
+    }
+
+    @Test
+    void testPessimisticStrategyPaysOutToo() {
+        writeProperties.setStrategy(WalletWriteProperties.Strategy.PESSIMISTIC);
+
+        walletService.payout(merchant, request(new PayoutItem(2L, 10.0), new PayoutItem(5L, 10.0)), "payout-5");
+
+        assertEquals(Money.toMinor(100_000.0 - 20.0), balance(MERCHANT_ID, "Merchant"));
+        assertEquals(Money.toMinor(10.0), balance(5L, "Default"));
+    }
+
+    @Test
+    void testTwentyThousandRecipients() {
+        int recipients = 20_000;
+        insertWallets(10, 10 + recipients - 1);
+        List<PayoutItem> items = new ArrayList<>(recipients);
+        for (long id = 10; id < 10 + recipients; id++) {
+            items.add(new PayoutItem(id, 1.25));
+        }
+        PayoutRequest request = new PayoutRequest();
+        request.setSenderWalletName("Merchant");
+        request.setPayouts(items);
+
+        statements.reset();
+        long start = System.nanoTime();
+        PayoutResponse response = walletService.payout(merchant, request, UUID.randomUUID().toString());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Payout to {} recipients in {} ms | {} JDBC round trips", recipients, elapsedMs, statements.roundTrips().size());
+        assertEquals(recipients * 1.25, response.getTotalAmount());
+        assertEquals(Money.toMinor(100_000.0 - recipients * 1.25), balance(MERCHANT_ID, "Merchant"));
+        assertEquals(Money.toMinor(recipients * 1.25),
+                jdbc.queryForObject("SELECT SUM(balance_minor) FROM wallet WHERE user_id >= 10", Long.class));
+        assertEquals(2L * recipients, transactionRepository.count());
+        assertTrue(statements.roundTrips().size() < recipients / 10, "statements must be batched, not per recipient");
+    }
+
+    private void insertWallets(long fromUserId, long toUserId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = fromUserId; id <= toUserId; id++) {
+            rows.add(new Object[]{id});
+        }
+        jdbc.batchUpdate("INSERT INTO wallet (user_id, wallet_name, balance_minor, frozen, blacklisted, version) "
+                + "VALUES (?, 'Default', 0, FALSE, FALSE, 0)", rows);
+    }
+
+    private Long merchantWalletId() {
+        return walletRepository.findByUserIdAndWalletName(MERCHANT_ID, "Merchant").orElseThrow().getId();
+    }
+
+    private long balance(Long userId, String walletName) {
+        return walletRepository.findByUserIdAndWalletName(userId, walletName).orElseThrow().getBalance();
+    }
+
+    private static PayoutRequest request(PayoutItem... items) {
+        PayoutRequest request = new PayoutRequest();
+        request.setSenderWalletName("Merchant");
+        request.setPayouts(List.of(items));
+        return request;
+    }
+}
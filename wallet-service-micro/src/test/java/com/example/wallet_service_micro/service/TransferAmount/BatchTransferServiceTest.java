@@ -0,0 +1,270 @@
+package com.example.wallet_service_micro.service.TransferAmount;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.persistence.JpaBatchingConfig;
+import com.example.wallet_service_micro.config.properties.BatchTransferProperties;
+import com.example.wallet_service_micro.config.properties.IdempotencyReplayProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferItem;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferItemResult.Status;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferRequest;
+import com.example.wallet_service_micro.dto.batchTransfer.BatchTransferResponse;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.idempotency.IdempotencyRecordRepository;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.idempotency.IdempotencyStore;
+import com.example.wallet_service_micro.service.transactions.RecentTransactionIdFilter;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import com.example.wallet_service_micro.service.wallet.BatchTransferService;
+import com.example.wallet_service_micro.support.JdbcStatementCounter;
+import com.example.wallet_service_micro.support.JdbcStatementCounter.RoundTrip;
+import com.example.wallet_service_micro.support.WalletWiring;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// --------------------------------------------------------------------
+// Batch transfers on a real (H2) database: per-item results, chunked
+// commits (one lock statement + one ledger batch per chunk), fixed codes
+// for chunks that roll back and resends with the same Idempotency-Key.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Import({JpaBatchingConfig.class, JdbcStatementCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every chunk commits on its own, like in production
+class BatchTransferServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchTransferServiceTest.class);
+
+    private static final long SENDER_ID = 1L;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcStatementCounter statements;
+    @Autowired private EntityManager entityManager;
+
+    private BatchTransferProperties batchProperties;
+    private BatchTransferService service;
+    private UserDTO sender;
+    private UserClient userClient;
+    private WalletProperties walletProperties;
+    private WalletWiring wiring;
+    private WalletManagementService walletManagementService;
+    private WalletTransactionService txnService;
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        idempotencyRecordRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+
+        walletProperties = new WalletProperties();
+        walletProperties.setMinAmount(1.0);
+        walletProperties.setMaxAmount(10_000.0);
+        walletProperties.setDailyLimit(1_000_000.0);
+        wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+
+        Wallet payroll = new Wallet(SENDER_ID, "Payroll");
+        payroll.setBalance(Money.toMinor(1_000.0));
+        walletRepository.save(payroll);
+        walletRepository.save(new Wallet(SENDER_ID, "Default"));
+
+        Map<Long, UserDTO> users = new HashMap<>();
+        users.put(SENDER_ID, user(SENDER_ID));
+        for (long id = 2; id <= 6; id++) {
+            walletRepository.save(new Wallet(id, "Default"));
+            users.put(id, user(id));
+        }
+        userClient = mock(UserClient.class);
+        when(userClient.getUsersByIds(anyCollection())).thenAnswer(inv -> {
+            Map<Long, UserDTO> found = new HashMap<>();
+            for (Object id : inv.getArgument(0, java.util.Collection.class)) {
+                if (users.containsKey(id)) found.put((Long) id, users.get(id));
+            }
+            return found;
+        });
+
+        RecentTransactionIdFilter coldFilter = mock(RecentTransactionIdFilter.class);
+        when(coldFilter.mightContain(anyString())).thenReturn(true); // not warmed up → every duplicate check asks the DB
+
+        walletManagementService = new WalletManagementService(walletRepository);
+        txnService = new WalletTransactionService(transactionRepository,
+                mock(TransactionMapper.class), walletManagementService, coldFilter, entityManager);
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, new IdempotencyReplayProperties(),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        batchProperties = new BatchTransferProperties();
+        service = service(wiring.dailySpend());
+        sender = users.get(SENDER_ID);
+    }
+
+    private BatchTransferService service(DailySpendCounter dailySpend) {
+        return new BatchTransferService(userClient, walletRepository, walletManagementService, wiring.validator(),
+                walletProperties, txnService, wiring.balanceSlots(),
+                dailySpend, mock(BalanceEngine.class), batchProperties, idempotencyStore,
+                transactionManager, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testBadItemsFailAloneAndTheRestCommits() {
+        BatchTransferResponse response = service.transferBatch(sender, request(
+                new BatchTransferItem(2L, 100.0),
+                new BatchTransferItem(99L, 50.0),      // unknown recipient
+                new BatchTransferItem(3L, 5_000.0),    // more than the remaining balance
+                new BatchTransferItem(SENDER_ID, 10.0),// own wallet
+                new BatchTransferItem(4L, 0.001),      // more than 2 decimals
+                new BatchTransferItem(5L, 250.0)
+        ), null);
+
+        response.getResults().forEach(r -> log.info("item {} → {} {}", r.getIndex(), r.getStatus(), r.getMessage()));
+        assertEquals(List.of(Status.SUCCESS, Status.FAILED, Status.FAILED, Status.FAILED, Status.FAILED, Status.SUCCESS),
+                response.getResults().stream().map(r -> r.getStatus()).toList());
+        // every rejection is a result code, none of them an exception caught per item
+        assertEquals(Arrays.asList(null, "RECIPIENT_NOT_FOUND", "INSUFFICIENT_BALANCE", "OWN_WALLET_TRANSFER", "INVALID_PRECISION", null),
+                response.getResults().stream().map(r -> r.getCode()).toList());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(4, response.getFailed());
+        assertEquals(350.0, response.getTotalTransferred());
+        assertEquals(650.0, response.getSenderBalance());
+
+        assertEquals(Money.toMinor(100.0), balance(2L));
+        assertEquals(Money.toMinor(250.0), balance(5L));
+        assertEquals(4, transactionRepository.count());
+    }
+
+    @Test
+    void testEachChunkLocksOnceAndWritesOneLedgerBatch() {
+        batchProperties.setChunkSize(2);
+        BatchTransferRequest request = request(
+                new BatchTransferItem(2L, 10.0),
+                new BatchTransferItem(3L, 10.0),
+                new BatchTransferItem(2L, 10.0), // same receiver again → still one lock per chunk
+                new BatchTransferItem(4L, 10.0),
+                new BatchTransferItem(5L, 10.0)
+        );
+
+        statements.reset();
+        BatchTransferResponse response = service.transferBatch(sender, request, null);
+
+        List<RoundTrip> trips = statements.roundTrips();
+        long lockStatements = trips.stream().filter(t -> t.sql().toLowerCase().contains("for update")).count();
+        List<RoundTrip> ledgerInserts = trips.stream().filter(t -> t.isInsertInto("transactions")).toList();
+        log.info("5 transfers in chunks of 2 → {} round trips, {} lock statements, ledger batches {}",
+                trips.size(), lockStatements, ledgerInserts.stream().map(RoundTrip::rows).toList());
+
+        assertEquals(5, response.getSucceeded());
+        assertEquals(3, lockStatements);
+        assertEquals(List.of(4, 4, 2), ledgerInserts.stream().map(RoundTrip::rows).toList());
+        assertEquals(3, statements.commits()); // one per chunk; today's counter row is created inside the first
+        assertEquals(Money.toMinor(20.0), balance(2L));
+        Wallet payroll = walletRepository.findByUserIdAndWalletName(SENDER_ID, "Payroll").orElseThrow();
+        assertEquals(Money.toMinor(950.0), payroll.getBalance());
+        assertEquals(Money.toMinor(50.0), dailySpendRepository.findSpent(payroll.getId(), LocalDate.now())); // one count per chunk
+    }
+
+    @Test
+    void testResendWithSameKeyReturnsTheStoredResults() {
+        BatchTransferResponse first = service.transferBatch(sender, request(
+                new BatchTransferItem(2L, 100.0),
+                new BatchTransferItem(3L, 100.0)
+        ), "payroll-2025-01");
+        BatchTransferResponse resend = service.transferBatch(sender, request(
+                new BatchTransferItem(2L, 100.0),
+                new BatchTransferItem(3L, 100.0)
+        ), "payroll-2025-01");
+
+        assertEquals(2, first.getSucceeded());
+        assertEquals(2, resend.getSucceeded());
+        assertEquals(List.of(Status.SUCCESS, Status.SUCCESS), resend.getResults().stream().map(r -> r.getStatus()).toList());
+        assertEquals("1:payroll-2025-01:1", resend.getResults().get(1).getTransactionId());
+        assertEquals(Money.toMinor(100.0), balance(2L));
+        assertEquals(4, transactionRepository.count()); // nothing executed twice
+    }
+
+    @Test
+    void testRolledBackChunkGetsAFixedCodeAndTheResendOnlyRunsIt() {
+        batchProperties.setChunkSize(1);
+        DailySpendCounter busyOnSecondChunk = spy(wiring.dailySpend());
+        doCallRealMethod()
+                .doThrow(new CannotAcquireLockException("Lock wait timeout exceeded; try restarting transaction"))
+                .doCallRealMethod()
+                .when(busyOnSecondChunk).lockToday(any());
+        BatchTransferRequest request = request(
+                new BatchTransferItem(2L, 100.0),
+                new BatchTransferItem(3L, 100.0)
+        );
+
+        BatchTransferResponse first = service(busyOnSecondChunk).transferBatch(sender, request, "payroll-2025-02");
+
+        assertEquals(Arrays.asList(null, "CHUNK_CONFLICT"), first.getResults().stream().map(r -> r.getCode()).toList());
+        assertFalse(first.getResults().get(1).getMessage().contains("Lock wait")); // driver text stays in the log
+        assertEquals(0, balance(3L));
+
+        BatchTransferResponse resend = service(busyOnSecondChunk).transferBatch(sender, request, "payroll-2025-02");
+        BatchTransferResponse replay = service.transferBatch(sender, request, "payroll-2025-02");
+
+        assertEquals(2, resend.getSucceeded());
+        assertEquals(200.0, resend.getTotalTransferred());
+        assertEquals(Money.toMinor(100.0), balance(2L)); // first item not executed again
+        assertEquals(Money.toMinor(100.0), balance(3L));
+        assertEquals(2, replay.getSucceeded()); // merged results were stored
+        assertEquals(4, transactionRepository.count());
+    }
+
+    @Test
+    void testOversizedBatchIsRejectedAsAWhole() {
+        batchProperties.setMaxItems(1);
+        assertThrows(IllegalArgumentException.class, () -> service.transferBatch(sender, request(
+                new BatchTransferItem(2L, 1.0),
+                new BatchTransferItem(3L, 1.0)
+        ), null));
+    }
+
+    private long balance(Long userId) {
+        return walletRepository.findByUserIdAndWalletName(userId, "Default").orElseThrow().getBalance();
+    }
+
+    private static BatchTransferRequest request(BatchTransferItem... items) {
+        BatchTransferRequest request = new BatchTransferRequest();
+        request.setSenderWalletName("Payroll");
+        request.setTransfers(List.of(items));
+        return request;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.wallet_service_micro.service.TransferAmount;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.wallet.BalanceSlots;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import com.example.wallet_service_micro.support.WalletWiring;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// --------------------------------------------------------------------
+// Many senders pay ONE merchant wallet at the same time (ENTITY strategy,
+// where every credit of the merchant row bumps its @Version). Compared:
+//  • plain wallet → credits collide on the merchant row and retry
+//  • 1 slot       → credits queue on one slot row, no version → no retries
+//  • N slots      → credits spread over N slot rows
+// Logs transfers/sec + conflicts per setup (after an untimed warm-up),
+// asserts that striped credits never conflict and money is conserved.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every transfer commits on its own, like in production
+class StripedWalletConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StripedWalletConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final long AMOUNT = 1; // minor units per transfer → balances below count transfers directly
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private WalletWiring wiring;
+    private BalanceSlots balanceSlots;
+    private WalletWriter writer;
+    private TransactionTemplate tx;
+    private long nextUserId = 1;
+
+    private record Result(int transferred, int conflicts, int failed, double perSecond) {}
+
+    @BeforeEach
+    void setUp() {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(10_000_000.0);
+        wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+        balanceSlots = wiring.balanceSlots();
+        writer = wiring.writer(WalletWriteProperties.Strategy.ENTITY);
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testStripedMerchantTakesConcurrentCreditsWithoutConflicts() throws Exception {
+        run(merchant("Warm", THREADS), "warm-up");
+
+        Wallet plain = merchant("Plain", 0);
+        Result plainResult = run(plain, "plain wallet");
+        Wallet oneSlot = merchant("OneSlot", 1);
+        Result oneSlotResult = run(oneSlot, "1 slot");
+        Wallet striped = merchant("Striped", THREADS);
+        Result stripedResult = run(striped, THREADS + " slots");
+
+        // bounded retries (wallet.write.max-attempts) → a transfer either lands or gives up, nothing in between
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, plainResult.transferred() + plainResult.failed());
+        assertEquals(plainResult.transferred(), balanceOf(plain));
+
+        for (Result result : List.of(oneSlotResult, stripedResult)) {
+            assertEquals(0, result.conflicts()); // the merchant row is never written → nothing to retry
+            assertEquals(THREADS * TRANSFERS_PER_THREAD, result.transferred());
+        }
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, balanceOf(oneSlot));
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, balanceOf(striped));
+        assertEquals(striped.getVersion(), walletRepository.findById(striped.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void testSweepMovesSlotsOntoRowForDebits() {
+        Wallet merchant = merchant("Sweep", 4);
+        Wallet payer = wallet("SweepPayer", 1_000);
+        tx.executeWithoutResult(status -> writer.transfer(payer, merchant, 300));
+
+        Wallet beforeSweep = walletRepository.findById(merchant.getId()).orElseThrow();
+        assertEquals(0, beforeSweep.getBalance());       // credits sit in the slots
+        assertEquals(300, balanceSlots.balanceOf(beforeSweep));
+
+        tx.executeWithoutResult(status -> writer.sweepSlots(beforeSweep));
+        assertEquals(300, beforeSweep.getBalance());     // caller's object carries the new row state
+        assertEquals(0, slotRepository.findAll().stream()
+                .filter(s -> s.getWalletId().equals(merchant.getId()))
+                .mapToLong(s -> s.getBalance())
+                .sum());
+
+        // the row now covers a debit of the whole balance
+        tx.executeWithoutResult(status -> writer.transfer(
+                walletRepository.findById(merchant.getId()).orElseThrow(),
+                walletRepository.findById(payer.getId()).orElseThrow(), 300));
+        assertEquals(0, balanceOf(merchant));
+        assertEquals(1_000, balanceOf(payer));
+    }
+
+    @Test
+    void testRestripeFoldsSlotsBackIntoTheRow() {
+        Wallet merchant = merchant("Restripe", 4);
+        Wallet payer = wallet("RestripePayer", 1_000);
+        tx.executeWithoutResult(status -> writer.transfer(payer, merchant, 250));
+
+        Wallet plain = tx.execute(status -> balanceSlots.restripe(merchant.getId(), 0));
+
+        assertFalse(plain.isStriped());
+        assertEquals(250, walletRepository.findById(merchant.getId()).orElseThrow().getBalance());
+        assertTrue(slotRepository.findAll().stream().noneMatch(s -> s.getWalletId().equals(merchant.getId())));
+        assertThrows(IllegalArgumentException.class,
+                () -> tx.execute(status -> balanceSlots.restripe(merchant.getId(), BalanceSlots.MAX_SLOTS + 1)));
+    }
+
+    @Test
+    void testOppositeTransfersWithStripedSenderDoNotDeadlock() throws Exception {
+        // Striped wallet gets the lower id and keeps its money in the slots → every debit of it sweeps
+        Wallet merchant = merchant("PingMerchant", 4);
+        Wallet customer = wallet("PingCustomer", 10_000);
+        tx.executeWithoutResult(status -> writer.transfer(customer, merchant, 5_000));
+        WalletWriter pessimistic = wiring.writer(WalletWriteProperties.Strategy.PESSIMISTIC);
+
+        // merchant → customer (counter, row, slots of the merchant, then the customer row) against
+        // customer → merchant (one merchant slot after the customer row): merchant locks always come first
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<?> out = pool.submit(() -> pingPong(pessimistic, merchant.getId(), customer.getId()));
+            Future<?> in = pool.submit(() -> pingPong(pessimistic, customer.getId(), merchant.getId()));
+            out.get();
+            in.get();
+        }
+
+        assertEquals(10_000, balanceOf(merchant) + balanceOf(customer));
+    }
+
+    @Test
+    void testCreditWithStaleSlotCountIsARetryableConflict() {
+        Wallet merchant = merchant("Stale", 4);
+        Wallet staleRead = walletRepository.findById(merchant.getId()).orElseThrow();
+        tx.execute(status -> balanceSlots.restripe(merchant.getId(), 0));
+
+        // the slot picked from the old count is gone → same outcome as a stale @Version, not a 500
+        assertThrows(ConcurrencyFailureException.class,
+                () -> tx.executeWithoutResult(status -> balanceSlots.credit(staleRead, 100)));
+        assertEquals(0, balanceOf(merchant));
+    }
+
+    private void pingPong(WalletWriter pingWriter, Long fromId, Long toId) {
+        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+            tx.executeWithoutResult(status -> pingWriter.transfer(
+                    walletRepository.findById(fromId).orElseThrow(),
+                    walletRepository.findById(toId).orElseThrow(),
+                    AMOUNT));
+        }
+    }
+
+    private Result run(Wallet merchant, String setup) throws Exception {
+        // one sender wallet per thread → the merchant is the only contention point
+        List<Long> senders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            senders.add(wallet(merchant.getWalletName() + "-s" + t, 1_000_000).getId());
+        }
+
+        AtomicInteger transferred = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (Long senderId : senders) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        for (int attempt = 1; ; attempt++) {
+                            try {
+                                tx.executeWithoutResult(status -> writer.transfer(
+                                        walletRepository.findById(senderId).orElseThrow(),
+                                        walletRepository.findById(merchant.getId()).orElseThrow(),
+                                        AMOUNT));
+                                transferred.incrementAndGet();
+                                break;
+                            } catch (ConcurrencyFailureException e) {
+                                conflicts.incrementAndGet(); // stale @Version on the merchant row → back off, retry
+                                if (!writer.awaitRetry(attempt)) {
+                                    failed.incrementAndGet();
+                                    break;
+                                }
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Result result = new Result(transferred.get(), conflicts.get(), failed.get(), transferred.get() / seconds);
+        log.info("📊 Hot merchant, {} | threads={} | transferred={} | conflicts={} | failed={} | {} transfers/sec",
+                setup, THREADS, result.transferred(), result.conflicts(), result.failed(),
+                String.format("%.0f", result.perSecond()));
+        return result;
+    }
+
+    private Wallet merchant(String name, int slots) {
+        Wallet merchant = wallet(name, 0);
+        return slots == 0 ? merchant : tx.execute(status -> balanceSlots.restripe(merchant.getId(), slots));
+    }
+
+    private Wallet wallet(String name, long balance) {
+        Wallet wallet = new Wallet(nextUserId++, name);
+        wallet.setBalance(balance);
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    private long balanceOf(Wallet wallet) {
+        return balanceSlots.balanceOf(walletRepository.findById(wallet.getId()).orElseThrow());
+    }
+}
@@ -1,26 +1,36 @@
 package com.example.wallet_service_micro.service.TransferAmount;
 
-import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
 import com.example.wallet_service_micro.dto.transferMoney.TransferResponse;
 import com.example.wallet_service_micro.dto.user.UserDTO;
 import com.example.wallet_service_micro.exception.user.UserNotFoundException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
 import com.example.wallet_service_micro.mapper.wallet.WalletMapper;
+import com.example.wallet_service_micro.model.wallet.Money;
 import com.example.wallet_service_micro.model.wallet.Wallet;
 import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
 import com.example.wallet_service_micro.repository.wallet.WalletRepository;
 import com.example.wallet_service_micro.service.factory.WalletManagementService;
 import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
 import com.example.wallet_service_micro.service.validator.WalletValidator;
 import com.example.wallet_service_micro.service.wallet.WalletService;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
 import com.example.wallet_service_micro.config.properties.WalletProperties;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
+import static com.example.wallet_service_micro.support.WalletWiring.countOnWallet;
+import static com.example.wallet_service_micro.support.WalletWiring.entityWriter;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -35,7 +45,10 @@ class WalletServiceTransferAmountTest {
     @Mock private WalletValidator walletValidator;
     @Mock private WalletTransactionService txnService;
     @Mock private WalletManagementService walletManagementService;
-    @Mock private UserClient userClient;
+    @Mock private ReactiveUserClient reactiveUserClient;
+    @Mock private BalanceEngine balanceEngine; // disabled (false) → JPA path
+    @Mock private DailySpendCounter dailySpend;
+    @Mock private PlatformTransactionManager transactionManager; // balance write + ledger rows run in one template transaction
 
     @InjectMocks private WalletService walletService;
 
@@ -44,10 +57,17 @@ class WalletServiceTransferAmountTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+
+        // Entity write path over the mocked repository → balance / frozen changes stay observable
+        ReflectionTestUtils.setField(walletService, "walletWriter",
+                entityWriter(walletRepository, walletProperties, walletValidator, dailySpend));
+        countOnWallet(dailySpend);
         sender = new UserDTO();
         sender.setId(10L);
         sender.setEmail("test@example.com");
-        when(walletProperties.getDailyLimit()).thenReturn(5000.0);
+        when(walletProperties.getDailyLimit()).thenReturn(Money.toMinor(5000.0));
+        when(walletValidator.checkAmount(any(Double.class))).thenReturn(ValidationResult.OK);
+        when(walletValidator.checkTransfer(any(), any(), anyLong(), anyLong())).thenReturn(ValidationResult.OK);
 
         log.info("✅ Test setup complete. Initialized sender with ID={} and email={}", sender.getId(), sender.getEmail());
     }
@@ -64,18 +84,19 @@ class WalletServiceTransferAmountTest {
 
         // wallets
         Wallet senderWallet = new Wallet(10L, "Primary");
-        senderWallet.setBalance(500.0);
+        senderWallet.setId(1L);
+        senderWallet.setBalance(Money.toMinor(500.0));
 
         Wallet receiverWallet = new Wallet(20L, "Default");
-        receiverWallet.setBalance(200.0);
+        receiverWallet.setId(2L);
+        receiverWallet.setBalance(Money.toMinor(200.0));
 
         // mocks
-        when(userClient.getUserByIdInternal(eq(20L))).thenReturn(recipient);
+        when(reactiveUserClient.getUserByIdInternal(eq(20L))).thenReturn(Mono.just(recipient));
         when(walletManagementService.getExistingWallet(sender, "Primary")).thenReturn(senderWallet);
         when(walletManagementService.getExistingWallet(recipient, "Default")).thenReturn(receiverWallet);
         when(txnService.isDuplicate(anyString())).thenReturn(false);
-        doNothing().when(walletValidator).validateAmount(anyDouble(), anyString());
-        doNothing().when(txnService).recordTransferTransactions(any(), any(), anyDouble(), anyString(), anyString(), anyString());
+        doNothing().when(txnService).recordTransferTransactions(any(), any(), anyLong(), anyString(), any(), any());
 
         TransferResponse responseMock = new TransferResponse();
         when(walletMapper.toTransferResponse(senderWallet)).thenReturn(responseMock);
@@ -85,28 +106,40 @@ class WalletServiceTransferAmountTest {
         // run
         TransferResponse result = walletService.transferAmount(
                 sender, 20L, 50.0, "TX123", "Primary", "AUTH"
-        );
+        ).block();
 
         // verify
         assertNotNull(result);
-        verify(walletValidator).validateAmount(50.0, "Transfer");
-        verify(txnService).recordTransferTransactions(sender, recipient, 50.0, "TX123", "Primary", "Default");
+        verify(walletValidator).checkAmount(50.0);
+        verify(walletValidator).checkTransfer(senderWallet, receiverWallet, Money.toMinor(50.0), Money.toMinor(500.0));
+        verify(txnService).recordTransferTransactions(sender, recipient, Money.toMinor(50.0), "TX123", senderWallet, receiverWallet);
         verify(walletMapper).toTransferResponse(senderWallet);
 
         log.info("✅ Transfer successful. Amount: {}, Sender ID: {}, Receiver ID: {}",
                 50.0, sender.getId(), recipient.getId());
     }
 
+    @Test
+    void testTransferRejectedAmountSkipsTheRecipientLookup() {
+        when(walletValidator.checkAmount(0.0)).thenReturn(ValidationResult.INVALID_AMOUNT);
+
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class, () ->
+                walletService.transferAmount(sender, 20L, 0.0, "TX0", "Primary", "AUTH"));
+
+        assertEquals(ValidationResult.INVALID_AMOUNT, ex.getResult());
+        verifyNoInteractions(reactiveUserClient);
+    }
+
     @Test
     void testTransferRecipientNotFound() {
         log.info("🚀 Starting test: testTransferRecipientNotFound");
 
-        when(userClient.getUserByIdInternal(anyLong())).thenReturn(null);
+        when(reactiveUserClient.getUserByIdInternal(anyLong())).thenReturn(Mono.empty());
 
-        log.debug("Mocked userClient to return null for any user ID.");
+        log.debug("Mocked reactiveUserClient to return no user for any user ID.");
 
         assertThrows(UserNotFoundException.class, () -> {
-            walletService.transferAmount(sender, 999L, 50.0, "TX999", "Primary", "AUTH");
+            walletService.transferAmount(sender, 999L, 50.0, "TX999", "Primary", "AUTH").block();
         });
 
         log.info("✅ Expected exception thrown: UserNotFoundException for missing recipient.");
@@ -0,0 +1,254 @@
+package com.example.wallet_service_micro.service.TransferAmount;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import com.example.wallet_service_micro.support.WalletWiring;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+// --------------------------------------------------------------------
+// Many senders hammer ONE wallet on a real (H2) database, once per write
+// strategy (after an untimed warm-up round). Logs transfers/sec + conflicts
+// so the paths can be compared; asserts that money is conserved and
+// the guards hold under contention.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every transfer commits on its own, like in production
+class WalletWriterConcurrencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletWriterConcurrencyTest.class);
+
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final long AMOUNT = 1; // minor units per transfer → balances below count transfers directly
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+    @Autowired private org.springframework.jdbc.core.JdbcTemplate jdbc;
+
+    private record Result(int transferred, int conflicts, int rejected, int failed, double perSecond) {}
+
+    @Test
+    void testConditionalUpdateOnContendedWallet() throws Exception {
+        run(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE, wallet(11L, "WarmConditional", 1_000_000), 1_000_000_000);
+        Wallet hot = wallet(1L, "HotConditional", 1_000_000);
+        Result result = run(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE, hot, 1_000_000_000);
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, result.transferred());
+        assertEquals(0, result.conflicts()); // no version checks on this path → nothing to retry
+        assertEquals(1_000_000 - result.transferred(), walletRepository.findById(hot.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testEntityStrategyOnContendedWallet() throws Exception {
+        run(WalletWriteProperties.Strategy.ENTITY, wallet(12L, "WarmEntity", 1_000_000), 1_000_000_000);
+        Wallet hot = wallet(2L, "HotEntity", 1_000_000);
+        Result result = run(WalletWriteProperties.Strategy.ENTITY, hot, 1_000_000_000);
+
+        // bounded retries (wallet.write.max-attempts) → a transfer either lands or gives up, nothing in between
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, result.transferred() + result.failed());
+        assertEquals(1_000_000 - result.transferred(), walletRepository.findById(hot.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testPessimisticLockingOnContendedWallet() throws Exception {
+        run(WalletWriteProperties.Strategy.PESSIMISTIC, wallet(13L, "WarmPessimistic", 1_000_000), 1_000_000_000);
+        Wallet hot = wallet(4L, "HotPessimistic", 1_000_000);
+        Result result = run(WalletWriteProperties.Strategy.PESSIMISTIC, hot, 1_000_000_000);
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, result.transferred());
+        assertEquals(0, result.conflicts()); // writers queue on the row lock instead of failing
+        assertEquals(1_000_000 - result.transferred(), walletRepository.findById(hot.getId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    void testPessimisticLockingOppositeTransfersDoNotDeadlock() throws Exception {
+        Wallet a = wallet(5L, "PingA", 10_000);
+        Wallet b = wallet(6L, "PingB", 10_000);
+        WalletWriter writer = writer(WalletWriteProperties.Strategy.PESSIMISTIC, 1_000_000_000);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // A → B and B → A at the same time: locking in id order means both lock A first
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<?> ab = pool.submit(() -> pingPong(tx, writer, a.getId(), b.getId()));
+            Future<?> ba = pool.submit(() -> pingPong(tx, writer, b.getId(), a.getId()));
+            ab.get();
+            ba.get();
+        }
+
+        long total = walletRepository.findById(a.getId()).orElseThrow().getBalance()
+                + walletRepository.findById(b.getId()).orElseThrow().getBalance();
+        assertEquals(20_000, total);
+    }
+
+    @Test
+    void testConditionalUpdateOppositeTransfersDoNotDeadlock() throws Exception {
+        Wallet a = wallet(7L, "PongA", 10_000);
+        Wallet b = wallet(8L, "PongB", 10_000);
+        WalletWriter writer = writer(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE, 1_000_000_000);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // B → A credits A before counting and debiting B → both directions write A's row first
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            Future<?> ab = pool.submit(() -> pingPong(tx, writer, a.getId(), b.getId()));
+            Future<?> ba = pool.submit(() -> pingPong(tx, writer, b.getId(), a.getId()));
+            ab.get();
+            ba.get();
+        }
+
+        long total = walletRepository.findById(a.getId()).orElseThrow().getBalance()
+                + walletRepository.findById(b.getId()).orElseThrow().getBalance();
+        assertEquals(20_000, total);
+        assertEquals((long) TRANSFERS_PER_THREAD, dailySpendRepository.findSpent(a.getId(), LocalDate.now()));
+        assertEquals((long) TRANSFERS_PER_THREAD, dailySpendRepository.findSpent(b.getId(), LocalDate.now()));
+    }
+
+    private void pingPong(TransactionTemplate tx, WalletWriter writer, Long fromId, Long toId) {
+        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+            tx.executeWithoutResult(status -> writer.transfer(
+                    walletRepository.findById(fromId).orElseThrow(),
+                    walletRepository.findById(toId).orElseThrow(),
+                    AMOUNT));
+        }
+    }
+
+    @Test
+    void testConditionalUpdateNeverOverspendsDailyLimit() throws Exception {
+        Wallet hot = wallet(3L, "HotLimited", 1_000_000);
+        Result result = run(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE, hot, 100);
+
+        Wallet after = walletRepository.findById(hot.getId()).orElseThrow();
+        assertEquals(100, result.transferred()); // exactly the limit, one minor unit at a time
+        assertEquals(THREADS * TRANSFERS_PER_THREAD - 100, result.rejected());
+        assertEquals(100L, dailySpendRepository.findSpent(hot.getId(), LocalDate.now()));
+        assertTrue(after.getFrozen());
+    }
+
+    @Test
+    void testConditionalUpdateLostToAnUnseenWriteIsAnOptimisticConflict() {
+        Wallet sender = wallet(9L, "LostRace", 10_000);
+        Wallet receiver = wallet(10L, "LostRaceReceiver", 0);
+        // The guarded UPDATE loses once, the re-read passes every guard (what an older snapshot shows)
+        WalletRepository racing = mock(WalletRepository.class, AdditionalAnswers.delegatesTo(walletRepository));
+        doReturn(0).doAnswer(AdditionalAnswers.delegatesTo(walletRepository))
+                .when(racing).debitIfAllowed(anyLong(), anyLong(), anyBoolean());
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(1_000_000.0);
+        WalletWriter writer = new WalletWiring(racing, slotRepository, dailySpendRepository, entityManager, walletProperties)
+                .writer(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> tx.executeWithoutResult(status ->
+                writer.transfer(walletRepository.findById(sender.getId()).orElseThrow(),
+                        walletRepository.findById(receiver.getId()).orElseThrow(), 100)));
+        assertTrue(writer.awaitRetry(1)); // → the caller's backoff loop, not a 500
+
+        tx.executeWithoutResult(status -> writer.transfer(walletRepository.findById(sender.getId()).orElseThrow(),
+                walletRepository.findById(receiver.getId()).orElseThrow(), 100));
+        assertEquals(9_900, walletRepository.findById(sender.getId()).orElseThrow().getBalance());
+        assertEquals(100L, dailySpendRepository.findSpent(sender.getId(), LocalDate.now())); // the lost attempt rolled back
+    }
+
+    private Wallet wallet(Long userId, String name, long balance) {
+        Wallet wallet = new Wallet(userId, name);
+        wallet.setBalance(balance);
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    private WalletWriter writer(WalletWriteProperties.Strategy strategy, long dailyLimit) {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(Money.toMajor(dailyLimit));
+        return new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties)
+                .writer(strategy);
+    }
+
+    private Result run(WalletWriteProperties.Strategy strategy, Wallet hot, long dailyLimit) throws Exception {
+        WalletWriter writer = writer(strategy, dailyLimit);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // one receiver per thread → the sender row is the only contention point
+        List<Long> receivers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            receivers.add(wallet(100L + t, hot.getWalletName() + "-r" + t, 0).getId());
+        }
+
+        AtomicInteger transferred = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (Long receiverId : receivers) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        for (int attempt = 1; ; attempt++) {
+                            try {
+                                tx.executeWithoutResult(status -> writer.transfer(
+                                        walletRepository.findById(hot.getId()).orElseThrow(),
+                                        walletRepository.findById(receiverId).orElseThrow(),
+                                        AMOUNT));
+                                transferred.incrementAndGet();
+                                break;
+                            } catch (ConcurrencyFailureException e) {
+                                conflicts.incrementAndGet(); // stale @Version → back off, re-read and retry
+                                if (!writer.awaitRetry(attempt)) {
+                                    failed.incrementAndGet();
+                                    break;
+                                }
+                            } catch (IllegalArgumentException e) {
+                                rejected.incrementAndGet(); // guard said no (limit reached)
+                                break;
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Result result = new Result(transferred.get(), conflicts.get(), rejected.get(), failed.get(), transferred.get() / seconds);
+        log.info("📊 {} on one contended wallet | threads={} | transferred={} | conflicts={} | rejected={} | failed={} | {} transfers/sec",
+                strategy, THREADS, result.transferred(), result.conflicts(), result.rejected(), result.failed(),
+                String.format("%.0f", result.perSecond()));
+        return result;
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.wallet_service_micro.service.dailyLimit;
+
+import com.example.wallet_service_micro.config.properties.DailyLimitResetProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.model.wallet.WalletDailySpend;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import com.example.wallet_service_micro.service.wallet.DailyLimitResetJob;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// --------------------------------------------------------------------
+// Daily spend counters + the day-boundary job on a real (H2) database:
+// concurrent spenders never pass the limit together, the job unfreezes
+// only wallets frozen on an earlier day (in chunks), old rows are purged,
+// a failed run is repeated, and a flag the job has not cleared yet does
+// not block a wallet (frozen follows today's counter).
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every count commits on its own, like in production
+class DailyLimitResetJobTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyLimitResetJobTest.class);
+
+    private static final long DAILY_LIMIT = 100;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private DailySpendCounter dailySpend;
+    private DailyLimitResetProperties resetProperties;
+    private DailyLimitResetJob job;
+    private TransactionTemplate tx;
+    private long nextUserId = 1;
+
+    @BeforeEach
+    void setUp() {
+        dailySpendRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(Money.toMajor(DAILY_LIMIT));
+        dailySpend = new DailySpendCounter(dailySpendRepository, walletProperties,
+                new WalletValidator(walletProperties));
+        resetProperties = new DailyLimitResetProperties();
+        job = new DailyLimitResetJob(walletRepository, dailySpendRepository, walletProperties, resetProperties,
+                dailySpend, new SimpleMeterRegistry());
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testConcurrentSpendingStopsExactlyAtTheLimit() throws Exception {
+        Wallet wallet = wallet("Hot", false);
+        AtomicInteger counted = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        try {
+                            tx.executeWithoutResult(status -> dailySpend.add(wallet, 1));
+                            counted.incrementAndGet();
+                        } catch (IllegalArgumentException e) {
+                            refused.incrementAndGet(); // validator's daily limit message
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        log.info("8 threads × 25 counts of 1 against a limit of {} → counted={} | refused={}",
+                DAILY_LIMIT, counted.get(), refused.get());
+        assertEquals(DAILY_LIMIT, counted.get());
+        assertEquals(200 - DAILY_LIMIT, refused.get());
+        assertEquals(DAILY_LIMIT, dailySpend.spentToday(wallet.getId()));
+    }
+
+    @Test
+    void testRolledBackWriteRollsItsCountBack() {
+        Wallet wallet = wallet("RolledBack", false);
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            dailySpend.add(wallet, 40);
+            throw new IllegalStateException("balance write failed");
+        }));
+
+        assertEquals(0, dailySpend.spentToday(wallet.getId())); // today's row exists, the 40 is gone
+    }
+
+    @Test
+    void testCountLostToAConcurrentWriterIsAnOptimisticConflict() {
+        Wallet wallet = wallet("LostCount", false);
+        WalletDailySpendRepository racing = mock(WalletDailySpendRepository.class, AdditionalAnswers.delegatesTo(dailySpendRepository));
+        doReturn(0).when(racing).addIfWithinLimit(anyLong(), any(), anyLong(), anyLong()); // both tries lose, still under the limit
+        DailySpendCounter racingCounter = new DailySpendCounter(racing, walletProperties(), new WalletValidator(walletProperties()));
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> tx.executeWithoutResult(status -> racingCounter.add(wallet, 10))); // → retried / 409, not a 500
+        assertEquals(0, dailySpend.spentToday(wallet.getId()));
+    }
+
+    @Test
+    void testJobUnfreezesOnlyWalletsFrozenOnAnEarlierDay() {
+        resetProperties.setChunkSize(2); // several chunks even for a handful of wallets
+        Wallet yesterday = wallet("FrozenYesterday", true);
+        spent(yesterday, LocalDate.now().minusDays(1), DAILY_LIMIT);
+        Wallet today = wallet("FrozenToday", true);
+        spent(today, LocalDate.now(), DAILY_LIMIT);
+        Wallet active = wallet("Active", false);
+        spent(active, LocalDate.now(), DAILY_LIMIT / 2);
+        for (int i = 0; i < 5; i++) {
+            wallet("Idle" + i, false);
+        }
+
+        assertEquals(1, job.startNewDay());
+
+        assertFalse(frozen(yesterday));
+        assertTrue(frozen(today)); // reached the limit today → stays frozen until tomorrow
+        assertFalse(frozen(active));
+        assertEquals(0, job.startNewDay()); // a second run (startup catch-up) changes nothing
+    }
+
+    @Test
+    void testFailedRunIsRepeatedByRecheck() {
+        Wallet yesterday = wallet("MissedMidnight", true);
+        spent(yesterday, LocalDate.now().minusDays(1), DAILY_LIMIT);
+        WalletRepository flaky = mock(WalletRepository.class, AdditionalAnswers.delegatesTo(walletRepository));
+        doThrow(new DataAccessResourceFailureException("database down"))
+                .doAnswer(AdditionalAnswers.delegatesTo(walletRepository)).when(flaky).findMaxId();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DailyLimitResetJob flakyJob = new DailyLimitResetJob(flaky, dailySpendRepository, walletProperties(), resetProperties,
+                dailySpend, meterRegistry);
+
+        flakyJob.atMidnight(); // fails → reported, not thrown into the scheduler
+        assertTrue(frozen(yesterday));
+        assertEquals(1.0, meterRegistry.counter("wallet.daily.reset.failures").count());
+
+        flakyJob.recheck();
+        assertFalse(frozen(yesterday));
+        flakyJob.recheck(); // today is done → nothing runs
+        verify(flaky, times(2)).findMaxId();
+    }
+
+    @Test
+    void testFrozenFlagLeftFromYesterdayDoesNotBlockSpending() {
+        Wallet wallet = wallet("NotResetYet", true);
+        wallet.setBalance(50);
+        walletRepository.saveAndFlush(wallet);
+        spent(wallet, LocalDate.now().minusDays(1), DAILY_LIMIT);
+
+        dailySpend.fill(wallet);
+        assertFalse(wallet.getFrozen());
+
+        int debited = tx.execute(status -> {
+            long spent = dailySpend.add(wallet, 10);
+            return walletRepository.debitIfAllowed(wallet.getId(), 10, spent >= DAILY_LIMIT);
+        });
+        assertEquals(1, debited);
+        assertFalse(frozen(wallet)); // the write cleared the stale flag
+    }
+
+    @Test
+    void testJobPurgesRowsOlderThanRetention() {
+        resetProperties.setRetentionDays(7);
+        resetProperties.setPurgeBatchSize(2); // several pages
+        Wallet wallet = wallet("History", false);
+        for (int daysAgo = 0; daysAgo <= 10; daysAgo++) {
+            spent(wallet, LocalDate.now().minusDays(daysAgo), 10);
+        }
+
+        job.startNewDay();
+
+        List<WalletDailySpend> kept = dailySpendRepository.findAll();
+        assertEquals(8, kept.size()); // today + the 7 days before it
+        assertTrue(kept.stream().noneMatch(s -> s.getSpendDate().isBefore(LocalDate.now().minusDays(7))));
+    }
+
+    private WalletProperties walletProperties() {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(Money.toMajor(DAILY_LIMIT));
+        return walletProperties;
+    }
+
+    private Wallet wallet(String name, boolean frozen) {
+        Wallet wallet = new Wallet(nextUserId++, name);
+        wallet.setFrozen(frozen);
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    private void spent(Wallet wallet, LocalDate day, long amount) {
+        dailySpendRepository.saveAndFlush(new WalletDailySpend(wallet.getId(), day, amount));
+    }
+
+    private boolean frozen(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow().getFrozen();
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.wallet_service_micro.service.engine;
+
+import com.example.wallet_service_micro.config.persistence.JpaBatchingConfig;
+import com.example.wallet_service_micro.config.properties.BalanceEngineProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.transactions.RecentTransactionIdFilter;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import com.example.wallet_service_micro.service.wallet.BalanceSlots;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import com.example.wallet_service_micro.support.WalletWiring;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// --------------------------------------------------------------------
+// Balance engine on a real (H2) database: the cross-partition refund,
+// an answered command surviving failed writes, the DB agreeing with the
+// engine after concurrent transfers, and a throughput comparison with
+// the JPA path (CONDITIONAL_UPDATE writer + ledger rows in one
+// transaction per transfer) → transfers/sec logged.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Import(JpaBatchingConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // engine + persister commit on their own threads
+class BalanceEngineTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceEngineTest.class);
+
+    private static final int THREADS = 8;
+    private static final int WALLETS = 16;
+    private static final int TRANSFERS_PER_THREAD = 150;
+    private static final long START_BALANCE = 1_000_000;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private WalletProperties walletProperties;
+    private BalanceEngineProperties engineProperties;
+    private WalletWiring wiring;
+    private WalletValidator validator;
+    private BalanceSlots balanceSlots;
+    private DailySpendCounter dailySpend;
+    private WalletTransactionService txnService;
+    private BalanceEngine engine;
+    private long nextUserId = 1;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+
+        walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(10_000_000.0);
+        engineProperties = new BalanceEngineProperties();
+        engineProperties.setEnabled(true);
+        engineProperties.setPartitions(2);
+        wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+        validator = wiring.validator();
+        balanceSlots = wiring.balanceSlots();
+        dailySpend = wiring.dailySpend();
+
+        RecentTransactionIdFilter coldFilter = mock(RecentTransactionIdFilter.class);
+        when(coldFilter.mightContain(anyString())).thenReturn(true);
+        txnService = new WalletTransactionService(transactionRepository, mock(TransactionMapper.class),
+                new WalletManagementService(walletRepository), coldFilter, entityManager);
+
+        engine = new BalanceEngine(engineProperties, walletProperties, validator, walletRepository, balanceSlots, dailySpend,
+                txnService, transactionManager, entityManager, new SimpleMeterRegistry());
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void testCrossPartitionTransferToBlacklistedWalletIsRefunded() {
+        Wallet sender = wallet("Sender", 1_000);
+        Wallet blocked = walletOnOtherPartition(sender, "Blocked");
+        blocked.setBlacklisted(true);
+        walletRepository.save(blocked);
+        Wallet friend = walletOnOtherPartition(sender, "Friend");
+
+        ValidationRejectedException ex = assertThrows(ValidationRejectedException.class,
+                () -> engine.transfer(sender.getId(), blocked.getId(), 400, rows("TXN-BLOCKED", sender, blocked, 400)));
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, ex.getResult());
+
+        // debit undone on the sender's partition → the whole balance can still leave, daily counter only counts once
+        Wallet after = engine.transfer(sender.getId(), friend.getId(), 1_000, rows("TXN-OK", sender, friend, 1_000));
+        assertEquals(0, after.getBalance());
+        assertEquals(1_000, after.getDailySpent());
+
+        assertTrue(engine.awaitPersisted(Duration.ofSeconds(10)));
+        assertEquals(0, walletRepository.findById(sender.getId()).orElseThrow().getBalance());
+        assertEquals(1_000L, dailySpendRepository.findSpent(sender.getId(), LocalDate.now()));
+        assertEquals(1_000, walletRepository.findById(friend.getId()).orElseThrow().getBalance());
+        assertEquals(0, walletRepository.findById(blocked.getId()).orElseThrow().getBalance());
+        assertEquals(2, transactionRepository.count()); // DEBIT + CREDIT of TXN-OK only
+    }
+
+    @Test
+    void testLoadFreezesAtDailyLimitAndDuplicateIdsAreRefused() {
+        walletProperties.setDailyLimit(5.0);
+        engine.shutdown();
+        engine = new BalanceEngine(engineProperties, walletProperties, validator, walletRepository, balanceSlots, dailySpend,
+                txnService, transactionManager, entityManager, new SimpleMeterRegistry());
+        engine.start();
+
+        Wallet wallet = wallet("Loaded", 0);
+        Wallet after = engine.load(wallet.getId(), 500, txnService.loadRow(user(wallet.getUserId()), 500, "TXN-LOAD", wallet));
+        assertTrue(after.getFrozen());
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.load(wallet.getId(), 1, txnService.loadRow(user(wallet.getUserId()), 1, "TXN-LOAD-2", wallet)));
+
+        assertTrue(engine.awaitPersisted(Duration.ofSeconds(10)));
+        Wallet stored = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(500, stored.getBalance());
+        assertEquals(500L, dailySpendRepository.findSpent(wallet.getId(), LocalDate.now()));
+        assertTrue(stored.getFrozen());
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void testAnsweredCommandIsKeptUntilItsRowsAreWritten() {
+        Wallet wallet = wallet("Stuck", 0);
+        // same (txnId, type) already in the ledger → every write of the command fails until it is gone
+        Transaction blocker = transactionRepository.saveAndFlush(txnService.loadRow(user(wallet.getUserId()), 1, "TXN-STUCK", wallet));
+
+        Wallet after = engine.load(wallet.getId(), 500, txnService.loadRow(user(wallet.getUserId()), 500, "TXN-STUCK", wallet));
+        assertEquals(500, after.getBalance()); // answered from memory
+
+        assertFalse(engine.awaitPersisted(Duration.ofMillis(500)));
+        assertThrows(IllegalArgumentException.class, // not written → its txnId is still refused
+                () -> engine.load(wallet.getId(), 500, txnService.loadRow(user(wallet.getUserId()), 500, "TXN-STUCK", wallet)));
+
+        transactionRepository.delete(blocker);
+        assertTrue(engine.awaitPersisted(Duration.ofSeconds(10)));
+        assertEquals(500, walletRepository.findById(wallet.getId()).orElseThrow().getBalance());
+        assertEquals(500L, dailySpendRepository.findSpent(wallet.getId(), LocalDate.now()));
+        assertEquals(1, transactionRepository.count());
+    }
+
+    @Test
+    void testDatabaseMatchesEngineAfterConcurrentTransfers() throws Exception {
+        List<Wallet> wallets = wallets("Engine");
+        int transferred = runEngine(wallets);
+
+        assertTrue(engine.awaitPersisted(Duration.ofSeconds(30)));
+        assertEquals(2L * transferred, transactionRepository.count());
+
+        // every wallet's row = start + credits - debits of its ledger rows → no lost or doubled delta
+        Map<Long, Long> expected = new HashMap<>();
+        wallets.forEach(w -> expected.put(w.getId(), START_BALANCE));
+        for (Transaction row : transactionRepository.findAll()) {
+            expected.merge(row.getWalletId(), "DEBIT".equals(row.getType()) ? -row.getAmount() : row.getAmount(), Long::sum);
+        }
+        // the engine numbers rows in memory → the newest row of each wallet carries its persisted balance
+        Map<Long, Transaction> newest = new HashMap<>();
+        for (Transaction row : transactionRepository.findAll()) {
+            newest.merge(row.getWalletId(), row,
+                    (a, b) -> a.getWalletSequence() > b.getWalletSequence() ? a : b);
+        }
+        long total = 0;
+        for (Wallet wallet : walletRepository.findAllById(expected.keySet())) {
+            assertEquals(expected.get(wallet.getId()), wallet.getBalance(), "wallet " + wallet.getId());
+            Transaction last = newest.get(wallet.getId());
+            if (last != null) {
+                assertEquals(wallet.getBalance(), last.getBalanceAfter(), "balance after, wallet " + wallet.getId());
+                assertEquals(wallet.getLedgerSeq(), last.getWalletSequence());
+            }
+            total += wallet.getBalance();
+        }
+        assertEquals(WALLETS * START_BALANCE, total); // money conserved
+        assertEquals(transferred, dailySpendRepository.findAll().stream().mapToLong(s -> s.getSpent()).sum()); // every debit counted once
+    }
+
+    @Test
+    void testEngineThroughputComparedToJpaPath() throws Exception {
+        int jpaTransferred = runJpa(wallets("Jpa")); // warms H2 + Hibernate up as well
+        List<Wallet> engineWallets = wallets("Engine");
+
+        long start = System.nanoTime();
+        int engineTransferred = runEngine(engineWallets);
+        double engineAcked = engineTransferred / ((System.nanoTime() - start) / 1e9);
+        assertTrue(engine.awaitPersisted(Duration.ofSeconds(30)));
+        double enginePersisted = engineTransferred / ((System.nanoTime() - start) / 1e9);
+
+        log.info("📊 Engine vs JPA | threads={} | wallets={} | JPA={} transfers/sec | engine acked={} transfers/sec | engine persisted={} transfers/sec",
+                THREADS, WALLETS, String.format("%.0f", jpaPerSecond),
+                String.format("%.0f", engineAcked), String.format("%.0f", enginePersisted));
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, jpaTransferred); // rows written in wallet id order → no deadlocks
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, engineTransferred);
+    }
+
+    private double jpaPerSecond;
+
+    private int runEngine(List<Wallet> wallets) throws Exception {
+        return run(wallets, (sender, receiver, txnId) -> {
+            engine.transfer(sender.getId(), receiver.getId(), 1, rows(txnId, sender, receiver, 1));
+            return true;
+        });
+    }
+
+    private int runJpa(List<Wallet> wallets) throws Exception {
+        WalletWriter writer = wiring.writer(); // CONDITIONAL_UPDATE
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        long start = System.nanoTime();
+        int transferred = run(wallets, (sender, receiver, txnId) -> {
+            tx.executeWithoutResult(status -> {
+                Wallet from = walletRepository.findById(sender.getId()).orElseThrow();
+                Wallet to = walletRepository.findById(receiver.getId()).orElseThrow();
+                writer.transfer(from, to, 1);
+                txnService.saveLedgerRows(rows(txnId, from, to, 1));
+            });
+            return true;
+        });
+        jpaPerSecond = transferred / ((System.nanoTime() - start) / 1e9);
+        return transferred;
+    }
+
+    private interface TransferCall {
+        boolean transfer(Wallet sender, Wallet receiver, String txnId);
+    }
+
+    // THREADS × TRANSFERS_PER_THREAD transfers of 1 between random wallet pairs → number that succeeded
+    private int run(List<Wallet> wallets, TransferCall call) throws Exception {
+        AtomicInteger transferred = new AtomicInteger();
+        String prefix = wallets.get(0).getWalletName();
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        int from = random.nextInt(WALLETS);
+                        int to = (from + 1 + random.nextInt(WALLETS - 1)) % WALLETS;
+                        if (call.transfer(wallets.get(from), wallets.get(to), prefix + "-" + thread + "-" + i)) {
+                            transferred.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return transferred.get();
+    }
+
+    private List<Wallet> wallets(String prefix) {
+        List<Wallet> wallets = new ArrayList<>();
+        for (int i = 0; i < WALLETS; i++) {
+            wallets.add(wallet(prefix + i, START_BALANCE));
+        }
+        return wallets;
+    }
+
+    private Wallet walletOnOtherPartition(Wallet of, String name) {
+        Wallet wallet = wallet(name, 0);
+        while (engine.partitionOf(wallet.getId()) == engine.partitionOf(of.getId())) {
+            wallet = wallet(name, 0);
+        }
+        return wallet;
+    }
+
+    private Wallet wallet(String name, long balance) {
+        Wallet wallet = new Wallet(nextUserId++, name);
+        wallet.setBalance(balance);
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    private List<Transaction> rows(String txnId, Wallet sender, Wallet receiver, long amount) {
+        return txnService.transferRows(user(sender.getUserId()), user(receiver.getUserId()), amount, txnId, sender, receiver);
+    }
+}
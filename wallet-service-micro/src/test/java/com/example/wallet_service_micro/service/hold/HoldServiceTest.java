@@ -0,0 +1,340 @@
+package com.example.wallet_service_micro.service.hold;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.properties.HoldProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.dto.hold.HoldCaptureRequest;
+import com.example.wallet_service_micro.dto.hold.HoldRequest;
+import com.example.wallet_service_micro.dto.hold.HoldResponse;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.exception.wallet.EngineOwnedOperationException;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.model.hold.HoldStatus;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.hold.WalletHoldRepository;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.transactions.RecentTransactionIdFilter;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.validator.ValidationResult;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import com.example.wallet_service_micro.support.WalletWiring;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// --------------------------------------------------------------------
+// Holds on a real (H2) database: reserved money is not spendable,
+// capture pays the receiver and writes the ledger, release / expiry
+// give it back, concurrent reserves never over-commit the balance and
+// a hold is settled only once.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every step commits on its own, like in production
+class HoldServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldServiceTest.class);
+
+    private static final long PAYER_ID = 1L;
+    private static final long MERCHANT_ID = 2L;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletHoldRepository holdRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private WalletProperties walletProperties;
+    private HoldProperties holdProperties;
+    private WalletWiring wiring;
+    private DailySpendCounter dailySpend;
+    private UserDTO payer;
+    private Wallet payerWallet;
+    private Wallet merchantWallet;
+
+    @BeforeEach
+    void setUp() {
+        holdRepository.deleteAllInBatch();
+        transactionRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+
+        walletProperties = new WalletProperties();
+        walletProperties.setMinAmount(1.0);
+        walletProperties.setMaxAmount(10_000.0);
+        walletProperties.setDailyLimit(1_000_000.0);
+        holdProperties = new HoldProperties();
+        wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+        dailySpend = wiring.dailySpend();
+
+        payer = user(PAYER_ID);
+        payerWallet = wallet(PAYER_ID, "Main", 1_000.0);
+        merchantWallet = wallet(MERCHANT_ID, "Default", 0.0);
+    }
+
+    @Test
+    void testReserveLowersAvailableAndBlocksLargerDebit() {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+
+        HoldResponse response = holds.reserve(payer, request(600.0, null), "hold-1");
+
+        assertEquals("HELD", response.getStatus());
+        assertEquals(1_000.0, response.getBalance());
+        assertEquals(400.0, response.getAvailable());
+        assertEquals(600.0, Money.toMajor(dailySpend.spentToday(payerWallet.getId())));
+
+        // a plain debit sees only the available 400
+        assertEquals(0, walletRepository.debitIfAllowed(payerWallet.getId(), Money.toMinor(500.0), false));
+        assertEquals(1, walletRepository.debitIfAllowed(payerWallet.getId(), Money.toMinor(400.0), false));
+        // and so does a second hold
+        assertThrows(IllegalArgumentException.class, () -> holds.reserve(payer, request(1.0, null), "hold-2"));
+        assertEquals(600.0, Money.toMajor(dailySpend.spentToday(payerWallet.getId()))); // refused hold is not counted
+    }
+
+    @Test
+    void testCaptureMovesMoneyAndWritesLedgerRows() {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        holds.reserve(payer, request(300.0, null), "hold-capture");
+
+        HoldResponse response = holds.capture(payer, "hold-capture", new HoldCaptureRequest(250.0));
+
+        assertEquals("CAPTURED", response.getStatus());
+        assertEquals(250.0, response.getAmount());
+        assertEquals(750.0, response.getBalance());
+        assertEquals(750.0, response.getAvailable()); // the unpaid 50 is released, not held
+        assertEquals(0, reload(payerWallet).getHeld());
+        assertEquals(Money.toMinor(250.0), reload(merchantWallet).getBalance());
+        assertEquals(250.0, Money.toMajor(dailySpend.spentToday(payerWallet.getId()))); // 50 given back
+
+        List<Transaction> ledger = transactionRepository.findAll();
+        assertEquals(2, ledger.size());
+        assertTrue(ledger.stream().allMatch(t -> t.getTransactionId().equals("hold-capture")));
+        assertTrue(ledger.stream().allMatch(t -> t.getAmount() == Money.toMinor(250.0)));
+        assertEquals(List.of("CREDIT", "DEBIT"), ledger.stream().map(Transaction::getType).sorted().toList());
+    }
+
+    @Test
+    void testReleaseRestoresAvailable() {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        holds.reserve(payer, request(400.0, null), "hold-release");
+
+        HoldResponse response = holds.release(payer, "hold-release");
+
+        assertEquals("RELEASED", response.getStatus());
+        assertEquals(1_000.0, response.getAvailable());
+        assertEquals(0, reload(payerWallet).getHeld());
+        assertEquals(Money.toMinor(1_000.0), reload(payerWallet).getBalance());
+        assertEquals(0, dailySpend.spentToday(payerWallet.getId()));
+        assertTrue(transactionRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void testReleasingTheHoldThatReachedTheLimitUnfreezesTheWallet() {
+        walletProperties.setDailyLimit(500.0);
+        HoldService holds = holdService(Clock.systemDefaultZone());
+
+        HoldResponse held = holds.reserve(payer, request(500.0, null), "hold-limit");
+        assertEquals("Amount held, wallet frozen as daily limit reached", held.getMessage());
+        assertTrue(reload(payerWallet).getFrozen());
+
+        holds.release(payer, "hold-limit");
+
+        assertFalse(reload(payerWallet).getFrozen()); // counter back at 0 → frozen re-derived in the release UPDATE
+        assertEquals("HELD", holds.reserve(payer, request(100.0, null), "hold-after").getStatus());
+    }
+
+    @Test
+    void testSweeperExpiresStaleHolds() {
+        holdProperties.setSweepBatchSize(2); // several pages
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        for (int i = 0; i < 5; i++) {
+            holds.reserve(payer, request(100.0, 60L), "stale-" + i);
+        }
+        holds.reserve(payer, request(100.0, 3_600L), "fresh");
+
+        HoldService tenMinutesLater = holdService(Clock.offset(Clock.systemDefaultZone(), Duration.ofMinutes(10)));
+        assertEquals(5, tenMinutesLater.expireStale());
+
+        assertEquals(Money.toMinor(100.0), reload(payerWallet).getHeld()); // only the fresh hold remains
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById("stale-0").orElseThrow().getStatus());
+        assertEquals(HoldStatus.HELD, holdRepository.findById("fresh").orElseThrow().getStatus());
+        assertEquals(0, tenMinutesLater.expireStale());
+        assertThrows(IllegalArgumentException.class, () -> holds.capture(payer, "stale-1", null));
+    }
+
+    @Test
+    void testConcurrentReservesNeverExceedTheBalance() throws Exception {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        AtomicInteger held = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        try {
+                            holds.reserve(payer, request(10.0, null), "race-" + thread + "-" + i);
+                            held.incrementAndGet();
+                        } catch (IllegalArgumentException | ConcurrencyFailureException e) {
+                            refused.incrementAndGet(); // insufficient balance / lost every retry on the row
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        Wallet after = reload(payerWallet);
+        log.info("8 threads × 20 holds of 10.00 on 1000.00 → held={} | refused={} | held_minor={}",
+                held.get(), refused.get(), after.getHeld());
+        assertTrue(after.getHeld() <= after.getBalance());
+        assertEquals(held.get() * Money.toMinor(10.0), after.getHeld());
+        assertEquals(held.get(), holdRepository.count());
+        assertEquals(after.getHeld(), dailySpend.spentToday(payerWallet.getId()));
+    }
+
+    @Test
+    void testReserveThatLostARaceIsRetried() {
+        // The guarded UPDATE loses once although the re-read passes every guard (a concurrent writer)
+        WalletRepository racing = mock(WalletRepository.class, AdditionalAnswers.delegatesTo(walletRepository));
+        doReturn(0).doAnswer(AdditionalAnswers.delegatesTo(walletRepository))
+                .when(racing).holdIfAvailable(anyLong(), anyLong(), anyBoolean());
+        HoldService holds = holdService(Clock.systemDefaultZone(), mock(BalanceEngine.class), racing);
+
+        holds.reserve(payer, request(100.0, null), "hold-retried");
+
+        verify(racing, times(2)).holdIfAvailable(anyLong(), anyLong(), anyBoolean());
+        assertEquals(Money.toMinor(100.0), reload(payerWallet).getHeld());
+        assertEquals(Money.toMinor(100.0), dailySpend.spentToday(payerWallet.getId())); // the lost attempt's count rolled back
+    }
+
+    @Test
+    void testHoldIsSettledOnlyOnce() {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        holds.reserve(payer, request(200.0, null), "hold-once");
+        holds.capture(payer, "hold-once", null);
+
+        assertThrows(IllegalArgumentException.class, () -> holds.capture(payer, "hold-once", null));
+        assertThrows(IllegalArgumentException.class, () -> holds.release(payer, "hold-once"));
+        assertThrows(IllegalArgumentException.class, () -> holds.release(user(MERCHANT_ID), "hold-once")); // not theirs
+        assertThrows(IllegalArgumentException.class, () -> holds.reserve(payer, request(1.0, null), "hold-once"));
+
+        assertEquals(Money.toMinor(800.0), reload(payerWallet).getBalance());
+        assertEquals(Money.toMinor(200.0), reload(merchantWallet).getBalance());
+        assertEquals(2, transactionRepository.count());
+    }
+
+    @Test
+    void testNothingIsSettledWhileTheEngineIsEnabled() {
+        holdService(Clock.systemDefaultZone()).reserve(payer, request(300.0, 60L), "hold-engine");
+        BalanceEngine engine = mock(BalanceEngine.class);
+        when(engine.isEnabled()).thenReturn(true);
+        HoldService holds = holdService(Clock.offset(Clock.systemDefaultZone(), Duration.ofMinutes(10)), engine);
+
+        assertThrows(EngineOwnedOperationException.class, () -> holds.capture(payer, "hold-engine", null));
+        assertThrows(EngineOwnedOperationException.class, () -> holds.release(payer, "hold-engine"));
+        assertEquals(0, holds.expireStale());
+
+        assertEquals(HoldStatus.HELD, holdRepository.findById("hold-engine").orElseThrow().getStatus());
+        assertEquals(Money.toMinor(300.0), reload(payerWallet).getHeld());
+        assertEquals(300.0, Money.toMajor(dailySpend.spentToday(payerWallet.getId())));
+    }
+
+    @Test
+    void testBlacklistedWalletsAreRejectedWithTheTransferCode() {
+        HoldService holds = holdService(Clock.systemDefaultZone());
+        holds.reserve(payer, request(300.0, null), "hold-before");
+        merchantWallet.setBlacklisted(true);
+        walletRepository.saveAndFlush(merchantWallet);
+
+        // reserve's up-front check and capture's in-transaction one → the same 403 WALLET_BLACKLISTED as /transfer
+        ValidationRejectedException reserve = assertThrows(ValidationRejectedException.class,
+                () -> holds.reserve(payer, request(100.0, null), "hold-blocked"));
+        ValidationRejectedException capture = assertThrows(ValidationRejectedException.class,
+                () -> holds.capture(payer, "hold-before", null));
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, reserve.getResult());
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, capture.getResult());
+        assertEquals(HoldStatus.HELD, holdRepository.findById("hold-before").orElseThrow().getStatus());
+    }
+
+    private HoldService holdService(Clock clock) {
+        return holdService(clock, mock(BalanceEngine.class));
+    }
+
+    private HoldService holdService(Clock clock, BalanceEngine balanceEngine) {
+        return holdService(clock, balanceEngine, walletRepository);
+    }
+
+    private HoldService holdService(Clock clock, BalanceEngine balanceEngine, WalletRepository walletRepository) {
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUserByIdInternal(anyLong())).thenAnswer(inv -> user(inv.getArgument(0)));
+
+        RecentTransactionIdFilter coldFilter = mock(RecentTransactionIdFilter.class);
+        when(coldFilter.mightContain(anyString())).thenReturn(true);
+
+        WalletManagementService walletManagementService = new WalletManagementService(walletRepository);
+        WalletTransactionService txnService = new WalletTransactionService(transactionRepository,
+                mock(TransactionMapper.class), walletManagementService, coldFilter, entityManager);
+        return new HoldService(holdRepository, walletRepository, walletManagementService, wiring.validator(), txnService,
+                userClient, wiring.writer(), wiring.balanceSlots(), dailySpend, balanceEngine, holdProperties,
+                walletProperties, new SimpleMeterRegistry(), transactionManager, clock);
+    }
+
+    private HoldRequest request(double amount, Long ttlSeconds) {
+        HoldRequest request = new HoldRequest();
+        request.setReceiverId(MERCHANT_ID);
+        request.setAmount(amount);
+        request.setSenderWalletName("Main");
+        request.setTtlSeconds(ttlSeconds);
+        return request;
+    }
+
+    private Wallet wallet(long userId, String name, double balance) {
+        Wallet wallet = new Wallet(userId, name);
+        wallet.setBalance(Money.toMinor(balance));
+        return walletRepository.saveAndFlush(wallet);
+    }
+
+    private Wallet reload(Wallet wallet) {
+        return walletRepository.findById(wallet.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.wallet_service_micro.service.idempotency;
+
+import com.example.wallet_service_micro.config.properties.IdempotencyReplayProperties;
+import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyResponse;
+import com.example.wallet_service_micro.model.idempotency.IdempotencyRecord;
+import com.example.wallet_service_micro.repository.idempotency.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// --------------------------------------------------------------------
+// Replay + purge against a real (H2) table: stored responses come back
+// from the key lookup, a changed request is rejected, and expired rows
+// are deleted in purgeBatchSize chunks.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // each save / purge batch commits on its own
+class IdempotencyStoreTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStoreTest.class);
+
+    @Autowired private IdempotencyRecordRepository repository;
+
+    private IdempotencyReplayProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private IdempotencyStore store;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAllInBatch();
+        properties = new IdempotencyReplayProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        store = new IdempotencyStore(repository, properties, new ObjectMapper(), meterRegistry, clock);
+    }
+
+    @Test
+    void testStoredResponseIsReplayed() {
+        LoadMoneyResponse response = new LoadMoneyResponse();
+        response.setBalance(150.25);
+        response.setWalletName("Primary");
+        response.setMessage("Money loaded successfully");
+
+        String key = IdempotencyStore.scopedKey(7L, "retry-abc");
+        assertTrue(store.replay(key, "LOAD", "LOAD|Primary|100.0", LoadMoneyResponse.class).isEmpty());
+        store.save(key, 7L, "LOAD", "LOAD|Primary|100.0", response);
+
+        Optional<LoadMoneyResponse> replayed = store.replay(key, "LOAD", "LOAD|Primary|100.0", LoadMoneyResponse.class);
+
+        assertTrue(replayed.isPresent());
+        assertEquals(150.25, replayed.get().getBalance());
+        assertEquals("Primary", replayed.get().getWalletName());
+        assertEquals(1.0, meterRegistry.get("wallet.idempotency.replay").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testSameKeyWithDifferentRequestIsRejected() {
+        String key = IdempotencyStore.scopedKey(7L, "retry-abc");
+        store.save(key, 7L, "LOAD", "LOAD|Primary|100.0", new LoadMoneyResponse());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> store.replay(key, "LOAD", "LOAD|Primary|999.0", LoadMoneyResponse.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> IdempotencyStore.scopedKey(7L, "not a valid key!"));
+    }
+
+    @Test
+    void testExpiredRecordIsNotReplayed() {
+        String key = IdempotencyStore.scopedKey(7L, "retry-abc");
+        store.save(key, 7L, "LOAD", "LOAD|Primary|100.0", new LoadMoneyResponse());
+
+        clock.advance(properties.getTtl().plusSeconds(1));
+
+        assertTrue(store.replay(key, "LOAD", "LOAD|Primary|100.0", LoadMoneyResponse.class).isEmpty());
+    }
+
+    @Test
+    void testPurgeDeletesExpiredRecordsInBatches() {
+        properties.setPurgeBatchSize(10);
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<IdempotencyRecord> records = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            records.add(new IdempotencyRecord("7:old-" + i, 7L, "LOAD", "f", "{}", now.minusDays(2), now.minusDays(1)));
+        }
+        for (int i = 0; i < 5; i++) {
+            records.add(new IdempotencyRecord("7:live-" + i, 7L, "LOAD", "f", "{}", now, now.plusHours(1)));
+        }
+        repository.saveAll(records);
+
+        int purged = store.purgeExpired();
+
+        log.info("Purged {} expired idempotency records, {} left", purged, repository.count());
+        assertEquals(25, purged);
+        assertEquals(5, repository.count());
+        assertEquals(25.0, meterRegistry.get("wallet.idempotency.purged").counter().count());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.wallet_service_micro.service.revocation;
+
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.client.user.UserPrincipalCache;
+import com.example.wallet_service_micro.dto.revocation.RevocationEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RevokedUserRegistryTest {
+
+    private UserClient userClient;
+    private UserPrincipalCache principalCache;
+    private SimpleMeterRegistry meterRegistry;
+    private RevokedUserRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        userClient = mock(UserClient.class);
+        principalCache = mock(UserPrincipalCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new RevokedUserRegistry(userClient, principalCache, meterRegistry);
+    }
+
+    @Test
+    void testRevokeAndRestore() {
+        registry.apply(new RevocationEvent(7L, true, System.currentTimeMillis()));
+        assertTrue(registry.isRevoked(7L));
+        assertFalse(registry.isRevoked(8L));
+
+        registry.apply(new RevocationEvent(7L, false, System.currentTimeMillis()));
+        assertFalse(registry.isRevoked(7L));
+
+        verify(principalCache, times(2)).invalidateUser(7L);
+    }
+
+    @Test
+    void testPropagationLagRecorded() {
+        registry.apply(new RevocationEvent(7L, true, System.currentTimeMillis() - 50));
+
+        var timer = meterRegistry.get("user.revocation.propagation.lag").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 50);
+        assertEquals(1, meterRegistry.get("user.revocation.revoked").gauge().value());
+    }
+
+    @Test
+    void testBootstrapLoadsBlacklistButKeepsChangesPushedMeanwhile() {
+        // 9 was unblacklisted while the snapshot (which still lists it) was in flight
+        when(userClient.getRevokedUserIds()).thenAnswer(invocation -> {
+            registry.apply(new RevocationEvent(9L, false, System.currentTimeMillis()));
+            return List.of(7L, 9L);
+        });
+
+        assertFalse(registry.isReady());
+        assertEquals(1, registry.load());
+
+        assertTrue(registry.isReady());
+        assertTrue(registry.isRevoked(7L));
+        assertFalse(registry.isRevoked(9L));
+    }
+
+    @Test
+    void testBootstrapRetriesUntilUserServiceAnswers() {
+        when(userClient.getRevokedUserIds())
+                .thenThrow(new RuntimeException("user-service down"))
+                .thenReturn(List.of(7L));
+
+        registry.bootstrap();
+        assertFalse(registry.isReady());
+        assertEquals(1, meterRegistry.get("user.revocation.bootstrap.failures").counter().count());
+
+        registry.retryBootstrap();
+        assertTrue(registry.isRevoked(7L));
+
+        registry.retryBootstrap(); // ready → no further snapshot calls
+        verify(userClient, times(2)).getRevokedUserIds();
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.wallet_service_micro.service.roundTrips;
+
+import com.example.wallet_service_micro.client.user.ReactiveUserClient;
+import com.example.wallet_service_micro.client.user.UserClient;
+import com.example.wallet_service_micro.config.persistence.JpaBatchingConfig;
+import com.example.wallet_service_micro.config.properties.PayoutProperties;
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.dto.loadMoney.LoadMoneyRequest;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.mapper.wallet.WalletMapperImpl;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.engine.BalanceEngine;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.transactions.RecentTransactionIdFilter;
+import com.example.wallet_service_micro.service.transactions.WalletTransactionService;
+import com.example.wallet_service_micro.service.wallet.WalletService;
+import com.example.wallet_service_micro.support.JdbcStatementCounter;
+import com.example.wallet_service_micro.support.JdbcStatementCounter.RoundTrip;
+import com.example.wallet_service_micro.support.WalletWiring;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// --------------------------------------------------------------------
+// Exact JDBC statements per load / transfer / internal transfer on a
+// real (H2) database, for every write strategy. One commit each; every
+// wallet is looked up once and its balance written once. The only other
+// wallet reads are the strategy's own (PESSIMISTIC: re-read under the
+// row lock, CONDITIONAL_UPDATE: state after the guard); ledger numbers
+// are reserved from the state already read — no lookup by name and no
+// position SELECT when recording.
+// Warm-up first → today's spend rows exist and the ledger id block is
+// allocated, as on a running instance.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Import({JpaBatchingConfig.class, JdbcStatementCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // commit per operation, like in production
+class WalletRoundTripTest {
+
+    private static final Logger log = LoggerFactory.getLogger(WalletRoundTripTest.class);
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+    @Autowired private JdbcStatementCounter statements;
+
+    private final UserClient userClient = mock(UserClient.class);
+    private final ReactiveUserClient reactiveUserClient = mock(ReactiveUserClient.class);
+    private UserDTO alice;
+    private UserDTO bob;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+
+        alice = user(1L);
+        bob = user(2L);
+        when(reactiveUserClient.getUserByIdInternal(2L)).thenReturn(Mono.just(bob));
+        wallet(alice, "Default", 10_000);
+        wallet(alice, "Savings", 0);
+        wallet(bob, "Default", 0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletWriteProperties.Strategy.class)
+    void testLoadRoundTrips(WalletWriteProperties.Strategy strategy) {
+        WalletService service = service(strategy);
+        load(service); // warm-up
+
+        statements.reset();
+        load(service);
+
+        assertEquals(switch (strategy) {
+            case ENTITY -> List.of(
+                    "select wallet",                        // lookup by (user, name)
+                    "update wallet_daily_spend ×1",         // count the load (guarded) ...
+                    "select wallet_daily_spend",            // ... and read the new total back
+                    "update wallet ×1",                     // balance, version-checked
+                    "update wallet.ledger_seq ×1",          // ledger number, reserved from the lookup
+                    "insert into transactions ×1");
+            case PESSIMISTIC -> List.of(
+                    "select wallet",
+                    "update wallet_daily_spend ×1",         // counter before row (lock order)
+                    "select wallet_daily_spend",
+                    "select wallet for update",             // re-read under the row lock
+                    "update wallet ×1",
+                    "update wallet.ledger_seq ×1",
+                    "insert into transactions ×1");
+            case CONDITIONAL_UPDATE -> List.of(
+                    "select wallet",
+                    "update wallet_daily_spend ×1",
+                    "select wallet_daily_spend",
+                    "update wallet ×1",                     // guarded balance UPDATE
+                    "select wallet",                        // state after the guard → response + numbering
+                    "update wallet.ledger_seq ×1",
+                    "insert into transactions ×1");
+        }, describe(statements.roundTrips()));
+        assertEquals(1, statements.commits());
+        assertLedgerNumbered(alice, "Default");
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletWriteProperties.Strategy.class)
+    void testTransferRoundTrips(WalletWriteProperties.Strategy strategy) {
+        WalletService service = service(strategy);
+        transfer(service); // warm-up
+
+        statements.reset();
+        transfer(service);
+
+        assertEquals(transferTrips(strategy), describe(statements.roundTrips()));
+        assertEquals(1, statements.commits());
+        assertLedgerNumbered(alice, "Default");
+        assertLedgerNumbered(bob, "Default");
+    }
+
+    @ParameterizedTest
+    @EnumSource(WalletWriteProperties.Strategy.class)
+    void testInternalTransferRoundTrips(WalletWriteProperties.Strategy strategy) {
+        WalletService service = service(strategy);
+        internalTransfer(service); // warm-up
+
+        statements.reset();
+        internalTransfer(service);
+
+        assertEquals(transferTrips(strategy), describe(statements.roundTrips())); // two wallets of one user, same shape
+        assertEquals(1, statements.commits());
+        assertLedgerNumbered(alice, "Default");
+        assertLedgerNumbered(alice, "Savings");
+    }
+
+    private static List<String> transferTrips(WalletWriteProperties.Strategy strategy) {
+        return switch (strategy) {
+            case ENTITY -> List.of(
+                    "select wallet",                        // sender
+                    "select wallet",                        // receiver
+                    "select wallet_daily_spend",
+                    "update wallet_daily_spend ×1",
+                    "select wallet_daily_spend",
+                    "update wallet ×2",                     // both balances, one JDBC batch
+                    "update wallet.ledger_seq ×2",          // both ledger numbers, one batch
+                    "insert into transactions ×2");         // DEBIT + CREDIT, one batch
+            case PESSIMISTIC -> List.of(
+                    "select wallet",
+                    "select wallet",
+                    "select wallet_daily_spend",
+                    "update wallet_daily_spend ×1",         // lowest id first: sender counter → row
+                    "select wallet_daily_spend",
+                    "select wallet for update",
+                    "update wallet ×1",
+                    "select wallet for update",             // then the receiver row
+                    "update wallet ×1",
+                    "update wallet.ledger_seq ×2",
+                    "insert into transactions ×2");
+            case CONDITIONAL_UPDATE -> List.of(
+                    "select wallet",
+                    "select wallet",
+                    "select wallet_daily_spend",
+                    "update wallet_daily_spend ×1",
+                    "select wallet_daily_spend",
+                    "update wallet ×1",                     // guarded debit
+                    "update wallet ×1",                     // guarded credit
+                    "select wallet",                        // both wallets after the guards, one IN-read
+                    "update wallet.ledger_seq ×2",
+                    "insert into transactions ×2");
+        };
+    }
+
+    // ------------------------ Operations ------------------------
+
+    private void load(WalletService service) {
+        LoadMoneyRequest request = new LoadMoneyRequest();
+        request.setAmount(10.0);
+        service.loadMoney(alice, request, UUID.randomUUID().toString(), "Default");
+    }
+
+    private void transfer(WalletService service) {
+        service.transferAmount(alice, 2L, 10.0, UUID.randomUUID().toString(), "Default", "AUTH").block();
+    }
+
+    // Called through the proxy in production (@Transactional on the method) → one transaction here too
+    private void internalTransfer(WalletService service) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                service.transferWithinUserWallets(alice, "Default", "Savings", 10.0, UUID.randomUUID().toString()));
+    }
+
+    // ------------------------ Helpers ------------------------
+
+    private WalletService service(WalletWriteProperties.Strategy strategy) {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setMinAmount(1.0);
+        walletProperties.setMaxAmount(100_000.0);
+        walletProperties.setDailyLimit(50_000.0);
+        WalletWiring wiring = new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties);
+        WalletManagementService walletManagementService = new WalletManagementService(walletRepository);
+        WalletTransactionService txnService = new WalletTransactionService(transactionRepository, mock(TransactionMapper.class),
+                walletManagementService, mock(RecentTransactionIdFilter.class), entityManager); // filter says "new" → no duplicate lookup
+        return new WalletService(walletRepository, walletProperties, new WalletMapperImpl(), wiring.validator(), txnService,
+                walletManagementService, userClient, reactiveUserClient, wiring.writer(strategy), wiring.balanceSlots(),
+                wiring.dailySpend(), mock(BalanceEngine.class), new PayoutProperties(), transactionManager);
+    }
+
+    // "<verb> <table>[ for update][ ×rows]" → readable, stable across Hibernate's column lists.
+    // Id sequence calls are left out: one per allocationSize ledger rows, wherever the block runs out
+    private static List<String> describe(List<RoundTrip> trips) {
+        trips.forEach(t -> log.info("JDBC round trip | rows={} | {}", t.rows(), t.sql()));
+        return trips.stream()
+                .filter(t -> !t.sql().toLowerCase(Locale.ROOT).contains("transactions_seq"))
+                .map(t -> {
+                    String[] words = t.sql().toLowerCase(Locale.ROOT).trim().split("\\s+");
+                    String sql = String.join(" ", words);
+                    return switch (words[0]) {
+                        case "select" -> "select " + words[List.of(words).indexOf("from") + 1]
+                                + (sql.contains("for update") ? " for update" : "");
+                        case "update" -> "update " + words[1] + (sql.contains("ledger_seq = ledger_seq") ? ".ledger_seq" : "")
+                                + " ×" + t.rows();
+                        case "insert" -> "insert into " + words[2] + " ×" + t.rows();
+                        default -> sql;
+                    };
+                })
+                .toList();
+    }
+
+    // Numbers 1..n and the last balance after = the wallet's balance
+    private void assertLedgerNumbered(UserDTO user, String walletName) {
+        Wallet wallet = walletRepository.findByUserIdAndWalletName(user.getId(), walletName).orElseThrow();
+        List<Transaction> rows = transactionRepository.findAll().stream()
+                .filter(t -> t.getWalletId().equals(wallet.getId()))
+                .sorted(Comparator.comparing(Transaction::getWalletSequence))
+                .toList();
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i + 1, rows.get(i).getWalletSequence());
+        }
+        assertEquals(rows.size(), wallet.getLedgerSeq());
+        assertEquals(wallet.getBalance(), rows.get(rows.size() - 1).getBalanceAfter());
+    }
+
+    private void wallet(UserDTO user, String name, double balance) {
+        Wallet wallet = new Wallet(user.getId(), name);
+        wallet.setBalance(Money.toMinor(balance));
+        walletRepository.saveAndFlush(wallet);
+    }
+}
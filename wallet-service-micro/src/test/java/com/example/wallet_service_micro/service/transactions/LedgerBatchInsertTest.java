@@ -0,0 +1,136 @@
+package com.example.wallet_service_micro.service.transactions;
+
+import com.example.wallet_service_micro.config.persistence.JpaBatchingConfig;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.support.JdbcStatementCounter;
+import com.example.wallet_service_micro.support.JdbcStatementCounter.RoundTrip;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// --------------------------------------------------------------------
+// Counts the JDBC round trips of recording a transfer on a real (H2)
+// database: the DEBIT + CREDIT rows must leave as ONE batched insert and,
+// with the pooled id generator warm, without a sequence call. An id the
+// filter never saw that is in the ledger already → "Duplicate transaction".
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Import({JpaBatchingConfig.class, JdbcStatementCounter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // commit per operation, like in production
+class LedgerBatchInsertTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerBatchInsertTest.class);
+
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private JdbcStatementCounter statements;
+    @Autowired private EntityManager entityManager;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private WalletTransactionService service;
+    private TransactionTemplate tx; // the balance write's transaction in production
+    private UserDTO sender;
+    private UserDTO recipient;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+        walletRepository.save(new Wallet(1L, "Default"));
+        walletRepository.save(new Wallet(2L, "Default"));
+
+        service = new WalletTransactionService(transactionRepository, mock(TransactionMapper.class),
+                new WalletManagementService(walletRepository), mock(RecentTransactionIdFilter.class), entityManager);
+        tx = new TransactionTemplate(transactionManager);
+        sender = user(1L);
+        recipient = user(2L);
+    }
+
+    @Test
+    void testTransferLedgerRowsGoOutAsOneBatch() {
+        transfer(); // warm-up → first block of ids from the sequence
+
+        statements.reset();
+        transfer();
+
+        List<RoundTrip> trips = statements.roundTrips();
+        trips.forEach(t -> log.info("JDBC round trip | rows={} | {}", t.rows(), t.sql()));
+
+        List<RoundTrip> inserts = trips.stream().filter(t -> t.isInsertInto("transactions")).toList();
+        assertEquals(1, inserts.size(), "ledger inserts per transfer");
+        assertEquals(2, inserts.get(0).rows(), "rows in the ledger batch");
+        // the caller's 2 wallet lookups only: numbers come from those reads, no id sequence call
+        assertEquals(2, trips.stream().filter(RoundTrip::isSelect).count(), "wallet lookups");
+        assertEquals(List.of(2), trips.stream().filter(RoundTrip::isUpdate).map(RoundTrip::rows).toList(),
+                "one ledger sequence batch");
+        assertEquals(4, trips.size());
+        assertEquals(1, statements.commits());
+        assertEquals(4, transactionRepository.count());
+    }
+
+    @Test
+    void testIdBlockCoversManyTransfers() {
+        statements.reset();
+        for (int i = 0; i < 20; i++) {
+            transfer(); // 40 rows < allocationSize
+        }
+
+        long sequenceCalls = statements.roundTrips().stream()
+                .filter(t -> t.sql().toLowerCase().contains("transactions_seq"))
+                .count();
+        log.info("Sequence calls for 20 transfers: {}", sequenceCalls);
+        assertTrue(sequenceCalls <= 2, "pooled generator should not hit the sequence per row");
+    }
+
+    @Test
+    void testIdRecordedElsewhereIsRefusedAsDuplicate() {
+        String txnId = UUID.randomUUID().toString();
+        transfer(txnId); // e.g. by another instance → this instance's filter never saw it
+
+        assertFalse(service.isDuplicate(txnId)); // the filter says "new", no DB lookup
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> transfer(txnId));
+        assertEquals("Duplicate transaction", e.getMessage());
+        assertEquals(2, transactionRepository.count());
+        assertEquals(1, walletRepository.findByUserIdAndWalletName(1L, "Default").orElseThrow().getLedgerSeq()); // rolled back
+    }
+
+    private void transfer() {
+        transfer(UUID.randomUUID().toString());
+    }
+
+    private void transfer(String txnId) {
+        tx.executeWithoutResult(status -> {
+            // read by the caller for its balance write → recorded from those objects
+            Wallet senderWallet = walletRepository.findByUserIdAndWalletName(1L, "Default").orElseThrow();
+            Wallet receiverWallet = walletRepository.findByUserIdAndWalletName(2L, "Default").orElseThrow();
+            service.recordTransferTransactions(sender, recipient, 100, txnId, senderWallet, receiverWallet);
+        });
+    }
+
+    private static UserDTO user(Long id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.wallet_service_micro.service.transactions;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.model.transaction.Transaction;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import com.example.wallet_service_micro.support.WalletWiring;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.wallet_service_micro.support.WalletWiring.user;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+// --------------------------------------------------------------------
+// Running balance + wallet sequence of ledger rows under concurrent
+// transfers on a real (H2) database: per wallet, the rows numbered
+// 1..n replay exactly (previous balance ± amount = balance after) and
+// the last one equals the wallet's balance — no aggregation needed.
+// Also with a driver that does not report batch update counts.
+// --------------------------------------------------------------------
+@DataJpaTest(showSql = false)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // every transfer commits on its own, like in production
+class LedgerRunningBalanceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerRunningBalanceTest.class);
+
+    private static final int THREADS = 6;
+    private static final int TRANSFERS_PER_THREAD = 30;
+
+    @Autowired private WalletRepository walletRepository;
+    @Autowired private WalletBalanceSlotRepository slotRepository;
+    @Autowired private WalletDailySpendRepository dailySpendRepository;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    private WalletTransactionService txnService;
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository.deleteAllInBatch();
+        dailySpendRepository.deleteAllInBatch();
+        walletRepository.deleteAllInBatch();
+
+        txnService = new WalletTransactionService(transactionRepository, mock(TransactionMapper.class),
+                new WalletManagementService(walletRepository), mock(RecentTransactionIdFilter.class), entityManager);
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void testTransfersBetweenFewWalletsKeepExactRunningBalances() throws Exception {
+        WalletWriter writer = writer(WalletWriteProperties.Strategy.PESSIMISTIC);
+        List<Wallet> wallets = List.of(wallet(1L, 10_000), wallet(2L, 10_000), wallet(3L, 10_000));
+
+        // random pairs in both directions → every wallet is sender and receiver, concurrently
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int from = random.nextInt(wallets.size());
+            int to = (from + 1 + random.nextInt(wallets.size() - 1)) % wallets.size();
+            transfer(writer, wallets.get(from), wallets.get(to), 1 + random.nextInt(50));
+        });
+
+        for (Wallet wallet : wallets) {
+            assertLedgerReplays(wallet);
+        }
+    }
+
+    @Test
+    void testFanInToOneWalletNumbersEveryCredit() throws Exception {
+        WalletWriter writer = writer(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE);
+        Wallet merchant = wallet(100L, 0);
+        List<Wallet> senders = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            senders.add(wallet(200L + t, 1_000_000));
+        }
+
+        runConcurrently(() -> transfer(writer,
+                senders.get(ThreadLocalRandom.current().nextInt(senders.size())), merchant, 7));
+
+        List<Transaction> merchantRows = assertLedgerReplays(merchant);
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, merchantRows.size());
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, walletRepository.findById(merchant.getId()).orElseThrow().getLedgerSeq());
+        for (Wallet sender : senders) {
+            assertLedgerReplays(sender);
+        }
+    }
+
+    @Test
+    void testUnreportedBatchCountsAreReadBackFromTheWallet() {
+        WalletWriter writer = writer(WalletWriteProperties.Strategy.CONDITIONAL_UPDATE);
+        txnService = new WalletTransactionService(transactionRepository, mock(TransactionMapper.class),
+                new WalletManagementService(walletRepository), mock(RecentTransactionIdFilter.class),
+                noInfoBatches(entityManager));
+        Wallet alice = wallet(1L, 1_000);
+        Wallet bob = wallet(2L, 1_000);
+
+        recordedTransfer(writer, alice, bob, 100, 0); // reserved, the driver just does not say so
+        recordedTransfer(writer, alice, bob, 50, 5);  // alice's guard misses → stamp(), not the stale number
+
+        assertLedgerReplays(alice);
+        assertLedgerReplays(bob);
+    }
+
+    // Sequence 1..n without gaps, each balance = previous ± amount, the last one = the wallet's balance
+    private List<Transaction> assertLedgerReplays(Wallet wallet) {
+        Wallet current = walletRepository.findById(wallet.getId()).orElseThrow();
+        List<Transaction> rows = transactionRepository.findAll().stream()
+                .filter(t -> t.getWalletId().equals(wallet.getId()))
+                .sorted(Comparator.comparing(Transaction::getWalletSequence))
+                .toList();
+
+        long balance = wallet.getBalance(); // as created, before any transfer
+        for (int i = 0; i < rows.size(); i++) {
+            Transaction row = rows.get(i);
+            assertEquals(i + 1, row.getWalletSequence());
+            balance += row.balanceDelta();
+            assertEquals(balance, row.getBalanceAfter(), "balance after row #" + (i + 1));
+        }
+        assertEquals(current.getBalance(), balance);
+        assertEquals(rows.size(), current.getLedgerSeq());
+        log.info("📒 Wallet {} | rows={} | balance={}", wallet.getId(), rows.size(), balance);
+        return rows;
+    }
+
+    private void runConcurrently(Runnable transfer) throws Exception {
+        try (ExecutorService pool = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                        transfer.run();
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+    }
+
+    // Balance write + ledger rows in ONE transaction, the way WalletService runs them
+    private void transfer(WalletWriter writer, Wallet from, Wallet to, long amount) {
+        tx.executeWithoutResult(status -> {
+            Wallet sender = walletRepository.findById(from.getId()).orElseThrow();
+            Wallet receiver = walletRepository.findById(to.getId()).orElseThrow();
+            writer.transfer(sender, receiver, amount);
+            txnService.saveLedgerRows(txnService.transferRows(user(sender.getUserId()), user(receiver.getUserId()),
+                    amount, UUID.randomUUID().toString(), sender, receiver));
+        });
+    }
+
+    // recordTransferTransactions → the guarded reservation; `staleBy` moves the sender's read ledgerSeq off the row's
+    private void recordedTransfer(WalletWriter writer, Wallet from, Wallet to, long amount, long staleBy) {
+        tx.executeWithoutResult(status -> {
+            Wallet sender = walletRepository.findById(from.getId()).orElseThrow();
+            Wallet receiver = walletRepository.findById(to.getId()).orElseThrow();
+            writer.transfer(sender, receiver, amount);
+            sender.setLedgerSeq(sender.getLedgerSeq() + staleBy);
+            txnService.recordTransferTransactions(user(sender.getUserId()), user(receiver.getUserId()), amount,
+                    UUID.randomUUID().toString(), sender, receiver);
+        });
+    }
+
+    // A driver that rewrites batches (MySQL rewriteBatchedStatements): every executeBatch entry is SUCCESS_NO_INFO
+    private static EntityManager noInfoBatches(EntityManager entityManager) {
+        EntityManager wrapped = mock(EntityManager.class, AdditionalAnswers.delegatesTo(entityManager));
+        doAnswer(inv -> {
+            Session session = entityManager.unwrap(Session.class);
+            Session noInfo = mock(Session.class, AdditionalAnswers.delegatesTo(session));
+            doAnswer(work -> session.doReturningWork(connection ->
+                    work.<ReturningWork<?>>getArgument(0).execute(proxy(Connection.class, connection))))
+                    .when(noInfo).doReturningWork(any());
+            return noInfo;
+        }).when(wrapped).unwrap(Session.class);
+        return wrapped;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (p, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement);
+            }
+            if (result instanceof int[] counts && method.getName().equals("executeBatch")) {
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            }
+            return result;
+        });
+    }
+
+    private WalletWriter writer(WalletWriteProperties.Strategy strategy) {
+        WalletProperties walletProperties = new WalletProperties();
+        walletProperties.setDailyLimit(10_000_000.0);
+        return new WalletWiring(walletRepository, slotRepository, dailySpendRepository, entityManager, walletProperties)
+                .writer(strategy);
+    }
+
+    private Wallet wallet(long userId, long balance) {
+        Wallet wallet = new Wallet(userId, "Default");
+        wallet.setBalance(balance);
+        return walletRepository.saveAndFlush(wallet);
+    }
+}
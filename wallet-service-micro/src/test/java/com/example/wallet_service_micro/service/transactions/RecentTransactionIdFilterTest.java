@@ -0,0 +1,137 @@
+package com.example.wallet_service_micro.service.transactions;
+
+import com.example.wallet_service_micro.config.properties.IdempotencyFilterProperties;
+import com.example.wallet_service_micro.mapper.transaction.TransactionMapper;
+import com.example.wallet_service_micro.repository.transaction.TransactionRepository;
+import com.example.wallet_service_micro.service.factory.WalletManagementService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RecentTransactionIdFilterTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RecentTransactionIdFilterTest.class);
+
+    private TransactionRepository transactionRepository;
+    private IdempotencyFilterProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findTransactionIdsSince(any(), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of("TXN-FROM-DB")));
+        properties = new IdempotencyFilterProperties();
+        properties.setExpectedInsertions(10_000);
+        properties.setFalsePositiveRate(0.01);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+    }
+
+    private RecentTransactionIdFilter filter() {
+        return new RecentTransactionIdFilter(properties, transactionRepository, meterRegistry, clock);
+    }
+
+    @Test
+    void testEverythingGoesToDbUntilWarmedUp() {
+        RecentTransactionIdFilter filter = filter();
+        assertTrue(filter.mightContain("anything"));
+
+        filter.warmUp();
+
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("TXN-FROM-DB")); // recorded before this instance started
+        assertFalse(filter.mightContain("TXN-NEW"));
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        RecentTransactionIdFilter filter = filter();
+        filter.warmUp();
+        for (int i = 0; i < properties.getExpectedInsertions() - 2; i++) { // + 1 from warm-up, one short of rotating
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        int probes = 100_000;
+        int maybe = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) maybe++;
+        }
+        double observed = (double) maybe / probes;
+        double estimated = meterRegistry.get("wallet.idempotency.filter.fpp.estimated").gauge().value();
+
+        log.info("Observed FPP={} | estimated={} | target={}", observed, estimated, properties.getFalsePositiveRate());
+        assertTrue(observed < properties.getFalsePositiveRate() * 2, "observed FPP " + observed);
+        assertEquals(properties.getFalsePositiveRate(), estimated, properties.getFalsePositiveRate() / 2);
+    }
+
+    @Test
+    void testIdsAreRememberedForOneWindowThenForgotten() {
+        RecentTransactionIdFilter filter = filter();
+        filter.warmUp();
+        filter.put("TXN-1");
+
+        clock.advance(properties.getWindow()); // rotated once → still in the previous generation
+        assertTrue(filter.mightContain("TXN-1"));
+
+        clock.advance(properties.getWindow()); // rotated twice → gone, the DB constraint is the guard now
+        assertFalse(filter.mightContain("TXN-1"));
+        assertEquals(2.0, meterRegistry.get("wallet.idempotency.filter.rotations").tag("reason", "window").counter().count());
+    }
+
+    @Test
+    void testCapacityRotatesEarly() {
+        properties.setExpectedInsertions(100);
+        RecentTransactionIdFilter filter = filter();
+        filter.warmUp();
+        for (int i = 0; i < 250; i++) {
+            filter.put("TXN-" + i);
+        }
+
+        assertEquals(2.0, meterRegistry.get("wallet.idempotency.filter.rotations").tag("reason", "capacity").counter().count());
+        assertTrue(filter.mightContain("TXN-249"));
+    }
+
+    @Test
+    void testIsDuplicateSkipsDbForNewIds() {
+        RecentTransactionIdFilter filter = filter();
+        filter.warmUp();
+        WalletTransactionService service = new WalletTransactionService(
+                transactionRepository, mock(TransactionMapper.class), mock(WalletManagementService.class), filter, mock(EntityManager.class));
+        when(transactionRepository.existsByTransactionId("TXN-FROM-DB")).thenReturn(true);
+
+        assertFalse(service.isDuplicate("TXN-NEW"));
+        verify(transactionRepository, never()).existsByTransactionId("TXN-NEW");
+
+        assertTrue(service.isDuplicate("TXN-FROM-DB"));
+        verify(transactionRepository).existsByTransactionId("TXN-FROM-DB");
+        assertEquals(1.0, meterRegistry.get("wallet.idempotency.filter.db.lookups").tag("outcome", "duplicate").counter().count());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.wallet_service_micro.service.validator;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.exception.wallet.ValidationRejectedException;
+import com.example.wallet_service_micro.model.wallet.Money;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// --------------------------------------------------------------------
+// The exception-free checks: every code comes out where it should, and
+// checkTransfer keeps the validate* order → with several rules broken at
+// once, the first one in the chain is reported. The throwing validate*
+// methods reject with the same codes.
+// --------------------------------------------------------------------
+class WalletValidatorTest {
+
+    private static final long DAILY_LIMIT = Money.toMinor(1_000.0);
+
+    private WalletValidator validator;
+    private Wallet sender;
+    private Wallet receiver;
+
+    @BeforeEach
+    void setUp() {
+        WalletProperties properties = new WalletProperties();
+        properties.setMinAmount(1.0);
+        properties.setMaxAmount(500.0);
+        properties.setDailyLimit(Money.toMajor(DAILY_LIMIT));
+        validator = new WalletValidator(properties);
+
+        sender = new Wallet(1L, "Sender");
+        sender.setBalance(Money.toMinor(300.0));
+        receiver = new Wallet(2L, "Receiver");
+    }
+
+    @Test
+    void testCheckAmountCodes() {
+        assertEquals(ValidationResult.AMOUNT_REQUIRED, validator.checkAmount((Double) null));
+        assertEquals(ValidationResult.AMOUNT_OUT_OF_RANGE, validator.checkAmount(Double.NaN));
+        assertEquals(ValidationResult.INVALID_PRECISION, validator.checkAmount(10.005));
+        assertEquals(ValidationResult.INVALID_AMOUNT, validator.checkAmount(0.0));
+        assertEquals(ValidationResult.INVALID_AMOUNT, validator.checkAmount(-5.0));
+        assertEquals(ValidationResult.AMOUNT_OUT_OF_RANGE, validator.checkAmount(0.5));   // below min
+        assertEquals(ValidationResult.AMOUNT_OUT_OF_RANGE, validator.checkAmount(500.01)); // above max
+        assertEquals(ValidationResult.OK, validator.checkAmount(500.0));
+    }
+
+    @Test
+    void testCheckLoadCodes() {
+        assertEquals(ValidationResult.OK, validator.checkLoad(sender));
+        sender.setFrozen(true); // loads are limited by the daily count, not by the flag
+        assertEquals(ValidationResult.OK, validator.checkLoad(sender));
+        sender.setBlacklisted(true);
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, validator.checkLoad(sender));
+    }
+
+    @Test
+    void testCheckTransferReportsTheFirstBrokenRule() {
+        long amount = Money.toMinor(400.0);
+        sender.setBlacklisted(true);
+        sender.setFrozen(true);                               // also frozen,
+        sender.setDailySpent(DAILY_LIMIT - Money.toMinor(1)); // over the limit and short on balance
+
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, validator.checkTransfer(sender, receiver, amount));
+        sender.setBlacklisted(false);
+        assertEquals(ValidationResult.WALLET_FROZEN, validator.checkTransfer(sender, receiver, amount));
+        sender.setFrozen(false);
+        assertEquals(ValidationResult.INSUFFICIENT_BALANCE, validator.checkTransfer(sender, receiver, amount));
+        sender.setBalance(Money.toMinor(1_000.0));
+        assertEquals(ValidationResult.DAILY_LIMIT_EXCEEDED, validator.checkTransfer(sender, receiver, amount));
+        sender.setDailySpent(0);
+        assertEquals(ValidationResult.OK, validator.checkTransfer(sender, receiver, amount));
+    }
+
+    @Test
+    void testBlacklistedReceiverIsRejected() {
+        receiver.setBlacklisted(true);
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, validator.checkTransfer(sender, receiver, Money.toMinor(10.0)));
+    }
+
+    @Test
+    void testHeldMoneyAndExplicitAvailableDecideTheBalance() {
+        sender.setHeld(Money.toMinor(250.0)); // 50 available on the row
+        assertEquals(ValidationResult.INSUFFICIENT_BALANCE, validator.checkTransfer(sender, receiver, Money.toMinor(60.0)));
+
+        // striped sender: row + slots - held, passed in by the caller
+        assertEquals(ValidationResult.OK, validator.checkTransfer(sender, receiver, Money.toMinor(60.0), Money.toMinor(80.0)));
+    }
+
+    @Test
+    void testValidateMethodsRejectWithTheCheckCodes() {
+        sender.setBlacklisted(true);
+        assertEquals(ValidationResult.WALLET_BLACKLISTED, rejected(() -> validator.validateNotBlacklisted(sender)));
+        sender.setFrozen(true);
+        assertEquals(ValidationResult.WALLET_FROZEN, rejected(() -> validator.validateFrozen(sender)));
+        assertEquals(ValidationResult.INSUFFICIENT_BALANCE, rejected(() -> validator.validateBalance(sender, Money.toMinor(400.0))));
+        sender.setDailySpent(DAILY_LIMIT);
+        assertEquals(ValidationResult.DAILY_LIMIT_EXCEEDED, rejected(() -> validator.validateDailyLimit(sender, 1)));
+        assertEquals(ValidationResult.INVALID_AMOUNT, rejected(() -> validator.validateAmount(0, "Test")));
+        assertEquals(ValidationResult.AMOUNT_OUT_OF_RANGE, rejected(() -> validator.validateAmount(Money.toMinor(501.0), "Test")));
+    }
+
+    private static ValidationResult rejected(Executable check) {
+        return assertThrows(ValidationRejectedException.class, check).getResult();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.wallet_service_micro.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// --------------------------------------------------------------------
+// Test helper: wraps the DataSource and records every statement that
+// actually goes to the database (one RoundTrip per execute*/executeBatch,
+// with the number of rows carried by a batch) plus commits.
+// Use with @Import(JdbcStatementCounter.class) and @Autowired it, then
+// reset() before the operation under test.
+// --------------------------------------------------------------------
+public class JdbcStatementCounter implements BeanPostProcessor {
+
+    public record RoundTrip(String sql, int rows) {
+        public boolean isInsertInto(String table) {
+            return sql.toLowerCase(Locale.ROOT).startsWith("insert into " + table + " ");
+        }
+        public boolean isSelect() {
+            return sql.toLowerCase(Locale.ROOT).startsWith("select");
+        }
+        public boolean isUpdate() {
+            return sql.toLowerCase(Locale.ROOT).startsWith("update");
+        }
+    }
+
+    private final List<RoundTrip> roundTrips = new CopyOnWriteArrayList<>();
+    private final AtomicInteger commits = new AtomicInteger();
+
+    public void reset() {
+        roundTrips.clear();
+        commits.set(0);
+    }
+
+    public List<RoundTrip> roundTrips() {
+        return List.copyOf(roundTrips);
+    }
+
+    public int commits() {
+        return commits.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? connection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    // ------------------------ JDBC proxies ------------------------
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            switch (method.getName()) {
+                case "commit" -> commits.incrementAndGet();
+                case "prepareStatement" -> { return statement(PreparedStatement.class, (PreparedStatement) result, (String) args[0]); }
+                case "createStatement" -> { return statement(Statement.class, (Statement) result, null); }
+                default -> { }
+            }
+            return result;
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, S statement, String preparedSql) {
+        AtomicInteger pendingRows = new AtomicInteger();
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch")) {
+                pendingRows.incrementAndGet();
+            } else if (name.equals("executeBatch")) {
+                roundTrips.add(new RoundTrip(preparedSql, pendingRows.getAndSet(0)));
+            } else if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                roundTrips.add(new RoundTrip(sql, 1));
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private interface Call<T> {
+        Object invoke(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Call<T> call) {
+        InvocationHandler handler = (p, method, args) -> {
+            try {
+                return call.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
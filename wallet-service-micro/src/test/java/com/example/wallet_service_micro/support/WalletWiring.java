@@ -0,0 +1,108 @@
+package com.example.wallet_service_micro.support;
+
+import com.example.wallet_service_micro.config.properties.WalletProperties;
+import com.example.wallet_service_micro.config.properties.WalletWriteProperties;
+import com.example.wallet_service_micro.dto.user.UserDTO;
+import com.example.wallet_service_micro.model.wallet.Wallet;
+import com.example.wallet_service_micro.repository.wallet.WalletBalanceSlotRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletDailySpendRepository;
+import com.example.wallet_service_micro.repository.wallet.WalletRepository;
+import com.example.wallet_service_micro.service.validator.WalletValidator;
+import com.example.wallet_service_micro.service.wallet.BalanceSlots;
+import com.example.wallet_service_micro.service.wallet.DailySpendCounter;
+import com.example.wallet_service_micro.service.wallet.WalletWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// --------------------------------------------------------------------
+// Test helper: the write-path wiring every service test needs
+// (WalletValidator → BalanceSlots / DailySpendCounter → WalletWriter)
+// over real repositories, built once per WalletProperties so a writer
+// and the service under test share the same slots and counter.
+//   WalletWiring wiring = new WalletWiring(walletRepository, slotRepository,
+//           dailySpendRepository, entityManager, walletProperties);
+//   new WalletService(..., wiring.writer(strategy), wiring.balanceSlots(), wiring.dailySpend(), ...)
+// Static helpers cover the Mockito-only tests (entityWriter, countOnWallet)
+// and the UserDTO every test builds (user).
+// --------------------------------------------------------------------
+public class WalletWiring {
+
+    private final WalletRepository walletRepository;
+    private final EntityManager entityManager;
+    private final WalletProperties walletProperties;
+    private final WalletValidator validator;
+    private final BalanceSlots balanceSlots;
+    private final DailySpendCounter dailySpend;
+
+    public WalletWiring(WalletRepository walletRepository,
+                        WalletBalanceSlotRepository slotRepository,
+                        WalletDailySpendRepository dailySpendRepository,
+                        EntityManager entityManager,
+                        WalletProperties walletProperties) {
+        this.walletRepository = walletRepository;
+        this.entityManager = entityManager;
+        this.walletProperties = walletProperties;
+        this.validator = new WalletValidator(walletProperties);
+        this.balanceSlots = new BalanceSlots(slotRepository, walletRepository);
+        this.dailySpend = new DailySpendCounter(dailySpendRepository, walletProperties, validator);
+    }
+
+    public WalletValidator validator() {
+        return validator;
+    }
+
+    public BalanceSlots balanceSlots() {
+        return balanceSlots;
+    }
+
+    public DailySpendCounter dailySpend() {
+        return dailySpend;
+    }
+
+    public WalletWriter writer() {
+        return writer(new WalletWriteProperties()); // CONDITIONAL_UPDATE
+    }
+
+    public WalletWriter writer(WalletWriteProperties.Strategy strategy) {
+        WalletWriteProperties writeProperties = new WalletWriteProperties();
+        writeProperties.setStrategy(strategy);
+        return writer(writeProperties);
+    }
+
+    public WalletWriter writer(WalletWriteProperties writeProperties) {
+        return new WalletWriter(walletRepository, walletProperties, validator, writeProperties,
+                new SimpleMeterRegistry(), entityManager, balanceSlots, dailySpend);
+    }
+
+    // ------------------------ Mockito-only tests ------------------------
+
+    // Entity write path over mocked collaborators → balance / frozen changes stay observable on the Wallet
+    public static WalletWriter entityWriter(WalletRepository walletRepository, WalletProperties walletProperties,
+                                            WalletValidator walletValidator, DailySpendCounter dailySpend) {
+        WalletWriteProperties writeProperties = new WalletWriteProperties();
+        writeProperties.setStrategy(WalletWriteProperties.Strategy.ENTITY);
+        return new WalletWriter(walletRepository, walletProperties, walletValidator, writeProperties,
+                new SimpleMeterRegistry(), mock(EntityManager.class), mock(BalanceSlots.class), dailySpend);
+    }
+
+    // Counter stub: counts on the wallet object, the way DailySpendCounter.add leaves it
+    public static void countOnWallet(DailySpendCounter dailySpend) {
+        when(dailySpend.add(any(), anyLong())).thenAnswer(inv -> {
+            Wallet counted = inv.getArgument(0);
+            counted.setDailySpent(counted.getDailySpent() + inv.<Long>getArgument(1));
+            return counted.getDailySpent();
+        });
+    }
+
+    public static UserDTO user(Long id) {
+        UserDTO user = new UserDTO();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        return user;
+    }
+}